@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.benchmarks;
+
+import org.apache.nifi.controller.repository.FileSystemRepository;
+import org.apache.nifi.controller.repository.StandardContentRepositoryContext;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ContentClaimWriteCache;
+import org.apache.nifi.controller.repository.claim.StandardContentClaimWriteCache;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.metrics.NopPerformanceTracker;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.util.NiFiProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures writing content to the FileSystemRepository through a StandardContentClaimWriteCache, in the same manner as a ProcessSession,
+ * and reading content back from previously written claims. Claims written by the write benchmark are released after each invocation so
+ * that the repository may destroy them rather than filling the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class ContentRepositoryBenchmark {
+    private static final int READ_CLAIM_COUNT = 10_000;
+    private static final long MAX_APPENDABLE_CLAIM_BYTES = 1024 * 1024L;
+
+    @Param({"1024", "65536"})
+    private int contentSize;
+
+    @Param({"100"})
+    private int batchSize;
+
+    private Path repositoryPath;
+    private FileSystemRepository contentRepository;
+    private byte[] content;
+    private final List<ContentClaim> readClaims = new ArrayList<>(READ_CLAIM_COUNT);
+    private int readIndex = 0;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositoryPath = Files.createTempDirectory("nifi-benchmark-content");
+        final NiFiProperties properties = NiFiProperties.createBasicNiFiProperties("", Map.of(
+            NiFiProperties.REPOSITORY_CONTENT_PREFIX + "default", repositoryPath.toString(),
+            NiFiProperties.MAX_APPENDABLE_CLAIM_SIZE, "1 MB",
+            NiFiProperties.CONTENT_ARCHIVE_ENABLED, "false"));
+
+        contentRepository = new FileSystemRepository(properties);
+        contentRepository.initialize(new StandardContentRepositoryContext(new StandardResourceClaimManager(), EventReporter.NO_OP));
+
+        content = new byte[contentSize];
+        new Random(1L).nextBytes(content);
+
+        final ContentClaimWriteCache writeCache = createWriteCache();
+        for (int i = 0; i < READ_CLAIM_COUNT; i++) {
+            final ContentClaim claim = writeCache.getContentClaim();
+            try (final OutputStream out = writeCache.write(claim)) {
+                out.write(content);
+            }
+            readClaims.add(claim);
+        }
+        writeCache.flush();
+        writeCache.reset();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        contentRepository.shutdown();
+
+        try (final Stream<Path> paths = Files.walk(repositoryPath)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private ContentClaimWriteCache createWriteCache() {
+        return new StandardContentClaimWriteCache(contentRepository, new NopPerformanceTracker(), MAX_APPENDABLE_CLAIM_BYTES, 8192);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        final ContentClaimWriteCache writeCache = createWriteCache();
+        final List<ContentClaim> claims = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < batchSize; i++) {
+            final ContentClaim claim = writeCache.getContentClaim();
+            try (final OutputStream out = writeCache.write(claim)) {
+                out.write(content);
+            }
+            claims.add(claim);
+        }
+
+        writeCache.flush();
+        writeCache.reset();
+
+        for (final ContentClaim claim : claims) {
+            contentRepository.decrementClaimantCount(claim);
+        }
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        final byte[] buffer = new byte[8192];
+        long bytesRead = 0L;
+
+        for (int i = 0; i < batchSize; i++) {
+            final ContentClaim claim = readClaims.get(readIndex);
+            readIndex = (readIndex + 1) % READ_CLAIM_COUNT;
+
+            try (final InputStream in = contentRepository.read(claim)) {
+                int len;
+                while ((len = in.read(buffer)) > 0) {
+                    bytesRead += len;
+                }
+            }
+        }
+
+        return bytesRead;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.benchmarks;
+
+import org.apache.nifi.attribute.expression.language.PreparedQuery;
+import org.apache.nifi.attribute.expression.language.Query;
+import org.apache.nifi.attribute.expression.language.StandardEvaluationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing and evaluation of representative Expression Language expressions against a fixed set of FlowFile attributes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class ExpressionLanguageBenchmark {
+
+    // Expressions are referenced by name so that they can be selected from the command line, which splits parameter values on commas
+    private static final Map<String, String> EXPRESSIONS = Map.of(
+        "attribute", "${filename}",
+        "literal", "prefix-${filename}-suffix",
+        "stringFunctions", "${filename:substringBefore('.'):toUpper():append('-'):append(${path})}",
+        "conditional", "${fileSize:gt(1024):ifElse('large', 'small')}",
+        "regex", "${filename:replaceAll('([a-z]+)\\.([a-z]+)', '$2.$1')}",
+        "math", "${fileSize:toNumber():multiply(2):plus(${retry.count}):mod(7)}"
+    );
+
+    @Param({"attribute", "literal", "stringFunctions", "conditional", "regex", "math"})
+    private String expression;
+
+    private String query;
+    private PreparedQuery preparedQuery;
+    private StandardEvaluationContext evaluationContext;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        query = EXPRESSIONS.get(expression);
+        preparedQuery = Query.prepare(query);
+        evaluationContext = new StandardEvaluationContext(Map.of(
+            "filename", "benchmark.txt",
+            "path", "./in",
+            "fileSize", "4096",
+            "retry.count", "3",
+            "uuid", "8a7d3f0e-12c4-4f4b-9d8e-7c1b9a6e5f21"));
+    }
+
+    @Benchmark
+    public PreparedQuery prepare() {
+        return Query.prepare(query);
+    }
+
+    @Benchmark
+    public String evaluate() {
+        return preparedQuery.evaluateExpressions(evaluationContext, null);
+    }
+}
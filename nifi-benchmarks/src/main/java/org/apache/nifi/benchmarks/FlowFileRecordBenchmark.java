@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.benchmarks;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creating FlowFile records and updating their attributes, as the ProcessSession does for every attribute change.
+ * Run with {@code -prof gc} to report the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class FlowFileRecordBenchmark {
+
+    @Param({"5", "50"})
+    private int attributeCount;
+
+    private Map<String, String> attributes;
+    private FlowFileRecord flowFile;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        attributes = new HashMap<>();
+        attributes.put("uuid", UUID.randomUUID().toString());
+        attributes.put("filename", "benchmark.txt");
+        attributes.put("path", "./");
+        for (int i = attributes.size(); i < attributeCount; i++) {
+            attributes.put("kafka.header." + i, "value-" + i);
+        }
+
+        flowFile = build();
+    }
+
+    private FlowFileRecord build() {
+        return new StandardFlowFileRecord.Builder()
+            .id(1L)
+            .size(1024L)
+            .addAttributes(attributes)
+            .build();
+    }
+
+    @Benchmark
+    public FlowFileRecord create() {
+        return build();
+    }
+
+    @Benchmark
+    public FlowFileRecord putAttribute() {
+        return new StandardFlowFileRecord.Builder()
+            .fromFlowFile(flowFile)
+            .addAttribute("mime.type", "text/plain")
+            .build();
+    }
+
+    @Benchmark
+    public String getAttribute() {
+        return flowFile.getAttribute("filename");
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.benchmarks;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.RepositoryRecord;
+import org.apache.nifi.controller.repository.StandardRepositoryRecord;
+import org.apache.nifi.controller.repository.WriteAheadFlowFileRepository;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.util.NiFiProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the cost of updating the WriteAheadFlowFileRepository for a batch of FlowFiles. Each invocation creates a batch of FlowFiles
+ * and then deletes them, as happens when FlowFiles are received and later sent out of the flow, so that the size of the repository
+ * remains constant for the duration of the benchmark. Group commit only has an effect when the benchmark is run with multiple threads,
+ * for example using the <code>-t</code> option.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class FlowFileRepositoryBenchmark {
+
+    @Param({"false", "true"})
+    private boolean alwaysSync;
+
+    @Param({"false", "true"})
+    private boolean groupCommit;
+
+    @Param({"1", "100"})
+    private int batchSize;
+
+    private Path repositoryPath;
+    private WriteAheadFlowFileRepository flowFileRepository;
+    private FlowFileQueue queue;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositoryPath = Files.createTempDirectory("nifi-benchmark-flowfile");
+        final NiFiProperties properties = NiFiProperties.createBasicNiFiProperties("", Map.of(
+            NiFiProperties.FLOWFILE_REPOSITORY_DIRECTORY, repositoryPath.toString(),
+            NiFiProperties.FLOWFILE_REPOSITORY_ALWAYS_SYNC, String.valueOf(alwaysSync),
+            NiFiProperties.FLOWFILE_REPOSITORY_GROUP_COMMIT_ENABLED, String.valueOf(groupCommit)));
+
+        queue = mock(FlowFileQueue.class);
+        when(queue.getIdentifier()).thenReturn("benchmark-queue");
+
+        flowFileRepository = new WriteAheadFlowFileRepository(properties);
+        flowFileRepository.initialize(new StandardResourceClaimManager());
+        flowFileRepository.loadFlowFiles(() -> List.of(queue));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        flowFileRepository.close();
+
+        try (final Stream<Path> paths = Files.walk(repositoryPath)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void createAndDelete() throws IOException {
+        final List<FlowFileRecord> flowFiles = new ArrayList<>(batchSize);
+        final List<RepositoryRecord> createRecords = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            final FlowFileRecord flowFile = SwappablePriorityQueueBenchmark.createFlowFile();
+            flowFiles.add(flowFile);
+
+            final StandardRepositoryRecord record = new StandardRepositoryRecord(queue);
+            record.setWorking(flowFile, false);
+            record.setDestination(queue);
+            createRecords.add(record);
+        }
+
+        flowFileRepository.updateRepository(createRecords);
+
+        final List<RepositoryRecord> deleteRecords = new ArrayList<>(batchSize);
+        for (final FlowFileRecord flowFile : flowFiles) {
+            final StandardRepositoryRecord record = new StandardRepositoryRecord(queue, flowFile);
+            record.markForDelete();
+            deleteRecords.add(record);
+        }
+
+        flowFileRepository.updateRepository(deleteRecords);
+    }
+}
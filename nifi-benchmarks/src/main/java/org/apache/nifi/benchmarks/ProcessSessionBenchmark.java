@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.benchmarks;
+
+import org.apache.nifi.components.state.StateManager;
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.ConnectableType;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.ProcessScheduler;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.StandardFlowFileQueue;
+import org.apache.nifi.controller.repository.ContentRepository;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.controller.repository.StandardCounterRepository;
+import org.apache.nifi.controller.repository.StandardProcessSession;
+import org.apache.nifi.controller.repository.StandardRepositoryContext;
+import org.apache.nifi.controller.repository.VolatileFlowFileRepository;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.metrics.NopPerformanceTracker;
+import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.processor.FlowFileFilter;
+import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.provenance.NoOpProvenanceRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the cost of a StandardProcessSession that pulls a batch of FlowFiles, updates an attribute on each, transfers them and commits.
+ * The component's only incoming connection is also its only outgoing connection, so the queue remains at a constant size. The FlowFile
+ * and Provenance repositories are in-memory and no-op implementations, so that the results reflect the cost of the session itself
+ * along with the queue it interacts with.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class ProcessSessionBenchmark {
+    private static final Relationship REL_SUCCESS = new Relationship.Builder().name("success").build();
+    private static final int INITIAL_QUEUE_SIZE = 20_000;
+
+    @Param({"1", "100", "1000"})
+    private int batchSize;
+
+    private StandardRepositoryContext repositoryContext;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final StandardResourceClaimManager resourceClaimManager = new StandardResourceClaimManager();
+        final VolatileFlowFileRepository flowFileRepository = new VolatileFlowFileRepository();
+        flowFileRepository.initialize(resourceClaimManager);
+        final NoOpProvenanceRepository provenanceRepository = new NoOpProvenanceRepository();
+
+        final FlowFileQueue flowFileQueue = new StandardFlowFileQueue("benchmark-queue", flowFileRepository, provenanceRepository, mock(ProcessScheduler.class),
+            mock(FlowFileSwapManager.class), EventReporter.NO_OP, 1_000_000, "0 sec", 0L, "0 B");
+
+        final Connectable connectable = mock(Connectable.class);
+        final Connection connection = createConnection(flowFileQueue, connectable);
+        final ProcessGroup processGroup = mock(ProcessGroup.class);
+        when(processGroup.getIdentifier()).thenReturn("benchmark-group");
+
+        when(connectable.getIdentifier()).thenReturn("benchmark-component");
+        when(connectable.getConnectableType()).thenReturn(ConnectableType.INPUT_PORT);
+        when(connectable.getComponentType()).thenReturn("Benchmark");
+        when(connectable.getProcessGroup()).thenReturn(processGroup);
+        when(connectable.hasIncomingConnection()).thenReturn(true);
+        when(connectable.getIncomingConnections()).thenReturn(List.of(connection));
+        when(connectable.getConnections()).thenReturn(Set.of(connection));
+        when(connectable.getConnections(any(Relationship.class))).thenReturn(Set.of(connection));
+        when(connectable.getMaxBackoffPeriod()).thenReturn("1 sec");
+
+        final List<FlowFileRecord> flowFiles = new ArrayList<>(INITIAL_QUEUE_SIZE);
+        for (int i = 0; i < INITIAL_QUEUE_SIZE; i++) {
+            flowFiles.add(SwappablePriorityQueueBenchmark.createFlowFile());
+        }
+        flowFileQueue.putAll(flowFiles);
+
+        repositoryContext = new StandardRepositoryContext(connectable, new AtomicLong(0L), mock(ContentRepository.class), flowFileRepository,
+            new RingBufferEventRepository(1), new StandardCounterRepository(), provenanceRepository, mock(StateManager.class), 1024 * 1024L);
+    }
+
+    private Connection createConnection(final FlowFileQueue flowFileQueue, final Connectable connectable) {
+        final Connection connection = mock(Connection.class);
+        when(connection.getIdentifier()).thenReturn("benchmark-connection");
+        when(connection.getFlowFileQueue()).thenReturn(flowFileQueue);
+        when(connection.getSource()).thenReturn(connectable);
+        when(connection.getDestination()).thenReturn(connectable);
+
+        doAnswer(invocation -> flowFileQueue.poll(invocation.<Set<FlowFileRecord>>getArgument(0))).when(connection).poll(any(Set.class));
+        doAnswer(invocation -> flowFileQueue.poll(invocation.<FlowFileFilter>getArgument(0), invocation.<Set<FlowFileRecord>>getArgument(1)))
+            .when(connection).poll(any(FlowFileFilter.class), any(Set.class));
+
+        return connection;
+    }
+
+    @Benchmark
+    public int getTransferCommit() {
+        final StandardProcessSession session = new StandardProcessSession(repositoryContext, () -> false, new NopPerformanceTracker());
+
+        final List<FlowFile> flowFiles = session.get(batchSize);
+        for (final FlowFile flowFile : flowFiles) {
+            final FlowFile updated = session.putAttribute(flowFile, "benchmark.iteration", "1");
+            session.transfer(updated, REL_SUCCESS);
+        }
+
+        session.commit();
+        return flowFiles.size();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.benchmarks;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.queue.SwappablePriorityQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.events.EventReporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures put and poll throughput of the SwappablePriorityQueue that backs every connection. The swap threshold is set high enough
+ * that no swapping occurs, so that the results reflect the cost of the active queue and its locking. Run with <code>-t</code> greater
+ * than 1 in order to measure contention between concurrent tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class SwappablePriorityQueueBenchmark {
+    private static final int SWAP_THRESHOLD = 1_000_000;
+    private static final int INITIAL_QUEUE_SIZE = 10_000;
+    private static final AtomicLong ID_GENERATOR = new AtomicLong(0L);
+
+    @Param({"false", "true"})
+    private boolean concurrentAccess;
+
+    @Param({"1", "100"})
+    private int batchSize;
+
+    private SwappablePriorityQueue queue;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final FlowFileQueue flowFileQueue = mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("benchmark-queue");
+
+        queue = new SwappablePriorityQueue(mock(FlowFileSwapManager.class), SWAP_THRESHOLD, EventReporter.NO_OP, flowFileQueue,
+            (flowFiles, requestor) -> new QueueSize(flowFiles.size(), 0L), "benchmark", concurrentAccess);
+
+        for (int i = 0; i < INITIAL_QUEUE_SIZE; i++) {
+            queue.put(createFlowFile());
+        }
+    }
+
+    static FlowFileRecord createFlowFile() {
+        return new StandardFlowFileRecord.Builder()
+            .id(ID_GENERATOR.getAndIncrement())
+            .entryDate(System.currentTimeMillis())
+            .size(1024L)
+            .addAttributes(Map.of("filename", "benchmark.txt", "path", "./"))
+            .build();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        private List<FlowFileRecord> flowFiles;
+
+        @Setup(Level.Trial)
+        public void setup(final SwappablePriorityQueueBenchmark benchmark) {
+            flowFiles = new ArrayList<>(benchmark.batchSize);
+            for (int i = 0; i < benchmark.batchSize; i++) {
+                flowFiles.add(createFlowFile());
+            }
+        }
+    }
+
+    @Benchmark
+    public int putAndPoll(final ThreadState state) {
+        if (batchSize == 1) {
+            queue.put(state.flowFiles.get(0));
+
+            final FlowFileRecord polled = queue.poll(state.expiredRecords, 0L);
+            if (polled == null) {
+                return 0;
+            }
+
+            queue.acknowledge(polled);
+            return 1;
+        }
+
+        queue.putAll(state.flowFiles);
+
+        final List<FlowFileRecord> polled = queue.poll(batchSize, state.expiredRecords, 0L);
+        queue.acknowledge(polled);
+        return polled.size();
+    }
+}
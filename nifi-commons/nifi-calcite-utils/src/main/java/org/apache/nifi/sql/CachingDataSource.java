@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.sql;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A ResettableDataSource that wraps another ResettableDataSource and retains the rows read during the first complete pass
+ * over the delegate, so that subsequent calls to {@link #reset()} are served from memory rather than re-reading the underlying data.
+ * This allows several queries to be evaluated against the same data while only reading and parsing it a single time.
+ * <p>
+ * At most {@code maxCachedRows} rows are retained. If the delegate produces more rows than that, the cache is discarded and every
+ * subsequent call to {@link #reset()} is handed directly to the delegate. Likewise, if a pass over the data is closed before all rows
+ * have been consumed, the partially populated cache is discarded and the next pass will attempt to populate it again.
+ * </p>
+ * <p>
+ * Rows that are served from the cache are shared between all RowStreams and therefore must not be modified by the caller.
+ * </p>
+ */
+public class CachingDataSource implements ResettableDataSource {
+    private final ResettableDataSource delegate;
+    private final int maxCachedRows;
+
+    private List<Object[]> cachedRows;
+    private boolean populating = false;
+    private boolean limitExceeded = false;
+
+    /**
+     * Creates a CachingDataSource
+     *
+     * @param delegate the data source whose rows should be cached
+     * @param maxCachedRows the maximum number of rows to retain in memory
+     */
+    public CachingDataSource(final ResettableDataSource delegate, final int maxCachedRows) {
+        if (maxCachedRows < 0) {
+            throw new IllegalArgumentException("Max Cached Rows must not be negative but was " + maxCachedRows);
+        }
+
+        this.delegate = delegate;
+        this.maxCachedRows = maxCachedRows;
+    }
+
+    @Override
+    public NiFiTableSchema getSchema() {
+        return delegate.getSchema();
+    }
+
+    @Override
+    public synchronized RowStream reset() throws IOException {
+        if (cachedRows != null) {
+            return new IterableRowStream<>(cachedRows, row -> row);
+        }
+
+        final RowStream rowStream = delegate.reset();
+
+        // Only a single pass populates the cache at any one time; any other pass that is established concurrently
+        // (for example, when a query joins the table to itself) simply reads from the delegate.
+        if (limitExceeded || populating) {
+            return rowStream;
+        }
+
+        populating = true;
+        return new CachingRowStream(rowStream);
+    }
+
+    /**
+     * @return <code>true</code> if all rows of the delegate are currently held in memory, <code>false</code> otherwise
+     */
+    public synchronized boolean isCached() {
+        return cachedRows != null;
+    }
+
+    private synchronized void onPassComplete(final List<Object[]> rows) {
+        populating = false;
+        if (rows != null) {
+            cachedRows = rows;
+        }
+    }
+
+    private synchronized void onPassAbandoned(final boolean exceededLimit) {
+        populating = false;
+        if (exceededLimit) {
+            limitExceeded = true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CachingDataSource[delegate=" + delegate + ", maxCachedRows=" + maxCachedRows + "]";
+    }
+
+    private class CachingRowStream implements RowStream {
+        private final RowStream rowStream;
+        private List<Object[]> rows = new ArrayList<>();
+        private boolean finished = false;
+
+        private CachingRowStream(final RowStream rowStream) {
+            this.rowStream = rowStream;
+        }
+
+        @Override
+        public Object[] nextRow() throws IOException {
+            final Object[] row = rowStream.nextRow();
+            if (finished) {
+                return row;
+            }
+
+            if (row == null) {
+                finished = true;
+                onPassComplete(rows);
+                rows = null;
+                return null;
+            }
+
+            if (rows.size() < maxCachedRows) {
+                rows.add(row);
+            } else {
+                // Too many rows to hold in memory. Stop caching but continue to serve the rows of this pass.
+                rows = null;
+                finished = true;
+                onPassAbandoned(true);
+            }
+
+            return row;
+        }
+
+        @Override
+        public void close() throws Exception {
+            try {
+                rowStream.close();
+            } finally {
+                if (!finished) {
+                    finished = true;
+                    rows = null;
+                    onPassAbandoned(false);
+                }
+            }
+        }
+    }
+}
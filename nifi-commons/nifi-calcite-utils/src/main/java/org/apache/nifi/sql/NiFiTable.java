@@ -34,6 +34,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * A table that can be queried in a {@link CalciteDatabase}
@@ -153,14 +154,16 @@ public class NiFiTable implements Closeable {
 
     private class NiFiTableEnumerable extends AbstractEnumerable<Object> {
         private final int[] fields;
+        private final Predicate<Object[]> rowFilter;
 
-        public NiFiTableEnumerable(final int[] fields) {
+        public NiFiTableEnumerable(final int[] fields, final Predicate<Object[]> rowFilter) {
             this.fields = fields;
+            this.rowFilter = rowFilter;
         }
 
         @Override
         public Enumerator<Object> enumerator() {
-            final NiFiTableEnumerator flowFileEnumerator = new NiFiTableEnumerator(dataSource, logger, fields, this::onFinish, enumerators::remove);
+            final NiFiTableEnumerator flowFileEnumerator = new NiFiTableEnumerator(dataSource, logger, fields, rowFilter, this::onFinish, enumerators::remove);
             enumerators.add(flowFileEnumerator);
             return flowFileEnumerator;
         }
@@ -33,7 +33,11 @@ import org.apache.calcite.schema.TranslatableTable;
 import org.apache.calcite.schema.impl.AbstractTable;
 
 import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * <p>
@@ -43,9 +47,10 @@ import java.util.function.Function;
  */
 public class CalciteTable extends AbstractTable implements QueryableTable, TranslatableTable {
     private final Function<RelDataTypeFactory, RelDataType> tableDefinitionFactory;
-    private final Function<int[], Enumerable<Object>> projectionFactory;
+    private final BiFunction<int[], Predicate<Object[]>, Enumerable<Object>> projectionFactory;
+    private final List<ScanFilter> filters = new CopyOnWriteArrayList<>();
 
-    public CalciteTable(final Function<RelDataTypeFactory, RelDataType> tableDefinitionFactory, final Function<int[], Enumerable<Object>> projectionFactory) {
+    public CalciteTable(final Function<RelDataTypeFactory, RelDataType> tableDefinitionFactory, final BiFunction<int[], Predicate<Object[]>, Enumerable<Object>> projectionFactory) {
         this.tableDefinitionFactory = tableDefinitionFactory;
         this.projectionFactory = projectionFactory;
     }
@@ -53,7 +58,23 @@ public class CalciteTable extends AbstractTable implements QueryableTable, Trans
     // Returns an enumerable over a given projection of the fields.
     // Called from generated code. While the DataContent is not used, it is provided by the calling code and must be present.
     public Enumerable<Object> project(final DataContext dataContext, final int[] fields) {
-        return projectionFactory.apply(fields);
+        return projectionFactory.apply(fields, null);
+    }
+
+    // Returns an enumerable over a given projection of the fields, skipping rows that are rejected by the filter registered at the given index.
+    // Called from generated code, which can only reference the filter by the index returned from registerFilter.
+    public Enumerable<Object> project(final DataContext dataContext, final int[] fields, final int filterIndex) {
+        return projectionFactory.apply(fields, filters.get(filterIndex));
+    }
+
+    synchronized int registerFilter(final ScanFilter filter) {
+        final int existingIndex = filters.indexOf(filter);
+        if (existingIndex >= 0) {
+            return existingIndex;
+        }
+
+        filters.add(filter);
+        return filters.size() - 1;
     }
 
     @Override
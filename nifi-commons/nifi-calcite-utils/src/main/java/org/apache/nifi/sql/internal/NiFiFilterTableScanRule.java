@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.sql.internal;
+
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.RelRule;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.RelFactories;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.tools.RelBuilderFactory;
+import org.apache.nifi.sql.internal.ScanFilter.ColumnPredicate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pushes the simple comparisons of a Filter, such as <code>"age" &gt;= 18</code> or <code>"name" IS NOT NULL</code>, down into the
+ * {@link NiFiTableScan} beneath it, so that rows are discarded as soon as they are read. The Filter itself is retained, as the pushed
+ * down {@link ScanFilter} only rejects rows that certainly cannot match.
+ */
+public class NiFiFilterTableScanRule extends RelRule<NiFiFilterTableScanRule.Config> {
+
+    NiFiFilterTableScanRule(final Config config) {
+        super(config);
+    }
+
+    @Override
+    public void onMatch(final RelOptRuleCall call) {
+        final Filter filter = call.rel(0);
+        final NiFiTableScan scan = call.rel(1);
+
+        if (scan.getFilter() != null) {
+            // A filter has already been pushed down into this scan
+            return;
+        }
+
+        final List<ColumnPredicate> predicates = new ArrayList<>();
+        for (final RexNode conjunct : RelOptUtil.conjunctions(filter.getCondition())) {
+            final ColumnPredicate predicate = toColumnPredicate(conjunct, scan);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+
+        if (predicates.isEmpty()) {
+            return;
+        }
+
+        final NiFiTableScan filteredScan = new NiFiTableScan(scan.getCluster(), scan.getTable(), scan.getFields(), new ScanFilter(predicates));
+        call.transformTo(filter.copy(filter.getTraitSet(), filteredScan, filter.getCondition()));
+    }
+
+    private static ColumnPredicate toColumnPredicate(final RexNode node, final NiFiTableScan scan) {
+        if (!(node instanceof RexCall rexCall) || !ColumnPredicate.isSupported(rexCall.getKind())) {
+            return null;
+        }
+
+        final List<RexNode> operands = rexCall.getOperands();
+        final SqlKind kind = rexCall.getKind();
+        if (kind == SqlKind.IS_NULL || kind == SqlKind.IS_NOT_NULL) {
+            if (operands.get(0) instanceof RexInputRef inputRef) {
+                return new ColumnPredicate(scan.getFields()[inputRef.getIndex()], kind, null);
+            }
+
+            return null;
+        }
+
+        final RexInputRef inputRef;
+        final RexLiteral literal;
+        final SqlKind comparison;
+        if (operands.get(0) instanceof RexInputRef ref && operands.get(1) instanceof RexLiteral lit) {
+            inputRef = ref;
+            literal = lit;
+            comparison = kind;
+        } else if (operands.get(0) instanceof RexLiteral lit && operands.get(1) instanceof RexInputRef ref) {
+            inputRef = ref;
+            literal = lit;
+            comparison = kind.reverse();
+        } else {
+            // Not a simple comparison of a column against a literal
+            return null;
+        }
+
+        if (literal.isNull()) {
+            return null;
+        }
+
+        final SqlTypeName columnType = scan.getRowType().getFieldList().get(inputRef.getIndex()).getType().getSqlTypeName();
+        final Object value = getComparableValue(columnType, literal, comparison);
+        if (value == null) {
+            return null;
+        }
+
+        return new ColumnPredicate(scan.getFields()[inputRef.getIndex()], comparison, value);
+    }
+
+    private static Object getComparableValue(final SqlTypeName columnType, final RexLiteral literal, final SqlKind comparison) {
+        final SqlTypeName literalType = literal.getTypeName();
+
+        if (SqlTypeName.INT_TYPES.contains(columnType) || columnType == SqlTypeName.DECIMAL) {
+            if (literalType != SqlTypeName.DECIMAL) {
+                return null;
+            }
+
+            final BigDecimal value = literal.getValueAs(BigDecimal.class);
+            // Only compare integral columns against integral values, so that the comparison cannot differ from Calcite's
+            if (columnType != SqlTypeName.DECIMAL && value.stripTrailingZeros().scale() > 0) {
+                return null;
+            }
+
+            return value;
+        }
+
+        final boolean equality = comparison == SqlKind.EQUALS || comparison == SqlKind.NOT_EQUALS;
+        if ((columnType == SqlTypeName.VARCHAR || columnType == SqlTypeName.CHAR) && literalType == SqlTypeName.CHAR && equality) {
+            return literal.getValueAs(String.class);
+        }
+
+        if (columnType == SqlTypeName.BOOLEAN && literalType == SqlTypeName.BOOLEAN && equality) {
+            return literal.getValueAs(Boolean.class);
+        }
+
+        return null;
+    }
+
+    public interface Config extends RelRule.Config {
+        Config DEFAULT = new StandardConfig()
+            .withOperandSupplier(b0 -> b0.operand(Filter.class)
+                .oneInput(b1 -> b1.operand(NiFiTableScan.class).noInputs()));
+
+
+        @Override
+        default NiFiFilterTableScanRule toRule() {
+            return new NiFiFilterTableScanRule(this);
+        }
+    }
+
+    private static class StandardConfig implements Config {
+        private RelBuilderFactory relBuilderFactory = RelFactories.LOGICAL_BUILDER;
+        private String description;
+        private OperandTransform operandTransform;
+
+
+        @Override
+        public StandardConfig withRelBuilderFactory(final RelBuilderFactory factory) {
+            this.relBuilderFactory = factory;
+            return this;
+        }
+
+        @Override
+        public StandardConfig withDescription(final String description) {
+            this.description = description;
+            return this;
+        }
+
+        @Override
+        public StandardConfig withOperandSupplier(final OperandTransform transform) {
+            this.operandTransform = transform;
+            return this;
+        }
+
+        @Override
+        public RelBuilderFactory relBuilderFactory() {
+            return relBuilderFactory;
+        }
+
+        @Override
+        public String description() {
+            return description;
+        }
+
+
+        @Override
+        public OperandTransform operandSupplier() {
+            return this.operandTransform;
+        }
+    }
+
+}
@@ -36,30 +36,27 @@ public class NiFiProjectTableScanRule extends RelRule<NiFiProjectTableScanRule.C
     @Override
     public void onMatch(final RelOptRuleCall call) {
         final Project project = call.rel(0);
+        final NiFiTableScan scan = call.rel(1);
 
-        // Attempt to locate NiFiTableScan as immediate input
-        if (!(project.getInput() instanceof NiFiTableScan scan)) {
+        final int[] fields = getProjectionFields(project.getProjects(), scan.getFields());
+        if (fields == null || fields.length == 0) {
+            // Project contains expressions more complex than just field references, or no fields at all.
             return;
         }
 
-        final int[] fields = getProjectionFields(project.getProjects());
-        if (fields == null) {
-            // Project contains expressions more complex than just field references.
-            return;
-        }
-
-        final NiFiTableScan tableScan = new NiFiTableScan(scan.getCluster(), scan.getTable(), fields);
+        final NiFiTableScan tableScan = new NiFiTableScan(scan.getCluster(), scan.getTable(), fields, scan.getFilter());
         call.transformTo(tableScan);
     }
 
 
-    private static int[] getProjectionFields(final List<RexNode> expressions) {
+    private static int[] getProjectionFields(final List<RexNode> expressions, final int[] scanFields) {
         final int[] fields = new int[expressions.size()];
         for (int i = 0; i < expressions.size(); i++) {
             final RexNode exp = expressions.get(i);
 
             if (exp instanceof RexInputRef) {
-                fields[i] = ((RexInputRef) exp).getIndex();
+                // The reference is to a field produced by the scan, which may itself already be a projection of the table's fields
+                fields[i] = scanFields[((RexInputRef) exp).getIndex()];
             } else {
                 // not a simple projection
                 return null;
@@ -71,7 +68,8 @@ public class NiFiProjectTableScanRule extends RelRule<NiFiProjectTableScanRule.C
 
     public interface Config extends RelRule.Config {
         Config DEFAULT = new StandardConfig()
-            .withOperandSupplier(b0 -> b0.operand(Project.class).anyInputs());
+            .withOperandSupplier(b0 -> b0.operand(Project.class)
+                .oneInput(b1 -> b1.operand(NiFiTableScan.class).noInputs()));
 
 
         @Override
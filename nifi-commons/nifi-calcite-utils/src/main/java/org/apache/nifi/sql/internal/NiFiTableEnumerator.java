@@ -27,11 +27,13 @@ import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class NiFiTableEnumerator implements Enumerator<Object> {
     private final ResettableDataSource dataSource;
     private final ComponentLog logger;
     private final int[] fields;
+    private final Predicate<Object[]> rowFilter;
     private final Runnable onFinishCallback;
     private final Consumer<NiFiTableEnumerator> onCloseCallback;
 
@@ -43,9 +45,19 @@ public class NiFiTableEnumerator implements Enumerator<Object> {
 
     public NiFiTableEnumerator(final ResettableDataSource dataSource, final ComponentLog logger, final int[] fields, final Runnable onFinishCallback,
                                final Consumer<NiFiTableEnumerator> onCloseCallback) {
+        this(dataSource, logger, fields, null, onFinishCallback, onCloseCallback);
+    }
+
+    /**
+     * Creates an enumerator that skips any row of the data source that is rejected by the given filter. Rows that are skipped
+     * still count towards the number of records read.
+     */
+    public NiFiTableEnumerator(final ResettableDataSource dataSource, final ComponentLog logger, final int[] fields, final Predicate<Object[]> rowFilter,
+                               final Runnable onFinishCallback, final Consumer<NiFiTableEnumerator> onCloseCallback) {
         this.dataSource = dataSource;
         this.logger = logger;
         this.fields = fields;
+        this.rowFilter = rowFilter;
         this.onFinishCallback = onFinishCallback;
         this.onCloseCallback = onCloseCallback;
         reset();
@@ -62,7 +74,7 @@ public class NiFiTableEnumerator implements Enumerator<Object> {
     public boolean moveNext() {
         currentRow = null;
         try {
-            final Object[] row = rowStream.nextRow();
+            final Object[] row = nextMatchingRow();
             if (row == null) {
                 // If we are out of data, close the InputStream. We do this because
                 // Calcite does not necessarily call our close() method.
@@ -82,10 +94,23 @@ public class NiFiTableEnumerator implements Enumerator<Object> {
             throw new ProcessException("Failed to read next row in stream", e);
         }
 
-        recordsRead++;
         return true;
     }
 
+    private Object[] nextMatchingRow() throws Exception {
+        while (true) {
+            final Object[] row = rowStream.nextRow();
+            if (row == null) {
+                return null;
+            }
+
+            recordsRead++;
+            if (rowFilter == null || rowFilter.test(row)) {
+                return row;
+            }
+        }
+    }
+
     public int getRecordsRead() {
         return recordsRead;
     }
@@ -34,27 +34,36 @@ import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.rel.RelWriter;
 import org.apache.calcite.rel.core.TableScan;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rel.type.RelDataTypeField;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 class NiFiTableScan extends TableScan implements EnumerableRel {
     private final ConstantExpression fieldExpression;
     private final int[] fields;
+    private final ScanFilter filter;
 
     protected NiFiTableScan(final RelOptCluster cluster, final RelOptTable table, final int[] fields) {
+        this(cluster, table, fields, null);
+    }
+
+    protected NiFiTableScan(final RelOptCluster cluster, final RelOptTable table, final int[] fields, final ScanFilter filter) {
         super(cluster, cluster.traitSetOf(EnumerableConvention.INSTANCE), Collections.emptyList(), table);
         this.fields = fields;
+        this.filter = filter;
         fieldExpression = Expressions.constant(fields);
-        // Ensure projection pushdown rule is registered with the planner, as some Calcite versions
+        // Ensure projection and filter pushdown rules are registered with the planner, as some Calcite versions
         // may not invoke the RelNode#register() method.
         try {
             cluster.getPlanner().addRule(new NiFiProjectTableScanRule(NiFiProjectTableScanRule.Config.DEFAULT));
+            cluster.getPlanner().addRule(new NiFiFilterTableScanRule(NiFiFilterTableScanRule.Config.DEFAULT));
         } catch (Exception ignored) {
             // Rule may already be registered; intentionally ignored to avoid duplicate registration errors.
         }
@@ -63,6 +72,29 @@ class NiFiTableScan extends TableScan implements EnumerableRel {
     @Override
     public void register(final RelOptPlanner planner) {
         planner.addRule(new NiFiProjectTableScanRule(NiFiProjectTableScanRule.Config.DEFAULT));
+        planner.addRule(new NiFiFilterTableScanRule(NiFiFilterTableScanRule.Config.DEFAULT));
+    }
+
+    /**
+     * @return the indices of the table's columns that are produced by this scan, in order
+     */
+    int[] getFields() {
+        return fields;
+    }
+
+    /**
+     * @return the filter that rows must pass in order to be produced by this scan, or <code>null</code> if all rows are produced
+     */
+    ScanFilter getFilter() {
+        return filter;
+    }
+
+    @Override
+    public RelWriter explainTerms(final RelWriter pw) {
+        // The fields and filter must be part of the explained terms, as the planner uses them to tell scans apart
+        return super.explainTerms(pw)
+            .item("fields", Arrays.toString(fields))
+            .itemIf("filter", filter, filter != null);
     }
 
     @Override
@@ -85,9 +117,13 @@ class NiFiTableScan extends TableScan implements EnumerableRel {
         //
         // For example, if table has 3 fields, project has 1 field,
         // then factor = (1 + 2) / (3 + 2) = 0.6
+        //
+        // A scan with a filter is made more attractive still, as rows that the filter rejects
+        // never reach the remainder of the plan.
+        final double filterFactor = filter == null ? 1D : 0.5D;
         return super.computeSelfCost(planner, mq)
             .multiplyBy(((double) fields.length + 2D)
-                / ((double) table.getRowType().getFieldCount() + 2D));
+                / ((double) table.getRowType().getFieldCount() + 2D) * filterFactor);
     }
 
     @Override
@@ -97,7 +133,13 @@ class NiFiTableScan extends TableScan implements EnumerableRel {
         final PhysType physType = PhysTypeImpl.of(typeFactory, getRowType(), pref.preferArray());
 
         final Expression tableExpression = table.getExpression(CalciteTable.class);
-        final MethodCallExpression methodCallExpression = Expressions.call(tableExpression, "project", rootExpression, fieldExpression);
+        final MethodCallExpression methodCallExpression;
+        if (filter == null) {
+            methodCallExpression = Expressions.call(tableExpression, "project", rootExpression, fieldExpression);
+        } else {
+            final int filterIndex = table.unwrap(CalciteTable.class).registerFilter(filter);
+            methodCallExpression = Expressions.call(tableExpression, "project", rootExpression, fieldExpression, Expressions.constant(filterIndex));
+        }
         final BlockStatement blockStatement = Blocks.toBlock(methodCallExpression);
         return implementor.result(physType, blockStatement);
     }
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.sql.internal;
+
+import org.apache.calcite.sql.SqlKind;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * A filter that has been pushed down into a {@link NiFiTableScan} so that rows can be discarded as soon as they are read from the
+ * data source, before they are projected and handed to the code that Calcite generates for the query.
+ * </p>
+ *
+ * <p>
+ * The filter is only a pre-filter: a row is rejected only if it is certain that the row cannot satisfy the original condition.
+ * Any row whose values cannot be compared with certainty, such as a value whose type differs from the declared column type, is kept.
+ * Calcite still evaluates the complete condition against every row that passes, so the results of the query are never affected.
+ * </p>
+ *
+ * @param predicates the predicates that a row must satisfy, all referencing columns by their index in the table
+ */
+record ScanFilter(List<ColumnPredicate> predicates) implements Predicate<Object[]> {
+
+    @Override
+    public boolean test(final Object[] row) {
+        for (final ColumnPredicate predicate : predicates) {
+            if (!predicate.mayMatch(row[predicate.column()])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return predicates.stream()
+            .map(ColumnPredicate::toString)
+            .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    /**
+     * A comparison of a single column against a literal value, or a check of whether or not the column is null
+     *
+     * @param column the index of the column in the table
+     * @param kind the comparison to perform
+     * @param literal the value to compare against, a String, Boolean or BigDecimal, or <code>null</code> for null checks
+     */
+    record ColumnPredicate(int column, SqlKind kind, Object literal) {
+
+        static boolean isSupported(final SqlKind kind) {
+            return switch (kind) {
+                case EQUALS, NOT_EQUALS, LESS_THAN, LESS_THAN_OR_EQUAL, GREATER_THAN, GREATER_THAN_OR_EQUAL, IS_NULL, IS_NOT_NULL -> true;
+                default -> false;
+            };
+        }
+
+        boolean mayMatch(final Object value) {
+            if (kind == SqlKind.IS_NULL) {
+                return value == null;
+            }
+            if (kind == SqlKind.IS_NOT_NULL) {
+                return value != null;
+            }
+
+            // A comparison against null is never true
+            if (value == null) {
+                return false;
+            }
+
+            if (literal instanceof BigDecimal decimal) {
+                final BigDecimal number = toBigDecimal(value);
+                return number == null || matches(number.compareTo(decimal));
+            }
+
+            if (literal instanceof String string && value instanceof String stringValue) {
+                return switch (kind) {
+                    // Trailing spaces are ignored so that the outcome does not depend on whether the comparison pads CHAR values
+                    case EQUALS -> stringValue.stripTrailing().equals(string.stripTrailing());
+                    case NOT_EQUALS -> !stringValue.equals(string);
+                    default -> true;
+                };
+            }
+
+            if (literal instanceof Boolean bool && value instanceof Boolean booleanValue) {
+                return switch (kind) {
+                    case EQUALS -> booleanValue.equals(bool);
+                    case NOT_EQUALS -> !booleanValue.equals(bool);
+                    default -> true;
+                };
+            }
+
+            return true;
+        }
+
+        private boolean matches(final int comparison) {
+            return switch (kind) {
+                case EQUALS -> comparison == 0;
+                case NOT_EQUALS -> comparison != 0;
+                case LESS_THAN -> comparison < 0;
+                case LESS_THAN_OR_EQUAL -> comparison <= 0;
+                case GREATER_THAN -> comparison > 0;
+                case GREATER_THAN_OR_EQUAL -> comparison >= 0;
+                default -> true;
+            };
+        }
+
+        private static BigDecimal toBigDecimal(final Object value) {
+            return switch (value) {
+                case BigDecimal decimal -> decimal;
+                case BigInteger integer -> new BigDecimal(integer);
+                case Long number -> BigDecimal.valueOf(number);
+                case Integer number -> BigDecimal.valueOf(number);
+                case Short number -> BigDecimal.valueOf(number);
+                case Byte number -> BigDecimal.valueOf(number);
+                // Floating point values are not compared, as their exact comparison with a decimal literal may differ from Calcite's
+                default -> null;
+            };
+        }
+
+        @Override
+        public String toString() {
+            return switch (kind) {
+                case IS_NULL, IS_NOT_NULL -> "$" + column + " " + kind.sql;
+                default -> "$" + column + " " + kind.sql + " " + literal;
+            };
+        }
+    }
+}
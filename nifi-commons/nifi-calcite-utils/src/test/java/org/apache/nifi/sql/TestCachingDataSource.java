@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCachingDataSource {
+    private static final NiFiTableSchema SCHEMA = new NiFiTableSchema(List.of(
+        new ColumnSchema("name", String.class, false),
+        new ColumnSchema("number", int.class, false)
+    ));
+
+    private static final List<Object[]> ROWS = List.of(
+        new Object[] {"Mark", 192},
+        new Object[] {"John", 13},
+        new Object[] {"Jane Doe", 2910}
+    );
+
+    @Test
+    public void testRowsCachedAfterFirstPass() throws Exception {
+        final CountingDataSource delegate = new CountingDataSource();
+        final CachingDataSource dataSource = new CachingDataSource(delegate, 10);
+
+        assertRows(readAll(dataSource));
+        assertTrue(dataSource.isCached());
+
+        assertRows(readAll(dataSource));
+        assertRows(readAll(dataSource));
+        assertEquals(1, delegate.resetCount);
+    }
+
+    @Test
+    public void testDelegatesWhenLimitExceeded() throws Exception {
+        final CountingDataSource delegate = new CountingDataSource();
+        final CachingDataSource dataSource = new CachingDataSource(delegate, 2);
+
+        assertRows(readAll(dataSource));
+        assertFalse(dataSource.isCached());
+
+        assertRows(readAll(dataSource));
+        assertFalse(dataSource.isCached());
+        assertEquals(2, delegate.resetCount);
+    }
+
+    @Test
+    public void testIncompletePassIsNotCached() throws Exception {
+        final CountingDataSource delegate = new CountingDataSource();
+        final CachingDataSource dataSource = new CachingDataSource(delegate, 10);
+
+        try (final RowStream rowStream = dataSource.reset()) {
+            assertArrayEquals(ROWS.get(0), rowStream.nextRow());
+        }
+        assertFalse(dataSource.isCached());
+
+        assertRows(readAll(dataSource));
+        assertTrue(dataSource.isCached());
+
+        assertRows(readAll(dataSource));
+        assertEquals(2, delegate.resetCount);
+    }
+
+    @Test
+    public void testConcurrentPasses() throws Exception {
+        final CountingDataSource delegate = new CountingDataSource();
+        final CachingDataSource dataSource = new CachingDataSource(delegate, 10);
+
+        final List<Object[]> outer = new ArrayList<>();
+        try (final RowStream outerStream = dataSource.reset()) {
+            Object[] row;
+            while ((row = outerStream.nextRow()) != null) {
+                outer.add(row);
+                assertRows(readAll(dataSource));
+            }
+        }
+
+        assertRows(outer);
+        assertTrue(dataSource.isCached());
+
+        assertRows(readAll(dataSource));
+        assertEquals(1 + ROWS.size(), delegate.resetCount);
+    }
+
+    private void assertRows(final List<Object[]> rows) {
+        assertEquals(ROWS.size(), rows.size());
+        for (int i = 0; i < ROWS.size(); i++) {
+            assertArrayEquals(ROWS.get(i), rows.get(i));
+        }
+    }
+
+    private List<Object[]> readAll(final ResettableDataSource dataSource) throws Exception {
+        final List<Object[]> rows = new ArrayList<>();
+        try (final RowStream rowStream = dataSource.reset()) {
+            Object[] row;
+            while ((row = rowStream.nextRow()) != null) {
+                rows.add(row);
+            }
+
+            assertNull(rowStream.nextRow());
+        }
+
+        return rows;
+    }
+
+    private static class CountingDataSource implements ResettableDataSource {
+        private int resetCount = 0;
+
+        @Override
+        public NiFiTableSchema getSchema() {
+            return SCHEMA;
+        }
+
+        @Override
+        public RowStream reset() throws IOException {
+            resetCount++;
+            return new IterableRowStream<>(ROWS, row -> row);
+        }
+    }
+}
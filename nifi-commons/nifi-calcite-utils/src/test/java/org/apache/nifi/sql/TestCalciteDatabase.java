@@ -26,7 +26,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -58,6 +60,44 @@ public class TestCalciteDatabase {
         }
     }
 
+    @Test
+    public void testFilterPushedDownIntoScan() throws SQLException, IOException {
+        try (final CalciteDatabase database = createNameNumberDatabase();
+             final PreparedStatement stmt = database.getConnection().prepareStatement("EXPLAIN PLAN FOR SELECT * FROM CANNED_DATA WHERE number > 100");
+             final ResultSet resultSet = stmt.executeQuery()) {
+
+            assertTrue(resultSet.next());
+            final String plan = resultSet.getString(1);
+            assertTrue(plan.contains("filter=[[$1 > 100]]"), plan);
+        }
+    }
+
+    @Test
+    public void testFilteredQueries() throws SQLException, IOException {
+        final Map<String, List<String>> expectedNames = new LinkedHashMap<>();
+        expectedNames.put("SELECT name FROM CANNED_DATA WHERE number > 100 AND name <> 'Mark'", List.of("Jane Doe"));
+        expectedNames.put("SELECT name FROM CANNED_DATA WHERE 100 > number", List.of("John Doe", "Other"));
+        expectedNames.put("SELECT name FROM CANNED_DATA WHERE number >= 41 AND number <= 192", List.of("Mark", "John Doe"));
+        expectedNames.put("SELECT name FROM CANNED_DATA WHERE name = 'Other' AND number = -42", List.of("Other"));
+        expectedNames.put("SELECT name FROM CANNED_DATA WHERE name IS NOT NULL AND UPPER(name) LIKE '%DOE'", List.of("John Doe", "Jane Doe"));
+        expectedNames.put("SELECT name FROM CANNED_DATA WHERE number > 100.5", List.of("Mark", "Jane Doe"));
+        expectedNames.put("SELECT name FROM CANNED_DATA WHERE name IS NULL", List.of());
+
+        for (final Map.Entry<String, List<String>> entry : expectedNames.entrySet()) {
+            try (final CalciteDatabase database = createNameNumberDatabase();
+                 final PreparedStatement stmt = database.getConnection().prepareStatement(entry.getKey());
+                 final ResultSet resultSet = stmt.executeQuery()) {
+
+                final List<String> names = new ArrayList<>();
+                while (resultSet.next()) {
+                    names.add(resultSet.getString(1));
+                }
+
+                assertEquals(entry.getValue(), names, entry.getKey());
+            }
+        }
+    }
+
     @Test
     public void testAddFunction() throws SQLException, NoSuchMethodException, IOException {
         try (final CalciteDatabase database = createNameNumberDatabase()) {
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.sql.internal;
+
+import org.apache.calcite.sql.SqlKind;
+import org.apache.nifi.sql.internal.ScanFilter.ColumnPredicate;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestScanFilter {
+
+    @Test
+    public void testNumericComparisons() {
+        final ScanFilter filter = new ScanFilter(List.of(
+            new ColumnPredicate(1, SqlKind.GREATER_THAN_OR_EQUAL, new BigDecimal("18")),
+            new ColumnPredicate(1, SqlKind.LESS_THAN, new BigDecimal("65"))
+        ));
+
+        assertTrue(filter.test(new Object[] {"Tom", 18}));
+        assertTrue(filter.test(new Object[] {"Tom", 64L}));
+        assertTrue(filter.test(new Object[] {"Tom", new BigDecimal("42.5")}));
+        assertFalse(filter.test(new Object[] {"Tom", 17}));
+        assertFalse(filter.test(new Object[] {"Tom", (short) 65}));
+        assertFalse(filter.test(new Object[] {"Tom", null}));
+    }
+
+    @Test
+    public void testUndecidableValuesAreKept() {
+        final ScanFilter filter = new ScanFilter(List.of(new ColumnPredicate(0, SqlKind.EQUALS, new BigDecimal("1"))));
+
+        assertTrue(filter.test(new Object[] {2.5D}));
+        assertTrue(filter.test(new Object[] {"2"}));
+        assertFalse(filter.test(new Object[] {2}));
+    }
+
+    @Test
+    public void testStringComparisons() {
+        final ColumnPredicate equalsTom = new ColumnPredicate(0, SqlKind.EQUALS, "Tom");
+        assertTrue(equalsTom.mayMatch("Tom"));
+        assertTrue(equalsTom.mayMatch("Tom  "));
+        assertFalse(equalsTom.mayMatch("tom"));
+
+        final ColumnPredicate notEqualsTom = new ColumnPredicate(0, SqlKind.NOT_EQUALS, "Tom");
+        assertFalse(notEqualsTom.mayMatch("Tom"));
+        assertTrue(notEqualsTom.mayMatch("Tom  "));
+        assertTrue(notEqualsTom.mayMatch("Alice"));
+        assertFalse(notEqualsTom.mayMatch(null));
+    }
+
+    @Test
+    public void testNullChecks() {
+        final ScanFilter filter = new ScanFilter(List.of(
+            new ColumnPredicate(0, SqlKind.IS_NULL, null),
+            new ColumnPredicate(1, SqlKind.IS_NOT_NULL, null),
+            new ColumnPredicate(2, SqlKind.EQUALS, Boolean.TRUE)
+        ));
+
+        assertTrue(filter.test(new Object[] {null, "value", true}));
+        assertFalse(filter.test(new Object[] {"value", "value", true}));
+        assertFalse(filter.test(new Object[] {null, null, true}));
+        assertFalse(filter.test(new Object[] {null, "value", false}));
+    }
+}
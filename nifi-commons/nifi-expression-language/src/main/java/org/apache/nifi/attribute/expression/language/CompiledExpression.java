@@ -18,10 +18,12 @@
 package org.apache.nifi.attribute.expression.language;
 
 import org.antlr.runtime.tree.Tree;
+import org.apache.nifi.attribute.expression.language.compile.FunctionalExpressionCompiler;
 import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
 import org.apache.nifi.expression.AttributeValueDecorator;
 
 import java.util.Set;
+import java.util.function.Function;
 
 public class CompiledExpression implements Expression {
     private final Evaluator<?> rootEvaluator;
@@ -29,6 +31,10 @@ public class CompiledExpression implements Expression {
     private final String expression;
     private final Set<Evaluator<?>> allEvaluators;
 
+    // Compiled lazily, the first time that the Expression is evaluated with compiled evaluation enabled
+    private volatile boolean functionCompiled = false;
+    private volatile Function<EvaluationContext, Object> compiledFunction;
+
     public CompiledExpression(final String expression, final Evaluator<?> rootEvaluator, final Tree tree, final Set<Evaluator<?>> allEvaluators) {
         this.rootEvaluator = rootEvaluator;
         this.tree = tree;
@@ -55,6 +61,32 @@ public class CompiledExpression implements Expression {
 
     @Override
     public String evaluate(final EvaluationContext evaluationContext, final AttributeValueDecorator decorator) {
+        if (Query.isCompiledEvaluationEnabled()) {
+            final Function<EvaluationContext, Object> function = getCompiledFunction();
+            if (function != null) {
+                final Object evaluated = function.apply(evaluationContext);
+                if (evaluated == null) {
+                    return null;
+                }
+
+                final String value = evaluated.toString();
+                return decorator == null ? value : decorator.decorate(value);
+            }
+        }
+
         return Query.evaluateExpression(tree, rootEvaluator, expression, evaluationContext, decorator);
     }
+
+    /**
+     * @return a function that evaluates this Expression without walking the tree of Evaluators, or <code>null</code> if this Expression
+     *         must be evaluated by the interpreter
+     */
+    Function<EvaluationContext, Object> getCompiledFunction() {
+        if (!functionCompiled) {
+            compiledFunction = FunctionalExpressionCompiler.compile(rootEvaluator);
+            functionCompiled = true;
+        }
+
+        return compiledFunction;
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.function.Function;
+
+/**
+ * A cache of PreparedQuery objects keyed by the text of the query. The same Expression is commonly configured on many components, and a
+ * PreparedQuery holds no state that is specific to the component that uses it, so parsing each distinct Expression only once avoids both the
+ * cost of parsing and the heap used by duplicate trees of Evaluators. Queries that are built dynamically could otherwise grow the cache without
+ * bound, so the cache holds at most a configured number of queries, evicting those that are used least so that the Expressions in use remain cached.
+ *
+ * <b>Thread Safe</b>
+ */
+class PreparedQueryCache {
+    static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final Cache<String, PreparedQuery> preparedQueries;
+    private volatile int maxSize;
+
+    PreparedQueryCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.preparedQueries = Caffeine.newBuilder()
+            .maximumSize(Math.max(maxSize, 0))
+            .build();
+    }
+
+    /**
+     * Returns the PreparedQuery for the given query text, preparing it with the given function if it has not already been cached
+     *
+     * @param query the text of the query
+     * @param prepareFunction the function used to prepare the query if it is not cached
+     * @return the PreparedQuery for the given query text
+     */
+    PreparedQuery getOrPrepare(final String query, final Function<String, PreparedQuery> prepareFunction) {
+        if (maxSize < 1) {
+            return prepareFunction.apply(query);
+        }
+
+        final PreparedQuery cached = preparedQueries.getIfPresent(query);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Prepare outside of the cache so that concurrent lookups of other queries are not blocked while parsing.
+        final PreparedQuery prepared = prepareFunction.apply(query);
+        final PreparedQuery existing = preparedQueries.asMap().putIfAbsent(query, prepared);
+        return existing == null ? prepared : existing;
+    }
+
+    void setMaxSize(final int maxSize) {
+        this.maxSize = maxSize;
+        if (maxSize < 1) {
+            preparedQueries.invalidateAll();
+        } else {
+            preparedQueries.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maxSize));
+        }
+    }
+
+    int size() {
+        // Eviction is performed asynchronously, so perform any pending eviction before determining the size
+        preparedQueries.cleanUp();
+        return (int) preparedQueries.estimatedSize();
+    }
+}
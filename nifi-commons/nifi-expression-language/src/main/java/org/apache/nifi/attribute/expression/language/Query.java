@@ -45,6 +45,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class Query {
 
+    private static final PreparedQueryCache PREPARED_QUERY_CACHE = new PreparedQueryCache(PreparedQueryCache.DEFAULT_MAX_SIZE);
+    private static final PreparedQueryCache PARAMETERS_PRE_EVALUATED_QUERY_CACHE = new PreparedQueryCache(PreparedQueryCache.DEFAULT_MAX_SIZE);
+    private static volatile boolean compiledEvaluationEnabled = false;
+
     private final String query;
     private final Tree tree;
     private final Evaluator<?> evaluator;
@@ -297,11 +301,44 @@ public class Query {
 
 
     public static PreparedQuery prepareWithParametersPreEvaluated(final String query) throws AttributeExpressionLanguageParsingException {
-        return prepare(query, true);
+        if (query == null) {
+            return new EmptyPreparedQuery(null);
+        }
+
+        return PARAMETERS_PRE_EVALUATED_QUERY_CACHE.getOrPrepare(query, text -> prepare(text, true));
     }
 
     public static PreparedQuery prepare(final String query) throws AttributeExpressionLanguageParsingException {
-        return prepare(query, false);
+        if (query == null) {
+            return new EmptyPreparedQuery(null);
+        }
+
+        return PREPARED_QUERY_CACHE.getOrPrepare(query, text -> prepare(text, false));
+    }
+
+    /**
+     * Specifies the maximum number of distinct queries whose PreparedQuery is cached and shared by all callers of {@link #prepare(String)}.
+     * A value less than 1 disables the cache.
+     *
+     * @param maxSize the maximum number of queries to cache
+     */
+    public static void setPreparedQueryCacheSize(final int maxSize) {
+        PREPARED_QUERY_CACHE.setMaxSize(maxSize);
+        PARAMETERS_PRE_EVALUATED_QUERY_CACHE.setMaxSize(maxSize);
+    }
+
+    /**
+     * Specifies whether Expressions should be evaluated using functions compiled from the tree of Evaluators, rather than by interpreting
+     * the tree of Evaluators for each evaluation. Portions of an Expression that cannot be compiled are always interpreted.
+     *
+     * @param enabled whether or not compiled evaluation is enabled
+     */
+    public static void setCompiledEvaluationEnabled(final boolean enabled) {
+        compiledEvaluationEnabled = enabled;
+    }
+
+    public static boolean isCompiledEvaluationEnabled() {
+        return compiledEvaluationEnabled;
     }
 
     private static PreparedQuery prepare(final String rawQuery, final boolean escapeParameterReferences) throws AttributeExpressionLanguageParsingException {
@@ -0,0 +1,510 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.compile;
+
+import org.apache.nifi.attribute.expression.language.EvaluationContext;
+import org.apache.nifi.attribute.expression.language.StandardEvaluationContext;
+import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.NumberCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.StringCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AndEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AppendEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ContainsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EndsWithEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsIgnoreCaseEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.GreaterThanEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.GreaterThanOrEqualEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IfElseEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IsEmptyEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IsNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LengthEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LessThanEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LessThanOrEqualEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.NotEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.NotNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.OrEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.PrependEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ReplaceEmptyEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ReplaceNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.StartsWithEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToLowerEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToUpperEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.TrimEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.BooleanLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.StringLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.WholeNumberLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.selection.AttributeEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.util.NumberParsing;
+import org.apache.nifi.expression.AttributeExpression.ResultType;
+
+import java.util.Collections;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * <p>
+ * Compiles a tree of {@link Evaluator}s into a composition of functions that can be evaluated directly against an {@link EvaluationContext}.
+ * The interpreter wraps the result of every Evaluator in a QueryResult and dispatches through the Evaluator interface at each level of the
+ * tree. The functions created here instead pass intermediate values directly, and boolean intermediates such as the result of
+ * <code>equals</code>, <code>startsWith</code> or <code>gt</code> are held as primitives until the result of the Expression is produced.
+ * Each function is a lambda, which the JVM spins into a hidden class, so that the JIT is able to inline the entire chain.
+ * </p>
+ *
+ * <p>
+ * Only the functions most commonly used for routing and attribute updates are compiled. Any other Evaluator is wrapped so that it, and all of
+ * its children, are evaluated by the interpreter. Because an Evaluator that iterates over multiple attributes evaluates its children itself,
+ * this also ensures that such Evaluators and everything beneath them retain the interpreter's semantics.
+ * </p>
+ */
+public class FunctionalExpressionCompiler {
+    private static final EvaluationContext EMPTY_CONTEXT = new StandardEvaluationContext(Collections.emptyMap());
+
+    private FunctionalExpressionCompiler() {
+    }
+
+    /**
+     * Compiles the given Evaluator into a function that produces the same value as the Evaluator would produce
+     *
+     * @param rootEvaluator the root Evaluator of the Expression
+     * @return a function that evaluates the Expression, or <code>null</code> if the root Evaluator cannot be compiled, in which case the
+     *         interpreter should be used
+     */
+    public static Function<EvaluationContext, Object> compile(final Evaluator<?> rootEvaluator) {
+        final Function<EvaluationContext, String> stringFunction = compileString(rootEvaluator);
+        if (stringFunction != null) {
+            return stringFunction::apply;
+        }
+
+        final Predicate<EvaluationContext> predicate = compileBoolean(rootEvaluator);
+        if (predicate != null) {
+            return context -> predicate.test(context);
+        }
+
+        final Function<EvaluationContext, Number> numberFunction = compileNumber(rootEvaluator);
+        if (numberFunction != null) {
+            return numberFunction::apply;
+        }
+
+        return null;
+    }
+
+    private static Function<EvaluationContext, String> compileString(final Evaluator<?> evaluator) {
+        if (evaluator instanceof StringLiteralEvaluator) {
+            final String value = ((StringLiteralEvaluator) evaluator).evaluate(EMPTY_CONTEXT).getValue();
+            return context -> value;
+        }
+
+        if (evaluator instanceof AttributeEvaluator attributeEvaluator) {
+            if (!(attributeEvaluator.getNameEvaluator() instanceof StringLiteralEvaluator)) {
+                return null;
+            }
+
+            final String attributeName = attributeEvaluator.getNameEvaluator().evaluate(EMPTY_CONTEXT).getValue();
+            return context -> context.getExpressionValue(attributeName);
+        }
+
+        if (evaluator instanceof StringCastEvaluator) {
+            final Predicate<EvaluationContext> predicate = compileBoolean(evaluator.getSubjectEvaluator());
+            if (predicate != null) {
+                return context -> String.valueOf(predicate.test(context));
+            }
+
+            final Function<EvaluationContext, Number> numberFunction = compileNumber(evaluator.getSubjectEvaluator());
+            if (numberFunction != null) {
+                return context -> {
+                    final Number value = numberFunction.apply(context);
+                    return value == null ? null : String.valueOf(value);
+                };
+            }
+
+            return null;
+        }
+
+        if (evaluator instanceof ToUpperEvaluator) {
+            final Function<EvaluationContext, String> subject = stringOperand(evaluator.getSubjectEvaluator());
+            return subject == null ? null : context -> {
+                final String value = subject.apply(context);
+                return value == null ? null : value.toUpperCase();
+            };
+        }
+
+        if (evaluator instanceof ToLowerEvaluator) {
+            final Function<EvaluationContext, String> subject = stringOperand(evaluator.getSubjectEvaluator());
+            return subject == null ? null : context -> {
+                final String value = subject.apply(context);
+                return value == null ? null : value.toLowerCase();
+            };
+        }
+
+        if (evaluator instanceof TrimEvaluator) {
+            final Function<EvaluationContext, String> subject = stringOperand(evaluator.getSubjectEvaluator());
+            return subject == null ? null : context -> {
+                final String value = subject.apply(context);
+                return value == null ? null : value.trim();
+            };
+        }
+
+        if (evaluator instanceof AppendEvaluator appendEvaluator) {
+            final Function<EvaluationContext, String> subject = stringOperand(appendEvaluator.getSubjectEvaluator());
+            final Function<EvaluationContext, String> append = stringOperand(appendEvaluator.getAppendEvaluator());
+            if (subject == null || append == null) {
+                return null;
+            }
+
+            return context -> {
+                final String subjectValue = subject.apply(context);
+                final String appendValue = append.apply(context);
+                return (subjectValue == null ? "" : subjectValue) + (appendValue == null ? "" : appendValue);
+            };
+        }
+
+        if (evaluator instanceof PrependEvaluator prependEvaluator) {
+            final Function<EvaluationContext, String> subject = stringOperand(prependEvaluator.getSubjectEvaluator());
+            final Function<EvaluationContext, String> prepend = stringOperand(prependEvaluator.getPrependEvaluator());
+            if (subject == null || prepend == null) {
+                return null;
+            }
+
+            return context -> {
+                final String subjectValue = subject.apply(context);
+                final String prependValue = prepend.apply(context);
+                return (prependValue == null ? "" : prependValue) + (subjectValue == null ? "" : subjectValue);
+            };
+        }
+
+        if (evaluator instanceof ReplaceNullEvaluator replaceNullEvaluator) {
+            final Function<EvaluationContext, String> subject = stringOperand(replaceNullEvaluator.getSubjectEvaluator());
+            final Function<EvaluationContext, String> replacement = stringOperand(replaceNullEvaluator.getReplacementEvaluator());
+            if (subject == null || replacement == null) {
+                return null;
+            }
+
+            return context -> {
+                final String subjectValue = subject.apply(context);
+                return subjectValue == null ? replacement.apply(context) : subjectValue;
+            };
+        }
+
+        if (evaluator instanceof ReplaceEmptyEvaluator replaceEmptyEvaluator) {
+            final Function<EvaluationContext, String> subject = stringOperand(replaceEmptyEvaluator.getSubjectEvaluator());
+            final Function<EvaluationContext, String> replacement = stringOperand(replaceEmptyEvaluator.getReplacementEvaluator());
+            if (subject == null || replacement == null) {
+                return null;
+            }
+
+            return context -> {
+                final String subjectValue = subject.apply(context);
+                return subjectValue == null || subjectValue.isBlank() ? replacement.apply(context) : subjectValue;
+            };
+        }
+
+        if (evaluator instanceof IfElseEvaluator ifElseEvaluator) {
+            final Predicate<EvaluationContext> subject = compileBoolean(ifElseEvaluator.getSubjectEvaluator());
+            final Function<EvaluationContext, String> trueFunction = stringOperand(ifElseEvaluator.getTrueEvaluator());
+            final Function<EvaluationContext, String> falseFunction = stringOperand(ifElseEvaluator.getFalseEvaluator());
+            if (subject == null || trueFunction == null || falseFunction == null) {
+                return null;
+            }
+
+            return context -> subject.test(context) ? trueFunction.apply(context) : falseFunction.apply(context);
+        }
+
+        return null;
+    }
+
+    private static Predicate<EvaluationContext> compileBoolean(final Evaluator<?> evaluator) {
+        if (evaluator instanceof BooleanLiteralEvaluator) {
+            final boolean value = ((BooleanLiteralEvaluator) evaluator).evaluate(EMPTY_CONTEXT).getValue();
+            return context -> value;
+        }
+
+        if (evaluator instanceof EqualsEvaluator equalsEvaluator) {
+            // Operands of differing types are normalized by the interpreter before comparison, so only compile the common case of two Strings
+            if (!isStringTyped(equalsEvaluator.getSubjectEvaluator()) || !isStringTyped(equalsEvaluator.getCompareToEvaluator())) {
+                return null;
+            }
+
+            final Function<EvaluationContext, String> subject = stringOperand(equalsEvaluator.getSubjectEvaluator());
+            final Function<EvaluationContext, String> compareTo = stringOperand(equalsEvaluator.getCompareToEvaluator());
+            return context -> {
+                final String subjectValue = subject.apply(context);
+                if (subjectValue == null) {
+                    return false;
+                }
+
+                final String compareToValue = compareTo.apply(context);
+                return compareToValue != null && subjectValue.equals(compareToValue);
+            };
+        }
+
+        if (evaluator instanceof EqualsIgnoreCaseEvaluator equalsIgnoreCaseEvaluator) {
+            if (!isStringTyped(equalsIgnoreCaseEvaluator.getSubjectEvaluator()) || !isStringTyped(equalsIgnoreCaseEvaluator.getCompareToEvaluator())) {
+                return null;
+            }
+
+            final Function<EvaluationContext, String> subject = stringOperand(equalsIgnoreCaseEvaluator.getSubjectEvaluator());
+            final Function<EvaluationContext, String> compareTo = stringOperand(equalsIgnoreCaseEvaluator.getCompareToEvaluator());
+            return context -> {
+                final String subjectValue = subject.apply(context);
+                if (subjectValue == null) {
+                    return false;
+                }
+
+                final String compareToValue = compareTo.apply(context);
+                return compareToValue != null && subjectValue.equalsIgnoreCase(compareToValue);
+            };
+        }
+
+        if (evaluator instanceof StartsWithEvaluator startsWithEvaluator) {
+            return compileSearch(startsWithEvaluator.getSubjectEvaluator(), startsWithEvaluator.getSearchEvaluator(), SearchFunction.STARTS_WITH);
+        }
+
+        if (evaluator instanceof EndsWithEvaluator endsWithEvaluator) {
+            return compileSearch(endsWithEvaluator.getSubjectEvaluator(), endsWithEvaluator.getSearchEvaluator(), SearchFunction.ENDS_WITH);
+        }
+
+        if (evaluator instanceof ContainsEvaluator containsEvaluator) {
+            return compileSearch(containsEvaluator.getSubjectEvaluator(), containsEvaluator.getSearchEvaluator(), SearchFunction.CONTAINS);
+        }
+
+        if (evaluator instanceof IsNullEvaluator) {
+            final Function<EvaluationContext, Object> subject = objectOperand(evaluator.getSubjectEvaluator());
+            return context -> subject.apply(context) == null;
+        }
+
+        if (evaluator instanceof NotNullEvaluator) {
+            final Function<EvaluationContext, Object> subject = objectOperand(evaluator.getSubjectEvaluator());
+            return context -> subject.apply(context) != null;
+        }
+
+        if (evaluator instanceof IsEmptyEvaluator) {
+            final Function<EvaluationContext, Object> subject = objectOperand(evaluator.getSubjectEvaluator());
+            return context -> {
+                final Object value = subject.apply(context);
+                return value == null || value.toString().isBlank();
+            };
+        }
+
+        // The logical operators are compiled only if their operands are compiled, because an interpreted Boolean Evaluator may produce null
+        if (evaluator instanceof NotEvaluator) {
+            final Predicate<EvaluationContext> subject = compileBoolean(evaluator.getSubjectEvaluator());
+            return subject == null ? null : subject.negate();
+        }
+
+        if (evaluator instanceof AndEvaluator andEvaluator) {
+            final Predicate<EvaluationContext> subject = compileBoolean(andEvaluator.getSubjectEvaluator());
+            final Predicate<EvaluationContext> rhs = compileBoolean(andEvaluator.getRhsEvaluator());
+            return subject == null || rhs == null ? null : subject.and(rhs);
+        }
+
+        if (evaluator instanceof OrEvaluator orEvaluator) {
+            final Predicate<EvaluationContext> subject = compileBoolean(orEvaluator.getSubjectEvaluator());
+            final Predicate<EvaluationContext> rhs = compileBoolean(orEvaluator.getRhsEvaluator());
+            return subject == null || rhs == null ? null : subject.or(rhs);
+        }
+
+        if (evaluator instanceof GreaterThanEvaluator greaterThanEvaluator) {
+            return compileComparison(greaterThanEvaluator.getSubjectEvaluator(), greaterThanEvaluator.getComparisonEvaluator(), NumberComparison.GREATER_THAN);
+        }
+
+        if (evaluator instanceof GreaterThanOrEqualEvaluator greaterThanOrEqualEvaluator) {
+            return compileComparison(greaterThanOrEqualEvaluator.getSubjectEvaluator(), greaterThanOrEqualEvaluator.getComparisonEvaluator(), NumberComparison.GREATER_THAN_OR_EQUAL);
+        }
+
+        if (evaluator instanceof LessThanEvaluator lessThanEvaluator) {
+            return compileComparison(lessThanEvaluator.getSubjectEvaluator(), lessThanEvaluator.getComparisonEvaluator(), NumberComparison.LESS_THAN);
+        }
+
+        if (evaluator instanceof LessThanOrEqualEvaluator lessThanOrEqualEvaluator) {
+            return compileComparison(lessThanOrEqualEvaluator.getSubjectEvaluator(), lessThanOrEqualEvaluator.getComparisonEvaluator(), NumberComparison.LESS_THAN_OR_EQUAL);
+        }
+
+        return null;
+    }
+
+    private static Function<EvaluationContext, Number> compileNumber(final Evaluator<?> evaluator) {
+        if (evaluator instanceof WholeNumberLiteralEvaluator) {
+            final Long value = ((WholeNumberLiteralEvaluator) evaluator).evaluate(EMPTY_CONTEXT).getValue();
+            return context -> value;
+        }
+
+        if (evaluator instanceof LengthEvaluator) {
+            final Function<EvaluationContext, String> subject = stringOperand(evaluator.getSubjectEvaluator());
+            return subject == null ? null : context -> {
+                final String value = subject.apply(context);
+                return (long) (value == null ? 0 : value.length());
+            };
+        }
+
+        if (evaluator instanceof NumberCastEvaluator) {
+            final Evaluator<?> subjectEvaluator = evaluator.getSubjectEvaluator();
+            if (subjectEvaluator.getResultType() == ResultType.WHOLE_NUMBER) {
+                return numberOperand(subjectEvaluator);
+            }
+
+            if (subjectEvaluator.getResultType() == ResultType.STRING) {
+                final Function<EvaluationContext, String> subject = stringOperand(subjectEvaluator);
+                return context -> {
+                    final String value = subject.apply(context);
+                    return value == null ? null : parseNumber(value);
+                };
+            }
+        }
+
+        return null;
+    }
+
+    private static Predicate<EvaluationContext> compileSearch(final Evaluator<?> subjectEvaluator, final Evaluator<?> searchEvaluator, final SearchFunction searchFunction) {
+        final Function<EvaluationContext, String> subject = stringOperand(subjectEvaluator);
+        final Function<EvaluationContext, String> search = stringOperand(searchEvaluator);
+        if (subject == null || search == null) {
+            return null;
+        }
+
+        return context -> {
+            final String subjectValue = subject.apply(context);
+            if (subjectValue == null) {
+                return false;
+            }
+
+            final String searchValue = search.apply(context);
+            return searchValue != null && searchFunction.test(subjectValue, searchValue);
+        };
+    }
+
+    private static Predicate<EvaluationContext> compileComparison(final Evaluator<?> subjectEvaluator, final Evaluator<?> comparisonEvaluator, final NumberComparison comparison) {
+        final Function<EvaluationContext, Number> subject = numberOperand(subjectEvaluator);
+        final Function<EvaluationContext, Number> compareTo = numberOperand(comparisonEvaluator);
+        if (subject == null || compareTo == null) {
+            return null;
+        }
+
+        return context -> {
+            final Number subjectValue = subject.apply(context);
+            if (subjectValue == null) {
+                return false;
+            }
+
+            final Number comparisonValue = compareTo.apply(context);
+            if (comparisonValue == null) {
+                return false;
+            }
+
+            if (subjectValue instanceof Double || comparisonValue instanceof Double) {
+                return comparison.compare(subjectValue.doubleValue(), comparisonValue.doubleValue());
+            }
+
+            return comparison.compare(subjectValue.longValue(), comparisonValue.longValue());
+        };
+    }
+
+    private static Number parseNumber(final String value) {
+        final String trimmed = value.trim();
+        return switch (NumberParsing.parse(trimmed)) {
+            case DECIMAL -> Double.valueOf(trimmed);
+            case WHOLE_NUMBER -> {
+                try {
+                    yield Long.valueOf(trimmed);
+                } catch (final NumberFormatException e) {
+                    // Will only occur if trimmed is a hex number
+                    yield Long.decode(trimmed);
+                }
+            }
+            case NOT_NUMBER -> null;
+        };
+    }
+
+    private static boolean isStringTyped(final Evaluator<?> evaluator) {
+        return evaluator.getResultType() == ResultType.STRING;
+    }
+
+    private static Function<EvaluationContext, String> stringOperand(final Evaluator<?> evaluator) {
+        final Function<EvaluationContext, String> compiled = compileString(evaluator);
+        if (compiled != null) {
+            return compiled;
+        }
+
+        if (!isStringTyped(evaluator)) {
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        final Evaluator<String> stringEvaluator = (Evaluator<String>) evaluator;
+        return context -> stringEvaluator.evaluate(context).getValue();
+    }
+
+    private static Function<EvaluationContext, Number> numberOperand(final Evaluator<?> evaluator) {
+        final Function<EvaluationContext, Number> compiled = compileNumber(evaluator);
+        if (compiled != null) {
+            return compiled;
+        }
+
+        return switch (evaluator.getResultType()) {
+            case NUMBER, WHOLE_NUMBER, DECIMAL -> context -> (Number) evaluator.evaluate(context).getValue();
+            default -> null;
+        };
+    }
+
+    private static Function<EvaluationContext, Object> objectOperand(final Evaluator<?> evaluator) {
+        final Function<EvaluationContext, Object> compiled = compile(evaluator);
+        if (compiled != null) {
+            return compiled;
+        }
+
+        return context -> evaluator.evaluate(context).getValue();
+    }
+
+    private enum SearchFunction {
+        STARTS_WITH,
+        ENDS_WITH,
+        CONTAINS;
+
+        boolean test(final String subject, final String search) {
+            return switch (this) {
+                case STARTS_WITH -> subject.startsWith(search);
+                case ENDS_WITH -> subject.endsWith(search);
+                case CONTAINS -> subject.contains(search);
+            };
+        }
+    }
+
+    private enum NumberComparison {
+        GREATER_THAN,
+        GREATER_THAN_OR_EQUAL,
+        LESS_THAN,
+        LESS_THAN_OR_EQUAL;
+
+        boolean compare(final long subject, final long comparison) {
+            return switch (this) {
+                case GREATER_THAN -> subject > comparison;
+                case GREATER_THAN_OR_EQUAL -> subject >= comparison;
+                case LESS_THAN -> subject < comparison;
+                case LESS_THAN_OR_EQUAL -> subject <= comparison;
+            };
+        }
+
+        boolean compare(final double subject, final double comparison) {
+            return switch (this) {
+                case GREATER_THAN -> subject > comparison;
+                case GREATER_THAN_OR_EQUAL -> subject >= comparison;
+                case LESS_THAN -> subject < comparison;
+                case LESS_THAN_OR_EQUAL -> subject <= comparison;
+            };
+        }
+    }
+}
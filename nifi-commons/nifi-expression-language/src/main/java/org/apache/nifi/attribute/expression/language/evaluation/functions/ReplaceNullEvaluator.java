@@ -43,4 +43,8 @@ public class ReplaceNullEvaluator extends StringEvaluator {
         return subject;
     }
 
+    public Evaluator<String> getReplacementEvaluator() {
+        return resultEvaluator;
+    }
+
 }
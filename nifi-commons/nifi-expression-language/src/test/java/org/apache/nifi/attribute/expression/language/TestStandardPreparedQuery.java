@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -34,6 +35,9 @@ import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -332,6 +336,116 @@ public class TestStandardPreparedQuery {
         assertFalse(Query.prepare("#{param}").isExpressionLanguagePresent());
     }
 
+    @Test
+    public void testPreparedQueryShared() {
+        final PreparedQuery prepared = Query.prepare("${filename:toUpper()}");
+        assertSame(prepared, Query.prepare("${filename:toUpper()}"));
+        assertSame(Query.prepareWithParametersPreEvaluated("#{param}"), Query.prepareWithParametersPreEvaluated("#{param}"));
+    }
+
+    @Test
+    public void testPreparedQueryCacheBounded() {
+        final PreparedQueryCache cache = new PreparedQueryCache(10);
+        final PreparedQuery first = cache.getOrPrepare("${a}", Query::prepare);
+        assertSame(first, cache.getOrPrepare("${a}", query -> Query.prepare("${b}")));
+
+        final Map<String, PreparedQuery> hotQueries = new HashMap<>();
+        for (int i = 0; i < 5; i++) {
+            final String query = "${hot" + i + "}";
+            hotQueries.put(query, cache.getOrPrepare(query, Query::prepare));
+        }
+        for (int access = 0; access < 10; access++) {
+            hotQueries.forEach((query, prepared) -> assertSame(prepared, cache.getOrPrepare(query, Query::prepare)));
+        }
+
+        // Many queries that are each used only once must not evict the queries that are in use
+        for (int i = 0; i < 100; i++) {
+            cache.getOrPrepare("${cold" + i + "}", Query::prepare);
+        }
+
+        assertTrue(cache.size() <= 10);
+        hotQueries.forEach((query, prepared) -> assertSame(prepared, cache.getOrPrepare(query, Query::prepare)));
+
+        cache.setMaxSize(0);
+        cache.getOrPrepare("${d}", Query::prepare);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testCompiledEvaluationMatchesInterpreter() {
+        final List<String> expressions = List.of(
+            "${filename}",
+            "prefix-${filename:toUpper():append('.txt')}-suffix",
+            "${filename:toLower():prepend('/'):trim()}",
+            "${missing:replaceNull('default')}",
+            "${blank:replaceEmpty(${filename})}",
+            "${filename:equals('Hello.txt')}",
+            "${filename:equalsIgnoreCase('HELLO.TXT')}",
+            "${filename:startsWith('He'):and(${filename:endsWith('.txt')})}",
+            "${filename:contains('xyz'):or(${missing:isNull()})}",
+            "${filename:contains('xyz'):not()}",
+            "${blank:isEmpty()}",
+            "${missing:notNull()}",
+            "${size:gt(1000)}",
+            "${size:ge(1024):and(${size:lt(2048)})}",
+            "${decimal:le(2)}",
+            "${hex:gt(15)}",
+            "${notNumber:lt(5)}",
+            "${filename:length()}",
+            "${filename:length():gt(5)}",
+            "${filename:startsWith('He'):ifElse('yes', 'no')}",
+            "${filename:equals(${other})}",
+            "${size:equals(1024)}",
+            "${filename:substring(0, 2):toUpper()}",
+            "${anyAttribute('filename', 'other'):equals('Hello.txt')}",
+            "${filename:isEmpty():not()}"
+        );
+
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("filename", "Hello.txt");
+        attributes.put("other", "Hello.txt");
+        attributes.put("blank", "  ");
+        attributes.put("size", "1024");
+        attributes.put("decimal", "1.5");
+        attributes.put("hex", "0x10");
+        attributes.put("notNumber", "abc");
+
+        try {
+            for (final String expression : expressions) {
+                Query.setCompiledEvaluationEnabled(false);
+                final String interpreted = evaluate(expression, attributes);
+
+                Query.setCompiledEvaluationEnabled(true);
+                assertEquals(interpreted, evaluate(expression, attributes), expression);
+                assertEquals(evaluate(expression, Collections.emptyMap()), evaluateInterpreted(expression, Collections.emptyMap()), expression);
+            }
+        } finally {
+            Query.setCompiledEvaluationEnabled(false);
+        }
+    }
+
+    @Test
+    public void testCompiledFunctionFallsBackToInterpreter() {
+        assertNotNull(getCompiledFunction("${filename:startsWith('He'):and(${size:gt(1000)})}"));
+        assertNotNull(getCompiledFunction("${filename:substring(0, 2):toUpper()}"));
+        assertNull(getCompiledFunction("${filename:substring(0, 2)}"));
+        assertNull(getCompiledFunction("${allAttributes('a', 'b'):equals('c')}"));
+    }
+
+    private Object getCompiledFunction(final String query) {
+        final CompiledExpression expression = (CompiledExpression) Query.prepare(query).getExpressions().get(0);
+        return expression.getCompiledFunction();
+    }
+
+    private String evaluateInterpreted(final String query, final Map<String, String> attrs) {
+        Query.setCompiledEvaluationEnabled(false);
+        try {
+            return evaluate(query, attrs);
+        } finally {
+            Query.setCompiledEvaluationEnabled(true);
+        }
+    }
+
     private String evaluate(final String query, final Map<String, String> attrs) {
         return Query.prepare(query).evaluateExpressions(new StandardEvaluationContext(attrs), null);
     }
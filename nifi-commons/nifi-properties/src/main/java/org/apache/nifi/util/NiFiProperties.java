@@ -85,6 +85,8 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String BACKPRESSURE_COUNT = "nifi.queue.backpressure.count";
     public static final String BACKPRESSURE_SIZE = "nifi.queue.backpressure.size";
     public static final String UPLOAD_WORKING_DIRECTORY = "nifi.upload.working.directory";
+    public static final String EXPRESSION_LANGUAGE_COMPILED_EVALUATION_ENABLED = "nifi.expression.language.compiled.evaluation.enabled";
+    public static final String EXPRESSION_LANGUAGE_PREPARED_QUERY_CACHE_SIZE = "nifi.expression.language.prepared.query.cache.size";
 
     // content repository properties
     public static final String REPOSITORY_CONTENT_PREFIX = "nifi.content.repository.directory.";
@@ -95,14 +97,23 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String CONTENT_ARCHIVE_BACK_PRESSURE_PERCENTAGE = "nifi.content.repository.archive.backpressure.percentage";
     public static final String CONTENT_ARCHIVE_ENABLED = "nifi.content.repository.archive.enabled";
     public static final String CONTENT_ARCHIVE_CLEANUP_FREQUENCY = "nifi.content.repository.archive.cleanup.frequency";
+    public static final String CONTENT_REPOSITORY_MEMORY_MAPPED_READS_ENABLED = "nifi.content.repository.memory.mapped.reads.enabled";
+    public static final String CONTENT_REPOSITORY_MEMORY_MAPPED_MAX_FILES = "nifi.content.repository.memory.mapped.max.files";
+    public static final String CONTENT_REPOSITORY_MEMORY_MAPPED_MAX_FILE_SIZE = "nifi.content.repository.memory.mapped.max.file.size";
 
     // flowfile repository properties
     public static final String FLOWFILE_REPOSITORY_IMPLEMENTATION = "nifi.flowfile.repository.implementation";
     public static final String FLOWFILE_REPOSITORY_ALWAYS_SYNC = "nifi.flowfile.repository.always.sync";
+    public static final String FLOWFILE_REPOSITORY_GROUP_COMMIT_ENABLED = "nifi.flowfile.repository.group.commit.enabled";
+    public static final String FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW = "nifi.flowfile.repository.group.commit.window";
+    public static final String FLOWFILE_REPOSITORY_SNAPSHOT_PARTITIONS = "nifi.flowfile.repository.snapshot.partitions";
     public static final String FLOWFILE_REPOSITORY_DIRECTORY = "nifi.flowfile.repository.directory";
     public static final String FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL = "nifi.flowfile.repository.checkpoint.interval";
     public static final String FLOWFILE_SWAP_MANAGER_IMPLEMENTATION = "nifi.swap.manager.implementation";
     public static final String QUEUE_SWAP_THRESHOLD = "nifi.queue.swap.threshold";
+    public static final String SWAP_COMPRESSION = "nifi.swap.compression";
+    public static final String SWAP_PREFETCH_ENABLED = "nifi.swap.prefetch.enabled";
+    public static final String QUEUE_CONCURRENT_ACCESS_ENABLED = "nifi.queue.concurrent.access.enabled";
 
     // provenance properties
     public static final String PROVENANCE_REPO_IMPLEMENTATION_CLASS = "nifi.provenance.repository.implementation";
@@ -120,6 +131,11 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String PROVENANCE_INDEX_SHARD_SIZE = "nifi.provenance.repository.index.shard.size";
     public static final String PROVENANCE_JOURNAL_COUNT = "nifi.provenance.repository.journal.count";
     public static final String PROVENANCE_REPO_DEBUG_FREQUENCY = "nifi.provenance.repository.debug.frequency";
+    public static final String PROVENANCE_SAMPLING_MODE = "nifi.provenance.repository.sampling.mode";
+    public static final String PROVENANCE_SAMPLING_RATE = "nifi.provenance.repository.sampling.rate";
+    public static final String PROVENANCE_SAMPLING_RATE_TYPE_PREFIX = "nifi.provenance.repository.sampling.rate.type.";
+    public static final String PROVENANCE_SAMPLING_RATE_GROUP_PREFIX = "nifi.provenance.repository.sampling.rate.group.";
+    public static final String PROVENANCE_SAMPLING_AGGREGATION_PERIOD = "nifi.provenance.repository.sampling.aggregation.period";
 
     public static final String ASSET_MANAGER_IMPLEMENTATION = "nifi.asset.manager.implementation";
     public static final String ASSET_MANAGER_PREFIX = "nifi.asset.manager.properties.";
@@ -243,6 +259,9 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String LOAD_BALANCE_CONNECTIONS_PER_NODE = "nifi.cluster.load.balance.connections.per.node";
     public static final String LOAD_BALANCE_MAX_THREAD_COUNT = "nifi.cluster.load.balance.max.thread.count";
     public static final String LOAD_BALANCE_COMMS_TIMEOUT = "nifi.cluster.load.balance.comms.timeout";
+    public static final String LOAD_BALANCE_COMPRESSION_CODEC = "nifi.cluster.load.balance.compression.codec";
+    public static final String LOAD_BALANCE_ADAPTIVE_PARTITIONING_ENABLED = "nifi.cluster.load.balance.adaptive.partitioning.enabled";
+    public static final String LOAD_BALANCE_STREAMS_PER_CONNECTION = "nifi.cluster.load.balance.streams.per.connection";
 
     // zookeeper properties
     public static final String ZOOKEEPER_CONNECT_STRING = "nifi.zookeeper.connect.string";
@@ -348,8 +367,22 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String DEFAULT_NAR_LIBRARY_DIR = "./lib";
     public static final String DEFAULT_NAR_LIBRARY_AUTOLOAD_DIR = "./extensions";
     public static final String DEFAULT_FLOWFILE_CHECKPOINT_INTERVAL = "20 secs";
+    public static final String DEFAULT_FLOWFILE_REPOSITORY_GROUP_COMMIT_ENABLED = "false";
+    public static final String DEFAULT_FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW = "1 millis";
+    public static final int DEFAULT_FLOWFILE_REPOSITORY_SNAPSHOT_PARTITIONS = 1;
     public static final String DEFAULT_MAX_APPENDABLE_CLAIM_SIZE = "50 KB";
     public static final int DEFAULT_QUEUE_SWAP_THRESHOLD = 20000;
+    public static final String DEFAULT_SWAP_COMPRESSION = "NONE";
+    public static final String DEFAULT_SWAP_PREFETCH_ENABLED = "false";
+    public static final String DEFAULT_PROVENANCE_SAMPLING_MODE = "NONE";
+    public static final double DEFAULT_PROVENANCE_SAMPLING_RATE = 1.0D;
+    public static final String DEFAULT_PROVENANCE_SAMPLING_AGGREGATION_PERIOD = "1 min";
+    public static final String DEFAULT_QUEUE_CONCURRENT_ACCESS_ENABLED = "false";
+    public static final String DEFAULT_EXPRESSION_LANGUAGE_COMPILED_EVALUATION_ENABLED = "false";
+    public static final int DEFAULT_EXPRESSION_LANGUAGE_PREPARED_QUERY_CACHE_SIZE = 10000;
+    public static final String DEFAULT_CONTENT_REPOSITORY_MEMORY_MAPPED_READS_ENABLED = "false";
+    public static final int DEFAULT_CONTENT_REPOSITORY_MEMORY_MAPPED_MAX_FILES = 1024;
+    public static final String DEFAULT_CONTENT_REPOSITORY_MEMORY_MAPPED_MAX_FILE_SIZE = "10 MB";
     public static final long DEFAULT_BACKPRESSURE_COUNT = 10_000L;
     public static final String DEFAULT_BACKPRESSURE_SIZE = "1 GB";
     public static final String DEFAULT_ADMINISTRATIVE_YIELD_DURATION = "30 sec";
@@ -408,6 +441,9 @@ public class NiFiProperties extends ApplicationProperties {
     public static final int DEFAULT_LOAD_BALANCE_CONNECTIONS_PER_NODE = 4;
     public static final int DEFAULT_LOAD_BALANCE_MAX_THREAD_COUNT = 8;
     public static final String DEFAULT_LOAD_BALANCE_COMMS_TIMEOUT = "30 sec";
+    public static final String DEFAULT_LOAD_BALANCE_COMPRESSION_CODEC = "ZSTD";
+    public static final String DEFAULT_LOAD_BALANCE_ADAPTIVE_PARTITIONING_ENABLED = "false";
+    public static final int DEFAULT_LOAD_BALANCE_STREAMS_PER_CONNECTION = 8;
 
 
     // state management defaults
@@ -489,6 +525,77 @@ public class NiFiProperties extends ApplicationProperties {
         }
     }
 
+    /**
+     * Returns the name of the compression codec that should be used when writing swap files. Swap files are always read using the codec
+     * with which they were written, regardless of this value.
+     *
+     * @return the name of the swap file compression codec
+     */
+    public String getSwapCompression() {
+        return getProperty(SWAP_COMPRESSION, DEFAULT_SWAP_COMPRESSION).trim();
+    }
+
+    /**
+     * Returns whether or not the next swap file of a connection should be read in the background while the FlowFiles that were
+     * most recently swapped in are being processed.
+     *
+     * @return true if swap files should be prefetched
+     */
+    public boolean isSwapPrefetchEnabled() {
+        return Boolean.parseBoolean(getProperty(SWAP_PREFETCH_ENABLED, DEFAULT_SWAP_PREFETCH_ENABLED));
+    }
+
+    /**
+     * Returns whether or not connections without prioritizers should allow FlowFiles to be added and polled concurrently by many threads,
+     * rather than serializing all access through a single lock.
+     *
+     * @return true if concurrent access to connection queues is enabled
+     */
+    public boolean isQueueConcurrentAccessEnabled() {
+        return Boolean.parseBoolean(getProperty(QUEUE_CONCURRENT_ACCESS_ENABLED, DEFAULT_QUEUE_CONCURRENT_ACCESS_ENABLED));
+    }
+
+    /**
+     * Returns whether or not load-balanced connections should distribute FlowFiles based on how busy each node is, as observed from the
+     * queue depth, transfer latency and throughput of each node, rather than strictly by Round Robin or by the partitioning attribute alone.
+     *
+     * @return true if adaptive partitioning is enabled for load-balanced connections
+     */
+    public boolean isLoadBalanceAdaptivePartitioningEnabled() {
+        return Boolean.parseBoolean(getProperty(LOAD_BALANCE_ADAPTIVE_PARTITIONING_ENABLED, DEFAULT_LOAD_BALANCE_ADAPTIVE_PARTITIONING_ENABLED));
+    }
+
+    /**
+     * Returns whether or not Expression Language should be evaluated using functions compiled from each parsed Expression, rather than
+     * by interpreting the parsed Expression each time that it is evaluated.
+     *
+     * @return true if compiled evaluation of Expression Language is enabled
+     */
+    public boolean isExpressionLanguageCompiledEvaluationEnabled() {
+        return Boolean.parseBoolean(getProperty(EXPRESSION_LANGUAGE_COMPILED_EVALUATION_ENABLED, DEFAULT_EXPRESSION_LANGUAGE_COMPILED_EVALUATION_ENABLED));
+    }
+
+    /**
+     * Returns the maximum number of distinct Expression Language queries whose parsed form is cached and shared across components.
+     * A value less than 1 disables the cache.
+     *
+     * @return the maximum number of cached Expression Language queries
+     */
+    public int getExpressionLanguagePreparedQueryCacheSize() {
+        return getIntegerProperty(EXPRESSION_LANGUAGE_PREPARED_QUERY_CACHE_SIZE, DEFAULT_EXPRESSION_LANGUAGE_PREPARED_QUERY_CACHE_SIZE);
+    }
+
+    public boolean isContentRepositoryMemoryMappedReadsEnabled() {
+        return Boolean.parseBoolean(getProperty(CONTENT_REPOSITORY_MEMORY_MAPPED_READS_ENABLED, DEFAULT_CONTENT_REPOSITORY_MEMORY_MAPPED_READS_ENABLED));
+    }
+
+    /**
+     * @return the maximum size of a content repository file that may be memory-mapped, as a data size such as "10 MB"
+     */
+    public String getContentRepositoryMemoryMappedMaxFileSize() {
+        return getProperty(CONTENT_REPOSITORY_MEMORY_MAPPED_MAX_FILE_SIZE, DEFAULT_CONTENT_REPOSITORY_MEMORY_MAPPED_MAX_FILE_SIZE);
+    }
+
     public Integer getIntegerProperty(final String propertyName, final Integer defaultValue) {
         final String value = getProperty(propertyName);
         if (value == null || value.isBlank()) {
@@ -613,6 +720,30 @@ public class NiFiProperties extends ApplicationProperties {
         return getProperty(FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL, DEFAULT_FLOWFILE_CHECKPOINT_INTERVAL);
     }
 
+    public boolean isFlowFileRepositoryGroupCommitEnabled() {
+        return Boolean.parseBoolean(getProperty(FLOWFILE_REPOSITORY_GROUP_COMMIT_ENABLED, DEFAULT_FLOWFILE_REPOSITORY_GROUP_COMMIT_ENABLED));
+    }
+
+    /**
+     * Returns the amount of time that the FlowFile Repository waits for concurrent updates before syncing its journal to disk,
+     * when group commit is enabled
+     *
+     * @return the group commit window
+     */
+    public String getFlowFileRepositoryGroupCommitWindow() {
+        return getProperty(FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW, DEFAULT_FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW);
+    }
+
+    /**
+     * Returns the number of partitions that the FlowFile Repository's snapshot is divided into. A value greater than 1
+     * causes only the partitions that have changed to be written on each checkpoint.
+     *
+     * @return the number of snapshot partitions
+     */
+    public int getFlowFileRepositorySnapshotPartitions() {
+        return getIntegerProperty(FLOWFILE_REPOSITORY_SNAPSHOT_PARTITIONS, DEFAULT_FLOWFILE_REPOSITORY_SNAPSHOT_PARTITIONS);
+    }
+
     /**
      * @return the restore directory or null if not configured
      */
@@ -19,6 +19,7 @@ package org.apache.nifi.serialization;
 
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldIndex;
 import org.apache.nifi.serialization.record.RecordFieldRemovalPath;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.SchemaIdentifier;
@@ -33,6 +34,7 @@ import java.util.concurrent.atomic.AtomicReference;
 public class SimpleRecordSchema implements RecordSchema {
     private List<RecordField> fields = null;
     private Map<String, RecordField> fieldMap = null;
+    private volatile RecordFieldIndex fieldIndex = null;
     private boolean textAvailable;
     private final AtomicReference<String> text = new AtomicReference<>();
     private String schemaFormat;
@@ -101,6 +103,7 @@ public class SimpleRecordSchema implements RecordSchema {
 
         this.recursive = null;
         this.hashCode = 0;
+        this.fieldIndex = null;
         this.fields = List.copyOf(fields);
         this.fieldMap = new HashMap<>(fields.size() * 2);
 
@@ -129,6 +132,16 @@ public class SimpleRecordSchema implements RecordSchema {
         return fields.get(index);
     }
 
+    @Override
+    public RecordFieldIndex getFieldIndex() {
+        RecordFieldIndex index = this.fieldIndex;
+        if (index == null) {
+            index = this.fieldIndex = RecordFieldIndex.of(fields);
+        }
+
+        return index;
+    }
+
     @Override
     public List<DataType> getDataTypes() {
         final List<DataType> dataTypes = new ArrayList<>();
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record;
+
+import java.util.List;
+
+/**
+ * <p>
+ * A {@link MapRecord} whose values are held in an {@link IndexedValueMap}, so that the value of each field in the schema is stored in an array
+ * at the position of the field within the schema. This avoids allocating a hash table entry per field and allows the values of schema fields
+ * to be retrieved by position rather than through a lookup of the field in the schema.
+ * </p>
+ *
+ * <p>
+ * The record behaves exactly as a MapRecord that holds the same values. The positional lookups are only used while the record's schema has the
+ * same {@link RecordSchema#getFieldIndex() field index} as the values; once the schema of the record changes, such as after a field is renamed,
+ * lookups fall back to those of the MapRecord.
+ * </p>
+ */
+public class ArrayRecord extends MapRecord {
+    private final IndexedValueMap values;
+
+    public ArrayRecord(final RecordSchema schema, final IndexedValueMap values) {
+        this(schema, values, null, false, false);
+    }
+
+    public ArrayRecord(final RecordSchema schema, final IndexedValueMap values, final boolean checkTypes, final boolean dropUnknownFields) {
+        this(schema, values, null, checkTypes, dropUnknownFields);
+    }
+
+    public ArrayRecord(final RecordSchema schema, final IndexedValueMap values, final SerializedForm serializedForm) {
+        this(schema, values, serializedForm, false, false);
+    }
+
+    public ArrayRecord(final RecordSchema schema, final IndexedValueMap values, final SerializedForm serializedForm, final boolean checkTypes, final boolean dropUnknownFields) {
+        super(schema, values, serializedForm, checkTypes, dropUnknownFields);
+        this.values = values;
+    }
+
+    private boolean isIndexedBySchema() {
+        return getSchema().getFieldIndex() == values.getFieldIndex();
+    }
+
+    @Override
+    public Object[] getValues() {
+        if (!isIndexedBySchema()) {
+            return super.getValues();
+        }
+
+        final List<RecordField> fields = getSchema().getFields();
+        final Object[] fieldValues = new Object[fields.size()];
+        for (int i = 0; i < fieldValues.length; i++) {
+            final Object value = values.get(i);
+            fieldValues[i] = value == null ? getValue(fields.get(i)) : value;
+        }
+
+        return fieldValues;
+    }
+
+    @Override
+    public Object getValue(final String fieldName) {
+        if (isIndexedBySchema()) {
+            final int index = values.getFieldIndex().indexOf(fieldName);
+            if (index >= 0) {
+                final Object value = values.get(index);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+
+        return super.getValue(fieldName);
+    }
+
+    @Override
+    public Object getValue(final RecordField field) {
+        // The value stored under the field's canonical name takes precedence regardless of the record's current schema
+        final int index = values.getFieldIndex().indexOf(field.getFieldName());
+        if (index >= 0) {
+            final Object value = values.get(index);
+            if (value != null) {
+                return value;
+            }
+        }
+
+        return super.getValue(field);
+    }
+}
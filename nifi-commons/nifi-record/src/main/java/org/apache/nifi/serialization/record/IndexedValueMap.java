@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>
+ * A Map of field name to value that stores the values of the fields in a {@link RecordFieldIndex} in an array, indexed by the
+ * position of the field within the schema, rather than allocating an entry per field. Values whose names are not part of the
+ * index, such as unknown fields or aliases, are kept in a secondary map that is only created when needed.
+ * </p>
+ *
+ * <p>
+ * Iteration returns the indexed fields, in schema order, followed by any other fields in insertion order.
+ * This class is not thread-safe.
+ * </p>
+ */
+public class IndexedValueMap extends AbstractMap<String, Object> {
+    private static final Object ABSENT = new Object();
+
+    private final RecordFieldIndex fieldIndex;
+    private final Object[] indexedValues;
+    private int indexedCount = 0;
+    private Map<String, Object> otherValues = null;
+    private Set<Map.Entry<String, Object>> entrySet = null;
+
+    public IndexedValueMap(final RecordSchema schema) {
+        this(schema.getFieldIndex());
+    }
+
+    public IndexedValueMap(final RecordFieldIndex fieldIndex) {
+        this.fieldIndex = fieldIndex;
+        this.indexedValues = new Object[fieldIndex.getFieldCount()];
+        Arrays.fill(indexedValues, ABSENT);
+    }
+
+    /**
+     * Returns the given values as an IndexedValueMap for the given schema. If the values are already an IndexedValueMap that was created for
+     * the schema, they are returned as-is; otherwise, they are copied into a new IndexedValueMap.
+     *
+     * @param schema the schema of the record that the values belong to
+     * @param values the values of the record
+     * @return an IndexedValueMap containing the given values
+     */
+    public static IndexedValueMap of(final RecordSchema schema, final Map<String, Object> values) {
+        final RecordFieldIndex fieldIndex = schema.getFieldIndex();
+        if (values instanceof final IndexedValueMap indexedValueMap && indexedValueMap.fieldIndex == fieldIndex) {
+            return indexedValueMap;
+        }
+
+        final IndexedValueMap indexedValueMap = new IndexedValueMap(fieldIndex);
+        indexedValueMap.putAll(values);
+        return indexedValueMap;
+    }
+
+    /**
+     * @return the index that determines the position of each field's value
+     */
+    public RecordFieldIndex getFieldIndex() {
+        return fieldIndex;
+    }
+
+    /**
+     * @param index the 0-based index of the field within the {@link #getFieldIndex() field index}
+     * @return the value of the field at the given index, or <code>null</code> if the field has no value
+     */
+    public Object get(final int index) {
+        final Object value = indexedValues[index];
+        return value == ABSENT ? null : value;
+    }
+
+    @Override
+    public int size() {
+        return indexedCount + (otherValues == null ? 0 : otherValues.size());
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        final int index = indexOf(key);
+        if (index >= 0) {
+            return indexedValues[index] != ABSENT;
+        }
+
+        return otherValues != null && otherValues.containsKey(key);
+    }
+
+    @Override
+    public Object get(final Object key) {
+        final int index = indexOf(key);
+        if (index >= 0) {
+            return get(index);
+        }
+
+        return otherValues == null ? null : otherValues.get(key);
+    }
+
+    @Override
+    public Object put(final String key, final Object value) {
+        final int index = fieldIndex.indexOf(key);
+        if (index >= 0) {
+            final Object previous = indexedValues[index];
+            indexedValues[index] = value;
+            if (previous == ABSENT) {
+                indexedCount++;
+                return null;
+            }
+
+            return previous;
+        }
+
+        if (otherValues == null) {
+            otherValues = new LinkedHashMap<>();
+        }
+
+        return otherValues.put(key, value);
+    }
+
+    @Override
+    public Object remove(final Object key) {
+        final int index = indexOf(key);
+        if (index >= 0) {
+            return removeIndexed(index);
+        }
+
+        return otherValues == null ? null : otherValues.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(indexedValues, ABSENT);
+        indexedCount = 0;
+        otherValues = null;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+
+        return entrySet;
+    }
+
+    private int indexOf(final Object key) {
+        return key instanceof final String fieldName ? fieldIndex.indexOf(fieldName) : -1;
+    }
+
+    private Object removeIndexed(final int index) {
+        final Object previous = indexedValues[index];
+        if (previous == ABSENT) {
+            return null;
+        }
+
+        indexedValues[index] = ABSENT;
+        indexedCount--;
+        return previous;
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return IndexedValueMap.this.size();
+        }
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+        private int nextIndex = advance(0);
+        private int lastIndex = -1;
+        private Iterator<Map.Entry<String, Object>> otherIterator = null;
+
+        private int advance(final int fromIndex) {
+            int index = fromIndex;
+            while (index < indexedValues.length && indexedValues[index] == ABSENT) {
+                index++;
+            }
+
+            return index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextIndex < indexedValues.length) {
+                return true;
+            }
+
+            if (otherIterator == null) {
+                if (otherValues == null) {
+                    return false;
+                }
+
+                otherIterator = otherValues.entrySet().iterator();
+            }
+
+            return otherIterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (nextIndex < indexedValues.length) {
+                lastIndex = nextIndex;
+                nextIndex = advance(nextIndex + 1);
+                return new IndexedEntry(lastIndex);
+            }
+
+            lastIndex = -1;
+            return otherIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            if (lastIndex >= 0) {
+                removeIndexed(lastIndex);
+                lastIndex = -1;
+            } else if (otherIterator != null) {
+                otherIterator.remove();
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private class IndexedEntry implements Map.Entry<String, Object> {
+        private final int index;
+
+        private IndexedEntry(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return fieldIndex.getFieldName(index);
+        }
+
+        @Override
+        public Object getValue() {
+            return get(index);
+        }
+
+        @Override
+        public Object setValue(final Object value) {
+            return put(getKey(), value);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof final Map.Entry<?, ?> other && getKey().equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            final Object value = getValue();
+            return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable table that maps the name of each field in a {@link RecordSchema} to the 0-based position of that field within the schema.
+ * Only the canonical field names are indexed; aliases are not.
+ */
+public final class RecordFieldIndex {
+    private final String[] fieldNames;
+    private final Map<String, Integer> indices;
+
+    private RecordFieldIndex(final String[] fieldNames, final Map<String, Integer> indices) {
+        this.fieldNames = fieldNames;
+        this.indices = indices;
+    }
+
+    /**
+     * @param fields the fields of the schema, in schema order
+     * @return a RecordFieldIndex for the given fields
+     */
+    public static RecordFieldIndex of(final List<RecordField> fields) {
+        final String[] fieldNames = new String[fields.size()];
+        final Map<String, Integer> indices = new HashMap<>(fields.size() * 2);
+
+        for (int i = 0; i < fieldNames.length; i++) {
+            final String fieldName = fields.get(i).getFieldName();
+            fieldNames[i] = fieldName;
+            indices.putIfAbsent(fieldName, i);
+        }
+
+        return new RecordFieldIndex(fieldNames, indices);
+    }
+
+    /**
+     * @return the number of fields in the index
+     */
+    public int getFieldCount() {
+        return fieldNames.length;
+    }
+
+    /**
+     * @param index the 0-based index of the field
+     * @return the name of the field at the given index
+     */
+    public String getFieldName(final int index) {
+        return fieldNames[index];
+    }
+
+    /**
+     * @param fieldName the canonical name of the field
+     * @return the 0-based index of the field with the given name, or <code>-1</code> if no field has the given name
+     */
+    public int indexOf(final String fieldName) {
+        final Integer index = indices.get(fieldName);
+        return index == null ? -1 : index;
+    }
+}
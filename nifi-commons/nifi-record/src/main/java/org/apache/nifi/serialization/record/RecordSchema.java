@@ -39,6 +39,16 @@ public interface RecordSchema {
      */
     RecordField getField(int index);
 
+    /**
+     * Returns a table of the position of each field within the schema, keyed by field name. Implementations should return the same instance for as long
+     * as the fields of the schema remain unchanged, so that callers can detect a change by comparing references.
+     *
+     * @return the index of each field in the schema
+     */
+    default RecordFieldIndex getFieldIndex() {
+        return RecordFieldIndex.of(getFields());
+    }
+
     /**
      * @return the data types of the fields
      */
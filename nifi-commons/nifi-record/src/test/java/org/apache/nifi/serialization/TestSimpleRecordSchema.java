@@ -19,6 +19,7 @@ package org.apache.nifi.serialization;
 
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldIndex;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.SchemaIdentifier;
 import org.junit.jupiter.api.Test;
@@ -31,7 +32,10 @@ import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TestSimpleRecordSchema {
 
@@ -187,6 +191,23 @@ class TestSimpleRecordSchema {
         assertThrows(StackOverflowError.class, () -> schema2.equals(schema1));
     }
 
+    @Test
+    void testFieldIndexIsResetWhenFieldsChange() {
+        final SimpleRecordSchema schema = createSchemaWithTwoFields("a", "b", RecordFieldType.STRING.getDataType(), RecordFieldType.INT.getDataType(), "schema", "ns");
+
+        final RecordFieldIndex fieldIndex = schema.getFieldIndex();
+        assertSame(fieldIndex, schema.getFieldIndex());
+        assertEquals(0, fieldIndex.indexOf("a"));
+        assertEquals(1, fieldIndex.indexOf("b"));
+        assertEquals(-1, fieldIndex.indexOf("c"));
+
+        assertTrue(schema.renameField("a", "c"));
+        final RecordFieldIndex renamedIndex = schema.getFieldIndex();
+        assertNotSame(fieldIndex, renamedIndex);
+        assertEquals(0, renamedIndex.indexOf("c"));
+        assertEquals(-1, renamedIndex.indexOf("a"));
+    }
+
     private SimpleRecordSchema createSchemaWithTwoFields(String nameOfField1, String nameOfField2,
                                                          DataType typeOfField1, DataType typeOfField2,
                                                          String schemaName, String schemaNamespace) {
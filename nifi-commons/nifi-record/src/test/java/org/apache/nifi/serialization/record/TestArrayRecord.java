@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record;
+
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestArrayRecord {
+
+    private static final List<RecordField> FIELDS = List.of(
+        new RecordField("string", RecordFieldType.STRING.getDataType()),
+        new RecordField("number", RecordFieldType.INT.getDataType(), 42),
+        new RecordField("flag", RecordFieldType.BOOLEAN.getDataType(), null, Set.of("bool"))
+    );
+
+    @Test
+    void testValuesMatchMapRecord() {
+        final RecordSchema schema = new SimpleRecordSchema(FIELDS);
+
+        final IndexedValueMap values = new IndexedValueMap(schema);
+        values.put("string", "hello");
+        values.put("bool", true);
+        values.put("unknown", "other");
+
+        final Map<String, Object> mapValues = new LinkedHashMap<>();
+        mapValues.put("string", "hello");
+        mapValues.put("bool", true);
+        mapValues.put("unknown", "other");
+
+        final Record arrayRecord = new ArrayRecord(schema, values);
+        final Record mapRecord = new MapRecord(schema, mapValues);
+
+        assertEquals(mapRecord, arrayRecord);
+        assertEquals(arrayRecord, mapRecord);
+        assertEquals(mapRecord.hashCode(), arrayRecord.hashCode());
+        assertArrayEquals(new Object[] {"hello", 42, true}, arrayRecord.getValues());
+        assertArrayEquals(mapRecord.getValues(), arrayRecord.getValues());
+
+        for (final String fieldName : List.of("string", "number", "flag", "bool", "unknown", "missing")) {
+            assertEquals(mapRecord.getValue(fieldName), arrayRecord.getValue(fieldName), fieldName);
+        }
+        for (final RecordField field : FIELDS) {
+            assertEquals(mapRecord.getValue(field), arrayRecord.getValue(field), field.getFieldName());
+        }
+
+        assertEquals(mapRecord.getRawFieldNames(), arrayRecord.getRawFieldNames());
+        assertEquals(List.of("string", "bool", "unknown"), new ArrayList<>(arrayRecord.getRawFieldNames()));
+    }
+
+    @Test
+    void testDropUnknownFields() {
+        final RecordSchema schema = new SimpleRecordSchema(FIELDS);
+        final IndexedValueMap values = new IndexedValueMap(schema);
+        values.put("string", "hello");
+        values.put("unknown", "other");
+
+        final Record record = new ArrayRecord(schema, values, false, true);
+        assertEquals("hello", record.getValue("string"));
+        assertNull(record.getValue("unknown"));
+    }
+
+    @Test
+    void testSetAndRemoveValues() {
+        final RecordSchema schema = new SimpleRecordSchema(FIELDS);
+        final IndexedValueMap values = new IndexedValueMap(schema);
+        values.put("string", "hello");
+
+        final Record record = new ArrayRecord(schema, values, SerializedForm.of("hello", "text/unit-test"));
+        record.setValue("number", 8);
+        assertEquals(8, record.getValue("number"));
+        assertEquals(8, values.get(schema.getFieldIndex().indexOf("number")));
+        assertFalse(record.getSerializedForm().isPresent());
+
+        record.remove(schema.getField("string").get());
+        assertNull(record.getValue("string"));
+        assertFalse(record.getRawFieldNames().contains("string"));
+        assertEquals(1, values.size());
+    }
+
+    @Test
+    void testRenameUsesUpdatedSchema() {
+        final RecordSchema schema = new SimpleRecordSchema(FIELDS);
+        final IndexedValueMap values = new IndexedValueMap(schema);
+        values.put("string", "hello");
+        values.put("number", 8);
+
+        final Record record = new ArrayRecord(schema, values);
+        assertTrue(record.rename(schema.getField("string").get(), "text"));
+
+        assertEquals("hello", record.getValue("text"));
+        assertNull(record.getValue("string"));
+        assertEquals(8, record.getValue("number"));
+        assertArrayEquals(new Object[] {"hello", 8, null}, record.getValues());
+
+        // The original schema is shared with other records and must be unaffected by the rename
+        assertTrue(schema.getField("string").isPresent());
+        assertEquals(0, schema.getFieldIndex().indexOf("string"));
+    }
+
+    @Test
+    void testIndexedValueMapIteration() {
+        final RecordSchema schema = new SimpleRecordSchema(FIELDS);
+        final IndexedValueMap values = new IndexedValueMap(schema);
+        values.put("extra", 1);
+        values.put("flag", null);
+        values.put("string", "hello");
+
+        assertEquals(3, values.size());
+        assertTrue(values.containsKey("flag"));
+        assertFalse(values.containsKey("number"));
+        assertEquals(List.of("string", "flag", "extra"), new ArrayList<>(values.keySet()));
+
+        final Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("string", "hello");
+        expected.put("flag", null);
+        expected.put("extra", 1);
+        assertEquals(expected, values);
+        assertEquals(expected.hashCode(), values.hashCode());
+
+        values.keySet().remove("flag");
+        values.entrySet().removeIf(entry -> entry.getKey().equals("extra"));
+        assertEquals(Map.of("string", "hello"), values);
+
+        values.clear();
+        assertTrue(values.isEmpty());
+    }
+}
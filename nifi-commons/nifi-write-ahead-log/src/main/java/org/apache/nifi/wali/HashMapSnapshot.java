@@ -98,7 +98,13 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         final boolean snapshotExists = snapshotFile.exists();
 
         // If there is no snapshot (which is the case before the first snapshot is ever created), then just
-        // return an empty recovery.
+        // return an empty recovery. However, if the repository has been checkpointed using a PartitionedSnapshot,
+        // then this snapshot is obsolete and recovering from it (or from nothing) would lose records.
+        if (PartitionedSnapshot.isSnapshotPresent(storageDirectory)) {
+            throw new IOException("Write-Ahead Log Snapshot located at " + storageDirectory + " was written using the "
+                + PartitionedSnapshot.class.getName() + " class; cannot restore using " + getClass().getName());
+        }
+
         if (!partialExists && !snapshotExists) {
             return SnapshotRecovery.emptyRecovery();
         }
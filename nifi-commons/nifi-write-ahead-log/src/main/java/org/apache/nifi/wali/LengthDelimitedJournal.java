@@ -27,6 +27,7 @@ import org.wali.UpdateType;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -42,12 +43,20 @@ import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
     private static final Logger logger = LoggerFactory.getLogger(LengthDelimitedJournal.class);
@@ -59,6 +68,11 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
     private static final byte JOURNAL_COMPLETE = 127;
     private static final int NUL_BYTE = 0;
 
+    // When recovering concurrently, transactions are handed off to be deserialized in batches of approximately this size,
+    // and at most MAX_PENDING_RECOVERY_BATCHES batches are held in memory awaiting deserialization at any one time.
+    private static final int RECOVERY_BATCH_BYTES = 256 * 1024;
+    private static final int MAX_PENDING_RECOVERY_BATCHES = 64;
+
     private final File journalFile;
     private final File overflowDirectory;
     private final long initialTransactionId;
@@ -215,11 +229,11 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
         }
 
         final int serdeHeaderLength = in.readInt();
-        final InputStream serdeHeaderIn = new LimitingInputStream(in, serdeHeaderLength);
-        final DataInputStream dis = new DataInputStream(serdeHeaderIn);
-        serde.readHeader(dis);
+        final byte[] serdeHeader = new byte[serdeHeaderLength];
+        in.readFully(serdeHeader);
+        serde.readHeader(new DataInputStream(new ByteArrayInputStream(serdeHeader)));
 
-        return new SerDeAndVersion(serde, serdeVersion);
+        return new SerDeAndVersion(serde, serdeVersion, serdeClassName, serdeHeader);
     }
 
 
@@ -411,8 +425,18 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
 
     @Override
     public JournalRecovery recoverRecords(final Map<Object, T> recordMap, final Set<String> swapLocations) throws IOException {
-        long maxTransactionId = -1L;
-        int updateCount = 0;
+        return recoverRecords(recordMap, swapLocations, null);
+    }
+
+    /**
+     * Recovers records from the journal. If an ExecutorService is given and the SerDe that wrote the journal does not require the current
+     * state of records in order to deserialize an edit, transactions are read from the journal sequentially but are deserialized concurrently,
+     * in batches, using the ExecutorService. Either way, each transaction is applied to the given record map and swap locations only once
+     * the entire transaction has been recovered, and transactions are applied in the order in which they were written.
+     */
+    @Override
+    public JournalRecovery recoverRecords(final Map<Object, T> recordMap, final Set<String> swapLocations, final ExecutorService executor) throws IOException {
+        final RecoveryState recoveryState = new RecoveryState();
 
         boolean eofException = false;
         logger.info("Recovering records from journal {}", journalFile);
@@ -429,118 +453,12 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                 final SerDe<T> serde = serdeAndVersion.getSerDe();
 
                 // Ensure that we get a valid transaction indicator
-                int transactionIndicator = in.read();
-                if (transactionIndicator != TRANSACTION_FOLLOWS && transactionIndicator != JOURNAL_COMPLETE && transactionIndicator != -1) {
-                    throw new IOException("After reading " + byteCountingIn.getBytesConsumed() + " bytes from " + journalFile + ", encountered unexpected value of "
-                        + transactionIndicator + " for the Transaction Indicator. This journal may have been corrupted.");
-                }
-
-                long consumedAtLog = 0L;
-
-                // We don't want to apply the updates in a transaction until we've finished recovering the entire
-                // transaction. Otherwise, we could apply say 8 out of 10 updates and then hit an EOF. In such a case,
-                // we want to rollback the entire transaction. We handle this by not updating recordMap or swapLocations
-                // variables directly but instead keeping track of the things that occurred and then once we've read the
-                // entire transaction, we can apply those updates to the recordMap and swapLocations.
-                final Map<Object, T> transactionRecordMap = new HashMap<>();
-                final Set<Object> idsRemoved = new HashSet<>();
-                final Set<String> swapLocationsRemoved = new HashSet<>();
-                final Set<String> swapLocationsAdded = new HashSet<>();
-                int transactionUpdates = 0;
-
-                // While we have a transaction to recover, recover it
-                while (transactionIndicator == TRANSACTION_FOLLOWS) {
-                    transactionRecordMap.clear();
-                    idsRemoved.clear();
-                    swapLocationsRemoved.clear();
-                    swapLocationsAdded.clear();
-                    transactionUpdates = 0;
-
-                    // Format is <Transaction ID: 8 bytes> <Transaction Length: 4 bytes> <Transaction data: # of bytes indicated by Transaction Length Field>
-                    final long transactionId = in.readLong();
-                    maxTransactionId = Math.max(maxTransactionId, transactionId);
-                    final int transactionLength = in.readInt();
-
-                    // Use SerDe to deserialize the update. We use a LimitingInputStream to ensure that the SerDe is not able to read past its intended
-                    // length, in case there is a bug in the SerDe. We then use a ByteCountingInputStream so that we can ensure that all of the data has
-                    // been read and throw EOFException otherwise.
-                    final InputStream transactionLimitingIn = new LimitingInputStream(in, transactionLength);
-                    final ByteCountingInputStream transactionByteCountingIn = new ByteCountingInputStream(transactionLimitingIn);
-                    final DataInputStream transactionDis = new DataInputStream(transactionByteCountingIn);
-
-                    while (transactionByteCountingIn.getBytesConsumed() < transactionLength || serde.isMoreInExternalFile()) {
-                        final T record = serde.deserializeEdit(transactionDis, recordMap, serdeAndVersion.getVersion());
-
-                        // Update our RecordMap so that we have the most up-to-date version of the Record.
-                        final Object recordId = serde.getRecordIdentifier(record);
-                        final UpdateType updateType = serde.getUpdateType(record);
-
-                        switch (updateType) {
-                            case DELETE: {
-                                idsRemoved.add(recordId);
-                                transactionRecordMap.remove(recordId);
-                                break;
-                            }
-                            case SWAP_IN: {
-                                final String location = serde.getLocation(record);
-                                if (location == null) {
-                                    logger.error("Recovered SWAP_IN record from edit log, but it did not contain a Location; skipping record");
-                                } else {
-                                    swapLocationsRemoved.add(location);
-                                    swapLocationsAdded.remove(location);
-                                    transactionRecordMap.put(recordId, record);
-                                }
-                                break;
-                            }
-                            case SWAP_OUT: {
-                                final String location = serde.getLocation(record);
-                                if (location == null) {
-                                    logger.error("Recovered SWAP_OUT record from edit log, but it did not contain a Location; skipping record");
-                                } else {
-                                    swapLocationsRemoved.remove(location);
-                                    swapLocationsAdded.add(location);
-                                    idsRemoved.add(recordId);
-                                    transactionRecordMap.remove(recordId);
-                                }
-
-                                break;
-                            }
-                            default: {
-                                transactionRecordMap.put(recordId, record);
-                                idsRemoved.remove(recordId);
-                                break;
-                            }
-                        }
-
-                        transactionUpdates++;
-                    }
-
-                    // Apply the transaction
-                    for (final Object id : idsRemoved) {
-                        recordMap.remove(id);
-                    }
-                    recordMap.putAll(transactionRecordMap);
-                    swapLocations.removeAll(swapLocationsRemoved);
-                    swapLocations.addAll(swapLocationsAdded);
-                    updateCount += transactionUpdates;
-
-                    // Check if there is another transaction to read
-                    transactionIndicator = in.read();
-                    if (transactionIndicator != TRANSACTION_FOLLOWS && transactionIndicator != JOURNAL_COMPLETE && transactionIndicator != -1) {
-                        throw new IOException("After reading " + byteCountingIn.getBytesConsumed() + " bytes from " + journalFile + ", encountered unexpected value of "
-                            + transactionIndicator + " for the Transaction Indicator. This journal may have been corrupted.");
-                    }
+                final int transactionIndicator = readTransactionIndicator(in, byteCountingIn);
 
-                    // If we have a very large journal (for instance, if checkpoint is not called for a long time, or if there is a problem rolling over
-                    // the journal), then we want to occasionally notify the user that we are, in fact, making progress, so that it doesn't appear that
-                    // NiFi has become "stuck".
-                    final long consumed = byteCountingIn.getBytesConsumed();
-                    if (consumed - consumedAtLog > 50_000_000) {
-                        final double percentage = consumed / journalLength * 100D;
-                        final String pct = new DecimalFormat("#.00").format(percentage);
-                        logger.info("{}% of the way finished recovering journal {}, having recovered {} updates", pct, journalFile, updateCount);
-                        consumedAtLog = consumed;
-                    }
+                if (executor != null && !serde.isCurrentStateRequiredForEdits()) {
+                    recoverTransactionsConcurrently(in, byteCountingIn, journalLength, transactionIndicator, serdeAndVersion, recordMap, swapLocations, executor, recoveryState);
+                } else {
+                    recoverTransactions(in, byteCountingIn, journalLength, transactionIndicator, serdeAndVersion, recordMap, swapLocations, recoveryState);
                 }
             } catch (final EOFException eof) {
                 eofException = true;
@@ -550,7 +468,7 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                 // the same as an EOF because we see this happen when we suddenly lose power
                 // while writing to a file. However, if that is not the case, then something else has gone wrong.
                 // In such a case, there is not much that we can do but to re-throw the Exception.
-                if (remainingBytesAllNul(in)) {
+                if (!recoveryState.corruptTransaction && remainingBytesAllNul(in)) {
                     logger.warn("Failed to recover some of the data from Write-Ahead Log Journal because encountered trailing NUL bytes. "
                         + "This will sometimes happen after a sudden power loss. The rest of this journal file will be skipped for recovery purposes."
                         + "The following Exception was encountered while recovering the updates to the journal:", e);
@@ -560,8 +478,201 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
             }
         }
 
-        logger.info("Successfully recovered {} updates from journal {}", updateCount, journalFile);
-        return new StandardJournalRecovery(updateCount, maxTransactionId, eofException);
+        logger.info("Successfully recovered {} updates from journal {}", recoveryState.updateCount, journalFile);
+        return new StandardJournalRecovery(recoveryState.updateCount, recoveryState.maxTransactionId, eofException);
+    }
+
+    private void recoverTransactions(final DataInputStream in, final ByteCountingInputStream byteCountingIn, final double journalLength, final int firstTransactionIndicator,
+                                     final SerDeAndVersion serdeAndVersion, final Map<Object, T> recordMap, final Set<String> swapLocations,
+                                     final RecoveryState recoveryState) throws IOException {
+        final SerDe<T> serde = serdeAndVersion.getSerDe();
+        int transactionIndicator = firstTransactionIndicator;
+        long consumedAtLog = 0L;
+
+        // We don't want to apply the updates in a transaction until we've finished recovering the entire
+        // transaction. Otherwise, we could apply say 8 out of 10 updates and then hit an EOF. In such a case,
+        // we want to rollback the entire transaction. We handle this by not updating recordMap or swapLocations
+        // variables directly but instead keeping track of the things that occurred and then once we've read the
+        // entire transaction, we can apply those updates to the recordMap and swapLocations.
+        final TransactionUpdates transactionUpdates = new TransactionUpdates();
+
+        // While we have a transaction to recover, recover it
+        while (transactionIndicator == TRANSACTION_FOLLOWS) {
+            transactionUpdates.clear();
+
+            // Format is <Transaction ID: 8 bytes> <Transaction Length: 4 bytes> <Transaction data: # of bytes indicated by Transaction Length Field>
+            final long transactionId = in.readLong();
+            recoveryState.maxTransactionId = Math.max(recoveryState.maxTransactionId, transactionId);
+            final int transactionLength = in.readInt();
+
+            // Use SerDe to deserialize the update. We use a LimitingInputStream to ensure that the SerDe is not able to read past its intended
+            // length, in case there is a bug in the SerDe. We then use a ByteCountingInputStream so that we can ensure that all of the data has
+            // been read and throw EOFException otherwise.
+            final InputStream transactionLimitingIn = new LimitingInputStream(in, transactionLength);
+            final ByteCountingInputStream transactionByteCountingIn = new ByteCountingInputStream(transactionLimitingIn);
+            final DataInputStream transactionDis = new DataInputStream(transactionByteCountingIn);
+
+            while (transactionByteCountingIn.getBytesConsumed() < transactionLength || serde.isMoreInExternalFile()) {
+                final T record = serde.deserializeEdit(transactionDis, recordMap, serdeAndVersion.getVersion());
+                transactionUpdates.add(record, serde);
+            }
+
+            // Apply the transaction
+            transactionUpdates.applyTo(recordMap, swapLocations);
+            recoveryState.updateCount += transactionUpdates.getUpdateCount();
+
+            // Check if there is another transaction to read
+            transactionIndicator = readTransactionIndicator(in, byteCountingIn);
+            consumedAtLog = logProgress(byteCountingIn, journalLength, consumedAtLog, recoveryState);
+        }
+    }
+
+    private void recoverTransactionsConcurrently(final DataInputStream in, final ByteCountingInputStream byteCountingIn, final double journalLength, final int firstTransactionIndicator,
+                                                 final SerDeAndVersion serdeAndVersion, final Map<Object, T> recordMap, final Set<String> swapLocations,
+                                                 final ExecutorService executor, final RecoveryState recoveryState) throws IOException {
+        final Deque<Future<DeserializedBatch>> pendingBatches = new ArrayDeque<>();
+        int transactionIndicator = firstTransactionIndicator;
+        long consumedAtLog = 0L;
+
+        List<byte[]> batch = new ArrayList<>();
+        int batchBytes = 0;
+
+        try {
+            // Read the raw bytes of each transaction here, handing them off in batches to be deserialized. Any failure to read, such as an EOFException
+            // due to a partially written transaction, is thrown only after all of the transactions that were fully read have been applied.
+            IOException readFailure = null;
+            try {
+                while (transactionIndicator == TRANSACTION_FOLLOWS) {
+                    final long transactionId = in.readLong();
+                    recoveryState.maxTransactionId = Math.max(recoveryState.maxTransactionId, transactionId);
+                    final int transactionLength = in.readInt();
+
+                    final byte[] transaction = new byte[transactionLength];
+                    in.readFully(transaction);
+                    batch.add(transaction);
+                    batchBytes += transactionLength;
+
+                    if (batchBytes >= RECOVERY_BATCH_BYTES) {
+                        final List<byte[]> transactions = batch;
+                        pendingBatches.add(executor.submit(() -> deserializeTransactions(transactions, serdeAndVersion)));
+                        batch = new ArrayList<>();
+                        batchBytes = 0;
+
+                        if (pendingBatches.size() >= MAX_PENDING_RECOVERY_BATCHES) {
+                            applyBatch(pendingBatches.poll(), recordMap, swapLocations, recoveryState, false);
+                        }
+                    }
+
+                    transactionIndicator = readTransactionIndicator(in, byteCountingIn);
+                    consumedAtLog = logProgress(byteCountingIn, journalLength, consumedAtLog, recoveryState);
+                }
+            } catch (final IOException ioe) {
+                readFailure = ioe;
+            }
+
+            if (!batch.isEmpty()) {
+                final List<byte[]> transactions = batch;
+                pendingBatches.add(executor.submit(() -> deserializeTransactions(transactions, serdeAndVersion)));
+            }
+
+            while (!pendingBatches.isEmpty()) {
+                applyBatch(pendingBatches.poll(), recordMap, swapLocations, recoveryState, pendingBatches.isEmpty());
+            }
+
+            if (readFailure != null) {
+                throw readFailure;
+            }
+        } finally {
+            for (final Future<DeserializedBatch> pendingBatch : pendingBatches) {
+                pendingBatch.cancel(true);
+            }
+        }
+    }
+
+    private DeserializedBatch deserializeTransactions(final List<byte[]> transactions, final SerDeAndVersion serdeAndVersion) {
+        final List<TransactionUpdates> deserialized = new ArrayList<>(transactions.size());
+
+        try {
+            final SerDe<T> serde = serdeAndVersion.createSerDe();
+
+            for (final byte[] transaction : transactions) {
+                final ByteCountingInputStream transactionByteCountingIn = new ByteCountingInputStream(new ByteArrayInputStream(transaction));
+                final DataInputStream transactionDis = new DataInputStream(transactionByteCountingIn);
+
+                final TransactionUpdates transactionUpdates = new TransactionUpdates();
+                while (transactionByteCountingIn.getBytesConsumed() < transaction.length || serde.isMoreInExternalFile()) {
+                    final T record = serde.deserializeEdit(transactionDis, Collections.emptyMap(), serdeAndVersion.getVersion());
+                    transactionUpdates.add(record, serde);
+                }
+
+                deserialized.add(transactionUpdates);
+            }
+        } catch (final Exception e) {
+            final byte[] failedTransaction = transactions.get(deserialized.size());
+            final boolean trailingNul = failedTransaction.length > 0 && failedTransaction[failedTransaction.length - 1] == NUL_BYTE;
+            return new DeserializedBatch(deserialized, e, deserialized.size() == transactions.size() - 1 && trailingNul);
+        }
+
+        return new DeserializedBatch(deserialized, null, false);
+    }
+
+    private void applyBatch(final Future<DeserializedBatch> future, final Map<Object, T> recordMap, final Set<String> swapLocations,
+                            final RecoveryState recoveryState, final boolean lastBatch) throws IOException {
+        final DeserializedBatch batch;
+        try {
+            batch = future.get();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while recovering journal " + journalFile, ie);
+        } catch (final ExecutionException ee) {
+            throw new IOException("Failed to recover journal " + journalFile, ee.getCause());
+        }
+
+        for (final TransactionUpdates transactionUpdates : batch.transactions) {
+            transactionUpdates.applyTo(recordMap, swapLocations);
+            recoveryState.updateCount += transactionUpdates.getUpdateCount();
+        }
+
+        final Exception failure = batch.failure;
+        if (failure == null) {
+            return;
+        }
+
+        // Had the transactions been deserialized sequentially, the rest of the journal would have been checked for trailing NUL bytes at this point.
+        // That can only be the case if the failure occurred in the last transaction of the journal, and that transaction ends with a NUL byte.
+        if (!(lastBatch && batch.lastTransactionTrailingNul)) {
+            recoveryState.corruptTransaction = true;
+        }
+
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        throw new IOException("Failed to recover journal " + journalFile, failure);
+    }
+
+    private int readTransactionIndicator(final DataInputStream in, final ByteCountingInputStream byteCountingIn) throws IOException {
+        final int transactionIndicator = in.read();
+        if (transactionIndicator != TRANSACTION_FOLLOWS && transactionIndicator != JOURNAL_COMPLETE && transactionIndicator != -1) {
+            throw new IOException("After reading " + byteCountingIn.getBytesConsumed() + " bytes from " + journalFile + ", encountered unexpected value of "
+                + transactionIndicator + " for the Transaction Indicator. This journal may have been corrupted.");
+        }
+
+        return transactionIndicator;
+    }
+
+    // If we have a very large journal (for instance, if checkpoint is not called for a long time, or if there is a problem rolling over
+    // the journal), then we want to occasionally notify the user that we are, in fact, making progress, so that it doesn't appear that
+    // NiFi has become "stuck".
+    private long logProgress(final ByteCountingInputStream byteCountingIn, final double journalLength, final long consumedAtLog, final RecoveryState recoveryState) {
+        final long consumed = byteCountingIn.getBytesConsumed();
+        if (consumed - consumedAtLog > 50_000_000) {
+            final double percentage = consumed / journalLength * 100D;
+            final String pct = new DecimalFormat("#.00").format(percentage);
+            logger.info("{}% of the way finished recovering journal {}, having recovered {} updates", pct, journalFile, recoveryState.updateCount);
+            return consumed;
+        }
+
+        return consumedAtLog;
     }
 
     /**
@@ -598,10 +709,14 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
     private class SerDeAndVersion {
         private final SerDe<T> serde;
         private final int version;
+        private final String encodingName;
+        private final byte[] header;
 
-        public SerDeAndVersion(final SerDe<T> serde, final int version) {
+        public SerDeAndVersion(final SerDe<T> serde, final int version, final String encodingName, final byte[] header) {
             this.serde = serde;
             this.version = version;
+            this.encodingName = encodingName;
+            this.header = header;
         }
 
         public SerDe<T> getSerDe() {
@@ -611,5 +726,109 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
         public int getVersion() {
             return version;
         }
+
+        /**
+         * @return a new SerDe that is equivalent to the SerDe that was used to read the journal header, so that it can be used from another thread
+         */
+        public SerDe<T> createSerDe() throws IOException {
+            final SerDe<T> serde = serdeFactory.createSerDe(encodingName);
+            serde.readHeader(new DataInputStream(new ByteArrayInputStream(header)));
+            return serde;
+        }
+    }
+
+    private static class RecoveryState {
+        private long maxTransactionId = -1L;
+        private int updateCount = 0;
+        private boolean corruptTransaction = false;
+    }
+
+    /**
+     * The updates that make up a single transaction, which are held until the entire transaction has been recovered
+     */
+    private class TransactionUpdates {
+        private final Map<Object, T> transactionRecordMap = new HashMap<>();
+        private final Set<Object> idsRemoved = new HashSet<>();
+        private final Set<String> swapLocationsRemoved = new HashSet<>();
+        private final Set<String> swapLocationsAdded = new HashSet<>();
+        private int updateCount = 0;
+
+        void add(final T record, final SerDe<T> serde) {
+            // Update our RecordMap so that we have the most up-to-date version of the Record.
+            final Object recordId = serde.getRecordIdentifier(record);
+            final UpdateType updateType = serde.getUpdateType(record);
+
+            switch (updateType) {
+                case DELETE: {
+                    idsRemoved.add(recordId);
+                    transactionRecordMap.remove(recordId);
+                    break;
+                }
+                case SWAP_IN: {
+                    final String location = serde.getLocation(record);
+                    if (location == null) {
+                        logger.error("Recovered SWAP_IN record from edit log, but it did not contain a Location; skipping record");
+                    } else {
+                        swapLocationsRemoved.add(location);
+                        swapLocationsAdded.remove(location);
+                        transactionRecordMap.put(recordId, record);
+                    }
+                    break;
+                }
+                case SWAP_OUT: {
+                    final String location = serde.getLocation(record);
+                    if (location == null) {
+                        logger.error("Recovered SWAP_OUT record from edit log, but it did not contain a Location; skipping record");
+                    } else {
+                        swapLocationsRemoved.remove(location);
+                        swapLocationsAdded.add(location);
+                        idsRemoved.add(recordId);
+                        transactionRecordMap.remove(recordId);
+                    }
+
+                    break;
+                }
+                default: {
+                    transactionRecordMap.put(recordId, record);
+                    idsRemoved.remove(recordId);
+                    break;
+                }
+            }
+
+            updateCount++;
+        }
+
+        void applyTo(final Map<Object, T> recordMap, final Set<String> swapLocations) {
+            for (final Object id : idsRemoved) {
+                recordMap.remove(id);
+            }
+            recordMap.putAll(transactionRecordMap);
+            swapLocations.removeAll(swapLocationsRemoved);
+            swapLocations.addAll(swapLocationsAdded);
+        }
+
+        int getUpdateCount() {
+            return updateCount;
+        }
+
+        void clear() {
+            transactionRecordMap.clear();
+            idsRemoved.clear();
+            swapLocationsRemoved.clear();
+            swapLocationsAdded.clear();
+            updateCount = 0;
+        }
+    }
+
+    private class DeserializedBatch {
+        private final List<TransactionUpdates> transactions;
+        private final Exception failure;
+        private final boolean lastTransactionTrailingNul;
+
+        DeserializedBatch(final List<TransactionUpdates> transactions, final Exception failure, final boolean lastTransactionTrailingNul) {
+            this.transactions = transactions;
+            this.failure = failure;
+            this.lastTransactionTrailingNul = lastTransactionTrailingNul;
+        }
     }
 }
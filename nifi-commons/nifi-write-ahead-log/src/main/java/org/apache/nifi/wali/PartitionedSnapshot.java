@@ -0,0 +1,660 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wali.SerDe;
+import org.wali.SerDeFactory;
+import org.wali.UpdateType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * A WriteAheadSnapshot that divides the records into a fixed number of partitions, based on the hash code of the Record Identifier,
+ * and writes each partition to its own file. When a snapshot is prepared, only those partitions that have been updated since they
+ * were last written are captured, and when the snapshot is written, only those partitions are rewritten, concurrently. This keeps both
+ * the time that updates are blocked while a snapshot is prepared and the amount of data written per checkpoint proportional to the
+ * number of partitions that changed, rather than to the total number of records.
+ * </p>
+ *
+ * <p>
+ * A small manifest file identifies the file that holds the current state of each partition, along with the Max Transaction ID and the
+ * Swap Locations of the snapshot. The manifest is replaced atomically only after all of the partition files have been written and synced,
+ * and partition files that are no longer referenced are deleted only after that, so a failure part way through writing a snapshot
+ * leaves the previous snapshot intact. On recovery, the partition files are read concurrently.
+ * </p>
+ *
+ * <p>
+ * If no manifest exists but a snapshot written by {@link HashMapSnapshot} does, that snapshot is recovered instead, and every partition
+ * is written on the next checkpoint, after which the old snapshot is removed.
+ * </p>
+ */
+public class PartitionedSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T> {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedSnapshot.class);
+    private static final int ENCODING_VERSION = 1;
+    private static final String SNAPSHOT_DIRECTORY_NAME = "snapshot";
+    private static final String MANIFEST_FILENAME = "manifest";
+    private static final String PARTIAL_MANIFEST_FILENAME = "manifest.partial";
+    private static final String PARTITION_FILENAME_PREFIX = "partition-";
+
+    private final List<ConcurrentMap<Object, T>> partitions;
+    private final AtomicLongArray partitionVersions;
+    private final AtomicLongArray writtenVersions;
+    private final String[] partitionFilenames; // guarded by synchronizing on this
+    private long generation = 0L; // guarded by synchronizing on this
+
+    private final SerDeFactory<T> serdeFactory;
+    private final Set<String> swapLocations = Collections.synchronizedSet(new HashSet<>());
+    private final File storageDirectory;
+    private final File snapshotDirectory;
+    private final int threadCount;
+
+    public PartitionedSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory, final int partitionCount) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition Count must be at least 1");
+        }
+
+        this.serdeFactory = serdeFactory;
+        this.storageDirectory = storageDirectory;
+        this.snapshotDirectory = new File(storageDirectory, SNAPSHOT_DIRECTORY_NAME);
+        this.threadCount = Math.max(1, Math.min(partitionCount, Runtime.getRuntime().availableProcessors()));
+
+        this.partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ConcurrentHashMap<>());
+        }
+
+        // A partition is written on the next checkpoint whenever its version differs from the version that was last written.
+        // No partition has been written yet, so all partitions start out with a written version of -1.
+        this.partitionVersions = new AtomicLongArray(partitionCount);
+        this.writtenVersions = new AtomicLongArray(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            writtenVersions.set(i, -1L);
+        }
+        this.partitionFilenames = new String[partitionCount];
+    }
+
+    /**
+     * Indicates whether or not a snapshot written by a PartitionedSnapshot exists in the given storage directory
+     *
+     * @param storageDirectory the storage directory of the Write-Ahead Log
+     * @return <code>true</code> if a manifest exists in the given directory, <code>false</code> otherwise
+     */
+    public static boolean isSnapshotPresent(final File storageDirectory) {
+        final File snapshotDirectory = new File(storageDirectory, SNAPSHOT_DIRECTORY_NAME);
+        return new File(snapshotDirectory, MANIFEST_FILENAME).exists();
+    }
+
+    private int partitionIndex(final Object recordId) {
+        final int hash = recordId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions.size());
+    }
+
+    private void put(final Object recordId, final T record) {
+        final int index = partitionIndex(recordId);
+        partitions.get(index).put(recordId, record);
+        partitionVersions.incrementAndGet(index);
+    }
+
+    private T remove(final Object recordId) {
+        final int index = partitionIndex(recordId);
+        final T removed = partitions.get(index).remove(recordId);
+        if (removed != null) {
+            partitionVersions.incrementAndGet(index);
+        }
+        return removed;
+    }
+
+    @Override
+    public SnapshotRecovery<T> recover() throws IOException {
+        final File manifestFile = getManifestFile();
+        final File partialManifestFile = getPartialManifestFile();
+
+        // The manifest is moved into place atomically, so a partial manifest always indicates that we failed while writing a snapshot.
+        // The previous manifest, and all of the partition files that it references, are still intact.
+        if (partialManifestFile.exists()) {
+            logger.info("{} Found partial Snapshot manifest {}; previous Snapshot will be recovered", this, partialManifestFile);
+            Files.delete(partialManifestFile.toPath());
+        }
+
+        if (!manifestFile.exists()) {
+            return recoverFromHashMapSnapshot();
+        }
+
+        final long maxTransactionId;
+        final long manifestGeneration;
+        final List<String> filenames = new ArrayList<>();
+        final Set<String> recoveredSwapLocations = new HashSet<>();
+        try (final DataInputStream dataIn = new DataInputStream(new BufferedInputStream(new FileInputStream(manifestFile)))) {
+            final String snapshotClass = dataIn.readUTF();
+            if (!snapshotClass.equals(PartitionedSnapshot.class.getName())) {
+                throw new IOException("Write-Ahead Log Snapshot located at " + storageDirectory + " was written using the "
+                    + snapshotClass + " class; cannot restore using " + getClass().getName());
+            }
+
+            final int snapshotVersion = dataIn.readInt();
+            if (snapshotVersion > ENCODING_VERSION) {
+                throw new IOException("Write-Ahead Log Snapshot located at " + storageDirectory + " was written using version "
+                    + snapshotVersion + " of the " + snapshotClass + " class; cannot restore using Version " + ENCODING_VERSION);
+            }
+
+            maxTransactionId = dataIn.readLong();
+            manifestGeneration = dataIn.readLong();
+
+            final int partitionCount = dataIn.readInt();
+            for (int i = 0; i < partitionCount; i++) {
+                filenames.add(dataIn.readUTF());
+            }
+
+            final int numSwapLocations = dataIn.readInt();
+            for (int i = 0; i < numSwapLocations; i++) {
+                recoveredSwapLocations.add(dataIn.readUTF());
+            }
+        }
+
+        // If the number of partitions has not changed, each partition file can be loaded directly into the corresponding partition, and the
+        // partition need not be written again until it is updated. Otherwise, the records must be redistributed and all partitions written.
+        final boolean samePartitioning = filenames.size() == partitions.size();
+        final AtomicInteger recordCount = new AtomicInteger(0);
+
+        final ExecutorService executor = createExecutor("Recover Snapshot");
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < filenames.size(); i++) {
+                final int partitionIndex = i;
+                final File partitionFile = new File(snapshotDirectory, filenames.get(i));
+
+                futures.add(executor.submit(() -> {
+                    final int recovered = readPartition(partitionFile, samePartitioning ? partitions.get(partitionIndex) : null);
+                    recordCount.addAndGet(recovered);
+                    return null;
+                }));
+            }
+
+            waitForAll(futures, "recover Write-Ahead Log Snapshot from " + snapshotDirectory);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        synchronized (this) {
+            generation = manifestGeneration;
+            if (samePartitioning) {
+                for (int i = 0; i < partitions.size(); i++) {
+                    partitionFilenames[i] = filenames.get(i);
+                    writtenVersions.set(i, partitionVersions.get(i));
+                }
+            }
+        }
+
+        this.swapLocations.addAll(recoveredSwapLocations);
+
+        logger.info("{} restored {} Records and {} Swap Files from {} Snapshot partitions, ending with Transaction ID {}",
+            this, recordCount.get(), recoveredSwapLocations.size(), filenames.size(), maxTransactionId);
+
+        return new StandardSnapshotRecovery<>(new PartitionedRecordMap(partitions, true), recoveredSwapLocations, manifestFile, maxTransactionId);
+    }
+
+    private SnapshotRecovery<T> recoverFromHashMapSnapshot() throws IOException {
+        final SnapshotRecovery<T> hashMapRecovery = new HashMapSnapshot<>(storageDirectory, serdeFactory).recover();
+        if (hashMapRecovery.getRecoveryFile() == null) {
+            return SnapshotRecovery.emptyRecovery();
+        }
+
+        logger.info("{} No partitioned Snapshot exists; recovered from Snapshot {} instead. All partitions will be written on the next checkpoint",
+            this, hashMapRecovery.getRecoveryFile());
+
+        for (final Map.Entry<Object, T> entry : hashMapRecovery.getRecords().entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+
+        final Set<String> recoveredSwapLocations = new HashSet<>(hashMapRecovery.getRecoveredSwapLocations());
+        this.swapLocations.addAll(recoveredSwapLocations);
+
+        return new StandardSnapshotRecovery<>(new PartitionedRecordMap(partitions, true), recoveredSwapLocations,
+            hashMapRecovery.getRecoveryFile(), hashMapRecovery.getMaxTransactionId());
+    }
+
+    /**
+     * Reads all records from the given partition file into the given partition or, if the given partition is <code>null</code>, into whichever
+     * partition each record belongs to.
+     */
+    private int readPartition(final File partitionFile, final Map<Object, T> partition) throws IOException {
+        try (final DataInputStream dataIn = new DataInputStream(new BufferedInputStream(new FileInputStream(partitionFile)))) {
+            final String serdeEncoding = dataIn.readUTF();
+            final int serdeVersion = dataIn.readInt();
+            final int numRecords = dataIn.readInt();
+
+            final SerDe<T> serde = serdeFactory.createSerDe(serdeEncoding);
+            serde.readHeader(dataIn);
+
+            for (int i = 0; i < numRecords; i++) {
+                final T record = serde.deserializeRecord(dataIn, serdeVersion);
+                if (record == null) {
+                    throw new EOFException("Expected " + numRecords + " records in Snapshot partition " + partitionFile + " but found only " + i);
+                }
+
+                final UpdateType updateType = serde.getUpdateType(record);
+                if (updateType == UpdateType.DELETE) {
+                    logger.warn("While recovering from snapshot, found record with type 'DELETE'; this record will not be restored");
+                    continue;
+                }
+
+                logger.trace("Recovered from snapshot: {}", record);
+                final Object recordId = serde.getRecordIdentifier(record);
+                if (partition == null) {
+                    put(recordId, record);
+                } else {
+                    partition.put(recordId, record);
+                }
+            }
+
+            return numRecords;
+        }
+    }
+
+    @Override
+    public void update(final Collection<T> records) {
+        final String logMessage = "Received Record (ID={}) with UpdateType of {} but no indicator of where the Record is to be {}; these records may be {} when the repository is restored!";
+        for (final T record : records) {
+            final Object recordId = serdeFactory.getRecordIdentifier(record);
+            final UpdateType updateType = serdeFactory.getUpdateType(record);
+
+            switch (updateType) {
+                case DELETE:
+                    remove(recordId);
+                    break;
+                case SWAP_OUT:
+                    final String location = serdeFactory.getLocation(record);
+                    if (location == null) {
+                        logger.error(logMessage, recordId, UpdateType.SWAP_OUT, "Swapped Out to", "lost");
+                    } else {
+                        remove(recordId);
+                        this.swapLocations.add(location);
+                    }
+                    break;
+                case SWAP_IN:
+                    final String swapLocation = serdeFactory.getLocation(record);
+                    if (swapLocation == null) {
+                        logger.error(logMessage, recordId, UpdateType.SWAP_IN, "Swapped In from", "duplicated");
+                    } else {
+                        swapLocations.remove(swapLocation);
+                    }
+                    put(recordId, record);
+                    break;
+                default:
+                    put(recordId, record);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public int getRecordCount() {
+        int count = 0;
+        for (final Map<Object, T> partition : partitions) {
+            count += partition.size();
+        }
+        return count;
+    }
+
+    @Override
+    public T lookup(final Object recordId) {
+        return partitions.get(partitionIndex(recordId)).get(recordId);
+    }
+
+    @Override
+    public SnapshotCapture<T> prepareSnapshot(final long maxTransactionId) {
+        return prepareSnapshot(maxTransactionId, this.swapLocations);
+    }
+
+    @Override
+    public SnapshotCapture<T> prepareSnapshot(final long maxTransactionId, final Set<String> swapFileLocations) {
+        // Copy only those partitions that have changed since they were last written. The partitions that have not changed are referenced
+        // directly so that the capture can still provide a view of all records; those are not written, so they need not be copied.
+        final List<Map<Object, T>> capturedPartitions = new ArrayList<>(partitions.size());
+        final long[] capturedVersions = new long[partitions.size()];
+        final boolean[] modified = new boolean[partitions.size()];
+
+        for (int i = 0; i < partitions.size(); i++) {
+            final long version = partitionVersions.get(i);
+            capturedVersions[i] = version;
+
+            if (version == writtenVersions.get(i)) {
+                capturedPartitions.add(partitions.get(i));
+            } else {
+                capturedPartitions.add(new HashMap<>(partitions.get(i)));
+                modified[i] = true;
+            }
+        }
+
+        return new PartitionedSnapshotCapture(capturedPartitions, capturedVersions, modified, new HashSet<>(swapFileLocations), maxTransactionId);
+    }
+
+    @Override
+    public synchronized void writeSnapshot(final SnapshotCapture<T> snapshot) throws IOException {
+        if (!(snapshot instanceof PartitionedSnapshot.PartitionedSnapshotCapture)) {
+            throw new IllegalArgumentException("Cannot write Snapshot Capture of type " + snapshot.getClass().getName() + " using " + getClass().getName());
+        }
+
+        final PartitionedSnapshotCapture capture = (PartitionedSnapshotCapture) snapshot;
+        final long nextGeneration = generation + 1;
+
+        Files.createDirectories(snapshotDirectory.toPath());
+
+        // Write each modified partition to a new file, leaving the file referenced by the current manifest untouched.
+        final String[] updatedFilenames = partitionFilenames.clone();
+        final ExecutorService executor = createExecutor("Write Snapshot");
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < partitions.size(); i++) {
+                if (!capture.isModified(i)) {
+                    continue;
+                }
+
+                final String filename = PARTITION_FILENAME_PREFIX + i + "." + nextGeneration;
+                updatedFilenames[i] = filename;
+
+                final Map<Object, T> records = capture.getPartition(i);
+                futures.add(executor.submit(() -> {
+                    writePartition(new File(snapshotDirectory, filename), records);
+                    return null;
+                }));
+            }
+
+            waitForAll(futures, "write Write-Ahead Log Snapshot to " + snapshotDirectory);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        writeManifest(capture, nextGeneration, updatedFilenames);
+
+        generation = nextGeneration;
+        System.arraycopy(updatedFilenames, 0, partitionFilenames, 0, partitionFilenames.length);
+        for (int i = 0; i < partitions.size(); i++) {
+            if (capture.isModified(i)) {
+                writtenVersions.set(i, capture.getVersion(i));
+            }
+        }
+
+        deleteUnreferencedFiles();
+    }
+
+    private void writePartition(final File partitionFile, final Map<Object, T> records) throws IOException {
+        final SerDe<T> serde = serdeFactory.createSerDe(null);
+
+        try (final FileOutputStream fileOut = new FileOutputStream(partitionFile);
+             final DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+
+            dataOut.writeUTF(serde.getClass().getName());
+            dataOut.writeInt(serde.getVersion());
+            dataOut.writeInt(records.size());
+            serde.writeHeader(dataOut);
+
+            for (final T record : records.values()) {
+                logger.trace("Checkpointing {}", record);
+                serde.serializeRecord(record, dataOut);
+            }
+
+            // Ensure that the partition is fully written to disk before the manifest that references it is written.
+            dataOut.flush();
+            fileOut.getChannel().force(false);
+        }
+    }
+
+    private void writeManifest(final PartitionedSnapshotCapture capture, final long manifestGeneration, final String[] filenames) throws IOException {
+        final File partialManifestFile = getPartialManifestFile();
+
+        try (final FileOutputStream fileOut = new FileOutputStream(partialManifestFile);
+             final DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+
+            dataOut.writeUTF(PartitionedSnapshot.class.getName());
+            dataOut.writeInt(ENCODING_VERSION);
+            dataOut.writeLong(capture.getMaxTransactionId());
+            dataOut.writeLong(manifestGeneration);
+
+            dataOut.writeInt(filenames.length);
+            for (final String filename : filenames) {
+                dataOut.writeUTF(filename);
+            }
+
+            dataOut.writeInt(capture.getSwapLocations().size());
+            for (final String swapLocation : capture.getSwapLocations()) {
+                dataOut.writeUTF(swapLocation);
+            }
+
+            dataOut.flush();
+            fileOut.getChannel().force(false);
+        }
+
+        Files.move(partialManifestFile.toPath(), getManifestFile().toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteUnreferencedFiles() {
+        final Set<String> referencedFilenames = new HashSet<>(Arrays.asList(partitionFilenames));
+        final File[] snapshotFiles = snapshotDirectory.listFiles();
+        if (snapshotFiles != null) {
+            for (final File file : snapshotFiles) {
+                final String filename = file.getName();
+                if (filename.startsWith(PARTITION_FILENAME_PREFIX) && !referencedFilenames.contains(filename) && !file.delete()) {
+                    logger.warn("Unable to delete Snapshot partition file {}, which is no longer needed", file);
+                }
+            }
+        }
+
+        // Once a partitioned snapshot has been written, any snapshot written by the HashMapSnapshot is obsolete.
+        for (final String filename : new String[] {"checkpoint", "checkpoint.partial"}) {
+            final File hashMapSnapshotFile = new File(storageDirectory, filename);
+            if (hashMapSnapshotFile.exists() && !hashMapSnapshotFile.delete()) {
+                logger.warn("Unable to delete obsolete Snapshot file {}", hashMapSnapshotFile);
+            }
+        }
+    }
+
+    private ExecutorService createExecutor(final String threadNamePrefix) {
+        final AtomicInteger threadCounter = new AtomicInteger(0);
+        return Executors.newFixedThreadPool(threadCount, r -> {
+            final Thread t = Executors.defaultThreadFactory().newThread(r);
+            t.setName(threadNamePrefix + " " + storageDirectory.getName() + " Thread-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private void waitForAll(final List<Future<?>> futures, final String action) throws IOException {
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting to " + action, ie);
+            } catch (final ExecutionException ee) {
+                final Throwable cause = ee.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+
+                throw new IOException("Failed to " + action, cause);
+            }
+        }
+    }
+
+    private File getManifestFile() {
+        return new File(snapshotDirectory, MANIFEST_FILENAME);
+    }
+
+    private File getPartialManifestFile() {
+        return new File(snapshotDirectory, PARTIAL_MANIFEST_FILENAME);
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionedSnapshot[" + snapshotDirectory + "]";
+    }
+
+    private class PartitionedSnapshotCapture implements SnapshotCapture<T> {
+        private final List<Map<Object, T>> partitions;
+        private final long[] versions;
+        private final boolean[] modified;
+        private final Set<String> swapLocations;
+        private final long maxTransactionId;
+        private final Map<Object, T> records;
+
+        PartitionedSnapshotCapture(final List<Map<Object, T>> partitions, final long[] versions, final boolean[] modified,
+                                   final Set<String> swapLocations, final long maxTransactionId) {
+            this.partitions = partitions;
+            this.versions = versions;
+            this.modified = modified;
+            this.swapLocations = swapLocations;
+            this.maxTransactionId = maxTransactionId;
+            this.records = new PartitionedRecordMap(partitions, false);
+        }
+
+        boolean isModified(final int partitionIndex) {
+            return modified[partitionIndex];
+        }
+
+        long getVersion(final int partitionIndex) {
+            return versions[partitionIndex];
+        }
+
+        Map<Object, T> getPartition(final int partitionIndex) {
+            return partitions.get(partitionIndex);
+        }
+
+        /**
+         * @return a read-only view of all records. Records in partitions that were not modified since they were last written are not copied,
+         * so the view of those partitions reflects any updates made after the snapshot was prepared.
+         */
+        @Override
+        public Map<Object, T> getRecords() {
+            return records;
+        }
+
+        @Override
+        public long getMaxTransactionId() {
+            return maxTransactionId;
+        }
+
+        @Override
+        public Set<String> getSwapLocations() {
+            return swapLocations;
+        }
+    }
+
+    /**
+     * A view of the records in a list of partitions as a single Map. If updates are tracked, the view may be modified, and any modification
+     * marks the affected partition as needing to be written on the next checkpoint; otherwise, the view is read-only.
+     */
+    private class PartitionedRecordMap extends AbstractMap<Object, T> {
+        private final List<? extends Map<Object, T>> recordPartitions;
+        private final boolean trackUpdates;
+
+        PartitionedRecordMap(final List<? extends Map<Object, T>> recordPartitions, final boolean trackUpdates) {
+            this.recordPartitions = recordPartitions;
+            this.trackUpdates = trackUpdates;
+        }
+
+        @Override
+        public T get(final Object key) {
+            return key == null ? null : recordPartitions.get(partitionIndex(key)).get(key);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return key != null && recordPartitions.get(partitionIndex(key)).containsKey(key);
+        }
+
+        @Override
+        public T put(final Object key, final T value) {
+            if (!trackUpdates) {
+                throw new UnsupportedOperationException();
+            }
+
+            final T previous = lookup(key);
+            PartitionedSnapshot.this.put(key, value);
+            return previous;
+        }
+
+        @Override
+        public T remove(final Object key) {
+            if (!trackUpdates) {
+                throw new UnsupportedOperationException();
+            }
+
+            return key == null ? null : PartitionedSnapshot.this.remove(key);
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (final Map<Object, T> partition : recordPartitions) {
+                size += partition.size();
+            }
+            return size;
+        }
+
+        @Override
+        public Set<Entry<Object, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Object, T>> iterator() {
+                    return recordPartitions.stream()
+                        .flatMap(partition -> partition.entrySet().stream())
+                        .iterator();
+                }
+
+                @Override
+                public int size() {
+                    return PartitionedRecordMap.this.size();
+                }
+            };
+        }
+    }
+}
@@ -32,8 +32,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
@@ -53,6 +57,14 @@ import java.util.regex.Pattern;
  * that records are recovered correctly if two threads simultaneously update the write-ahead log
  * with updates for the same record.
  * </p>
+ *
+ * <p>
+ * When group commit is enabled, updates that request a sync to disk do not each call fsync on the journal. Instead, the first thread
+ * to request a sync becomes the leader, waits for the configured group commit window so that other threads are able to write their
+ * updates to the journal, and then performs a single fsync on behalf of all threads that requested a sync before it started. Each of
+ * those threads returns only once the fsync that covers its update has completed, so the durability guarantee is unchanged, but the
+ * number of fsync calls is bounded by the number of group commit windows rather than by the number of updates.
+ * </p>
  */
 public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T> {
     private static final int PARTITION_INDEX = 0;
@@ -83,11 +95,45 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
     private WriteAheadJournal<T> journal;
     private volatile long nextTransactionId = 0L;
 
+    private final boolean groupCommitEnabled;
+    private final long groupCommitWindowNanos;
+    private final Object groupCommitMonitor = new Object();
+    private GroupSync pendingGroupSync; // guarded by groupCommitMonitor
+    private boolean syncInProgress = false; // guarded by groupCommitMonitor
+
     public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory) throws IOException {
         this(storageDirectory, serdeFactory, SyncListener.NOP_SYNC_LISTENER);
     }
 
     public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, false, 0L, TimeUnit.NANOSECONDS);
+    }
+
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener,
+                                         final boolean groupCommitEnabled, final long groupCommitWindow, final TimeUnit timeUnit) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, groupCommitEnabled, groupCommitWindow, timeUnit, 1);
+    }
+
+    /**
+     * Creates a Write-Ahead Log that may coalesce concurrent requests to sync the journal to disk and may write its snapshot incrementally
+     *
+     * @param storageDirectory the directory to store the snapshot and journals in
+     * @param serdeFactory the factory for the SerDe that is used to serialize records
+     * @param syncListener the listener to notify when the journal is synced to disk
+     * @param groupCommitEnabled whether or not concurrent requests to sync the journal should be coalesced into a single fsync
+     * @param groupCommitWindow the amount of time that the thread performing a group commit waits for other updates before syncing the journal
+     * @param timeUnit the unit of the group commit window
+     * @param snapshotPartitions the number of partitions to divide the snapshot into. If greater than 1, a {@link PartitionedSnapshot} is used,
+     *            so that only partitions that have changed are written on checkpoint; otherwise, the entire snapshot is written to a single file
+     * @throws IOException if unable to create the storage directory
+     */
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener,
+                                         final boolean groupCommitEnabled, final long groupCommitWindow, final TimeUnit timeUnit,
+                                         final int snapshotPartitions) throws IOException {
+        if (groupCommitWindow < 0) {
+            throw new IllegalArgumentException("Group Commit Window cannot be negative");
+        }
+
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new IOException("Directory " + storageDirectory + " does not exist and cannot be created");
         }
@@ -95,9 +141,15 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             throw new IOException("File " + storageDirectory + " is a regular file and not a directory");
         }
 
-        final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
-        this.snapshot = hashMapSnapshot;
-        this.recordLookup = hashMapSnapshot;
+        if (snapshotPartitions > 1) {
+            final PartitionedSnapshot<T> partitionedSnapshot = new PartitionedSnapshot<>(storageDirectory, serdeFactory, snapshotPartitions);
+            this.snapshot = partitionedSnapshot;
+            this.recordLookup = partitionedSnapshot;
+        } else {
+            final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
+            this.snapshot = hashMapSnapshot;
+            this.recordLookup = hashMapSnapshot;
+        }
 
         this.storageDirectory = storageDirectory;
         this.journalsDirectory = new File(storageDirectory, "journals");
@@ -109,6 +161,8 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         this.serdeFactory = serdeFactory;
         this.syncListener = (syncListener == null) ? SyncListener.NOP_SYNC_LISTENER : syncListener;
+        this.groupCommitEnabled = groupCommitEnabled;
+        this.groupCommitWindowNanos = timeUnit.toNanos(groupCommitWindow);
     }
 
     @Override
@@ -122,8 +176,12 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             journal.update(records, recordLookup);
 
             if (forceSync) {
-                journal.fsync();
-                syncListener.onSync(PARTITION_INDEX);
+                if (groupCommitEnabled) {
+                    groupSync();
+                } else {
+                    journal.fsync();
+                    syncListener.onSync(PARTITION_INDEX);
+                }
             }
 
             snapshot.update(records);
@@ -134,6 +192,79 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
         return PARTITION_INDEX;
     }
 
+    /**
+     * Waits until the journal has been synced to disk by an fsync that started after this thread's update was written to the journal.
+     * If no fsync is in progress, this thread becomes the leader, waits for the group commit window and performs the fsync on behalf
+     * of all threads that have requested a sync by that time. Must be called while holding the journal read lock so that the journal
+     * cannot be replaced while the sync is pending.
+     */
+    private void groupSync() throws IOException {
+        final GroupSync groupSync;
+        boolean interrupted = false;
+
+        synchronized (groupCommitMonitor) {
+            if (pendingGroupSync == null) {
+                pendingGroupSync = new GroupSync();
+            }
+            groupSync = pendingGroupSync;
+
+            try {
+                while (!groupSync.complete && syncInProgress) {
+                    try {
+                        groupCommitMonitor.wait();
+                    } catch (final InterruptedException ie) {
+                        // The update has already been written to the journal, so we must not return until it has been synced.
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            if (groupSync.complete) {
+                if (groupSync.failure != null) {
+                    throw new IOException("Failed to sync Write-Ahead Log's journal to disk at " + storageDirectory, groupSync.failure);
+                }
+
+                return;
+            }
+
+            syncInProgress = true;
+        }
+
+        if (groupCommitWindowNanos > 0) {
+            LockSupport.parkNanos(groupCommitWindowNanos);
+        }
+
+        // Any thread that requests a sync from this point on must wait for the next fsync
+        synchronized (groupCommitMonitor) {
+            pendingGroupSync = null;
+        }
+
+        IOException failure = null;
+        try {
+            journal.fsync();
+            syncListener.onSync(PARTITION_INDEX);
+        } catch (final IOException ioe) {
+            failure = ioe;
+        } catch (final RuntimeException re) {
+            failure = new IOException(re);
+        } finally {
+            synchronized (groupCommitMonitor) {
+                groupSync.failure = failure;
+                groupSync.complete = true;
+                syncInProgress = false;
+                groupCommitMonitor.notifyAll();
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
     @Override
     public synchronized Collection<T> recoverRecords() throws IOException {
         if (recovered) {
@@ -176,35 +307,50 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
         final long snapshotTransactionId = snapshotRecovery.getMaxTransactionId();
 
         int totalUpdates = 0;
+        long totalJournalBytes = 0L;
         int journalFilesRecovered = 0;
         int journalFilesSkipped = 0;
         long maxTransactionId = snapshotTransactionId;
 
-        for (final File journalFile : orderedJournalFiles) {
-            final long journalMinTransactionId = getMinTransactionId(journalFile);
-            if (journalMinTransactionId < snapshotTransactionId) {
-                logger.debug("Will not recover records from journal file {} because the minimum Transaction ID for that journal is {} and the Transaction ID recovered from Snapshot was {}",
-                    journalFile, journalMinTransactionId, snapshotTransactionId);
-
-                journalFilesSkipped++;
-                continue;
-            }
+        // Journals must be replayed in order, but the transactions within each journal can be deserialized concurrently
+        final long journalRecoveryStart = System.nanoTime();
+        final ExecutorService recoveryExecutor = createRecoveryExecutor();
+        try {
+            for (final File journalFile : orderedJournalFiles) {
+                final long journalMinTransactionId = getMinTransactionId(journalFile);
+                if (journalMinTransactionId < snapshotTransactionId) {
+                    logger.debug("Will not recover records from journal file {} because the minimum Transaction ID for that journal is {} and the Transaction ID recovered from Snapshot was {}",
+                        journalFile, journalMinTransactionId, snapshotTransactionId);
+
+                    journalFilesSkipped++;
+                    continue;
+                }
 
-            logger.debug("Min Transaction ID for journal {} is {}, so will recover records from journal", journalFile, journalMinTransactionId);
-            journalFilesRecovered++;
+                logger.debug("Min Transaction ID for journal {} is {}, so will recover records from journal", journalFile, journalMinTransactionId);
+                journalFilesRecovered++;
 
-            try (final WriteAheadJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
-                final JournalRecovery journalRecovery = journal.recoverRecords(recoveredRecords, swapLocations);
-                final int updates = journalRecovery.getUpdateCount();
+                final long journalStart = System.nanoTime();
+                try (final WriteAheadJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+                    final JournalRecovery journalRecovery = journal.recoverRecords(recoveredRecords, swapLocations, recoveryExecutor);
+                    final int updates = journalRecovery.getUpdateCount();
+                    final long journalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - journalStart);
 
-                logger.debug("Recovered {} updates from journal {}", updates, journalFile);
-                totalUpdates += updates;
-                maxTransactionId = Math.max(maxTransactionId, journalRecovery.getMaxTransactionId());
+                    logger.debug("Recovered {} updates ({} bytes) from journal {} in {} milliseconds", updates, journalFile.length(), journalFile, journalMillis);
+                    totalUpdates += updates;
+                    totalJournalBytes += journalFile.length();
+                    maxTransactionId = Math.max(maxTransactionId, journalRecovery.getMaxTransactionId());
+                }
+            }
+        } finally {
+            if (recoveryExecutor != null) {
+                recoveryExecutor.shutdownNow();
             }
         }
 
-        logger.debug("Recovered {} updates from {} journal files and skipped {} journal files because their data was already encapsulated in the snapshot",
-            totalUpdates, journalFilesRecovered, journalFilesSkipped);
+        final long journalRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - journalRecoveryStart);
+        final long updatesPerSecond = journalRecoveryMillis == 0 ? totalUpdates : totalUpdates * 1000L / journalRecoveryMillis;
+        logger.info("Recovered {} updates ({} bytes) from {} journal files in {} milliseconds ({} updates/second) and skipped {} journal files because their data was already "
+            + "encapsulated in the snapshot", totalUpdates, totalJournalBytes, journalFilesRecovered, journalRecoveryMillis, updatesPerSecond, journalFilesSkipped);
         this.nextTransactionId = maxTransactionId + 1;
 
         final long recoverNanos = System.nanoTime() - recoverStart;
@@ -218,6 +364,21 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
         return recoveredRecords.values();
     }
 
+    private ExecutorService createRecoveryExecutor() {
+        final int threadCount = Runtime.getRuntime().availableProcessors();
+        if (threadCount < 2) {
+            return null;
+        }
+
+        final AtomicInteger threadCounter = new AtomicInteger(0);
+        return Executors.newFixedThreadPool(threadCount, r -> {
+            final Thread t = Executors.defaultThreadFactory().newThread(r);
+            t.setName("Recover Journal " + storageDirectory.getName() + " Thread-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
     private long getMinTransactionId(final File journalFile) {
         final String filename = journalFile.getName();
         final String numeral = filename.substring(0, filename.indexOf("."));
@@ -339,4 +500,12 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             journalWriteLock.unlock();
         }
     }
+
+    /**
+     * A single fsync of the journal that is shared by all threads that requested a sync before it began
+     */
+    private static class GroupSync {
+        private boolean complete = false; // guarded by groupCommitMonitor
+        private IOException failure; // guarded by groupCommitMonitor
+    }
 }
@@ -22,11 +22,26 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 public interface WriteAheadJournal<T> extends Closeable {
 
     JournalRecovery recoverRecords(Map<Object, T> recordMap, Set<String> swapLocations) throws IOException;
 
+    /**
+     * Recovers records from the journal in the same manner as {@link #recoverRecords(Map, Set)}, but may use the given ExecutorService
+     * to deserialize the journal's transactions concurrently. Transactions are always applied in the order in which they were written.
+     *
+     * @param recordMap the map of records to update
+     * @param swapLocations the set of swap locations to update
+     * @param executor the ExecutorService to use for deserializing transactions, or <code>null</code> to recover sequentially
+     * @return a JournalRecovery describing the recovery
+     * @throws IOException if unable to recover records from the journal
+     */
+    default JournalRecovery recoverRecords(Map<Object, T> recordMap, Set<String> swapLocations, ExecutorService executor) throws IOException {
+        return recoverRecords(recordMap, swapLocations);
+    }
+
     /**
      * Updates the journal with the given set of records
      *
@@ -185,4 +185,15 @@ public interface SerDe<T> {
     default boolean isMoreInExternalFile() throws IOException {
         return false;
     }
+
+    /**
+     * Indicates whether or not {@link #deserializeEdit(DataInputStream, Map, int)} makes use of the current state of records in order to
+     * deserialize an edit. If <code>false</code>, edits may be deserialized concurrently, each thread using its own SerDe instance, without
+     * the current record states being made available.
+     *
+     * @return <code>true</code> if the current record states are required in order to deserialize an edit, <code>false</code> otherwise
+     */
+    default boolean isCurrentStateRequiredForEdits() {
+        return true;
+    }
 }
@@ -21,6 +21,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.wali.DummyRecord;
 import org.wali.DummyRecordSerde;
+import org.wali.SerDe;
 import org.wali.SerDeFactory;
 import org.wali.SingletonSerDeFactory;
 import org.wali.UpdateType;
@@ -42,6 +43,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
@@ -558,4 +561,159 @@ public class TestLengthDelimitedJournal {
             assertEquals(0, recordMap.size());
         }
     }
+
+    @Test
+    public void testConcurrentRecoveryMatchesSequentialRecovery() throws IOException {
+        final SerDeFactory<DummyRecord> statelessSerdeFactory = new StatelessDummySerDeFactory();
+
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, statelessSerdeFactory, streamPool, 0L)) {
+            journal.writeHeader();
+
+            final String value = "x".repeat(100);
+            for (int i = 0; i < 2_000; i++) {
+                final List<DummyRecord> transaction = new ArrayList<>();
+                transaction.add(new DummyRecord(String.valueOf(i), UpdateType.CREATE).setProperty("value", value));
+                transaction.add(new DummyRecord(String.valueOf(i), UpdateType.UPDATE).setProperty("index", String.valueOf(i)));
+
+                if (i % 3 == 0 && i > 0) {
+                    transaction.add(new DummyRecord(String.valueOf(i - 1), UpdateType.DELETE));
+                }
+                if (i % 10 == 0 && i > 0) {
+                    final DummyRecord swapOut = new DummyRecord(String.valueOf(i - 2), UpdateType.SWAP_OUT);
+                    swapOut.setSwapLocation("swap" + i);
+                    transaction.add(swapOut);
+                }
+
+                journal.update(transaction, id -> null);
+            }
+        }
+
+        final Map<Object, DummyRecord> sequentialRecordMap = new HashMap<>();
+        final Set<String> sequentialSwapLocations = new HashSet<>();
+        final JournalRecovery sequentialRecovery;
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, statelessSerdeFactory, streamPool, 0L)) {
+            sequentialRecovery = journal.recoverRecords(sequentialRecordMap, sequentialSwapLocations);
+        }
+
+        final Map<Object, DummyRecord> concurrentRecordMap = new HashMap<>();
+        final Set<String> concurrentSwapLocations = new HashSet<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, statelessSerdeFactory, streamPool, 0L)) {
+            final JournalRecovery concurrentRecovery = journal.recoverRecords(concurrentRecordMap, concurrentSwapLocations, executor);
+
+            assertFalse(concurrentRecovery.isEOFExceptionEncountered());
+            assertEquals(1999L, concurrentRecovery.getMaxTransactionId());
+            assertEquals(sequentialRecovery.getUpdateCount(), concurrentRecovery.getUpdateCount());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(sequentialRecordMap, concurrentRecordMap);
+        assertEquals(sequentialSwapLocations, concurrentSwapLocations);
+        assertEquals(199, concurrentSwapLocations.size());
+        assertEquals(Collections.singletonMap("index", "1999"), concurrentRecordMap.get("1999").getProperties());
+        assertNull(concurrentRecordMap.get("1997"));
+    }
+
+    @Test
+    public void testConcurrentRecoveryOfTruncatedJournal() throws IOException {
+        final SerDeFactory<DummyRecord> statelessSerdeFactory = new StatelessDummySerDeFactory();
+
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, statelessSerdeFactory, streamPool, 0L)) {
+            journal.writeHeader();
+
+            for (int i = 0; i < 3; i++) {
+                journal.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)), id -> null);
+            }
+        }
+
+        // Truncate the last 8 bytes so that the last transaction cannot be fully read
+        try (final FileOutputStream fos = new FileOutputStream(journalFile, true)) {
+            fos.getChannel().truncate(journalFile.length() - 8);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, statelessSerdeFactory, streamPool, 0L)) {
+            final Map<Object, DummyRecord> recordMap = new HashMap<>();
+            final Set<String> swapLocations = new HashSet<>();
+
+            final JournalRecovery recovery = journal.recoverRecords(recordMap, swapLocations, executor);
+            assertTrue(recovery.isEOFExceptionEncountered());
+            assertEquals(2L, recovery.getMaxTransactionId());
+            assertEquals(2, recovery.getUpdateCount());
+            assertEquals(new HashSet<>(Arrays.asList("0", "1")), recordMap.keySet());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentRecoveryHandlesTrailingNulBytes() throws IOException {
+        final SerDeFactory<DummyRecord> statelessSerdeFactory = new StatelessDummySerDeFactory();
+
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, statelessSerdeFactory, streamPool, 0L)) {
+            journal.writeHeader();
+
+            journal.update(Arrays.asList(new DummyRecord("1", UpdateType.CREATE), new DummyRecord("2", UpdateType.CREATE)), id -> null);
+            journal.update(Arrays.asList(new DummyRecord("1", UpdateType.UPDATE).setProperty("abc", "123"),
+                new DummyRecord("2", UpdateType.UPDATE).setProperty("cba", "123")), id -> null);
+            journal.update(Arrays.asList(new DummyRecord("1", UpdateType.DELETE), new DummyRecord("2", UpdateType.DELETE)), id -> null);
+        }
+
+        // Replace the last 8 bytes of the journal with trailing NUL bytes, as is often seen after a sudden power loss
+        final byte[] contents = Files.readAllBytes(journalFile.toPath());
+        final byte[] withNuls = new byte[contents.length + 20];
+        System.arraycopy(contents, 0, withNuls, 0, contents.length - 8);
+
+        try (final OutputStream fos = new FileOutputStream(journalFile)) {
+            fos.write(withNuls);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, statelessSerdeFactory, streamPool, 0L)) {
+            final Map<Object, DummyRecord> recordMap = new HashMap<>();
+            final Set<String> swapLocations = new HashSet<>();
+
+            journal.recoverRecords(recordMap, swapLocations, executor);
+
+            assertEquals(2, recordMap.size());
+            assertEquals(Collections.singletonMap("abc", "123"), recordMap.get("1").getProperties());
+            assertEquals(Collections.singletonMap("cba", "123"), recordMap.get("2").getProperties());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates a new DummyRecordSerde for each call, indicating that edits can be deserialized without the current state of records so that
+     * journals are recovered concurrently when given an ExecutorService.
+     */
+    private static class StatelessDummySerDeFactory implements SerDeFactory<DummyRecord> {
+        private final DummyRecordSerde serde = new DummyRecordSerde();
+
+        @Override
+        public SerDe<DummyRecord> createSerDe(final String encodingName) {
+            return new DummyRecordSerde() {
+                @Override
+                public boolean isCurrentStateRequiredForEdits() {
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public Object getRecordIdentifier(final DummyRecord record) {
+            return serde.getRecordIdentifier(record);
+        }
+
+        @Override
+        public UpdateType getUpdateType(final DummyRecord record) {
+            return serde.getUpdateType(record);
+        }
+
+        @Override
+        public String getLocation(final DummyRecord record) {
+            return serde.getLocation(record);
+        }
+    }
 }
@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.wali.DummyRecord;
+import org.wali.DummyRecordSerde;
+import org.wali.SerDeFactory;
+import org.wali.SingletonSerDeFactory;
+import org.wali.UpdateType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPartitionedSnapshot {
+
+    private final File storageDirectory = new File("target/test-partitioned-snapshot");
+    private final File snapshotDirectory = new File(storageDirectory, "snapshot");
+    private SerDeFactory<DummyRecord> serdeFactory;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        deleteRecursively(storageDirectory);
+        Files.createDirectories(storageDirectory.toPath());
+
+        serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+    }
+
+    @Test
+    public void testSuccessfulRoundTrip() throws IOException {
+        final PartitionedSnapshot<DummyRecord> snapshot = new PartitionedSnapshot<>(storageDirectory, serdeFactory, 4);
+        final Map<String, String> props = new HashMap<>();
+
+        for (int i = 0; i < 10; i++) {
+            final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.CREATE);
+            props.put("key", String.valueOf(i));
+            record.setProperties(props);
+            snapshot.update(Collections.singleton(record));
+        }
+
+        for (int i = 2; i < 10; i += 2) {
+            final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.DELETE);
+            snapshot.update(Collections.singleton(record));
+        }
+
+        for (int i = 1; i < 10; i += 2) {
+            final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.SWAP_OUT);
+            record.setSwapLocation("swapFile-" + i);
+            snapshot.update(Collections.singleton(record));
+        }
+
+        final DummyRecord swapIn7 = new DummyRecord("7", UpdateType.SWAP_IN);
+        swapIn7.setSwapLocation("swapFile-7");
+        snapshot.update(Collections.singleton(swapIn7));
+
+        final Set<String> swappedOutLocations = Set.of("swapFile-1", "swapFile-3", "swapFile-5", "swapFile-9");
+
+        final SnapshotCapture<DummyRecord> capture = snapshot.prepareSnapshot(180L);
+        assertEquals(180L, capture.getMaxTransactionId());
+        assertEquals(swappedOutLocations, capture.getSwapLocations());
+
+        final Map<Object, DummyRecord> records = new HashMap<>(capture.getRecords());
+        assertEquals(2, records.size());
+        assertTrue(records.containsKey("0"));
+        assertTrue(records.containsKey("7"));
+
+        snapshot.writeSnapshot(capture);
+
+        final PartitionedSnapshot<DummyRecord> recoverySnapshot = new PartitionedSnapshot<>(storageDirectory, serdeFactory, 4);
+        final SnapshotRecovery<DummyRecord> recovery = recoverySnapshot.recover();
+        assertEquals(180L, recovery.getMaxTransactionId());
+        assertEquals(swappedOutLocations, recovery.getRecoveredSwapLocations());
+        assertEquals(records, new HashMap<>(recovery.getRecords()));
+        assertEquals(2, recoverySnapshot.getRecordCount());
+        assertNotNull(recoverySnapshot.lookup("7"));
+    }
+
+    @Test
+    public void testOnlyModifiedPartitionsRewritten() throws IOException {
+        final PartitionedSnapshot<DummyRecord> snapshot = new PartitionedSnapshot<>(storageDirectory, serdeFactory, 8);
+        for (int i = 0; i < 100; i++) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)));
+        }
+
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(1L));
+        assertEquals(8, countPartitionFiles(".1"));
+
+        final DummyRecord update = new DummyRecord("42", UpdateType.UPDATE);
+        update.setProperties(Collections.singletonMap("updated", "true"));
+        snapshot.update(Collections.singleton(update));
+
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(2L));
+        assertEquals(7, countPartitionFiles(".1"));
+        assertEquals(1, countPartitionFiles(".2"));
+
+        // Preparing a snapshot when nothing has changed should not rewrite any partition
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(3L));
+        assertEquals(0, countPartitionFiles(".3"));
+
+        final PartitionedSnapshot<DummyRecord> recoverySnapshot = new PartitionedSnapshot<>(storageDirectory, serdeFactory, 8);
+        final SnapshotRecovery<DummyRecord> recovery = recoverySnapshot.recover();
+        assertEquals(3L, recovery.getMaxTransactionId());
+        assertEquals(100, recovery.getRecords().size());
+        assertEquals("true", recovery.getRecords().get("42").getProperties().get("updated"));
+    }
+
+    @Test
+    public void testRecoveryUpdatesMarkPartitionsModified() throws IOException {
+        final PartitionedSnapshot<DummyRecord> snapshot = new PartitionedSnapshot<>(storageDirectory, serdeFactory, 4);
+        for (int i = 0; i < 20; i++) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)));
+        }
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(1L));
+
+        // Simulate the replay of a journal, which modifies the recovered records directly
+        final PartitionedSnapshot<DummyRecord> recoverySnapshot = new PartitionedSnapshot<>(storageDirectory, serdeFactory, 4);
+        final Map<Object, DummyRecord> recoveredRecords = recoverySnapshot.recover().getRecords();
+        assertNotNull(recoveredRecords.remove("5"));
+        recoverySnapshot.writeSnapshot(recoverySnapshot.prepareSnapshot(2L));
+        assertEquals(1, countPartitionFiles(".2"));
+
+        final SnapshotRecovery<DummyRecord> recovery = new PartitionedSnapshot<>(storageDirectory, serdeFactory, 4).recover();
+        assertEquals(19, recovery.getRecords().size());
+        assertNull(recovery.getRecords().get("5"));
+    }
+
+    @Test
+    public void testPartitionCountChanged() throws IOException {
+        final PartitionedSnapshot<DummyRecord> snapshot = new PartitionedSnapshot<>(storageDirectory, serdeFactory, 4);
+        for (int i = 0; i < 50; i++) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)));
+        }
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(10L));
+
+        final PartitionedSnapshot<DummyRecord> recoverySnapshot = new PartitionedSnapshot<>(storageDirectory, serdeFactory, 16);
+        final SnapshotRecovery<DummyRecord> recovery = recoverySnapshot.recover();
+        assertEquals(50, recovery.getRecords().size());
+        for (int i = 0; i < 50; i++) {
+            assertNotNull(recoverySnapshot.lookup(String.valueOf(i)));
+        }
+
+        recoverySnapshot.writeSnapshot(recoverySnapshot.prepareSnapshot(11L));
+        assertEquals(16, countPartitionFiles(".2"));
+        assertEquals(0, countPartitionFiles(".1"));
+    }
+
+    @Test
+    public void testMigrateFromHashMapSnapshot() throws IOException {
+        final HashMapSnapshot<DummyRecord> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
+        for (int i = 0; i < 10; i++) {
+            hashMapSnapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)));
+        }
+        hashMapSnapshot.writeSnapshot(hashMapSnapshot.prepareSnapshot(25L, Set.of("swapFile-1")));
+
+        final File hashMapSnapshotFile = new File(storageDirectory, "checkpoint");
+        assertTrue(hashMapSnapshotFile.exists());
+
+        final PartitionedSnapshot<DummyRecord> snapshot = new PartitionedSnapshot<>(storageDirectory, serdeFactory, 4);
+        final SnapshotRecovery<DummyRecord> recovery = snapshot.recover();
+        assertEquals(25L, recovery.getMaxTransactionId());
+        assertEquals(10, recovery.getRecords().size());
+        assertEquals(Set.of("swapFile-1"), recovery.getRecoveredSwapLocations());
+
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(25L));
+        assertFalse(hashMapSnapshotFile.exists());
+        assertEquals(4, countPartitionFiles(".1"));
+
+        // Once migrated, the HashMapSnapshot must not recover from an empty directory, as that would lose all records
+        assertThrows(IOException.class, () -> new HashMapSnapshot<>(storageDirectory, serdeFactory).recover());
+
+        final SnapshotRecovery<DummyRecord> partitionedRecovery = new PartitionedSnapshot<>(storageDirectory, serdeFactory, 4).recover();
+        assertEquals(10, partitionedRecovery.getRecords().size());
+        assertEquals(Set.of("swapFile-1"), partitionedRecovery.getRecoveredSwapLocations());
+    }
+
+    @Test
+    public void testFailedWriteLeavesPreviousSnapshotRecoverable() throws IOException {
+        final DummyRecordSerde serde = new DummyRecordSerde();
+        final SerDeFactory<DummyRecord> failingSerdeFactory = new SingletonSerDeFactory<>(serde);
+        final PartitionedSnapshot<DummyRecord> snapshot = new PartitionedSnapshot<>(storageDirectory, failingSerdeFactory, 4);
+        for (int i = 0; i < 10; i++) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)));
+        }
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(5L));
+
+        for (int i = 10; i < 20; i++) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)));
+        }
+
+        serde.setThrowIOEAfterNSerializeEdits(0);
+        final SnapshotCapture<DummyRecord> capture = snapshot.prepareSnapshot(10L);
+        assertThrows(IOException.class, () -> snapshot.writeSnapshot(capture));
+
+        final SnapshotRecovery<DummyRecord> recovery = new PartitionedSnapshot<>(storageDirectory, serdeFactory, 4).recover();
+        assertEquals(5L, recovery.getMaxTransactionId());
+        assertEquals(10, recovery.getRecords().size());
+
+        // The partitions that failed to be written must still be written by the next snapshot
+        serde.setThrowIOEAfterNSerializeEdits(-1);
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(10L));
+        assertEquals(20, new PartitionedSnapshot<>(storageDirectory, serdeFactory, 4).recover().getRecords().size());
+    }
+
+    private int countPartitionFiles(final String generationSuffix) {
+        final File[] files = snapshotDirectory.listFiles((dir, name) -> name.startsWith("partition-") && name.endsWith(generationSuffix));
+        return files == null ? 0 : files.length;
+    }
+
+    private void deleteRecursively(final File file) throws IOException {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                deleteRecursively(child);
+            }
+        }
+
+        Files.deleteIfExists(file.toPath());
+    }
+}
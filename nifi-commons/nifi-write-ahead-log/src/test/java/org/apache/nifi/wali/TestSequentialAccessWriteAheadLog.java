@@ -26,6 +26,7 @@ import org.wali.DummyRecord;
 import org.wali.DummyRecordSerde;
 import org.wali.SerDeFactory;
 import org.wali.SingletonSerDeFactory;
+import org.wali.SyncListener;
 import org.wali.UpdateType;
 import org.wali.WriteAheadRepository;
 
@@ -41,7 +42,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -187,6 +192,100 @@ public class TestSequentialAccessWriteAheadLog {
         assertEquals(expected, new HashSet<>(recovered));
     }
 
+    @Test
+    public void testRecoverWithPartitionedSnapshot(TestInfo testInfo) throws IOException {
+        final File storageDir = new File(new File("target"), testInfo.getTestMethod().get().getName());
+        deleteRecursively(storageDir);
+        assertTrue(storageDir.mkdirs());
+
+        final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory,
+            SyncListener.NOP_SYNC_LISTENER, false, 0L, TimeUnit.MILLISECONDS, 4);
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        final List<DummyRecord> records = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            records.add(new DummyRecord(String.valueOf(i), UpdateType.CREATE));
+        }
+        repo.update(records, false);
+        repo.checkpoint();
+
+        final DummyRecord updateRecord = new DummyRecord("4", UpdateType.UPDATE);
+        updateRecord.setProperties(Collections.singletonMap("updated", "true"));
+        repo.update(Collections.singleton(updateRecord), false);
+        repo.update(Collections.singleton(new DummyRecord("5", UpdateType.DELETE)), false);
+        repo.shutdown();
+
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory,
+            SyncListener.NOP_SYNC_LISTENER, false, 0L, TimeUnit.MILLISECONDS, 4);
+        final Collection<DummyRecord> recovered = recoveryRepo.recoverRecords();
+
+        final Set<DummyRecord> expected = new HashSet<>(records);
+        expected.remove(new DummyRecord("4", UpdateType.CREATE));
+        expected.remove(new DummyRecord("5", UpdateType.CREATE));
+        expected.add(updateRecord);
+        assertEquals(expected, new HashSet<>(recovered));
+        recoveryRepo.shutdown();
+    }
+
+    @Test
+    public void testGroupCommitCoalescesSyncs(TestInfo testInfo) throws Exception {
+        final File storageDir = new File(new File("target"), testInfo.getTestMethod().get().getName());
+        deleteRecursively(storageDir);
+        assertTrue(storageDir.mkdirs());
+
+        final AtomicInteger syncCount = new AtomicInteger(0);
+        final SyncListener syncListener = new SyncListener() {
+            @Override
+            public void onSync(final int partitionIndex) {
+                syncCount.incrementAndGet();
+            }
+
+            @Override
+            public void onGlobalSync() {
+            }
+        };
+
+        final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, syncListener, true, 5, TimeUnit.MILLISECONDS);
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        final int numThreads = 8;
+        final int updatesPerThread = 50;
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        final List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < numThreads; t++) {
+                final int threadIndex = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        final DummyRecord record = new DummyRecord(threadIndex + "-" + i, UpdateType.CREATE);
+                        repo.update(Collections.singleton(record), true);
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Every update requested a sync, but concurrent updates should have shared an fsync
+        final int totalUpdates = numThreads * updatesPerThread;
+        assertTrue(syncCount.get() > 0);
+        assertTrue(syncCount.get() < totalUpdates, "Expected fewer than " + totalUpdates + " syncs but there were " + syncCount.get());
+
+        repo.shutdown();
+
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = createRecoveryRepo(testInfo);
+        final Collection<DummyRecord> recovered = recoveryRepo.recoverRecords();
+        assertEquals(totalUpdates, recovered.size());
+    }
+
     private SequentialAccessWriteAheadLog<DummyRecord> createRecoveryRepo(TestInfo testInfo) throws IOException {
         final File targetDir = new File("target");
         final File storageDir = new File(targetDir, testInfo.getTestMethod().get().getName());
@@ -17,6 +17,8 @@
 
 package org.apache.nifi.avro;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -62,8 +64,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
-import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.IndexedValueMap;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
@@ -97,6 +100,13 @@ public class AvroTypeUtil {
 
     private static final long ONE_THOUSAND_MILLISECONDS = 1000;
 
+    // Nested records that share an Avro Schema also share the Record Schema, and with it the field index, rather than building them again for every record.
+    // The keys are weak, so they are compared by identity and released along with the Avro Schema.
+    private static final LoadingCache<Schema, RecordSchema> NESTED_RECORD_SCHEMAS = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(1000)
+            .build(avroSchema -> createSchema(avroSchema, false));
+
     public static Schema extractAvroSchema(final RecordSchema recordSchema) {
         if (recordSchema == null) {
             throw new IllegalArgumentException("RecordSchema cannot be null");
@@ -939,7 +949,7 @@ public class AvroTypeUtil {
         return rawValue;
     }
 
-    public static Map<String, Object> convertAvroRecordToMap(final GenericRecord avroRecord, final RecordSchema recordSchema) {
+    public static IndexedValueMap convertAvroRecordToMap(final GenericRecord avroRecord, final RecordSchema recordSchema) {
         return convertAvroRecordToMap(avroRecord, recordSchema, StandardCharsets.UTF_8);
     }
 
@@ -960,8 +970,8 @@ public class AvroTypeUtil {
         return null;
     }
 
-    public static Map<String, Object> convertAvroRecordToMap(final GenericRecord avroRecord, final RecordSchema recordSchema, final Charset charset) {
-        final Map<String, Object> values = new HashMap<>(recordSchema.getFieldCount());
+    public static IndexedValueMap convertAvroRecordToMap(final GenericRecord avroRecord, final RecordSchema recordSchema, final Charset charset) {
+        final IndexedValueMap values = new IndexedValueMap(recordSchema);
 
         for (final RecordField recordField : recordSchema.getFields()) {
             final String relevantFieldName = getMatchingFieldName(avroRecord, recordField);
@@ -1188,14 +1198,14 @@ public class AvroTypeUtil {
                 final GenericData.Record record = (GenericData.Record) value;
                 final Schema recordSchema = record.getSchema();
                 final List<Field> recordFields = recordSchema.getFields();
-                final Map<String, Object> values = new HashMap<>(recordFields.size());
+                final RecordSchema childSchema = NESTED_RECORD_SCHEMAS.get(recordSchema);
+                final IndexedValueMap values = new IndexedValueMap(childSchema);
                 for (final Field field : recordFields) {
                     final Object avroFieldValue = record.get(field.name());
                     final Object fieldValue = normalizeValue(avroFieldValue, field.schema(), fieldName + "/" + field.name());
                     values.put(field.name(), fieldValue);
                 }
-                final RecordSchema childSchema = createSchema(recordSchema, false);
-                return new MapRecord(childSchema, values);
+                return new ArrayRecord(childSchema, values);
             case BYTES:
                 final ByteBuffer bb = (ByteBuffer) value;
                 final LogicalType logicalType = avroSchema.getLogicalType();
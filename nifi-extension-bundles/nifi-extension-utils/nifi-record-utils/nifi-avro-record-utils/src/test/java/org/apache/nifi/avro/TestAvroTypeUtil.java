@@ -981,6 +981,27 @@ public class TestAvroTypeUtil {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void testNestedRecordsShareSchema() {
+        final Schema childAvroSchema = SchemaBuilder.record("child").fields().requiredString("name").endRecord();
+        final Schema parentAvroSchema = SchemaBuilder.record("parent").fields().name("child").type(childAvroSchema).noDefault().endRecord();
+        final RecordSchema parentSchema = AvroTypeUtil.createSchema(parentAvroSchema);
+
+        final Record firstAvroRecord = new GenericRecordBuilder(parentAvroSchema)
+                .set("child", new GenericRecordBuilder(childAvroSchema).set("name", "first").build())
+                .build();
+        final Record secondAvroRecord = new GenericRecordBuilder(parentAvroSchema)
+                .set("child", new GenericRecordBuilder(childAvroSchema).set("name", "second").build())
+                .build();
+
+        final MapRecord firstChild = (MapRecord) AvroTypeUtil.convertAvroRecordToMap(firstAvroRecord, parentSchema).get("child");
+        final MapRecord secondChild = (MapRecord) AvroTypeUtil.convertAvroRecordToMap(secondAvroRecord, parentSchema).get("child");
+
+        assertEquals("first", firstChild.getValue("name"));
+        assertEquals("second", secondChild.getValue("name"));
+        assertSame(firstChild.getSchema(), secondChild.getSchema());
+    }
+
     @Test
     public void testConvertNifiRecordIntoAvroRecord() {
         // given
@@ -29,8 +29,9 @@ import org.apache.nifi.processor.util.StandardValidators;
 import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
-import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.IndexedValueMap;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
@@ -148,8 +149,7 @@ public abstract class AbstractJsonRowRecordReader implements RecordReader {
 
     @Override
     public Record nextRecord(final boolean coerceTypes, final boolean dropUnknownFields) throws IOException, MalformedRecordException {
-        final JsonNode nextNode = getNextJsonNode();
-        if (nextNode == null) {
+        if (!moveToNextObject()) {
             if (captureFieldPredicate != null) {
                 while (jsonParser.nextToken() != null) {
                     captureCurrentField(captureFieldPredicate);
@@ -159,7 +159,32 @@ public abstract class AbstractJsonRowRecordReader implements RecordReader {
             return null;
         }
 
-        final RecordSchema schema = getSchema();
+        return readRecord(jsonParser, getSchema(), coerceTypes, dropUnknownFields);
+    }
+
+    /**
+     * Reads the JSON object at which the given parser is positioned and converts it into a Record. When this method is called, the current token
+     * of the parser is the START_OBJECT token of the record; when it returns, the current token must be the matching END_OBJECT token.
+     * The default implementation reads the object into a {@link JsonNode} tree and converts it using
+     * {@link #convertJsonNodeToRecord(JsonNode, RecordSchema, boolean, boolean)}.
+     *
+     * @param parser            the parser positioned at the start of the record
+     * @param schema            the schema of the record
+     * @param coerceTypes       whether to coerce field values to the types given by the schema
+     * @param dropUnknownFields whether to drop fields that are not present in the schema
+     * @return the Record
+     * @throws IOException              in case of JSON stream processing failure
+     * @throws MalformedRecordException in case of malformed JSON input or failure to convert it into a Record
+     */
+    protected Record readRecord(final JsonParser parser, final RecordSchema schema, final boolean coerceTypes, final boolean dropUnknownFields)
+            throws IOException, MalformedRecordException {
+        final JsonNode nextNode;
+        try {
+            nextNode = parser.readValueAsTree();
+        } catch (final JsonParseException e) {
+            throw new MalformedRecordException("Failed to parse JSON", e);
+        }
+
         try {
             return convertJsonNodeToRecord(nextNode, schema, coerceTypes, dropUnknownFields);
         } catch (final MalformedRecordException mre) {
@@ -357,7 +382,7 @@ public abstract class AbstractJsonRowRecordReader implements RecordReader {
 
     private Record createRecordFromRawValue(final JsonNode fieldNode, final RecordSchema childSchema) throws IOException {
         final Iterator<String> fieldNames = fieldNode.fieldNames();
-        final Map<String, Object> childValues = new LinkedHashMap<>();
+        final IndexedValueMap childValues = new IndexedValueMap(childSchema);
         while (fieldNames.hasNext()) {
             final String childFieldName = fieldNames.next();
 
@@ -367,16 +392,16 @@ public abstract class AbstractJsonRowRecordReader implements RecordReader {
         }
 
         final SerializedForm serializedForm = SerializedForm.of(fieldNode::toString, "application/json");
-        return new MapRecord(childSchema, childValues, serializedForm);
+        return new ArrayRecord(childSchema, childValues, serializedForm);
     }
 
 
-    private JsonNode getNextJsonNode() throws IOException, MalformedRecordException {
+    private boolean moveToNextObject() throws IOException, MalformedRecordException {
         try {
             while (true) {
                 final JsonToken token = jsonParser.nextToken();
                 if (token == null) {
-                    return null;
+                    return false;
                 }
 
                 switch (token) {
@@ -395,7 +420,7 @@ public abstract class AbstractJsonRowRecordReader implements RecordReader {
                             }
                         }
 
-                        return jsonParser.readValueAsTree();
+                        return true;
                     default:
                         // We got a token that isn't expected. This can happen when using the Nested Field Strategy.
                         // For example, the field given has a String as a value instead of a Record. In this case, we want to skip to the next field.
@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.nifi.logging.ComponentLog;
+import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.record.ArrayRecord;
+import org.apache.nifi.serialization.record.DataType;
+import org.apache.nifi.serialization.record.IndexedValueMap;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.type.ArrayDataType;
+import org.apache.nifi.serialization.record.type.MapDataType;
+import org.apache.nifi.serialization.record.type.RecordDataType;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * <p>
+ * A JSON Record Reader that converts the tokens of each JSON object directly into Record field values, as directed by the schema,
+ * rather than first reading each object into a {@link JsonNode} tree as the {@link JsonTreeRowRecordReader} does. This avoids allocating
+ * an intermediate tree for every record.
+ * </p>
+ *
+ * <p>
+ * The Records that are produced contain the same values as those produced by the {@link JsonTreeRowRecordReader}, but Records that are
+ * converted according to a RECORD field of the schema do not retain the serialized form of the JSON object. Values whose conversion depends
+ * upon the whole value, such as values of a CHOICE type, objects and arrays that are coerced into a String, and objects that are read without
+ * type coercion, are read into a tree and converted in the same way as the {@link JsonTreeRowRecordReader} converts them.
+ * </p>
+ */
+public class JsonStreamingRowRecordReader extends JsonTreeRowRecordReader {
+    private final ComponentLog logger;
+
+    public JsonStreamingRowRecordReader(
+            final InputStream in,
+            final ComponentLog logger,
+            final RecordSchema schema,
+            final String dateFormat,
+            final String timeFormat,
+            final String timestampFormat,
+            final StartingFieldStrategy startingFieldStrategy,
+            final String startingFieldName,
+            final SchemaApplicationStrategy schemaApplicationStrategy,
+            final BiPredicate<String, String> captureFieldPredicate,
+            final TokenParserFactory tokenParserFactory
+    ) throws IOException, MalformedRecordException {
+
+        super(in, logger, schema, dateFormat, timeFormat, timestampFormat, startingFieldStrategy, startingFieldName, schemaApplicationStrategy,
+                captureFieldPredicate, tokenParserFactory);
+        this.logger = logger;
+    }
+
+    @Override
+    protected Record readRecord(final JsonParser parser, final RecordSchema schema, final boolean coerceTypes, final boolean dropUnknownFields)
+            throws IOException, MalformedRecordException {
+        final JsonStreamContext enclosingContext = parser.getParsingContext().getParent();
+
+        try {
+            return readObject(parser, schema, null, coerceTypes, dropUnknownFields);
+        } catch (final JsonParseException e) {
+            throw new MalformedRecordException("Failed to parse JSON", e);
+        } catch (final IOException e) {
+            throw e;
+        } catch (final Exception e) {
+            // Consume the remainder of the object so that the next call starts with the next record, as it would if the whole object had been read up front
+            skipToEndOfRecord(parser, enclosingContext);
+
+            if (e instanceof MalformedRecordException mre) {
+                throw mre;
+            }
+
+            logger.debug("Failed to convert JSON object into a Record object using schema {}", schema, e);
+            throw new MalformedRecordException("Failed to convert JSON object into a Record object with the given schema", e);
+        }
+    }
+
+    private void skipToEndOfRecord(final JsonParser parser, final JsonStreamContext enclosingContext) throws IOException {
+        while (parser.getParsingContext() != enclosingContext) {
+            if (parser.nextToken() == null) {
+                return;
+            }
+        }
+    }
+
+    private Record readObject(final JsonParser parser, final RecordSchema schema, final String fieldNamePrefix, final boolean coerceTypes, final boolean dropUnknown)
+            throws IOException, MalformedRecordException {
+
+        final IndexedValueMap values = new IndexedValueMap(schema);
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String fieldName = parser.currentName();
+            parser.nextToken();
+
+            final RecordField recordField = schema.getField(fieldName).orElse(null);
+            if (recordField == null && dropUnknown) {
+                parser.skipChildren();
+                continue;
+            }
+
+            // When dropping unknown fields, values are keyed by the name of the field in the schema rather than by an alias
+            final String valueName = dropUnknown ? recordField.getFieldName() : fieldName;
+
+            final Object value;
+            if (coerceTypes && recordField != null) {
+                final String fullFieldName = fieldNamePrefix == null ? valueName : fieldNamePrefix + valueName;
+                value = convertValue(parser, fullFieldName, recordField.getDataType(), dropUnknown);
+            } else {
+                value = readRawValue(parser, recordField == null ? null : recordField.getDataType(), valueName);
+            }
+
+            // A value given under the field's name takes precedence over a value given under one of its aliases
+            if (valueName.equals(fieldName) || !values.containsKey(valueName)) {
+                values.put(valueName, value);
+            }
+        }
+
+        return new ArrayRecord(schema, values, false, dropUnknown);
+    }
+
+    private Object convertValue(final JsonParser parser, final String fieldName, final DataType desiredType, final boolean dropUnknown)
+            throws IOException, MalformedRecordException {
+
+        final JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+
+        switch (desiredType.getFieldType()) {
+            case BOOLEAN:
+            case BYTE:
+            case CHAR:
+            case DECIMAL:
+            case DOUBLE:
+            case FLOAT:
+            case INT:
+            case BIGINT:
+            case LONG:
+            case SHORT:
+            case STRING:
+            case ENUM:
+            case DATE:
+            case TIME:
+            case UUID:
+            case TIMESTAMP: {
+                if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                    // An object or array that is coerced into a scalar, such as a String, is converted from its serialized form, which requires the tree
+                    break;
+                }
+
+                final Object rawValue = readRawValue(parser, null, fieldName);
+                return DataTypeUtils.convertType(rawValue, desiredType, getDateFormat(), getTimeFormat(), getTimestampFormat(), fieldName);
+            }
+            case MAP: {
+                final Map<String, Object> map = new LinkedHashMap<>();
+                if (token != JsonToken.START_OBJECT) {
+                    // Consistent with the tree conversion, which finds no entries in a value that is not an object
+                    parser.skipChildren();
+                    return map;
+                }
+
+                final DataType valueType = ((MapDataType) desiredType).getValueType();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String childName = parser.currentName();
+                    parser.nextToken();
+                    map.put(childName, convertValue(parser, fieldName, valueType, dropUnknown));
+                }
+
+                return map;
+            }
+            case ARRAY: {
+                if (token != JsonToken.START_ARRAY) {
+                    break;
+                }
+
+                final DataType elementType = ((ArrayDataType) desiredType).getElementType();
+                final List<Object> elements = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    elements.add(convertValue(parser, fieldName, elementType, dropUnknown));
+                }
+
+                return elements.toArray();
+            }
+            case RECORD: {
+                if (token == JsonToken.START_OBJECT && desiredType instanceof RecordDataType recordDataType && recordDataType.getChildSchema() != null) {
+                    return readObject(parser, recordDataType.getChildSchema(), fieldName + ".", true, dropUnknown);
+                }
+                break;
+            }
+            default:
+                break;
+        }
+
+        // The value cannot be converted directly from the tokens, so convert it in the same manner as the tree reader
+        return convertField(parser.readValueAsTree(), fieldName, desiredType, dropUnknown);
+    }
+
+    private Object readRawValue(final JsonParser parser, final DataType dataType, final String fieldName) throws IOException {
+        final JsonToken token = parser.currentToken();
+
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return parser.getBooleanValue();
+            case VALUE_STRING: {
+                final String textValue = parser.getText();
+                if (dataType == null) {
+                    return textValue;
+                }
+
+                switch (dataType.getFieldType()) {
+                    case DATE:
+                    case TIME:
+                    case TIMESTAMP:
+                        try {
+                            return DataTypeUtils.convertType(textValue, dataType, getDateFormat(), getTimeFormat(), getTimestampFormat(), fieldName);
+                        } catch (final Exception e) {
+                            return textValue;
+                        }
+                    default:
+                        return textValue;
+                }
+            }
+            case START_ARRAY: {
+                if (dataType != null && dataType.getFieldType() == RecordFieldType.CHOICE) {
+                    break;
+                }
+
+                final DataType elementType = dataType != null && dataType.getFieldType() == RecordFieldType.ARRAY ? ((ArrayDataType) dataType).getElementType() : dataType;
+                final List<Object> elements = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    elements.add(readRawValue(parser, elementType, fieldName));
+                }
+
+                return elements.toArray();
+            }
+            case START_OBJECT: {
+                if (dataType != null && dataType.getFieldType() == RecordFieldType.MAP) {
+                    final DataType valueType = ((MapDataType) dataType).getValueType();
+                    final Map<String, Object> map = new LinkedHashMap<>();
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        final String childName = parser.currentName();
+                        parser.nextToken();
+                        map.put(childName, readRawValue(parser, valueType, fieldName + "['" + childName + "']"));
+                    }
+
+                    return map;
+                }
+
+                // Any other object becomes a Record that retains its serialized form, which requires the tree
+                break;
+            }
+            default:
+                break;
+        }
+
+        // The value cannot be converted directly from the tokens, so convert it in the same manner as the tree reader
+        return getRawNodeValue(parser.readValueAsTree(), dataType, fieldName);
+    }
+}
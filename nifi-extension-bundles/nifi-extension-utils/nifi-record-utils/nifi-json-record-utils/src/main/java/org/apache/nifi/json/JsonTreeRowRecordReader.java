@@ -23,8 +23,9 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
-import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.IndexedValueMap;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
@@ -135,7 +136,7 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
     private Record convertJsonNodeToRecord(final JsonNode jsonNode, final RecordSchema schema, final String fieldNamePrefix,
                                            final boolean coerceTypes, final boolean dropUnknown) throws IOException, MalformedRecordException {
 
-        final Map<String, Object> values = new LinkedHashMap<>(schema.getFieldCount() * 2);
+        final IndexedValueMap values = new IndexedValueMap(schema);
 
         if (dropUnknown) {
             // Delete unknown fields for updated serialized representation
@@ -190,7 +191,7 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
         }
 
         final Supplier<String> supplier = jsonNode::toString;
-        return new MapRecord(schema, values, SerializedForm.of(supplier, "application/json"), false, dropUnknown);
+        return new ArrayRecord(schema, values, SerializedForm.of(supplier, "application/json"), false, dropUnknown);
     }
 
 
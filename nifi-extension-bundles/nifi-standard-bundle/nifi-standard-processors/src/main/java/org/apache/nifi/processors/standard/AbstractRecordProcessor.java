@@ -17,6 +17,8 @@
 
 package org.apache.nifi.processors.standard;
 
+import org.apache.nifi.annotation.lifecycle.OnScheduled;
+import org.apache.nifi.annotation.lifecycle.OnStopped;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.expression.ExpressionLanguageScope;
 import org.apache.nifi.flowfile.FlowFile;
@@ -27,6 +29,7 @@ import org.apache.nifi.processor.ProcessContext;
 import org.apache.nifi.processor.ProcessSession;
 import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.processor.exception.ProcessException;
+import org.apache.nifi.processor.util.StandardValidators;
 import org.apache.nifi.schema.access.SchemaNotFoundException;
 import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.RecordReader;
@@ -37,14 +40,24 @@ import org.apache.nifi.serialization.WriteResult;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSchema;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class AbstractRecordProcessor extends AbstractProcessor {
 
+    static final int RECORDS_PER_CHUNK = 1000;
+
     static final PropertyDescriptor RECORD_READER = new PropertyDescriptor.Builder()
         .name("Record Reader")
         .description("Specifies the Controller Service to use for reading incoming data")
@@ -68,6 +81,17 @@ public abstract class AbstractRecordProcessor extends AbstractProcessor {
         .required(true)
         .build();
 
+    static final PropertyDescriptor RECORD_PROCESSING_THREADS = new PropertyDescriptor.Builder()
+        .name("Record Processing Threads")
+        .description("The number of threads used to process the Records of a single FlowFile. When greater than 1, Records are read in chunks of "
+            + RECORDS_PER_CHUNK + " that are processed concurrently and then written in their original order, which allows a single large FlowFile "
+            + "to make use of multiple cores. Reading and writing the Records is still performed by a single thread.")
+        .expressionLanguageSupported(ExpressionLanguageScope.NONE)
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .defaultValue("1")
+        .required(true)
+        .build();
+
     static final Relationship REL_SUCCESS = new Relationship.Builder()
         .name("success")
         .description("FlowFiles that are successfully transformed will be routed to this relationship")
@@ -79,6 +103,12 @@ public abstract class AbstractRecordProcessor extends AbstractProcessor {
         .build();
 
     private static final List<PropertyDescriptor> PROPERTY_DESCRIPTORS = List.of(
+            RECORD_READER,
+            RECORD_WRITER,
+            RECORD_PROCESSING_THREADS
+    );
+
+    private static final List<PropertyDescriptor> SEQUENTIAL_PROPERTY_DESCRIPTORS = List.of(
             RECORD_READER,
             RECORD_WRITER
     );
@@ -88,9 +118,11 @@ public abstract class AbstractRecordProcessor extends AbstractProcessor {
             REL_FAILURE
     );
 
+    private volatile ForkJoinPool processingPool;
+
     @Override
     protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
-        return PROPERTY_DESCRIPTORS;
+        return isParallelProcessingSupported() ? PROPERTY_DESCRIPTORS : SEQUENTIAL_PROPERTY_DESCRIPTORS;
     }
 
     @Override
@@ -105,6 +137,26 @@ public abstract class AbstractRecordProcessor extends AbstractProcessor {
         config.renameProperty("include-zero-record-flowfiles", INCLUDE_ZERO_RECORD_FLOWFILES.getName());
     }
 
+    @OnScheduled
+    public void createProcessingPool(final ProcessContext context) {
+        if (!isParallelProcessingSupported()) {
+            processingPool = null;
+            return;
+        }
+
+        final int processingThreads = context.getProperty(RECORD_PROCESSING_THREADS).asInteger();
+        processingPool = processingThreads > 1 ? new ForkJoinPool(processingThreads) : null;
+    }
+
+    @OnStopped
+    public void shutdownProcessingPool() {
+        final ForkJoinPool pool = processingPool;
+        if (pool != null) {
+            pool.shutdownNow();
+            processingPool = null;
+        }
+    }
+
     @Override
     public void onTrigger(final ProcessContext context, final ProcessSession session) throws ProcessException {
         FlowFile flowFile = session.get();
@@ -115,6 +167,7 @@ public abstract class AbstractRecordProcessor extends AbstractProcessor {
         final RecordReaderFactory readerFactory = context.getProperty(RECORD_READER).asControllerService(RecordReaderFactory.class);
         final RecordSetWriterFactory writerFactory = context.getProperty(RECORD_WRITER).asControllerService(RecordSetWriterFactory.class);
         final boolean includeZeroRecordFlowFiles = context.getProperty(INCLUDE_ZERO_RECORD_FLOWFILES).isSet() ? context.getProperty(INCLUDE_ZERO_RECORD_FLOWFILES).asBoolean() : true;
+        final ForkJoinPool pool = processingPool;
 
         final Map<String, String> attributes = new HashMap<>();
         final AtomicInteger recordCount = new AtomicInteger();
@@ -153,11 +206,15 @@ public abstract class AbstractRecordProcessor extends AbstractProcessor {
 
                         writer.write(firstRecord);
 
-                        Record record;
-                        long count = 1L;
-                        while ((record = reader.nextRecord()) != null) {
-                            final Record processed = AbstractRecordProcessor.this.process(record, original, context, ++count);
-                            writer.write(processed);
+                        if (pool == null) {
+                            Record record;
+                            long count = 1L;
+                            while ((record = reader.nextRecord()) != null) {
+                                final Record processed = AbstractRecordProcessor.this.process(record, original, context, ++count);
+                                writer.write(processed);
+                            }
+                        } else {
+                            processInParallel(reader, writer, original, context, pool);
                         }
 
                         final WriteResult writeResult = writer.finishRecordSet();
@@ -199,5 +256,92 @@ public abstract class AbstractRecordProcessor extends AbstractProcessor {
         getLogger().info("Successfully converted {} records for {}", count, flowFile);
     }
 
+    /**
+     * Reads the remaining Records in chunks and processes each chunk on the given pool. Completed chunks are written in the order in
+     * which they were read, and no more than twice the pool's parallelism are held in memory at any time.
+     */
+    private void processInParallel(final RecordReader reader, final RecordSetWriter writer, final FlowFile flowFile, final ProcessContext context,
+                                   final ForkJoinPool pool) throws IOException, MalformedRecordException {
+        final int maxPendingChunks = pool.getParallelism() * 2;
+        final Deque<Future<List<Record>>> pendingChunks = new ArrayDeque<>(maxPendingChunks);
+
+        try {
+            List<Record> chunk = new ArrayList<>(RECORDS_PER_CHUNK);
+            long count = 1L;
+            Record record;
+            while ((record = reader.nextRecord()) != null) {
+                chunk.add(record);
+                if (chunk.size() < RECORDS_PER_CHUNK) {
+                    continue;
+                }
+
+                pendingChunks.add(processChunk(chunk, flowFile, context, count, pool));
+                count += chunk.size();
+                chunk = new ArrayList<>(RECORDS_PER_CHUNK);
+
+                // Write any chunks that are already complete, blocking only if too many chunks are outstanding
+                while (!pendingChunks.isEmpty() && (pendingChunks.size() >= maxPendingChunks || pendingChunks.peek().isDone())) {
+                    writeChunk(writer, pendingChunks.poll());
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                pendingChunks.add(processChunk(chunk, flowFile, context, count, pool));
+            }
+
+            while (!pendingChunks.isEmpty()) {
+                writeChunk(writer, pendingChunks.poll());
+            }
+        } finally {
+            pendingChunks.forEach(pendingChunk -> pendingChunk.cancel(true));
+        }
+    }
+
+    private Future<List<Record>> processChunk(final List<Record> chunk, final FlowFile flowFile, final ProcessContext context, final long previousCount,
+                                              final ForkJoinPool pool) {
+        return CompletableFuture.supplyAsync(() -> {
+            long count = previousCount;
+            for (int i = 0; i < chunk.size(); i++) {
+                chunk.set(i, process(chunk.get(i), flowFile, context, ++count));
+            }
+            return chunk;
+        }, pool);
+    }
+
+    private void writeChunk(final RecordSetWriter writer, final Future<List<Record>> pendingChunk) throws IOException {
+        final List<Record> processed;
+        try {
+            processed = pendingChunk.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessException("Interrupted while waiting for Records to be processed", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ProcessException(e.getCause());
+        }
+
+        for (final Record record : processed) {
+            writer.write(record);
+        }
+    }
+
+    /**
+     * Indicates whether {@link #process(Record, FlowFile, ProcessContext, long)} may be called concurrently for Records of the same FlowFile.
+     * Records of the same FlowFile typically share a single schema instance, so an implementation that modifies a Record's schema in place,
+     * rather than copying it first, must not be called concurrently. Only Processors that return <code>true</code> support the Record
+     * Processing Threads property.
+     *
+     * @return <code>true</code> if Records of the same FlowFile may be processed concurrently, <code>false</code> otherwise
+     */
+    protected boolean isParallelProcessingSupported() {
+        return false;
+    }
+
+    /**
+     * Processes a single Record. If parallel processing is supported and the Record Processing Threads property is greater than 1, this
+     * method is called concurrently for Records of the same FlowFile, so implementations must not keep per-FlowFile state between invocations.
+     */
     protected abstract Record process(Record record, FlowFile flowFile, ProcessContext context, long count);
 }
@@ -34,6 +34,7 @@ import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
 import org.apache.nifi.annotation.documentation.UseCase;
 import org.apache.nifi.annotation.lifecycle.OnStopped;
+import org.apache.nifi.components.DescribedValue;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.components.ValidationContext;
 import org.apache.nifi.components.ValidationResult;
@@ -49,6 +50,7 @@ import org.apache.nifi.processor.ProcessSession;
 import org.apache.nifi.processor.ProcessorInitializationContext;
 import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.processor.exception.ProcessException;
+import org.apache.nifi.processor.util.StandardValidators;
 import org.apache.nifi.processors.standard.calcite.RecordPathFunctions;
 import org.apache.nifi.processors.standard.calcite.RecordResultSetOutputStreamCallback;
 import org.apache.nifi.queryrecord.RecordDataSource;
@@ -57,9 +59,11 @@ import org.apache.nifi.serialization.RecordReaderFactory;
 import org.apache.nifi.serialization.RecordSetWriterFactory;
 import org.apache.nifi.serialization.WriteResult;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.sql.CachingDataSource;
 import org.apache.nifi.sql.CalciteDatabase;
 import org.apache.nifi.sql.NiFiTable;
 import org.apache.nifi.sql.NiFiTableSchema;
+import org.apache.nifi.sql.ResettableDataSource;
 import org.apache.nifi.util.StopWatch;
 import org.apache.nifi.util.StringUtils;
 import org.apache.nifi.util.Tuple;
@@ -215,13 +219,33 @@ public class QueryRecord extends AbstractProcessor {
         .defaultValue("true")
         .required(true)
         .build();
+    static final PropertyDescriptor RECORD_READING_STRATEGY = new PropertyDescriptor.Builder()
+        .name("Record Reading Strategy")
+        .description("Specifies how the incoming FlowFile is read when more than one SQL statement is configured")
+        .expressionLanguageSupported(ExpressionLanguageScope.NONE)
+        .allowableValues(RecordReadingStrategy.class)
+        .defaultValue(RecordReadingStrategy.PER_QUERY)
+        .required(true)
+        .build();
+    static final PropertyDescriptor MAX_SHARED_RECORDS = new PropertyDescriptor.Builder()
+        .name("Max Shared Records")
+        .description("The maximum number of records from a single FlowFile that will be held in memory in order to be shared between the SQL statements. "
+            + "If the FlowFile contains more records than this, each SQL statement reads the FlowFile independently, as it does with the 'Per Query' strategy.")
+        .expressionLanguageSupported(ExpressionLanguageScope.NONE)
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .defaultValue("100000")
+        .required(true)
+        .dependsOn(RECORD_READING_STRATEGY, RecordReadingStrategy.SHARED)
+        .build();
 
     private static final List<PropertyDescriptor> PROPERTY_DESCRIPTORS = List.of(
             RECORD_READER_FACTORY,
             RECORD_WRITER_FACTORY,
             INCLUDE_ZERO_RECORD_FLOWFILES,
             DEFAULT_PRECISION,
-            DEFAULT_SCALE
+            DEFAULT_SCALE,
+            RECORD_READING_STRATEGY,
+            MAX_SHARED_RECORDS
     );
 
     public static final Relationship REL_ORIGINAL = new Relationship.Builder()
@@ -356,6 +380,16 @@ public class QueryRecord extends AbstractProcessor {
         final Map<String, String> originalAttributes = original.getAttributes();
         int recordsRead = 0;
 
+        // When the records are shared, the FlowFile is parsed only once, by the first query, and the records are then retained
+        // so that the remaining queries can be evaluated against them without parsing the FlowFile again.
+        final ResettableDataSource recordDataSource = new RecordDataSource(readerSchema, session, original, recordReaderFactory, getLogger());
+        final ResettableDataSource dataSource;
+        if (context.getProperty(RECORD_READING_STRATEGY).asAllowableValue(RecordReadingStrategy.class) == RecordReadingStrategy.SHARED) {
+            dataSource = new CachingDataSource(recordDataSource, context.getProperty(MAX_SHARED_RECORDS).asInteger());
+        } else {
+            dataSource = recordDataSource;
+        }
+
         try {
             for (final PropertyDescriptor descriptor : context.getProperties().keySet()) {
                 if (!descriptor.isDynamic()) {
@@ -372,7 +406,7 @@ public class QueryRecord extends AbstractProcessor {
 
                 try {
                     final String sql = context.getProperty(descriptor).evaluateAttributeExpressions(original).getValue();
-                    final QueryResult queryResult = query(session, original, readerSchema, sql, recordReaderFactory);
+                    final QueryResult queryResult = query(readerSchema, sql, dataSource);
 
                     final ResultSet rs = queryResult.getResultSet();
                     final RecordResultSetOutputStreamCallback writer = new RecordResultSetOutputStreamCallback(getLogger(),
@@ -474,15 +508,14 @@ public class QueryRecord extends AbstractProcessor {
     }
 
 
-    private QueryResult query(final ProcessSession session, final FlowFile flowFile, final RecordSchema schema, final String sql, final RecordReaderFactory recordReaderFactory)
-                throws SQLException {
+    private QueryResult query(final RecordSchema schema, final String sql, final ResettableDataSource dataSource) throws SQLException {
 
         final Supplier<CachedStatement> statementBuilder = () -> buildCachedStatement(sql, schema);
 
         final CachedStatement cachedStatement = getStatement(sql, schema, statementBuilder);
         final PreparedStatement stmt = cachedStatement.statement();
         final NiFiTable table = cachedStatement.table();
-        table.setDataSource(new RecordDataSource(schema, session, flowFile, recordReaderFactory, getLogger()));
+        table.setDataSource(dataSource);
 
         final ResultSet rs;
         try {
@@ -575,6 +608,40 @@ public class QueryRecord extends AbstractProcessor {
         }
     }
 
+    enum RecordReadingStrategy implements DescribedValue {
+        PER_QUERY(
+                "Per Query",
+                "Each SQL statement reads and parses the FlowFile independently. This requires the least memory but parses the FlowFile once for each SQL statement."
+        ),
+        SHARED(
+                "Shared",
+                "The FlowFile is read and parsed only once, and the records are held in memory and shared by all SQL statements, up to the configured Max Shared Records."
+        );
+
+        private final String value;
+        private final String description;
+
+        RecordReadingStrategy(final String value, final String description) {
+            this.value = value;
+            this.description = description;
+        }
+
+        @Override
+        public String getValue() {
+            return this.value;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return this.value;
+        }
+
+        @Override
+        public String getDescription() {
+            return this.description;
+        }
+    }
+
     private interface QueryResult extends Closeable {
         ResultSet getResultSet();
 
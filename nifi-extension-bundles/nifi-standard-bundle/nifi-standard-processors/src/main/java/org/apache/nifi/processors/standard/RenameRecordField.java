@@ -172,6 +172,12 @@ public class RenameRecordField extends AbstractRecordProcessor {
     }
 
 
+    @Override
+    protected boolean isParallelProcessingSupported() {
+        // Renaming a field copies the Record's schema before changing it, so the schema shared by other Records is never modified
+        return true;
+    }
+
     @Override
     protected Record process(final Record record, final FlowFile flowFile, final ProcessContext context, final long count) {
         for (final String propertyName : recordPaths) {
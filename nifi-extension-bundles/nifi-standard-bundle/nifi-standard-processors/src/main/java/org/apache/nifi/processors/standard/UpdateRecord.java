@@ -218,6 +218,11 @@ public class UpdateRecord extends AbstractRecordProcessor {
         this.recordPaths = recordPaths;
     }
 
+    @Override
+    protected boolean isParallelProcessingSupported() {
+        return true;
+    }
+
     @Override
     protected Record process(Record record, final FlowFile flowFile, final ProcessContext context, final long count) {
         final boolean evaluateValueAsRecordPath = context.getProperty(REPLACEMENT_VALUE_STRATEGY).getValue().equals(RECORD_PATH_VALUES.getValue());
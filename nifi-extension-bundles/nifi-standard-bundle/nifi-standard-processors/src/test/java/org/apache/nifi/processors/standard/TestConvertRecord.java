@@ -218,6 +218,37 @@ public class TestConvertRecord {
     }
 
 
+    @Test
+    public void testReadFailureWithRecordProcessingThreads() throws InitializationException {
+        final MockRecordParser readerService = new MockRecordParser(ConvertRecord.RECORDS_PER_CHUNK * 3);
+        final MockRecordWriter writerService = new MockRecordWriter("header", false);
+
+        runner.addControllerService(READER_ID, readerService);
+        runner.enableControllerService(readerService);
+        runner.addControllerService(WRITER_ID, writerService);
+        runner.enableControllerService(writerService);
+
+        runner.setProperty(ConvertRecord.RECORD_READER, READER_ID);
+        runner.setProperty(ConvertRecord.RECORD_WRITER, WRITER_ID);
+        runner.setProperty(ConvertRecord.RECORD_PROCESSING_THREADS, "2");
+
+        readerService.addSchemaField("name", RecordFieldType.STRING);
+        readerService.addSchemaField("age", RecordFieldType.INT);
+
+        for (int i = 0; i < ConvertRecord.RECORDS_PER_CHUNK * 5; i++) {
+            readerService.addRecord("John Doe", i);
+        }
+
+        final MockFlowFile original = runner.enqueue("hello");
+        runner.run();
+
+        // Original FlowFile should be routed to 'failure' relationship without modification
+        runner.assertAllFlowFilesTransferred(ConvertRecord.REL_FAILURE, 1);
+        final MockFlowFile out = runner.getFlowFilesForRelationship(ConvertRecord.REL_FAILURE).getFirst();
+        out.assertContentEquals(original.toByteArray());
+        out.assertAttributeEquals("record.error.message", "Intentional Unit Test Exception because " + ConvertRecord.RECORDS_PER_CHUNK * 3 + " records have been read");
+    }
+
     @Test
     public void testWriteFailure() throws InitializationException, IOException {
         final MockRecordParser readerService = new MockRecordParser();
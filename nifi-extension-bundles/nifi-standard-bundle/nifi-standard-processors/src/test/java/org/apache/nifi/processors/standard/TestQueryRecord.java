@@ -30,6 +30,7 @@ import org.apache.nifi.json.JsonTreeReader;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.reporting.InitializationException;
 import org.apache.nifi.schema.access.SchemaAccessUtils;
+import org.apache.nifi.schema.access.SchemaNotFoundException;
 import org.apache.nifi.schema.inference.SchemaInferenceUtil;
 import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.RecordSetWriter;
@@ -54,6 +55,7 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
@@ -65,6 +67,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
@@ -1029,6 +1032,77 @@ public class TestQueryRecord {
         out.assertContentEquals("\"name\",\"points\"\n\"Tom\",\"49\"\n");
     }
 
+    @Test
+    public void testSharedRecordReadingStrategy() throws InitializationException {
+        final CountingRecordParser parser = new CountingRecordParser();
+        parser.addSchemaField("name", RecordFieldType.STRING);
+        parser.addSchemaField("age", RecordFieldType.INT);
+        parser.addRecord("Tom", 49);
+        parser.addRecord("Alice", 36);
+        parser.addRecord("Bob", 17);
+
+        final MockRecordWriter writer = new MockRecordWriter("\"name\",\"age\"");
+
+        TestRunner runner = getRunner();
+        runner.addControllerService("parser", parser);
+        runner.enableControllerService(parser);
+        runner.addControllerService("writer", writer);
+        runner.enableControllerService(writer);
+
+        runner.setProperty("adults", "select name, age from FLOWFILE WHERE age >= 18");
+        runner.setProperty("minors", "select name, age from FLOWFILE WHERE age < 18");
+        runner.setProperty("everyone", "select name, age from FLOWFILE");
+        runner.setProperty(QueryRecord.RECORD_READER_FACTORY, "parser");
+        runner.setProperty(QueryRecord.RECORD_WRITER_FACTORY, "writer");
+        runner.setProperty(QueryRecord.RECORD_READING_STRATEGY, QueryRecord.RecordReadingStrategy.SHARED);
+
+        runner.enqueue(new byte[0]);
+        runner.run();
+
+        runner.assertTransferCount(QueryRecord.REL_ORIGINAL, 1);
+        runner.getFlowFilesForRelationship("adults").get(0).assertContentEquals("\"name\",\"age\"\n\"Tom\",\"49\"\n\"Alice\",\"36\"\n");
+        runner.getFlowFilesForRelationship("minors").get(0).assertContentEquals("\"name\",\"age\"\n\"Bob\",\"17\"\n");
+        runner.getFlowFilesForRelationship("everyone").get(0).assertContentEquals("\"name\",\"age\"\n\"Tom\",\"49\"\n\"Alice\",\"36\"\n\"Bob\",\"17\"\n");
+
+        // One reader to determine the schema and a single reader shared by all three queries
+        assertEquals(2, parser.readersCreated.get());
+    }
+
+    @Test
+    public void testSharedRecordReadingStrategyExceedsMaxSharedRecords() throws InitializationException {
+        final CountingRecordParser parser = new CountingRecordParser();
+        parser.addSchemaField("name", RecordFieldType.STRING);
+        parser.addSchemaField("age", RecordFieldType.INT);
+        parser.addRecord("Tom", 49);
+        parser.addRecord("Alice", 36);
+        parser.addRecord("Bob", 17);
+
+        final MockRecordWriter writer = new MockRecordWriter("\"name\",\"age\"");
+
+        TestRunner runner = getRunner();
+        runner.addControllerService("parser", parser);
+        runner.enableControllerService(parser);
+        runner.addControllerService("writer", writer);
+        runner.enableControllerService(writer);
+
+        runner.setProperty("adults", "select name, age from FLOWFILE WHERE age >= 18");
+        runner.setProperty("minors", "select name, age from FLOWFILE WHERE age < 18");
+        runner.setProperty(QueryRecord.RECORD_READER_FACTORY, "parser");
+        runner.setProperty(QueryRecord.RECORD_WRITER_FACTORY, "writer");
+        runner.setProperty(QueryRecord.RECORD_READING_STRATEGY, QueryRecord.RecordReadingStrategy.SHARED);
+        runner.setProperty(QueryRecord.MAX_SHARED_RECORDS, "2");
+
+        runner.enqueue(new byte[0]);
+        runner.run();
+
+        runner.assertTransferCount(QueryRecord.REL_ORIGINAL, 1);
+        runner.getFlowFilesForRelationship("adults").get(0).assertContentEquals("\"name\",\"age\"\n\"Tom\",\"49\"\n\"Alice\",\"36\"\n");
+        runner.getFlowFilesForRelationship("minors").get(0).assertContentEquals("\"name\",\"age\"\n\"Bob\",\"17\"\n");
+
+        // Too many records to share, so each query reads the FlowFile itself
+        assertEquals(3, parser.readersCreated.get());
+    }
+
     @Test
     public void testNullable() throws InitializationException {
         final MockRecordParser parser = new MockRecordParser();
@@ -1405,6 +1479,17 @@ public class TestQueryRecord {
         }
     }
 
+    private static class CountingRecordParser extends MockRecordParser {
+        private final AtomicInteger readersCreated = new AtomicInteger();
+
+        @Override
+        public RecordReader createRecordReader(final Map<String, String> variables, final InputStream in, final long inputLength, final ComponentLog logger)
+                throws IOException, SchemaNotFoundException {
+            readersCreated.incrementAndGet();
+            return super.createRecordReader(variables, in, inputLength, logger);
+        }
+    }
+
     private static class ResultSetValidatingRecordWriter extends AbstractControllerService implements RecordSetWriterFactory {
         private final List<String> columnNames;
 
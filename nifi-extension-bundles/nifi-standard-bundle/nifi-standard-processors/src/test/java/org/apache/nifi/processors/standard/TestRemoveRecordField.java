@@ -137,6 +137,16 @@ class TestRemoveRecordField {
         executeRemovalTest(inputSchema, inputFlowFile, outputSchema, outputFlowFile, fieldToRemove);
     }
 
+    @Test
+    void testRemoveFieldFrom3LevelDeepStructureMissingFromFirstRecord() throws InitializationException, IOException {
+        final String inputSchema = "complex-person.avsc";
+        final String inputFlowFile = "complex-person-workAddress-in-second-record.json";
+        final String outputFlowFile = "complex-person-workAddress-in-second-record-no-workAddress-building-letter.json";
+        final String fieldToRemove = "/workAddress/building/letter";
+
+        executeRemovalTest(inputSchema, inputFlowFile, null, outputFlowFile, fieldToRemove);
+    }
+
     @Test
     void testRemoveNestedFieldFromDeepStructureWithRelativePath() throws InitializationException, IOException {
         final String inputSchema = "complex-person.avsc";
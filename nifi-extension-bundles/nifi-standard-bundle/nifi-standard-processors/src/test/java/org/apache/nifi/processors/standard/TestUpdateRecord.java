@@ -178,6 +178,35 @@ public class TestUpdateRecord {
         out.assertContentEquals("header\n1,John Doe,35\n2,Jane Doe,36\n3,John Smith,37\n4,Jane Smith,38\n");
     }
 
+    @Test
+    public void testLiteralReplacementRowIndexWithRecordProcessingThreads() throws InitializationException {
+        readerService = new MockRecordParser();
+        readerService.addSchemaField("id", RecordFieldType.LONG);
+        readerService.addSchemaField("name", RecordFieldType.STRING);
+        runner.addControllerService("reader", readerService);
+        runner.enableControllerService(readerService);
+
+        runner.setProperty(UpdateRecord.RECORD_PROCESSING_THREADS, "4");
+        runner.setProperty(UpdateRecord.REPLACEMENT_VALUE_STRATEGY, UpdateRecord.LITERAL_VALUES);
+        runner.setProperty("/id", "${record.index}");
+
+        runner.enqueue("");
+
+        // Span several chunks, including a partial final chunk, so that records are processed concurrently
+        final int recordCount = AbstractRecordProcessor.RECORDS_PER_CHUNK * 10 + 1;
+        final StringBuilder expected = new StringBuilder("header\n");
+        for (int i = 1; i <= recordCount; i++) {
+            readerService.addRecord(null, "Name " + i);
+            expected.append(i).append(",Name ").append(i).append("\n");
+        }
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(UpdateRecord.REL_SUCCESS, 1);
+        final MockFlowFile out = runner.getFlowFilesForRelationship(UpdateRecord.REL_SUCCESS).getFirst();
+        out.assertContentEquals(expected.toString());
+        out.assertAttributeEquals("record.count", String.valueOf(recordCount));
+    }
+
     @Test
     public void testReplaceWithMissingRecordPath() throws InitializationException {
         readerService = new MockRecordParser();
@@ -23,8 +23,9 @@ import de.siegmar.fastcsv.reader.CsvRecord;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
-import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.IndexedValueMap;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
@@ -37,7 +38,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -111,7 +111,7 @@ public class FastCSVRecordReader extends AbstractCSVRecordReader {
             }
 
             final CsvRecord csvRecord = csvRecordIterator.next();
-            final Map<String, Object> values = new LinkedHashMap<>(recordFields.size() * 2);
+            final IndexedValueMap values = new IndexedValueMap(schema);
 
             for (int i = 0; i < csvRecord.getFieldCount(); i++) {
                 String rawValue = csvRecord.getField(i);
@@ -140,7 +140,7 @@ public class FastCSVRecordReader extends AbstractCSVRecordReader {
                 values.putIfAbsent(rawFieldName, value);
             }
 
-            return new MapRecord(schema, values, coerceTypes, dropUnknownFields);
+            return new ArrayRecord(schema, values, coerceTypes, dropUnknownFields);
         } catch (Exception e) {
             throw new MalformedRecordException("Error while getting next record", e);
         }
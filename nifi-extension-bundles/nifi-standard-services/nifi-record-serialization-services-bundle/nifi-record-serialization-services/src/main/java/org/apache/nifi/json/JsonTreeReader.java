@@ -77,6 +77,7 @@ public class JsonTreeReader extends SchemaRegistryService implements RecordReade
     protected volatile StartingFieldStrategy startingFieldStrategy;
     protected volatile SchemaApplicationStrategy schemaApplicationStrategy;
     protected volatile TokenParserFactory tokenParserFactory;
+    protected volatile boolean streamingConversion;
 
     public static final PropertyDescriptor STARTING_FIELD_STRATEGY = new PropertyDescriptor.Builder()
             .name("Starting Field Strategy")
@@ -107,6 +108,17 @@ public class JsonTreeReader extends SchemaRegistryService implements RecordReade
             .allowableValues(SchemaApplicationStrategy.class)
             .build();
 
+    public static final PropertyDescriptor RECORD_CONVERSION_STRATEGY = new PropertyDescriptor.Builder()
+            .name("Record Conversion Strategy")
+            .description("Specifies how each JSON object is converted into a Record. The Streaming strategy is only applicable when a schema is provided; "
+                    + "when the schema is inferred, each JSON object is always read into a tree.")
+            .required(true)
+            .addValidator(StandardValidators.NON_BLANK_VALIDATOR)
+            .defaultValue(RecordConversionStrategy.TREE.getValue())
+            .dependsOn(SCHEMA_ACCESS_STRATEGY, SCHEMA_NAME_PROPERTY, SCHEMA_TEXT_PROPERTY, SCHEMA_REFERENCE_READER_PROPERTY)
+            .allowableValues(RecordConversionStrategy.class)
+            .build();
+
     @Override
     protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
         final List<PropertyDescriptor> properties = new ArrayList<>(super.getSupportedPropertyDescriptors());
@@ -117,6 +129,7 @@ public class JsonTreeReader extends SchemaRegistryService implements RecordReade
         properties.add(STARTING_FIELD_STRATEGY);
         properties.add(STARTING_FIELD_NAME);
         properties.add(SCHEMA_APPLICATION_STRATEGY);
+        properties.add(RECORD_CONVERSION_STRATEGY);
         properties.add(AbstractJsonRowRecordReader.MAX_STRING_LENGTH);
         properties.add(AbstractJsonRowRecordReader.ALLOW_COMMENTS);
         properties.add(DateTimeUtils.DATE_FORMAT);
@@ -134,6 +147,11 @@ public class JsonTreeReader extends SchemaRegistryService implements RecordReade
         this.startingFieldName = context.getProperty(STARTING_FIELD_NAME).getValue();
         this.schemaApplicationStrategy = SchemaApplicationStrategy.valueOf(context.getProperty(SCHEMA_APPLICATION_STRATEGY).getValue());
         this.tokenParserFactory = createTokenParserFactory(context);
+
+        // Inferred schemas make heavy use of CHOICE types, which require the tree in order to select the type, so streaming only applies to provided schemas
+        final boolean schemaInferred = INFER_SCHEMA.getValue().equals(context.getProperty(SCHEMA_ACCESS_STRATEGY).getValue());
+        final RecordConversionStrategy conversionStrategy = RecordConversionStrategy.valueOf(context.getProperty(RECORD_CONVERSION_STRATEGY).getValue());
+        this.streamingConversion = !schemaInferred && conversionStrategy == RecordConversionStrategy.STREAMING;
     }
 
     @Override
@@ -205,6 +223,11 @@ public class JsonTreeReader extends SchemaRegistryService implements RecordReade
     }
 
     protected JsonTreeRowRecordReader createJsonTreeRowRecordReader(final InputStream in, final ComponentLog logger, final RecordSchema schema) throws IOException, MalformedRecordException {
+        if (streamingConversion) {
+            return new JsonStreamingRowRecordReader(in, logger, schema, dateFormat, timeFormat, timestampFormat, startingFieldStrategy, startingFieldName,
+                    schemaApplicationStrategy, null, tokenParserFactory);
+        }
+
         return new JsonTreeRowRecordReader(in, logger, schema, dateFormat, timeFormat, timestampFormat, startingFieldStrategy, startingFieldName,
                 schemaApplicationStrategy, null, tokenParserFactory);
     }
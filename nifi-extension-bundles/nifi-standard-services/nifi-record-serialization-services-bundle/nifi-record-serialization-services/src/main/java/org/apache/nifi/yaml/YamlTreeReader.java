@@ -48,7 +48,10 @@ public class YamlTreeReader extends JsonTreeReader {
 
     @Override
     protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
-        return new ArrayList<>(super.getSupportedPropertyDescriptors());
+        final List<PropertyDescriptor> properties = new ArrayList<>(super.getSupportedPropertyDescriptors());
+        // YAML is always read into a tree
+        properties.remove(RECORD_CONVERSION_STRATEGY);
+        return properties;
     }
 
     @Override
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.json;
+
+import org.apache.nifi.logging.ComponentLog;
+import org.apache.nifi.schema.inference.InferSchemaAccessStrategy;
+import org.apache.nifi.schema.inference.TimeValueInference;
+import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class TestJsonStreamingRowRecordReader {
+    private final String dateFormat = RecordFieldType.DATE.getDefaultFormat();
+    private final String timeFormat = RecordFieldType.TIME.getDefaultFormat();
+    private final String timestampFormat = RecordFieldType.TIMESTAMP.getDefaultFormat();
+
+    @Mock
+    private ComponentLog log;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "bank-account-array.json",
+        "bank-account-multiline.json",
+        "bank-account-oneline.json",
+        "bank-account-mixed.json",
+        "bank-account-array-different-schemas.json",
+        "single-element-nested.json",
+        "single-element-nested-array.json",
+        "single-element-deep-nested.json",
+        "choice-of-embedded-similar-records.json",
+        "choice-of-different-arrays-with-extra-fields.json",
+        "elements-for-record-choice.json",
+        "empty-arrays.json",
+        "primitive-type-array.json",
+        "json-with-unicode.json",
+        "timestamp.json",
+        "prov-events.json",
+        "docs-example.json"
+    })
+    void testRecordsMatchTreeReaderWithInferredSchema(final String fileName) throws Exception {
+        final byte[] json = Files.readAllBytes(Path.of("src/test/resources/json", fileName));
+        final RecordSchema schema = inferSchema(json);
+
+        assertRecordsMatchTreeReader(json, schema);
+    }
+
+    @Test
+    void testRecordsMatchTreeReaderWithProvidedSchema() throws Exception {
+        final List<RecordField> accountFields = List.of(
+            new RecordField("id", RecordFieldType.INT.getDataType()),
+            new RecordField("balance", RecordFieldType.DOUBLE.getDataType())
+        );
+        final List<RecordField> fields = List.of(
+            new RecordField("id", RecordFieldType.INT.getDataType()),
+            new RecordField("name", RecordFieldType.STRING.getDataType()),
+            new RecordField("city", RecordFieldType.STRING.getDataType(), Collections.emptyList(), Collections.singleton("town")),
+            new RecordField("account", RecordFieldType.RECORD.getRecordDataType(new SimpleRecordSchema(accountFields))),
+            new RecordField("tags", RecordFieldType.ARRAY.getArrayDataType(RecordFieldType.STRING.getDataType())),
+            new RecordField("attributes", RecordFieldType.MAP.getMapDataType(RecordFieldType.LONG.getDataType())),
+            new RecordField("payload", RecordFieldType.STRING.getDataType())
+        );
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        final String json = """
+            [
+              {"id": 1, "name": "John Doe", "town": "My City", "account": {"id": 42, "balance": 4750.89, "extra": true},
+                "tags": ["a", "b"], "attributes": {"x": 1, "y": 2}, "unknown": {"nested": [1, 2, {"deep": null}]}, "payload": {"a": 1, "b": [true, false]}},
+              {"id": "2", "name": null, "town": "Other City", "city": "Your City", "account": null, "tags": [], "attributes": {}, "payload": {"c": {"d": "e"}}},
+              {"name": "Only Name", "account": {"balance": 12}, "payload": "text"}
+            ]
+            """;
+
+        assertRecordsMatchTreeReader(json.getBytes(StandardCharsets.UTF_8), schema);
+    }
+
+    @Test
+    void testValueUnderFieldNameTakesPrecedenceOverAlias() throws Exception {
+        final RecordSchema schema = new SimpleRecordSchema(List.of(
+            new RecordField("city", RecordFieldType.STRING.getDataType(), Collections.emptyList(), Collections.singleton("town"))
+        ));
+
+        final String json = """
+            {"city": "My City", "town": "Alias City"}
+            """;
+
+        try (final JsonStreamingRowRecordReader reader = createStreamingReader(json.getBytes(StandardCharsets.UTF_8), schema)) {
+            final Record record = reader.nextRecord(true, true);
+            assertEquals("My City", record.getValue("city"));
+            assertNull(reader.nextRecord());
+        }
+    }
+
+    @Test
+    void testRecordFollowingConversionFailureIsRead() throws Exception {
+        final RecordSchema schema = new SimpleRecordSchema(List.of(
+            new RecordField("id", RecordFieldType.INT.getDataType()),
+            new RecordField("name", RecordFieldType.STRING.getDataType())
+        ));
+
+        final String json = """
+            [{"id": "not a number", "name": "first", "nested": {"a": [1, 2]}}, {"id": 2, "name": "second"}]
+            """;
+
+        try (final JsonStreamingRowRecordReader reader = createStreamingReader(json.getBytes(StandardCharsets.UTF_8), schema)) {
+            assertThrows(MalformedRecordException.class, () -> reader.nextRecord(true, true));
+
+            final Record record = reader.nextRecord(true, true);
+            assertEquals(2, record.getValue("id"));
+            assertEquals("second", record.getValue("name"));
+            assertNull(reader.nextRecord());
+        }
+    }
+
+    private void assertRecordsMatchTreeReader(final byte[] json, final RecordSchema schema) throws Exception {
+        for (final boolean coerceTypes : new boolean[] {true, false}) {
+            for (final boolean dropUnknownFields : new boolean[] {true, false}) {
+                final List<Record> expected = readAll(createTreeReader(json, schema), coerceTypes, dropUnknownFields);
+                final List<Record> actual = readAll(createStreamingReader(json, schema), coerceTypes, dropUnknownFields);
+
+                assertEquals(expected.size(), actual.size());
+                assertTrue(expected.size() > 0);
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getSchema(), actual.get(i).getSchema());
+                    assertEquals(normalize(expected.get(i)), normalize(actual.get(i)),
+                        "Record " + i + " differs with coerceTypes=" + coerceTypes + ", dropUnknownFields=" + dropUnknownFields);
+                }
+            }
+        }
+    }
+
+    private List<Record> readAll(final JsonTreeRowRecordReader reader, final boolean coerceTypes, final boolean dropUnknownFields) throws Exception {
+        final List<Record> records = new ArrayList<>();
+        try (reader) {
+            Record record;
+            while ((record = reader.nextRecord(coerceTypes, dropUnknownFields)) != null) {
+                records.add(record);
+            }
+        }
+
+        return records;
+    }
+
+    // Converts Records and arrays into Maps and Lists so that nested values can be compared for equality
+    private Object normalize(final Object value) {
+        if (value instanceof Record record) {
+            final Map<String, Object> normalized = new LinkedHashMap<>();
+            for (final Map.Entry<String, Object> entry : record.toMap().entrySet()) {
+                normalized.put(entry.getKey(), normalize(entry.getValue()));
+            }
+            return normalized;
+        }
+        if (value instanceof Object[] array) {
+            return Arrays.stream(array).map(this::normalize).toList();
+        }
+        if (value instanceof Map<?, ?> map) {
+            final Map<Object, Object> normalized = new LinkedHashMap<>();
+            map.forEach((key, mapValue) -> normalized.put(key, normalize(mapValue)));
+            return normalized;
+        }
+
+        return value;
+    }
+
+    private RecordSchema inferSchema(final byte[] json) throws IOException {
+        return new InferSchemaAccessStrategy<>(
+            (__, inputStream) -> new JsonRecordSource(inputStream),
+            new JsonSchemaInference(new TimeValueInference(dateFormat, timeFormat, timestampFormat)), log
+        ).getSchema(Collections.emptyMap(), new ByteArrayInputStream(json), null);
+    }
+
+    private JsonTreeRowRecordReader createTreeReader(final byte[] json, final RecordSchema schema) throws Exception {
+        final InputStream in = new ByteArrayInputStream(json);
+        return new JsonTreeRowRecordReader(in, log, schema, dateFormat, timeFormat, timestampFormat, null, null, null, null, new JsonParserFactory());
+    }
+
+    private JsonStreamingRowRecordReader createStreamingReader(final byte[] json, final RecordSchema schema) throws Exception {
+        final InputStream in = new ByteArrayInputStream(json);
+        return new JsonStreamingRowRecordReader(in, log, schema, dateFormat, timeFormat, timestampFormat, null, null, null, null, new JsonParserFactory());
+    }
+}
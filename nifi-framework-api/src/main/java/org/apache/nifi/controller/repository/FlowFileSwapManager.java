@@ -80,6 +80,17 @@ public interface FlowFileSwapManager {
      */
     SwapContents swapIn(String swapLocation, FlowFileQueue flowFileQueue) throws IncompleteSwapFileException, IOException;
 
+    /**
+     * Provides a hint that the swap file at the given location is expected to be swapped in soon. An implementation may use this
+     * opportunity to begin reading the swap file in the background, so that a subsequent call to {@link #swapIn(String, FlowFileQueue)}
+     * for the same location does not need to wait for the swap file to be read. The default implementation does nothing.
+     *
+     * @param swapLocation the location of the swap file
+     * @param flowFileQueue the queue to which the FlowFiles belong
+     */
+    default void prefetch(String swapLocation, FlowFileQueue flowFileQueue) {
+    }
+
     /**
      * Determines swap files that exist for the given FlowFileQueue
      *
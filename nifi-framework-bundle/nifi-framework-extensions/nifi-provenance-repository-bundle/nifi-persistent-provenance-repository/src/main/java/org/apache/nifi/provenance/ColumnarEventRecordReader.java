@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.provenance.columnar.BlockCompression;
+import org.apache.nifi.provenance.columnar.EventBlockDecoder;
+import org.apache.nifi.provenance.serialization.CompressableRecordReader;
+import org.apache.nifi.provenance.toc.TocReader;
+import org.apache.nifi.stream.io.StreamUtils;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads Provenance Events that were written by {@link ColumnarEventRecordWriter}. Events are decoded a block at a time, and the decoded
+ * events are buffered until they have been returned.
+ */
+public class ColumnarEventRecordReader extends CompressableRecordReader {
+    private final Deque<StandardProvenanceEventRecord> bufferedEvents = new ArrayDeque<>();
+    private Integer bufferedBlockIndex = null;
+
+    // Populated by readHeader, which is called from the constructor of the super class
+    private long firstEventId;
+    private long systemTimeOffset;
+    private EventBlockDecoder decoder;
+
+    public ColumnarEventRecordReader(final InputStream in, final String filename, final TocReader tocReader, final int maxAttributeChars) throws IOException {
+        super(in, filename, tocReader, maxAttributeChars);
+    }
+
+    private void verifySerializationVersion(final int serializationVersion) {
+        if (serializationVersion > ColumnarEventRecordWriter.SERIALIZATION_VERSION) {
+            throw new IllegalArgumentException("Unable to deserialize record because the version is " + serializationVersion
+                    + " and supported versions are 1-" + ColumnarEventRecordWriter.SERIALIZATION_VERSION);
+        }
+    }
+
+    @Override
+    protected synchronized void readHeader(final DataInputStream in, final int serializationVersion) throws IOException {
+        verifySerializationVersion(serializationVersion);
+
+        firstEventId = in.readLong();
+        systemTimeOffset = in.readLong();
+
+        final int eventTypeCount = in.readInt();
+        final List<String> eventTypeNames = new ArrayList<>(eventTypeCount);
+        for (int i = 0; i < eventTypeCount; i++) {
+            eventTypeNames.add(in.readUTF());
+        }
+
+        decoder = new EventBlockDecoder(eventTypeNames, getMaxAttributeLength());
+    }
+
+    @Override
+    public boolean isData() {
+        return !bufferedEvents.isEmpty() || super.isData();
+    }
+
+    @Override
+    public void skipToBlock(final int blockIndex) throws IOException {
+        // Events that have already been decoded are only of use if they belong to the requested block
+        if (bufferedBlockIndex == null || bufferedBlockIndex != blockIndex) {
+            bufferedEvents.clear();
+        }
+
+        super.skipToBlock(blockIndex);
+    }
+
+    @Override
+    protected StandardProvenanceEventRecord nextRecord(final DataInputStream in, final int serializationVersion) throws IOException {
+        verifySerializationVersion(serializationVersion);
+
+        if (bufferedEvents.isEmpty() && isData(in)) {
+            readBlock(in, readBlockHeader(in));
+        }
+
+        return bufferedEvents.poll();
+    }
+
+    @Override
+    protected Optional<StandardProvenanceEventRecord> readToEvent(final long eventId, final DataInputStream dis, final int serializationVersion) throws IOException {
+        verifySerializationVersion(serializationVersion);
+
+        Optional<StandardProvenanceEventRecord> event = pollBufferedEvent(eventId);
+        if (event.isPresent()) {
+            return event;
+        }
+
+        while (isData(dis)) {
+            final BlockHeader header = readBlockHeader(dis);
+            if (header.maxEventId() < eventId) {
+                // This block does not contain the event that we want. Skip over it instead of decompressing it.
+                StreamUtils.skip(dis, (long) header.eventIdsLength() + header.compressedLength());
+                continue;
+            }
+
+            readBlock(dis, header);
+            event = pollBufferedEvent(eventId);
+            if (event.isPresent()) {
+                return event;
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private Optional<StandardProvenanceEventRecord> pollBufferedEvent(final long eventId) {
+        StandardProvenanceEventRecord event;
+        while ((event = bufferedEvents.poll()) != null) {
+            if (event.getEventId() >= eventId) {
+                return Optional.of(event);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private boolean isData(final InputStream in) throws IOException {
+        in.mark(1);
+        final int nextByte = in.read();
+        in.reset();
+
+        return nextByte > -1;
+    }
+
+    private BlockHeader readBlockHeader(final DataInputStream in) throws IOException {
+        final long startOffset = getBytesConsumed();
+        final long blockFirstEventId = in.readInt() + firstEventId;
+        final long maxEventId = in.readInt() + firstEventId;
+        final int eventCount = in.readInt();
+        final BlockCompression compression = BlockCompression.fromId(in.readByte());
+        final int uncompressedLength = in.readInt();
+        final int compressedLength = in.readInt();
+        final int eventIdsLength = in.readInt();
+
+        return new BlockHeader(startOffset, blockFirstEventId, maxEventId, eventCount, compression, uncompressedLength, compressedLength, eventIdsLength);
+    }
+
+    private void readBlock(final DataInputStream in, final BlockHeader header) throws IOException {
+        final byte[] encodedEventIds = new byte[header.eventIdsLength()];
+        StreamUtils.fillBuffer(in, encodedEventIds);
+
+        final byte[] compressed = new byte[header.compressedLength()];
+        StreamUtils.fillBuffer(in, compressed);
+
+        final long[] eventIds = EventBlockDecoder.decodeEventIds(header.firstEventId(), header.eventCount(), encodedEventIds);
+        final byte[] encoded = header.compression().decompress(compressed, header.uncompressedLength());
+        final List<StandardProvenanceEventRecord> events = decoder.decode(encoded, eventIds, systemTimeOffset, getFilename(), header.startOffset());
+
+        bufferedEvents.clear();
+        bufferedEvents.addAll(events);
+        bufferedBlockIndex = getTocReader() == null ? null : getTocReader().getBlockIndexForEventId(header.firstEventId());
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+
+    private String getDescription() {
+        try {
+            return "ColumnarEventRecordReader, toc: " + getTocReader().getFile().getAbsolutePath() + ", journal: " + getFilename();
+        } catch (Exception e) {
+            return "ColumnarEventRecordReader@" + Integer.toHexString(this.hashCode());
+        }
+    }
+
+    private record BlockHeader(long startOffset, long firstEventId, long maxEventId, int eventCount, BlockCompression compression,
+                               int uncompressedLength, int compressedLength, int eventIdsLength) {
+    }
+}
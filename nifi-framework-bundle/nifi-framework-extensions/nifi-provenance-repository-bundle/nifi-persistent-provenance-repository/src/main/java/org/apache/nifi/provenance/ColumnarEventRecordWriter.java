@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.provenance.columnar.BlockCompression;
+import org.apache.nifi.provenance.columnar.EventBlockEncoder;
+import org.apache.nifi.provenance.serialization.CompressableRecordWriter;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.toc.TocWriter;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * A Record Writer that stores Provenance Events in columnar blocks rather than one record at a time. Each call to {@link #writeRecords(Iterable)}
+ * writes one or more blocks, each of which is encoded by {@link EventBlockEncoder} and then compressed individually using the configured
+ * {@link BlockCompression}. Because the events are compressed as they are written, the event file does not need to be compressed when it is rolled over.
+ * </p>
+ *
+ * <p>
+ * Each block is written as:
+ * </p>
+ * <ul>
+ * <li>The ID of the first event in the block, as an offset from the first Event ID of the file (int)</li>
+ * <li>The ID of the largest event in the block, as an offset from the first Event ID of the file (int)</li>
+ * <li>The number of events in the block (int)</li>
+ * <li>The identifier of the compression codec (byte)</li>
+ * <li>The length of the encoded events before compression (int)</li>
+ * <li>The length of the encoded events after compression (int)</li>
+ * <li>The length of the encoded Event IDs (int)</li>
+ * <li>The encoded Event IDs</li>
+ * <li>The compressed, encoded events</li>
+ * </ul>
+ *
+ * <p>
+ * The header of the block allows a reader to skip over blocks that do not contain the event that it is looking for without decompressing them.
+ * </p>
+ */
+public class ColumnarEventRecordWriter extends CompressableRecordWriter {
+    public static final int SERIALIZATION_VERSION = 1;
+    public static final String SERIALIZATION_NAME = "ColumnarEventRecordWriter";
+
+    static final int MAX_EVENTS_PER_BLOCK = 1000;
+    private static final int MAX_ENCODED_BLOCK_SIZE = 1_000_000;
+
+    private static final Map<String, Integer> eventTypeMap;
+    private static final List<String> eventTypeNames;
+
+    private final BlockCompression compression;
+    private final AtomicInteger recordCount = new AtomicInteger(0);
+
+    private long firstEventId;
+    private volatile long systemTimeOffset;
+
+    static {
+        eventTypeMap = new HashMap<>();
+        eventTypeNames = new ArrayList<>();
+
+        int count = 0;
+        for (final ProvenanceEventType eventType : ProvenanceEventType.values()) {
+            eventTypeMap.put(eventType.name(), count++);
+            eventTypeNames.add(eventType.name());
+        }
+    }
+
+    public ColumnarEventRecordWriter(final File file, final AtomicLong idGenerator, final TocWriter writer, final boolean compressed, final int uncompressedBlockSize,
+                                     final BlockCompression compression) throws IOException {
+        super(file, idGenerator, writer, compressed, uncompressedBlockSize);
+        this.compression = compression;
+    }
+
+    @Override
+    public Map<ProvenanceEventRecord, StorageSummary> writeRecords(final Iterable<ProvenanceEventRecord> events) throws IOException {
+        if (isDirty()) {
+            throw new IOException("Cannot update Provenance Repository because this Record Writer has already failed to write to the Repository");
+        }
+
+        final Map<ProvenanceEventRecord, StorageSummary> storageSummaries = new HashMap<>();
+
+        // Encode and compress outside of the synchronized block so that multiple threads can do so concurrently
+        EventBlockEncoder encoder = new EventBlockEncoder(systemTimeOffset, eventTypeMap);
+        for (final ProvenanceEventRecord event : events) {
+            encoder.addEvent(event);
+
+            if (encoder.getEventCount() >= MAX_EVENTS_PER_BLOCK || encoder.getEncodedSize() >= MAX_ENCODED_BLOCK_SIZE) {
+                storeBlock(encoder, storageSummaries);
+                encoder = new EventBlockEncoder(systemTimeOffset, eventTypeMap);
+            }
+        }
+
+        if (encoder.getEventCount() > 0) {
+            storeBlock(encoder, storageSummaries);
+        }
+
+        return storageSummaries;
+    }
+
+    private void storeBlock(final EventBlockEncoder encoder, final Map<ProvenanceEventRecord, StorageSummary> summaryMap) throws IOException {
+        final CompressedBlock block = compress(encoder);
+        storeBlock(encoder.getEvents(), block, summaryMap);
+        recordCount.addAndGet(encoder.getEventCount());
+    }
+
+    private CompressedBlock compress(final EventBlockEncoder encoder) {
+        final byte[] encoded = encoder.encode();
+
+        BlockCompression blockCompression = compression;
+        byte[] compressed = blockCompression.compress(encoded);
+        if (compressed.length >= encoded.length && blockCompression != BlockCompression.NONE) {
+            // Not worth paying the cost of decompression when reading the block
+            blockCompression = BlockCompression.NONE;
+            compressed = encoded;
+        }
+
+        return new CompressedBlock(blockCompression, encoded.length, compressed);
+    }
+
+    private synchronized void storeBlock(final List<ProvenanceEventRecord> events, final CompressedBlock block,
+                                         final Map<ProvenanceEventRecord, StorageSummary> summaryMap) throws IOException {
+        final long[] eventIds = new long[events.size()];
+        long maxEventId = -1L;
+        for (int i = 0; i < eventIds.length; i++) {
+            final long eventId = events.get(i).getEventId();
+            eventIds[i] = eventId == -1L ? getIdGenerator().getAndIncrement() : eventId;
+            maxEventId = Math.max(maxEventId, eventIds[i]);
+        }
+
+        final long startBytes;
+        final long endBytes;
+        try {
+            startBytes = getBytesWritten();
+            ensureStreamState(eventIds[0], startBytes);
+            writeBlock(eventIds, maxEventId, block, getBufferedOutputStream());
+            endBytes = getBytesWritten();
+        } catch (final IOException ioe) {
+            markDirty();
+            throw ioe;
+        }
+
+        final TocWriter tocWriter = getTocWriter();
+        final Integer blockIndex = tocWriter == null ? null : tocWriter.getCurrentBlockIndex();
+        final File file = getFile();
+        final String storageLocation = file.getParentFile().getName() + "/" + file.getName();
+
+        // The events in a block are stored together, so the size of the block is attributed to its first event
+        for (int i = 0; i < eventIds.length; i++) {
+            final long serializedLength = i == 0 ? endBytes - startBytes : 0L;
+            final StorageSummary storageSummary = new StorageSummary(eventIds[i], storageLocation, blockIndex, serializedLength, endBytes);
+            summaryMap.put(events.get(i), storageSummary);
+        }
+    }
+
+    private void writeBlock(final long[] eventIds, final long maxEventId, final CompressedBlock block, final DataOutputStream out) throws IOException {
+        final byte[] encodedEventIds = EventBlockEncoder.encodeEventIds(eventIds);
+
+        out.writeInt((int) (eventIds[0] - firstEventId));
+        out.writeInt((int) (maxEventId - firstEventId));
+        out.writeInt(eventIds.length);
+        out.writeByte(block.compression().getId());
+        out.writeInt(block.uncompressedLength());
+        out.writeInt(block.data().length);
+        out.writeInt(encodedEventIds.length);
+        out.write(encodedEventIds);
+        out.write(block.data());
+    }
+
+    @Override
+    protected void writeRecord(final ProvenanceEventRecord event, final long eventId, final DataOutputStream out) throws IOException {
+        // An event that is written on its own is stored as a block that contains only that event
+        final EventBlockEncoder encoder = new EventBlockEncoder(systemTimeOffset, eventTypeMap);
+        encoder.addEvent(event);
+
+        writeBlock(new long[] {eventId}, eventId, compress(encoder), out);
+        recordCount.incrementAndGet();
+    }
+
+    @Override
+    public int getRecordsWritten() {
+        return recordCount.get();
+    }
+
+    @Override
+    public boolean isCompressedOnWrite() {
+        return isCompressed() || compression != BlockCompression.NONE;
+    }
+
+    @Override
+    protected synchronized void writeHeader(final long firstEventId, final DataOutputStream out) throws IOException {
+        this.firstEventId = firstEventId;
+        this.systemTimeOffset = System.currentTimeMillis();
+
+        out.writeLong(firstEventId);
+        out.writeLong(systemTimeOffset);
+        out.writeInt(eventTypeNames.size());
+        for (final String eventTypeName : eventTypeNames) {
+            out.writeUTF(eventTypeName);
+        }
+    }
+
+    @Override
+    protected int getSerializationVersion() {
+        return SERIALIZATION_VERSION;
+    }
+
+    @Override
+    protected String getSerializationName() {
+        return SERIALIZATION_NAME;
+    }
+
+    private record CompressedBlock(BlockCompression compression, int uncompressedLength, byte[] data) {
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import java.util.Arrays;
+
+/**
+ * The format in which the Write-Ahead Provenance Repository writes new event files. Existing event files are always read using the format
+ * that they were written in, so the format may be changed without losing access to events that have already been stored.
+ */
+public enum EventFileFormat {
+    /**
+     * Each event is written as an individual record, see {@link EventIdFirstSchemaRecordWriter}
+     */
+    ROW,
+
+    /**
+     * Events are written in compressed, columnar blocks, see {@link ColumnarEventRecordWriter}
+     */
+    COLUMNAR;
+
+    public static EventFileFormat fromName(final String name) {
+        for (final EventFileFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name.trim())) {
+                return format;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid Provenance event file format '" + name + "'; valid values are " + Arrays.toString(values()));
+    }
+}
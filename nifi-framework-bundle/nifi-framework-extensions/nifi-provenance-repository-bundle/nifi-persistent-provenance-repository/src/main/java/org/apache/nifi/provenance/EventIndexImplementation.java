@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.provenance.index.bitmap.BitmapEventIndex;
+import org.apache.nifi.provenance.index.lucene.LuceneEventIndex;
+
+import java.util.Arrays;
+
+/**
+ * The implementation of the index that the Write-Ahead Provenance Repository uses to search Provenance Events. Each implementation keeps
+ * its index in its own location, so an index does not include the events that were stored while the other implementation was in use.
+ */
+public enum EventIndexImplementation {
+    /**
+     * Events are indexed using Lucene, see {@link LuceneEventIndex}
+     */
+    LUCENE,
+
+    /**
+     * Events are indexed using time-bucketed posting lists, see {@link BitmapEventIndex}
+     */
+    BITMAP;
+
+    public static EventIndexImplementation fromName(final String name) {
+        for (final EventIndexImplementation implementation : values()) {
+            if (implementation.name().equalsIgnoreCase(name.trim())) {
+                return implementation;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid Provenance index implementation '" + name + "'; valid values are " + Arrays.toString(values()));
+    }
+}
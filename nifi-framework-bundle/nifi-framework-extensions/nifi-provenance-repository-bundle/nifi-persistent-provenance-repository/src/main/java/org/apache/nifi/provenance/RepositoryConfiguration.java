@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.columnar.BlockCompression;
 import org.apache.nifi.provenance.search.SearchableField;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
@@ -39,6 +40,10 @@ public class RepositoryConfiguration {
     public static final String CONCURRENT_MERGE_THREADS = "nifi.provenance.repository.concurrent.merge.threads";
     public static final String WARM_CACHE_FREQUENCY = "nifi.provenance.repository.warm.cache.frequency";
     public static final String MAINTENACE_FREQUENCY = "nifi.provenance.repository.maintenance.frequency";
+    public static final String EVENT_FILE_FORMAT = "nifi.provenance.repository.event.file.format";
+    public static final String COLUMNAR_COMPRESSION = "nifi.provenance.repository.columnar.compression";
+    public static final String INDEX_IMPLEMENTATION = "nifi.provenance.repository.index.implementation";
+    public static final String INDEX_BUCKET_DURATION = "nifi.provenance.repository.index.bucket.duration";
 
     private final Map<String, File> storageDirectories = new LinkedHashMap<>();
     private long recordLifeMillis = TimeUnit.MILLISECONDS.convert(24, TimeUnit.HOURS);
@@ -62,6 +67,10 @@ public class RepositoryConfiguration {
     private boolean allowRollover = true;
     private int concurrentMergeThreads = 4;
     private Integer warmCacheFrequencyMinutes = null;
+    private EventFileFormat eventFileFormat = EventFileFormat.ROW;
+    private BlockCompression columnarCompression = BlockCompression.ZSTD;
+    private EventIndexImplementation indexImplementation = EventIndexImplementation.LUCENE;
+    private long indexBucketMillis = TimeUnit.MINUTES.toMillis(1L);
 
     public void setAllowRollover(final boolean allow) {
         this.allowRollover = allow;
@@ -362,6 +371,51 @@ public class RepositoryConfiguration {
         return Optional.ofNullable(warmCacheFrequencyMinutes);
     }
 
+    /**
+     * @return the format in which new event files are written
+     */
+    public EventFileFormat getEventFileFormat() {
+        return eventFileFormat;
+    }
+
+    public void setEventFileFormat(final EventFileFormat eventFileFormat) {
+        this.eventFileFormat = eventFileFormat;
+    }
+
+    /**
+     * @return the codec that is used to compress each block of events when the event file format is {@link EventFileFormat#COLUMNAR}
+     */
+    public BlockCompression getColumnarCompression() {
+        return columnarCompression;
+    }
+
+    public void setColumnarCompression(final BlockCompression columnarCompression) {
+        this.columnarCompression = columnarCompression;
+    }
+
+    /**
+     * @return the implementation of the index that is used to search Provenance Events
+     */
+    public EventIndexImplementation getIndexImplementation() {
+        return indexImplementation;
+    }
+
+    public void setIndexImplementation(final EventIndexImplementation indexImplementation) {
+        this.indexImplementation = indexImplementation;
+    }
+
+    /**
+     * @param timeUnit the unit of the returned value
+     * @return how long events are added to a bucket before the bucket is written to disk, when the index implementation is {@link EventIndexImplementation#BITMAP}
+     */
+    public long getIndexBucketDuration(final TimeUnit timeUnit) {
+        return timeUnit.convert(indexBucketMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void setIndexBucketDuration(final long duration, final TimeUnit timeUnit) {
+        this.indexBucketMillis = timeUnit.toMillis(duration);
+    }
+
     public int getDebugFrequency() {
         return debugFrequency;
     }
@@ -396,6 +450,10 @@ public class RepositoryConfiguration {
         final int concurrentMergeThreads = nifiProperties.getIntegerProperty(CONCURRENT_MERGE_THREADS, 2);
         final String warmCacheFrequency = nifiProperties.getProperty(WARM_CACHE_FREQUENCY);
         final String maintenanceFrequency = nifiProperties.getProperty(MAINTENACE_FREQUENCY);
+        final String eventFileFormat = nifiProperties.getProperty(EVENT_FILE_FORMAT);
+        final String columnarCompression = nifiProperties.getProperty(COLUMNAR_COMPRESSION);
+        final String indexImplementation = nifiProperties.getProperty(INDEX_IMPLEMENTATION);
+        final String indexBucketDuration = nifiProperties.getProperty(INDEX_BUCKET_DURATION);
         final long storageMillis = FormatUtils.getTimeDuration(storageTime, TimeUnit.MILLISECONDS);
         final long maxStorageBytes = DataUnit.parseDataSize(storageSize, DataUnit.B).longValue();
         final long rolloverMillis = FormatUtils.getTimeDuration(rolloverTime, TimeUnit.MILLISECONDS);
@@ -459,6 +517,20 @@ public class RepositoryConfiguration {
             config.setMaintenanceFrequency(millis, TimeUnit.MILLISECONDS);
         }
 
+        if (eventFileFormat != null && !eventFileFormat.trim().equals("")) {
+            config.setEventFileFormat(EventFileFormat.fromName(eventFileFormat));
+        }
+        if (columnarCompression != null && !columnarCompression.trim().equals("")) {
+            config.setColumnarCompression(BlockCompression.fromName(columnarCompression));
+        }
+        if (indexImplementation != null && !indexImplementation.trim().equals("")) {
+            config.setIndexImplementation(EventIndexImplementation.fromName(indexImplementation));
+        }
+        if (indexBucketDuration != null && !indexBucketDuration.trim().equals("")) {
+            final long millis = FormatUtils.getTimeDuration(indexBucketDuration.trim(), TimeUnit.MILLISECONDS);
+            config.setIndexBucketDuration(millis, TimeUnit.MILLISECONDS);
+        }
+
         config.setAlwaysSync(alwaysSync);
 
         config.setDebugFrequency(nifiProperties.getIntegerProperty(NiFiProperties.PROVENANCE_REPO_DEBUG_FREQUENCY, config.getDebugFrequency()));
@@ -25,9 +25,9 @@ import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.provenance.authorization.EventAuthorizer;
 import org.apache.nifi.provenance.authorization.UserEventAuthorizer;
 import org.apache.nifi.provenance.index.EventIndex;
+import org.apache.nifi.provenance.index.bitmap.BitmapEventIndex;
 import org.apache.nifi.provenance.index.lucene.LuceneEventIndex;
 import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
-import org.apache.nifi.provenance.lucene.IndexManager;
 import org.apache.nifi.provenance.lucene.StandardIndexManager;
 import org.apache.nifi.provenance.search.Query;
 import org.apache.nifi.provenance.search.QuerySubmission;
@@ -123,7 +123,10 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
         final IdentifierLookup idLookup) throws IOException {
         final RecordWriterFactory recordWriterFactory = (file, idGenerator, compressed, createToc) -> {
             final TocWriter tocWriter = createToc ? new StandardTocWriter(TocUtil.getTocFile(file), false, false) : null;
-            return new EventIdFirstSchemaRecordWriter(file, idGenerator, tocWriter, compressed, BLOCK_SIZE, idLookup);
+            return switch (config.getEventFileFormat()) {
+                case COLUMNAR -> new ColumnarEventRecordWriter(file, idGenerator, tocWriter, compressed, BLOCK_SIZE, config.getColumnarCompression());
+                case ROW -> new EventIdFirstSchemaRecordWriter(file, idGenerator, tocWriter, compressed, BLOCK_SIZE, idLookup);
+            };
         };
 
         final EventFileManager fileManager = new EventFileManager();
@@ -145,8 +148,10 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
 
         eventStore = new PartitionedWriteAheadEventStore(config, recordWriterFactory, recordReaderFactory, eventReporter, fileManager);
 
-        final IndexManager indexManager = new StandardIndexManager(config);
-        eventIndex = new LuceneEventIndex(config, indexManager, eventReporter);
+        eventIndex = switch (config.getIndexImplementation()) {
+            case BITMAP -> new BitmapEventIndex(config, eventReporter);
+            case LUCENE -> new LuceneEventIndex(config, new StandardIndexManager(config), eventReporter);
+        };
 
         this.eventReporter = eventReporter;
         this.authorizer = authorizer;
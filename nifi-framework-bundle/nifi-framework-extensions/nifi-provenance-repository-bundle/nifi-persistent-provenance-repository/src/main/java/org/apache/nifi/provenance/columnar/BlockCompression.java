@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.columnar;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The codec that is used to compress the columns of a block of Provenance Events. The codec is recorded in each block,
+ * so blocks that were written using different codecs may be read regardless of which codec is currently configured.
+ */
+public enum BlockCompression {
+    NONE((byte) 0) {
+        @Override
+        public byte[] compress(final byte[] data) {
+            return data;
+        }
+
+        @Override
+        public byte[] decompress(final byte[] data, final int uncompressedLength) throws IOException {
+            verifyLength(data.length, uncompressedLength);
+            return data;
+        }
+    },
+
+    DEFLATE((byte) 1) {
+        @Override
+        public byte[] compress(final byte[] data) {
+            final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+            try {
+                deflater.setInput(data);
+                deflater.finish();
+
+                byte[] buffer = new byte[Math.max(64, data.length / 2)];
+                int length = 0;
+                while (!deflater.finished()) {
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                    length += deflater.deflate(buffer, length, buffer.length - length);
+                }
+
+                return Arrays.copyOf(buffer, length);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public byte[] decompress(final byte[] data, final int uncompressedLength) throws IOException {
+            final Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(data);
+
+                final byte[] uncompressed = new byte[uncompressedLength];
+                int length = 0;
+                while (length < uncompressedLength && !inflater.finished()) {
+                    final int inflated = inflater.inflate(uncompressed, length, uncompressedLength - length);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length += inflated;
+                }
+
+                verifyLength(length, uncompressedLength);
+                return uncompressed;
+            } catch (final DataFormatException e) {
+                throw new IOException("Failed to decompress block of Provenance Events", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    },
+
+    ZSTD((byte) 2) {
+        @Override
+        public byte[] compress(final byte[] data) {
+            return Zstd.compress(data, ZSTD_LEVEL);
+        }
+
+        @Override
+        public byte[] decompress(final byte[] data, final int uncompressedLength) throws IOException {
+            final byte[] uncompressed;
+            try {
+                uncompressed = Zstd.decompress(data, uncompressedLength);
+            } catch (final RuntimeException e) {
+                throw new IOException("Failed to decompress block of Provenance Events", e);
+            }
+
+            verifyLength(uncompressed.length, uncompressedLength);
+            return uncompressed;
+        }
+    };
+
+    // Favor speed over ratio, as blocks are compressed inline when the events are written
+    private static final int ZSTD_LEVEL = 1;
+
+    private final byte id;
+
+    BlockCompression(final byte id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the identifier that is written to each block in order to indicate which codec was used
+     */
+    public byte getId() {
+        return id;
+    }
+
+    /**
+     * Compresses the given data
+     *
+     * @param data the data to compress
+     * @return the compressed data
+     */
+    public abstract byte[] compress(byte[] data);
+
+    /**
+     * Decompresses the given data
+     *
+     * @param data the compressed data
+     * @param uncompressedLength the number of bytes that the data occupied before it was compressed
+     * @return the decompressed data
+     * @throws IOException if the data cannot be decompressed
+     */
+    public abstract byte[] decompress(byte[] data, int uncompressedLength) throws IOException;
+
+    private static void verifyLength(final int actualLength, final int expectedLength) throws IOException {
+        if (actualLength != expectedLength) {
+            throw new IOException("Expected block of Provenance Events to contain " + expectedLength + " bytes after decompression but found " + actualLength + " bytes");
+        }
+    }
+
+    public static BlockCompression fromId(final byte id) throws IOException {
+        for (final BlockCompression compression : values()) {
+            if (compression.id == id) {
+                return compression;
+            }
+        }
+
+        throw new IOException("Block of Provenance Events was compressed using an unknown codec with identifier " + id);
+    }
+
+    public static BlockCompression fromName(final String name) {
+        for (final BlockCompression compression : values()) {
+            if (compression.name().equalsIgnoreCase(name.trim())) {
+                return compression;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid Provenance block compression '" + name + "'; valid values are " + Arrays.toString(values()));
+    }
+}
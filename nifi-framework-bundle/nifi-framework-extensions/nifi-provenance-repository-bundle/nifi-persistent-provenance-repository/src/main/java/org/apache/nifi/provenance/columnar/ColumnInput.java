@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.columnar;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads values that were written by a {@link ColumnOutput}
+ */
+final class ColumnInput {
+    private final byte[] buffer;
+    private int position = 0;
+
+    ColumnInput(final byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    int readByte() throws IOException {
+        if (position >= buffer.length) {
+            throw new EOFException("Unexpected end of Provenance Event block");
+        }
+
+        return buffer[position++] & 0xFF;
+    }
+
+    long readVarLong() throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable-length integer in Provenance Event block");
+    }
+
+    int readVarInt() throws IOException {
+        final long value = readVarLong();
+        if (value < 0L || value > Integer.MAX_VALUE) {
+            throw new IOException("Malformed Provenance Event block: expected a non-negative int but found " + value);
+        }
+
+        return (int) value;
+    }
+
+    long readZigZag() throws IOException {
+        return unZigZag(readVarLong());
+    }
+
+    Long readNullableLong() throws IOException {
+        final long encoded = readVarLong();
+        return encoded == 0L ? null : unZigZag(encoded - 1L);
+    }
+
+    String readString() throws IOException {
+        return readString(readVarLong(), 0);
+    }
+
+    /**
+     * Reads the bytes of a String whose length prefix has already been read
+     *
+     * @param lengthPrefix the length prefix that was read
+     * @param reservedCodes the number of reserved codes that were given when the String was written
+     * @return the String, or <code>null</code> if the length prefix indicates <code>null</code>
+     */
+    String readString(final long lengthPrefix, final int reservedCodes) throws IOException {
+        if (lengthPrefix == 0L) {
+            return null;
+        }
+
+        final long length = lengthPrefix - 1L - reservedCodes;
+        if (length < 0L || length > buffer.length - position) {
+            throw new IOException("Malformed Provenance Event block: invalid String length " + length);
+        }
+
+        final String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    boolean isFullyConsumed() {
+        return position == buffer.length;
+    }
+
+    private static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+}
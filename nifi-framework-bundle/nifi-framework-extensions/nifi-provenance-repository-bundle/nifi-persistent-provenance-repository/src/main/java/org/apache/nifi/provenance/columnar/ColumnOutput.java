@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.columnar;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable buffer holding the encoded values of a single column. Integral values are written as variable-length integers so that
+ * the small deltas and dictionary indexes that make up most columns occupy a single byte.
+ */
+final class ColumnOutput {
+    private final ByteCount byteCount;
+    private byte[] buffer;
+    private int size = 0;
+
+    ColumnOutput() {
+        this(64);
+    }
+
+    ColumnOutput(final int initialCapacity) {
+        this(initialCapacity, null);
+    }
+
+    /**
+     * @param initialCapacity the initial size of the buffer
+     * @param byteCount counts the bytes written to this column along with those of the other columns that share it, or <code>null</code>
+     */
+    ColumnOutput(final int initialCapacity, final ByteCount byteCount) {
+        this.buffer = new byte[initialCapacity];
+        this.byteCount = byteCount;
+    }
+
+    void writeByte(final int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+        countBytes(1);
+    }
+
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        final int start = size;
+        while ((value & ~0x7FL) != 0L) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+        countBytes(size - start);
+    }
+
+    /**
+     * Writes the given value using ZigZag encoding so that small negative values are also written using few bytes
+     */
+    void writeZigZag(final long value) {
+        writeVarLong(zigZag(value));
+    }
+
+    /**
+     * Writes the given value such that <code>null</code> occupies a single byte. <code>Long.MIN_VALUE</code> cannot be
+     * distinguished from <code>null</code>, which is acceptable for the offsets and sizes that are written this way.
+     */
+    void writeNullableLong(final Long value) {
+        writeVarLong(value == null ? 0L : zigZag(value) + 1L);
+    }
+
+    /**
+     * Writes the given String, reserving the first <code>reservedCodes</code> values of the length prefix for the caller.
+     * A <code>null</code> value is always written as a length prefix of 0.
+     *
+     * @param value the value to write
+     * @param reservedCodes the number of length prefixes, beyond the one that indicates <code>null</code>, that are reserved by the caller
+     */
+    void writeString(final String value, final int reservedCodes) {
+        if (value == null) {
+            writeVarLong(0L);
+            return;
+        }
+
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L + reservedCodes);
+        write(bytes, 0, bytes.length);
+    }
+
+    void writeString(final String value) {
+        writeString(value, 0);
+    }
+
+    void write(final byte[] bytes, final int offset, final int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+        countBytes(length);
+    }
+
+    void writeTo(final ColumnOutput destination) {
+        destination.write(buffer, 0, size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void countBytes(final int bytes) {
+        if (byteCount != null) {
+            byteCount.count += bytes;
+        }
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void ensureCapacity(final int additionalBytes) {
+        final int required = size + additionalBytes;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+
+    /**
+     * The total number of bytes written to a group of columns, so that the size of the group is known without summing the sizes of its columns
+     */
+    static final class ByteCount {
+        private int count = 0;
+
+        int get() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.columnar;
+
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes a block of Provenance Events that was encoded by {@link EventBlockEncoder}. Because the values are stored column by column,
+ * all of the events in the block are decoded together.
+ */
+public class EventBlockDecoder {
+    private final List<String> eventTypeNames;
+    private final int maxAttributeChars;
+
+    /**
+     * @param eventTypeNames the list of Event Type names that was written to the header of the event file
+     * @param maxAttributeChars the maximum number of characters to return for any attribute value
+     */
+    public EventBlockDecoder(final List<String> eventTypeNames, final int maxAttributeChars) {
+        this.eventTypeNames = eventTypeNames;
+        this.maxAttributeChars = maxAttributeChars;
+    }
+
+    /**
+     * Decodes the events in the given block
+     *
+     * @param encoded the uncompressed encoding of the block, as produced by {@link EventBlockEncoder#encode()}
+     * @param eventIds the identifiers of the events in the block
+     * @param timestampOffset the timestamp that was provided to the encoder
+     * @param storageFilename the name of the file that the block was read from
+     * @param storageOffset the offset into the file at which the block begins
+     * @return the events, in the order in which they were added to the encoder
+     * @throws IOException if the block cannot be decoded
+     */
+    public List<StandardProvenanceEventRecord> decode(final byte[] encoded, final long[] eventIds, final long timestampOffset, final String storageFilename,
+                                                      final long storageOffset) throws IOException {
+        final ColumnInput in = new ColumnInput(encoded);
+
+        final int eventCount = in.readVarInt();
+        if (eventCount != eventIds.length) {
+            throw new IOException("Malformed Provenance Event block: block contains " + eventCount + " events but " + eventIds.length + " Event IDs were provided");
+        }
+
+        final int dictionarySize = in.readVarInt();
+        final String[] dictionary = new String[dictionarySize];
+        for (int i = 0; i < dictionarySize; i++) {
+            dictionary[i] = in.readString();
+        }
+
+        final StandardProvenanceEventRecord.Builder[] builders = new StandardProvenanceEventRecord.Builder[eventCount];
+        final long[] eventTimes = new long[eventCount];
+        long eventTime = timestampOffset;
+        for (int i = 0; i < eventCount; i++) {
+            eventTime += in.readZigZag();
+            eventTimes[i] = eventTime;
+            builders[i] = new StandardProvenanceEventRecord.Builder()
+                .setEventId(eventIds[i])
+                .setEventTime(eventTime)
+                .setStorageLocation(storageFilename, storageOffset);
+        }
+
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setFlowFileEntryDate(eventTimes[i] + in.readZigZag());
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setLineageStartDate(eventTimes[i] + in.readZigZag());
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setEventDuration(in.readZigZag());
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setEventType(toEventType(in.readVarInt()));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setComponentId(readDictionaryValue(in, dictionary));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setComponentType(readDictionaryValue(in, dictionary));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setSourceQueueIdentifier(readDictionaryValue(in, dictionary));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setRelationship(readDictionaryValue(in, dictionary));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setFlowFileUUID(in.readString());
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setTransitUri(in.readString());
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setSourceSystemFlowFileIdentifier(in.readString());
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setAlternateIdentifierUri(in.readString());
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setDetails(in.readString());
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setParentUuids(readStrings(in));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setChildUuids(readStrings(in));
+        }
+
+        final Map<String, String>[] previousAttributes = readAttributes(in, dictionary, eventCount, null);
+        final Map<String, String>[] updatedAttributes = readAttributes(in, dictionary, eventCount, previousAttributes);
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setPreviousAttributes(previousAttributes[i]);
+            builders[i].setUpdatedAttributes(updatedAttributes[i]);
+        }
+
+        final long[] fileSizes = new long[eventCount];
+        for (int i = 0; i < eventCount; i++) {
+            fileSizes[i] = in.readZigZag();
+        }
+
+        readContentClaims(in, dictionary, builders, fileSizes);
+
+        if (!in.isFullyConsumed()) {
+            throw new IOException("Malformed Provenance Event block: block contains more data than the events that it describes");
+        }
+
+        final List<StandardProvenanceEventRecord> events = new ArrayList<>(eventCount);
+        for (final StandardProvenanceEventRecord.Builder builder : builders) {
+            events.add(builder.build());
+        }
+        return events;
+    }
+
+    private void readContentClaims(final ColumnInput in, final String[] dictionary, final StandardProvenanceEventRecord.Builder[] builders, final long[] fileSizes)
+            throws IOException {
+        final int eventCount = builders.length;
+        final String[] previousContainers = new String[eventCount];
+        final String[] previousSections = new String[eventCount];
+        final String[] previousIdentifiers = new String[eventCount];
+        final Long[] previousOffsets = new Long[eventCount];
+
+        for (int i = 0; i < eventCount; i++) {
+            final int claimCode = in.readByte();
+            if (claimCode == EventBlockEncoder.NO_CONTENT_CLAIM) {
+                continue;
+            }
+            if (claimCode != EventBlockEncoder.EXPLICIT_CONTENT_CLAIM) {
+                throw new IOException("Malformed Provenance Event block: invalid previous Content Claim code " + claimCode);
+            }
+
+            previousContainers[i] = readDictionaryValue(in, dictionary);
+            previousSections[i] = readDictionaryValue(in, dictionary);
+            previousIdentifiers[i] = in.readString();
+            previousOffsets[i] = in.readNullableLong();
+
+            final Long previousSize = in.readNullableLong();
+            builders[i].setPreviousContentClaim(previousContainers[i], previousSections[i], previousIdentifiers[i], previousOffsets[i], previousSize == null ? 0L : previousSize);
+        }
+
+        for (int i = 0; i < eventCount; i++) {
+            final int claimCode = in.readByte();
+            switch (claimCode) {
+                case EventBlockEncoder.NO_CONTENT_CLAIM -> builders[i].setCurrentContentClaim(null, null, null, null, fileSizes[i]);
+                case EventBlockEncoder.UNCHANGED_CONTENT_CLAIM ->
+                    builders[i].setCurrentContentClaim(previousContainers[i], previousSections[i], previousIdentifiers[i], previousOffsets[i], fileSizes[i]);
+                case EventBlockEncoder.EXPLICIT_CONTENT_CLAIM -> {
+                    final String container = readDictionaryValue(in, dictionary);
+                    final String section = readDictionaryValue(in, dictionary);
+                    final String identifier = in.readString();
+                    final Long offset = in.readNullableLong();
+                    builders[i].setCurrentContentClaim(container, section, identifier, offset, fileSizes[i]);
+                }
+                default -> throw new IOException("Malformed Provenance Event block: invalid Content Claim code " + claimCode);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String>[] readAttributes(final ColumnInput in, final String[] dictionary, final int eventCount, final Map<String, String>[] previous)
+            throws IOException {
+        final Map<String, String>[] attributeMaps = new Map[eventCount];
+        for (int i = 0; i < eventCount; i++) {
+            final int attributeCount = in.readVarInt();
+            if (attributeCount == 0) {
+                attributeMaps[i] = Collections.emptyMap();
+                continue;
+            }
+
+            final Map<String, String> attributes = new HashMap<>((int) (attributeCount / 0.75f) + 1);
+            for (int j = 0; j < attributeCount; j++) {
+                final String key = readDictionaryValue(in, dictionary);
+                final long lengthPrefix = in.readVarLong();
+
+                final String value;
+                if (lengthPrefix == EventBlockEncoder.UNCHANGED_VALUE && previous != null) {
+                    value = previous[i].get(key);
+                } else {
+                    value = truncate(in.readString(lengthPrefix, EventBlockEncoder.UNCHANGED_VALUE));
+                }
+
+                attributes.put(key, value);
+            }
+
+            attributeMaps[i] = attributes;
+        }
+
+        return attributeMaps;
+    }
+
+    private String truncate(final String value) {
+        if (value == null || value.length() <= maxAttributeChars) {
+            return value;
+        }
+
+        return value.substring(0, maxAttributeChars);
+    }
+
+    private static List<String> readStrings(final ColumnInput in) throws IOException {
+        final int count = in.readVarInt();
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+
+        final List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(in.readString());
+        }
+        return values;
+    }
+
+    private static String readDictionaryValue(final ColumnInput in, final String[] dictionary) throws IOException {
+        final int code = in.readVarInt();
+        if (code == 0) {
+            return null;
+        }
+        if (code > dictionary.length) {
+            throw new IOException("Malformed Provenance Event block: dictionary index " + (code - 1) + " is out of range");
+        }
+
+        return dictionary[code - 1];
+    }
+
+    private ProvenanceEventType toEventType(final int ordinal) {
+        if (ordinal >= eventTypeNames.size()) {
+            return ProvenanceEventType.UNKNOWN;
+        }
+
+        try {
+            return ProvenanceEventType.valueOf(eventTypeNames.get(ordinal));
+        } catch (final IllegalArgumentException e) {
+            return ProvenanceEventType.UNKNOWN;
+        }
+    }
+
+    /**
+     * Decodes the Event Identifiers that were encoded by {@link EventBlockEncoder#encodeEventIds(long[])}
+     *
+     * @param firstEventId the identifier of the first event in the block
+     * @param eventCount the number of events in the block
+     * @param encoded the encoded identifiers
+     * @return the identifiers of the events in the block
+     * @throws IOException if the identifiers cannot be decoded
+     */
+    public static long[] decodeEventIds(final long firstEventId, final int eventCount, final byte[] encoded) throws IOException {
+        final ColumnInput in = new ColumnInput(encoded);
+        final long[] eventIds = new long[eventCount];
+        if (eventCount == 0) {
+            return eventIds;
+        }
+
+        eventIds[0] = firstEventId;
+        for (int i = 1; i < eventCount; i++) {
+            eventIds[i] = eventIds[i - 1] + in.readZigZag();
+        }
+
+        if (!in.isFullyConsumed()) {
+            throw new IOException("Malformed Provenance Event block: Event ID column contains more data than expected");
+        }
+
+        return eventIds;
+    }
+}
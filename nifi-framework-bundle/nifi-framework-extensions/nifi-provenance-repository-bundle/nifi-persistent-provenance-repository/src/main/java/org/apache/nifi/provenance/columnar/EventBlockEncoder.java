@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.columnar;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>
+ * Encodes a block of Provenance Events column by column, so that values of the same kind are stored next to one another and compress well.
+ * Component Identifiers, Component Types, Queue Identifiers, Relationships, Content Claim containers and sections, and attribute keys are
+ * dictionary-encoded using a dictionary that is scoped to the block. Timestamps are delta-encoded: the Event Time against the previous
+ * event in the block and the FlowFile Entry and Lineage Start Dates against the Event Time. Event Types are encoded as indexes into the
+ * list of Event Type names that is written to the header of the event file.
+ * </p>
+ *
+ * <p>
+ * Event Identifiers are not part of the encoded columns, as they are not known until the block is written to the event file.
+ * See {@link #encodeEventIds(long[])}.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class EventBlockEncoder {
+    // Codes that are written in place of a String length to indicate that the value is the same as another value that the reader already has
+    static final int UNCHANGED_VALUE = 1;
+    static final int NO_CONTENT_CLAIM = 0;
+    static final int UNCHANGED_CONTENT_CLAIM = 1;
+    static final int EXPLICIT_CONTENT_CLAIM = 2;
+
+    private final long timestampOffset;
+    private final Map<String, Integer> eventTypeOrdinals;
+    private final List<ProvenanceEventRecord> events = new ArrayList<>();
+
+    private final Map<String, Integer> dictionaryIndexes = new HashMap<>();
+    private final List<String> dictionary = new ArrayList<>();
+    private int dictionarySize = 0;
+
+    // Tracks the size of all columns as they are written, as the size is checked after every event that is added
+    private final ColumnOutput.ByteCount columnSize = new ColumnOutput.ByteCount();
+    private final ColumnOutput eventTimes = new ColumnOutput(64, columnSize);
+    private final ColumnOutput entryDates = new ColumnOutput(64, columnSize);
+    private final ColumnOutput lineageStartDates = new ColumnOutput(64, columnSize);
+    private final ColumnOutput eventDurations = new ColumnOutput(64, columnSize);
+    private final ColumnOutput eventTypes = new ColumnOutput(64, columnSize);
+    private final ColumnOutput componentIds = new ColumnOutput(64, columnSize);
+    private final ColumnOutput componentTypes = new ColumnOutput(64, columnSize);
+    private final ColumnOutput sourceQueueIds = new ColumnOutput(64, columnSize);
+    private final ColumnOutput relationships = new ColumnOutput(64, columnSize);
+    private final ColumnOutput flowFileUuids = new ColumnOutput(1024, columnSize);
+    private final ColumnOutput transitUris = new ColumnOutput(64, columnSize);
+    private final ColumnOutput sourceSystemFlowFileIds = new ColumnOutput(64, columnSize);
+    private final ColumnOutput alternateIdentifiers = new ColumnOutput(64, columnSize);
+    private final ColumnOutput details = new ColumnOutput(64, columnSize);
+    private final ColumnOutput parentUuids = new ColumnOutput(64, columnSize);
+    private final ColumnOutput childUuids = new ColumnOutput(64, columnSize);
+    private final ColumnOutput previousAttributes = new ColumnOutput(4096, columnSize);
+    private final ColumnOutput updatedAttributes = new ColumnOutput(4096, columnSize);
+    private final ColumnOutput fileSizes = new ColumnOutput(64, columnSize);
+    private final ColumnOutput previousContentClaims = new ColumnOutput(64, columnSize);
+    private final ColumnOutput contentClaims = new ColumnOutput(64, columnSize);
+
+    private final List<ColumnOutput> columns = List.of(eventTimes, entryDates, lineageStartDates, eventDurations, eventTypes, componentIds, componentTypes,
+        sourceQueueIds, relationships, flowFileUuids, transitUris, sourceSystemFlowFileIds, alternateIdentifiers, details, parentUuids, childUuids,
+        previousAttributes, updatedAttributes, fileSizes, previousContentClaims, contentClaims);
+
+    private long previousEventTime;
+
+    /**
+     * @param timestampOffset the timestamp against which the Event Time of the first event in the block is delta-encoded
+     * @param eventTypeOrdinals the index of each Event Type name in the list of names that is written to the header of the event file
+     */
+    public EventBlockEncoder(final long timestampOffset, final Map<String, Integer> eventTypeOrdinals) {
+        this.timestampOffset = timestampOffset;
+        this.eventTypeOrdinals = eventTypeOrdinals;
+        this.previousEventTime = timestampOffset;
+    }
+
+    public void addEvent(final ProvenanceEventRecord event) {
+        final long eventTime = event.getEventTime();
+        eventTimes.writeZigZag(eventTime - previousEventTime);
+        previousEventTime = eventTime;
+
+        entryDates.writeZigZag(event.getFlowFileEntryDate() - eventTime);
+        lineageStartDates.writeZigZag(event.getLineageStartDate() - eventTime);
+        eventDurations.writeZigZag(event.getEventDuration());
+
+        final Integer eventTypeOrdinal = eventTypeOrdinals.get(event.getEventType().name());
+        if (eventTypeOrdinal == null) {
+            throw new IllegalArgumentException("Cannot encode Provenance Event because its Event Type " + event.getEventType() + " is not known");
+        }
+        eventTypes.writeVarLong(eventTypeOrdinal);
+
+        writeDictionaryValue(componentIds, event.getComponentId());
+        writeDictionaryValue(componentTypes, event.getComponentType());
+        writeDictionaryValue(sourceQueueIds, event.getSourceQueueIdentifier());
+        writeDictionaryValue(relationships, event.getRelationship());
+
+        flowFileUuids.writeString(event.getFlowFileUuid());
+        transitUris.writeString(event.getTransitUri());
+        sourceSystemFlowFileIds.writeString(event.getSourceSystemFlowFileIdentifier());
+        alternateIdentifiers.writeString(event.getAlternateIdentifierUri());
+        details.writeString(event.getDetails());
+
+        writeStrings(parentUuids, event.getParentUuids());
+        writeStrings(childUuids, event.getChildUuids());
+
+        final Map<String, String> previous = event.getPreviousAttributes();
+        writeAttributes(previousAttributes, previous, null);
+        writeAttributes(updatedAttributes, event.getUpdatedAttributes(), previous);
+
+        fileSizes.writeZigZag(event.getFileSize());
+        writeContentClaims(event);
+
+        events.add(event);
+    }
+
+    private void writeContentClaims(final ProvenanceEventRecord event) {
+        final String previousContainer = event.getPreviousContentClaimContainer();
+        final String previousSection = event.getPreviousContentClaimSection();
+        final String previousIdentifier = event.getPreviousContentClaimIdentifier();
+        final boolean previousClaimPresent = previousContainer != null && previousSection != null && previousIdentifier != null;
+
+        if (previousClaimPresent) {
+            previousContentClaims.writeByte(EXPLICIT_CONTENT_CLAIM);
+            writeDictionaryValue(previousContentClaims, previousContainer);
+            writeDictionaryValue(previousContentClaims, previousSection);
+            previousContentClaims.writeString(previousIdentifier);
+            previousContentClaims.writeNullableLong(event.getPreviousContentClaimOffset());
+            previousContentClaims.writeNullableLong(event.getPreviousFileSize());
+        } else {
+            previousContentClaims.writeByte(NO_CONTENT_CLAIM);
+        }
+
+        final String container = event.getContentClaimContainer();
+        final String section = event.getContentClaimSection();
+        final String identifier = event.getContentClaimIdentifier();
+        if (container == null || section == null || identifier == null) {
+            contentClaims.writeByte(NO_CONTENT_CLAIM);
+        } else if (previousClaimPresent && container.equals(previousContainer) && section.equals(previousSection) && identifier.equals(previousIdentifier)
+                && Objects.equals(event.getContentClaimOffset(), event.getPreviousContentClaimOffset())) {
+            contentClaims.writeByte(UNCHANGED_CONTENT_CLAIM);
+        } else {
+            contentClaims.writeByte(EXPLICIT_CONTENT_CLAIM);
+            writeDictionaryValue(contentClaims, container);
+            writeDictionaryValue(contentClaims, section);
+            contentClaims.writeString(identifier);
+            contentClaims.writeNullableLong(event.getContentClaimOffset());
+        }
+    }
+
+    private void writeAttributes(final ColumnOutput column, final Map<String, String> attributes, final Map<String, String> previous) {
+        if (attributes == null) {
+            column.writeVarLong(0L);
+            return;
+        }
+
+        column.writeVarLong(attributes.size());
+        for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+            final String key = entry.getKey();
+            final String value = entry.getValue();
+            writeDictionaryValue(column, key);
+
+            // Most updated attributes carry the same value as before the event, so refer to the previous value rather than repeating it
+            if (previous != null && value != null && value.equals(previous.get(key))) {
+                column.writeVarLong(UNCHANGED_VALUE);
+            } else {
+                column.writeString(value, UNCHANGED_VALUE);
+            }
+        }
+    }
+
+    private void writeStrings(final ColumnOutput column, final Collection<String> values) {
+        if (values == null) {
+            column.writeVarLong(0L);
+            return;
+        }
+
+        column.writeVarLong(values.size());
+        for (final String value : values) {
+            column.writeString(value);
+        }
+    }
+
+    private void writeDictionaryValue(final ColumnOutput column, final String value) {
+        if (value == null) {
+            column.writeVarLong(0L);
+            return;
+        }
+
+        Integer index = dictionaryIndexes.get(value);
+        if (index == null) {
+            index = dictionary.size();
+            dictionaryIndexes.put(value, index);
+            dictionary.add(value);
+            dictionarySize += value.length() + 1;
+        }
+
+        column.writeVarLong(index + 1L);
+    }
+
+    /**
+     * @return the events that have been added to this block, in the order in which they were added
+     */
+    public List<ProvenanceEventRecord> getEvents() {
+        return events;
+    }
+
+    public int getEventCount() {
+        return events.size();
+    }
+
+    /**
+     * @return the approximate number of bytes that the block occupies before compression
+     */
+    public int getEncodedSize() {
+        return columnSize.get() + dictionarySize;
+    }
+
+    /**
+     * @return the uncompressed encoding of all events that have been added: the dictionary followed by each of the columns
+     */
+    public byte[] encode() {
+        final ColumnOutput out = new ColumnOutput(getEncodedSize() + 16);
+        out.writeVarLong(events.size());
+        out.writeVarLong(dictionary.size());
+        for (final String value : dictionary) {
+            out.writeString(value);
+        }
+
+        for (final ColumnOutput column : columns) {
+            column.writeTo(out);
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes the given Event Identifiers as deltas from the first identifier, which is written separately
+     *
+     * @param eventIds the identifiers of the events in the block
+     * @return the encoded identifiers
+     */
+    public static byte[] encodeEventIds(final long[] eventIds) {
+        final ColumnOutput out = new ColumnOutput(eventIds.length + 8);
+        for (int i = 1; i < eventIds.length; i++) {
+            out.writeZigZag(eventIds[i] - eventIds[i - 1]);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.bitmap;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The bucket that events are currently being added to. Posting lists are held on heap until the bucket is sealed, at which point they
+ * are written to a {@link SealedBucket} file and this bucket is discarded.
+ */
+final class ActiveBucket implements IndexBucket {
+    private final long creationTime = System.currentTimeMillis();
+    private final Map<String, Map<Long, PostingList>> postingLists = new HashMap<>();
+    private final PostingList allEventIds = new PostingList(1024);
+
+    private long minEventId = -1L;
+    private long maxEventId = -1L;
+    private long minEventTime = Long.MAX_VALUE;
+    private long maxEventTime = Long.MIN_VALUE;
+
+    synchronized void addEvent(final ProvenanceEventRecord event, final long eventId, final IndexedFields indexedFields) {
+        allEventIds.add(eventId);
+        indexedFields.forEachValue(event, (fieldName, value) -> postingLists.computeIfAbsent(fieldName, name -> new HashMap<>())
+            .computeIfAbsent(IndexedFields.hash(value), hash -> new PostingList())
+            .add(eventId));
+
+        minEventId = minEventId == -1L ? eventId : Math.min(minEventId, eventId);
+        maxEventId = Math.max(maxEventId, eventId);
+        minEventTime = Math.min(minEventTime, event.getEventTime());
+        maxEventTime = Math.max(maxEventTime, event.getEventTime());
+    }
+
+    long getCreationTime() {
+        return creationTime;
+    }
+
+    @Override
+    public synchronized long getMinEventId() {
+        return minEventId;
+    }
+
+    @Override
+    public synchronized long getMaxEventId() {
+        return maxEventId;
+    }
+
+    @Override
+    public synchronized long getMinEventTime() {
+        return minEventTime;
+    }
+
+    @Override
+    public synchronized long getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    @Override
+    public synchronized int getEventCount() {
+        return allEventIds.size();
+    }
+
+    @Override
+    public synchronized long[] getEventIds(final String fieldName, final long valueHash) {
+        final Map<Long, PostingList> fieldPostingLists = postingLists.get(fieldName);
+        if (fieldPostingLists == null) {
+            return PostingList.EMPTY;
+        }
+
+        final PostingList postingList = fieldPostingLists.get(valueHash);
+        return postingList == null ? PostingList.EMPTY : postingList.toSortedArray();
+    }
+
+    @Override
+    public synchronized long[] getEventIds() {
+        return allEventIds.toSortedArray();
+    }
+
+    /**
+     * Writes the contents of this bucket to the given file in the format that is read by {@link SealedBucket}.
+     *
+     * @param file the file to write to
+     * @throws IOException if unable to write to the file
+     */
+    synchronized void write(final File file) throws IOException {
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536))) {
+            // Posting lists are written first so that the term tables that follow them can refer to them by offset
+            final long[] allIds = allEventIds.toSortedArray();
+            PostingList.encode(allIds, out);
+
+            final Map<String, long[][]> termTables = new TreeMap<>();
+            for (final Map.Entry<String, Map<Long, PostingList>> entry : postingLists.entrySet()) {
+                final Map<Long, PostingList> fieldPostingLists = new TreeMap<>(entry.getValue());
+                final long[][] termTable = new long[fieldPostingLists.size()][];
+
+                int index = 0;
+                for (final Map.Entry<Long, PostingList> term : fieldPostingLists.entrySet()) {
+                    final long[] eventIds = term.getValue().toSortedArray();
+                    termTable[index++] = new long[] {term.getKey(), out.size(), eventIds.length};
+                    PostingList.encode(eventIds, out);
+                }
+
+                termTables.put(entry.getKey(), termTable);
+            }
+
+            final Map<String, Long> tableOffsets = new HashMap<>();
+            for (final Map.Entry<String, long[][]> entry : termTables.entrySet()) {
+                tableOffsets.put(entry.getKey(), (long) out.size());
+                for (final long[] term : entry.getValue()) {
+                    out.writeLong(term[0]);
+                    out.writeLong(term[1]);
+                    out.writeInt((int) term[2]);
+                }
+            }
+
+            final int footerOffset = out.size();
+            out.writeInt(SealedBucket.VERSION);
+            out.writeLong(minEventId);
+            out.writeLong(maxEventId);
+            out.writeLong(minEventTime);
+            out.writeLong(maxEventTime);
+            out.writeInt(allIds.length);
+            out.writeInt(termTables.size());
+            for (final Map.Entry<String, long[][]> entry : termTables.entrySet()) {
+                final byte[] nameBytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(nameBytes.length);
+                out.write(nameBytes);
+                out.writeLong(tableOffsets.get(entry.getKey()));
+                out.writeInt(entry.getValue().length);
+            }
+
+            out.writeInt(out.size() - footerOffset);
+            out.writeInt(SealedBucket.MAGIC);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ActiveBucket[events=" + getEventCount() + ", eventIds=" + getMinEventId() + "-" + getMaxEventId() + "]";
+    }
+}
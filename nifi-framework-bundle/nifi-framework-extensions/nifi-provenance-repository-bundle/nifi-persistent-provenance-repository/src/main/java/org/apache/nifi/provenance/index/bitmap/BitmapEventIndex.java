@@ -0,0 +1,645 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.bitmap;
+
+import org.apache.nifi.authorization.AccessDeniedException;
+import org.apache.nifi.authorization.user.NiFiUser;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.provenance.AsyncLineageSubmission;
+import org.apache.nifi.provenance.AsyncQuerySubmission;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.StandardLineageResult;
+import org.apache.nifi.provenance.StandardQueryResult;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.authorization.EventTransformer;
+import org.apache.nifi.provenance.index.EventIndex;
+import org.apache.nifi.provenance.index.lucene.CachedQuery;
+import org.apache.nifi.provenance.index.lucene.LatestEventsPerProcessorQuery;
+import org.apache.nifi.provenance.index.lucene.LatestEventsQuery;
+import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
+import org.apache.nifi.provenance.lineage.LineageComputationType;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.QuerySubmission;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.EventStore;
+import org.apache.nifi.provenance.util.NamedThreadFactory;
+import org.apache.nifi.reporting.Severity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * An {@link EventIndex} that does not use Lucene. Events are grouped into time buckets, and each bucket holds a posting list of Event IDs for
+ * every distinct value of the FlowFile UUID, Component ID, Event Type and the configured searchable fields and attributes. Adding an event
+ * costs a few hash lookups and appends, so indexing keeps up with the rate at which events are written, at the cost of queries having to
+ * read each candidate event from the Event Store in order to apply any criteria that the posting lists cannot answer on their own.
+ * </p>
+ *
+ * <p>
+ * Each partition of the Event Store has its own buckets. The active bucket is held on heap and is rolled over once it is older than the
+ * configured bucket duration or holds {@link #MAX_EVENTS_PER_BUCKET} events, at which point it is written to the partition's
+ * <code>bitmap-index</code> directory in the background. Upon restart, any events written after the last bucket was sealed are re-indexed.
+ * Buckets are deleted once all of their events have aged off from the Event Store.
+ * </p>
+ */
+public class BitmapEventIndex implements EventIndex {
+    private static final Logger logger = LoggerFactory.getLogger(BitmapEventIndex.class);
+    private static final String EVENT_CATEGORY = "Provenance Repository";
+
+    public static final int MAX_UNDELETED_QUERY_RESULTS = 10;
+    public static final int MAX_LINEAGE_NODES = 1000;
+    // The maximum number of FlowFile UUIDs that are looked up by a single lineage step; larger sets of UUIDs are split into batches that run concurrently.
+    public static final int MAX_LINEAGE_UUIDS = 100;
+    public static final int MAX_EVENTS_PER_BUCKET = 500_000;
+
+    private final ConcurrentMap<String, AsyncQuerySubmission> querySubmissionMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AsyncLineageSubmission> lineageSubmissionMap = new ConcurrentHashMap<>();
+    private final Map<String, PartitionIndex> partitionIndices = new LinkedHashMap<>();
+    private final IndexedFields indexedFields;
+    private final ExecutorService queryExecutor;
+    private final ExecutorService sealExecutor;
+    private final EventReporter eventReporter;
+
+    private final List<CachedQuery> cachedQueries = new ArrayList<>();
+    private LatestEventsPerProcessorQuery latestEventsPerProcessorQuery; // effectively final
+
+    private ScheduledExecutorService maintenanceExecutor; // effectively final
+    private EventStore eventStore;
+
+    public BitmapEventIndex(final RepositoryConfiguration config, final EventReporter eventReporter) {
+        this(config, config.getIndexBucketDuration(TimeUnit.MILLISECONDS), MAX_EVENTS_PER_BUCKET, eventReporter);
+    }
+
+    public BitmapEventIndex(final RepositoryConfiguration config, final long bucketMillis, final int maxEventsPerBucket, final EventReporter eventReporter) {
+        this.eventReporter = eventReporter;
+        this.indexedFields = new IndexedFields(config.getSearchableFields(), config.getSearchableAttributes());
+
+        for (final Map.Entry<String, File> entry : config.getStorageDirectories().entrySet()) {
+            final File directory = new File(entry.getValue(), PartitionIndex.DIRECTORY_NAME);
+            partitionIndices.put(entry.getKey(), new PartitionIndex(entry.getKey(), directory, indexedFields, bucketMillis, maxEventsPerBucket));
+        }
+
+        queryExecutor = Executors.newFixedThreadPool(config.getQueryThreadPoolSize(), new NamedThreadFactory("Provenance Query"));
+        // Buckets are sealed one at a time so that a sealed bucket is never newer than one that has yet to be written
+        sealExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("Seal Provenance Index Bucket", true));
+    }
+
+    @Override
+    public void initialize(final EventStore eventStore) {
+        this.eventStore = eventStore;
+
+        for (final PartitionIndex partitionIndex : partitionIndices.values()) {
+            try {
+                partitionIndex.initialize();
+            } catch (final IOException e) {
+                logger.error("Failed to load Provenance index buckets for partition {}", partitionIndex.getPartitionName(), e);
+                eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to load Provenance index buckets for partition "
+                    + partitionIndex.getPartitionName() + ". Some Provenance Events may not be available for querying. See logs for more information.");
+            }
+        }
+
+        maintenanceExecutor = Executors.newScheduledThreadPool(1, new NamedThreadFactory("Provenance Repository Maintenance"));
+        maintenanceExecutor.scheduleWithFixedDelay(this::performMaintenance, 1, 1, TimeUnit.MINUTES);
+        maintenanceExecutor.scheduleWithFixedDelay(this::purgeObsoleteQueries, 30, 30, TimeUnit.SECONDS);
+
+        cachedQueries.add(new LatestEventsQuery());
+        latestEventsPerProcessorQuery = new LatestEventsPerProcessorQuery();
+        cachedQueries.add(latestEventsPerProcessorQuery);
+    }
+
+    @Override
+    public void close() throws IOException {
+        queryExecutor.shutdownNow();
+
+        if (maintenanceExecutor != null) {
+            maintenanceExecutor.shutdown();
+        }
+
+        sealExecutor.shutdown();
+        try {
+            if (!sealExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                // Sealing the active buckets now would leave them newer than buckets that have yet to be written, and the events of those would not be re-indexed
+                logger.warn("Timed out waiting for Provenance index buckets to be written; the events that they contain will be re-indexed upon restart");
+                return;
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // Seal the active buckets so that their events do not need to be re-indexed upon restart
+        for (final PartitionIndex partitionIndex : partitionIndices.values()) {
+            final ActiveBucket activeBucket = partitionIndex.rollover(true);
+            if (activeBucket != null) {
+                seal(partitionIndex, activeBucket);
+            }
+        }
+    }
+
+    @Override
+    public long getMinimumEventIdToReindex(final String partitionName) {
+        final PartitionIndex partitionIndex = partitionIndices.get(partitionName);
+        return partitionIndex == null ? 0L : partitionIndex.getMaxSealedEventId() + 1;
+    }
+
+    @Override
+    public boolean isReindexNecessary() {
+        // Events that were in the active bucket when NiFi was stopped must always be re-indexed
+        return true;
+    }
+
+    @Override
+    public void addEvents(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        for (final CachedQuery cachedQuery : cachedQueries) {
+            cachedQuery.update(events);
+        }
+
+        index(events);
+    }
+
+    @Override
+    public void reindexEvents(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        for (final CachedQuery cachedQuery : cachedQueries) {
+            cachedQuery.update(events);
+        }
+
+        index(events);
+    }
+
+    private void index(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        final Map<PartitionIndex, List<Map.Entry<ProvenanceEventRecord, Long>>> eventsByPartition = new HashMap<>();
+        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : events.entrySet()) {
+            final PartitionIndex partitionIndex = getPartitionIndex(entry.getValue());
+            eventsByPartition.computeIfAbsent(partitionIndex, key -> new ArrayList<>())
+                .add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().getEventId()));
+        }
+
+        for (final Map.Entry<PartitionIndex, List<Map.Entry<ProvenanceEventRecord, Long>>> entry : eventsByPartition.entrySet()) {
+            final PartitionIndex partitionIndex = entry.getKey();
+            final ActiveBucket rolledOver = partitionIndex.addEvents(entry.getValue());
+            if (rolledOver != null) {
+                sealExecutor.submit(() -> seal(partitionIndex, rolledOver));
+            }
+        }
+    }
+
+    private PartitionIndex getPartitionIndex(final StorageSummary storageSummary) {
+        final Optional<String> partitionName = storageSummary.getPartitionName();
+        if (partitionName.isPresent()) {
+            final PartitionIndex partitionIndex = partitionIndices.get(partitionName.get());
+            if (partitionIndex != null) {
+                return partitionIndex;
+            }
+        }
+
+        return partitionIndices.values().iterator().next();
+    }
+
+    private void seal(final PartitionIndex partitionIndex, final ActiveBucket bucket) {
+        try {
+            partitionIndex.seal(bucket);
+        } catch (final Exception e) {
+            logger.error("Failed to write {} for partition {}; its events will remain searchable until NiFi is restarted", bucket, partitionIndex.getPartitionName(), e);
+            eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to write Provenance index bucket to disk. "
+                + "Some Provenance Events may not be available for querying after NiFi is restarted. See logs for more information.");
+        }
+    }
+
+    @Override
+    public void commitChanges(final String partitionName) throws IOException {
+        final PartitionIndex partitionIndex = partitionIndices.get(partitionName);
+        if (partitionIndex == null) {
+            return;
+        }
+
+        final ActiveBucket activeBucket = partitionIndex.rollover(true);
+        if (activeBucket == null) {
+            return;
+        }
+
+        // The bucket is sealed by the same thread as every other bucket so that it is not written before a bucket that was rolled over earlier
+        final Future<?> future = sealExecutor.submit(() -> {
+            partitionIndex.seal(activeBucket);
+            return null;
+        });
+
+        try {
+            future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for Provenance index bucket to be written for partition " + partitionName, e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+
+            throw new IOException("Failed to write Provenance index bucket for partition " + partitionName, cause);
+        }
+    }
+
+    private List<IndexBucket> getBuckets() {
+        final List<IndexBucket> buckets = new ArrayList<>();
+        for (final PartitionIndex partitionIndex : partitionIndices.values()) {
+            buckets.addAll(partitionIndex.getBuckets());
+        }
+
+        return buckets;
+    }
+
+    @Override
+    public QuerySubmission submitQuery(final Query query, final EventAuthorizer authorizer, final String userId) {
+        validate(query);
+
+        // Check if we have any cached queries first that can give us the answer
+        for (final CachedQuery cachedQuery : cachedQueries) {
+            final Optional<List<Long>> eventIdListOption = cachedQuery.evaluate(query);
+            if (eventIdListOption.isPresent()) {
+                final AsyncQuerySubmission submission = new AsyncQuerySubmission(query, 1, userId);
+                querySubmissionMap.put(query.getIdentifier(), submission);
+
+                final List<Long> eventIds = eventIdListOption.get();
+                logger.debug("Cached Query {} produced {} Event IDs for {}: {}", cachedQuery, eventIds.size(), query, eventIds);
+
+                queryExecutor.submit(() -> {
+                    try {
+                        final List<ProvenanceEventRecord> events = eventStore.getEvents(eventIds, authorizer, EventTransformer.EMPTY_TRANSFORMER);
+                        submission.getResult().update(events, eventIds.size());
+                    } catch (final Exception e) {
+                        submission.getResult().setError("Failed to retrieve Provenance Events from store; see logs for more details");
+                        logger.error("Failed to retrieve Provenance Events from store", e);
+                    }
+                });
+
+                awaitCompletion(submission.getResult());
+                return submission;
+            }
+        }
+
+        final QueryFilter queryFilter = new QueryFilter(query, indexedFields);
+        final AsyncQuerySubmission submission = new AsyncQuerySubmission(query, 1, userId);
+        querySubmissionMap.put(query.getIdentifier(), submission);
+
+        submission.addQueryExecution(queryExecutor.submit(new BucketQueryTask(submission, queryFilter, getBuckets(), eventStore, authorizer)));
+
+        awaitCompletion(submission.getResult());
+        return submission;
+    }
+
+    // Some queries complete very quickly. In this case, we don't want to wait for the client to issue a second
+    // request, so we give the query up to 500 milliseconds to complete before returning the submission.
+    private static void awaitCompletion(final StandardQueryResult result) {
+        try {
+            result.awaitCompletion(500, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public List<ProvenanceEventRecord> getLatestCachedEvents(final String componentId, final int eventLimit) throws IOException {
+        final List<Long> eventIds = latestEventsPerProcessorQuery.getLatestEventIds(componentId);
+        if (eventIds.isEmpty()) {
+            logger.info("There are no recent Provenance Events cached for Component with ID {}", componentId);
+            return List.of();
+        }
+
+        final List<Long> filtered = eventIds.subList(0, Math.min(eventIds.size(), eventLimit));
+
+        final List<ProvenanceEventRecord> latestEvents = new ArrayList<>(filtered.size());
+        for (final Long eventId : filtered) {
+            eventStore.getEvent(eventId).ifPresent(latestEvents::add);
+        }
+
+        return latestEvents;
+    }
+
+    @Override
+    public ComputeLineageSubmission submitLineageComputation(final long eventId, final NiFiUser user, final EventAuthorizer eventAuthorizer) {
+        final String userId = user == null ? null : user.getIdentity();
+
+        final Optional<ProvenanceEventRecord> eventOption;
+        try {
+            eventOption = eventStore.getEvent(eventId);
+        } catch (final Exception e) {
+            logger.error("Failed to retrieve Provenance Event with ID {} to calculate data lineage", eventId, e);
+            final AsyncLineageSubmission result = new AsyncLineageSubmission(LineageComputationType.FLOWFILE_LINEAGE, eventId, Collections.emptySet(), 1, userId);
+            result.getResult().setError("Failed to retrieve Provenance Event with ID " + eventId + ". See logs for more information.");
+            return result;
+        }
+
+        if (eventOption.isEmpty()) {
+            final AsyncLineageSubmission result = new AsyncLineageSubmission(LineageComputationType.FLOWFILE_LINEAGE, eventId, Collections.emptySet(), 1, userId);
+            result.getResult().setError("Could not find Provenance Event with ID " + eventId);
+            lineageSubmissionMap.put(result.getLineageIdentifier(), result);
+            return result;
+        }
+
+        final ProvenanceEventRecord event = eventOption.get();
+        return submitLineageComputation(Collections.singleton(event.getFlowFileUuid()), user, eventAuthorizer, LineageComputationType.FLOWFILE_LINEAGE,
+            eventId, event.getLineageStartDate(), Long.MAX_VALUE);
+    }
+
+    @Override
+    public ComputeLineageSubmission submitLineageComputation(final String flowFileUuid, final NiFiUser user, final EventAuthorizer eventAuthorizer) {
+        return submitLineageComputation(Collections.singleton(flowFileUuid), user, eventAuthorizer, LineageComputationType.FLOWFILE_LINEAGE, null, 0L, Long.MAX_VALUE);
+    }
+
+    private ComputeLineageSubmission submitLineageComputation(final Collection<String> flowFileUuids, final NiFiUser user, final EventAuthorizer eventAuthorizer,
+        final LineageComputationType computationType, final Long eventId, final long startTimestamp, final long endTimestamp) {
+
+        // Hash each UUID once, up front. A FlowFile contributes at least one event to the lineage, so no more than MAX_LINEAGE_NODES UUIDs are needed.
+        final long[] uuidHashes = new long[Math.min(flowFileUuids.size(), MAX_LINEAGE_NODES)];
+        final Iterator<String> uuidItr = flowFileUuids.iterator();
+        for (int i = 0; i < uuidHashes.length; i++) {
+            uuidHashes[i] = IndexedFields.hash(uuidItr.next().toLowerCase(Locale.ROOT));
+        }
+
+        final List<long[]> uuidHashBatches = new ArrayList<>();
+        for (int start = 0; start < uuidHashes.length; start += MAX_LINEAGE_UUIDS) {
+            uuidHashBatches.add(Arrays.copyOfRange(uuidHashes, start, Math.min(start + MAX_LINEAGE_UUIDS, uuidHashes.length)));
+        }
+
+        final List<IndexBucket> buckets = new ArrayList<>();
+        for (final IndexBucket bucket : getBuckets()) {
+            if (bucket.overlaps(startTimestamp, endTimestamp)) {
+                buckets.add(bucket);
+            }
+        }
+
+        // Each batch of UUIDs is looked up in each bucket as a separate step, so that the steps can run concurrently on the query threads.
+        final boolean nothingToQuery = buckets.isEmpty() || uuidHashBatches.isEmpty();
+        final int numSteps = nothingToQuery ? 1 : buckets.size() * uuidHashBatches.size();
+        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, numSteps, user == null ? null : user.getIdentity());
+        lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+
+        if (nothingToQuery) {
+            submission.getResult().update(Collections.emptyList(), 0L);
+        } else {
+            for (final IndexBucket bucket : buckets) {
+                for (final long[] hashBatch : uuidHashBatches) {
+                    queryExecutor.submit(() -> computeLineageStep(submission, bucket, hashBatch, eventAuthorizer));
+                }
+            }
+        }
+
+        // Some computations will complete very quickly. In this case, we don't want to wait
+        // for the client to submit a second query to obtain the result. Instead, we want to just
+        // wait some short period of time for the computation to complete before returning the submission.
+        try {
+            submission.getResult().awaitCompletion(500, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+
+        return submission;
+    }
+
+    private void computeLineageStep(final AsyncLineageSubmission submission, final IndexBucket bucket, final long[] uuidHashes, final EventAuthorizer eventAuthorizer) {
+        final StandardLineageResult result = submission.getResult();
+        if (result.isFinished()) {
+            return;
+        }
+
+        try {
+            long[] lineageEventIds = PostingList.EMPTY;
+            for (final long uuidHash : uuidHashes) {
+                lineageEventIds = PostingList.union(lineageEventIds, bucket.getEventIds(SearchableFields.FlowFileUUID.getSearchableFieldName(), uuidHash));
+            }
+
+            // As with the Lucene based index, stop adding events once the lineage is full, using the most recent events from each step.
+            // This bounds the number of events held in memory regardless of how many steps run concurrently.
+            final int capacity = (int) Math.max(0L, MAX_LINEAGE_NODES - result.getTotalHitCount());
+            final List<Long> eventIds = new ArrayList<>(Math.min(lineageEventIds.length, capacity));
+            for (int i = Math.max(0, lineageEventIds.length - capacity); i < lineageEventIds.length; i++) {
+                eventIds.add(lineageEventIds[i]);
+            }
+
+            final List<ProvenanceEventRecord> events = eventIds.isEmpty() ? Collections.emptyList()
+                : eventStore.getEvents(eventIds, eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER);
+            result.update(events, lineageEventIds.length);
+        } catch (final Exception e) {
+            logger.error("Failed to compute lineage for FlowFiles {}", submission.getLineageFlowFileUuids(), e);
+            result.setError("Failed to compute lineage due to " + e);
+        }
+    }
+
+    @Override
+    public ComputeLineageSubmission submitExpandChildren(final long eventId, final NiFiUser user, final EventAuthorizer authorizer) {
+        return submitExpand(LineageComputationType.EXPAND_CHILDREN, eventId, user, authorizer);
+    }
+
+    @Override
+    public ComputeLineageSubmission submitExpandParents(final long eventId, final NiFiUser user, final EventAuthorizer authorizer) {
+        return submitExpand(LineageComputationType.EXPAND_PARENTS, eventId, user, authorizer);
+    }
+
+    private ComputeLineageSubmission submitExpand(final LineageComputationType computationType, final long eventId, final NiFiUser user, final EventAuthorizer authorizer) {
+        final String userId = user == null ? null : user.getIdentity();
+        final boolean children = computationType == LineageComputationType.EXPAND_CHILDREN;
+
+        try {
+            final Optional<ProvenanceEventRecord> eventOption = eventStore.getEvent(eventId);
+            if (eventOption.isEmpty()) {
+                final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, Collections.emptyList(), 1, userId);
+                lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+                submission.getResult().update(Collections.emptyList(), 0L);
+                return submission;
+            }
+
+            final ProvenanceEventRecord event = eventOption.get();
+            switch (event.getEventType()) {
+                case CLONE:
+                case FORK:
+                case JOIN:
+                case REPLAY: {
+                    if (children) {
+                        return submitLineageComputation(event.getChildUuids(), user, authorizer, computationType, eventId, event.getEventTime(), Long.MAX_VALUE);
+                    }
+                    return submitLineageComputation(event.getParentUuids(), user, authorizer, computationType, eventId, event.getLineageStartDate(), event.getEventTime());
+                }
+                default: {
+                    final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, Collections.emptyList(), 1, userId);
+                    lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+                    submission.getResult().setError("Event ID " + eventId + " indicates an event of type " + event.getEventType() + " so its "
+                        + (children ? "children" : "parents") + " cannot be expanded");
+                    return submission;
+                }
+            }
+        } catch (final Exception e) {
+            final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, Collections.emptyList(), 1, userId);
+            lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+            submission.getResult().setError("Failed to expand " + (children ? "children" : "parents") + " for lineage of event with ID " + eventId + " due to: " + e);
+            return submission;
+        }
+    }
+
+    @Override
+    public AsyncLineageSubmission retrieveLineageSubmission(final String lineageIdentifier, final NiFiUser user) {
+        final AsyncLineageSubmission submission = lineageSubmissionMap.get(lineageIdentifier);
+
+        if (submission == null) {
+            throw new AccessDeniedException("Cannot retrieve Provenance Lineage Submission. It has already been deleted or submitted to another NiFi node in the cluster.");
+        }
+
+        final String userId = submission.getSubmitterIdentity();
+
+        if (user == null && userId == null) {
+            return submission;
+        }
+
+        if (user == null) {
+            throw new AccessDeniedException("Cannot retrieve Provenance Lineage Submission because no user id was provided");
+        }
+
+        if (userId == null || userId.equals(user.getIdentity())) {
+            return submission;
+        }
+
+        throw new AccessDeniedException("Cannot retrieve Provenance Lineage Submission because " + user.getIdentity() + " is not the user who submitted the request");
+    }
+
+    @Override
+    public QuerySubmission retrieveQuerySubmission(final String queryIdentifier, final NiFiUser user) {
+        final QuerySubmission submission = querySubmissionMap.get(queryIdentifier);
+        if (submission == null) {
+            throw new AccessDeniedException("Cannot retrieve Provenance Query Submission. It has already been deleted or submitted to another NiFi node in the cluster.");
+        }
+
+        final String userId = submission.getSubmitterIdentity();
+
+        if (user == null && userId == null) {
+            return submission;
+        }
+
+        if (user == null) {
+            throw new AccessDeniedException("Cannot retrieve Provenance Query Submission because no user id was provided");
+        }
+
+        if (userId == null || userId.equals(user.getIdentity())) {
+            return submission;
+        }
+
+        throw new AccessDeniedException("Cannot retrieve Provenance Query Submission because " + user.getIdentity() + " is not the user who submitted the request");
+    }
+
+    @Override
+    public long getSize() {
+        long total = 0L;
+        for (final PartitionIndex partitionIndex : partitionIndices.values()) {
+            total += partitionIndex.getSize();
+        }
+
+        return total;
+    }
+
+    private void validate(final Query query) {
+        final int numQueries = querySubmissionMap.size();
+        if (numQueries > MAX_UNDELETED_QUERY_RESULTS) {
+            purgeObsoleteQueries();
+            if (querySubmissionMap.size() > MAX_UNDELETED_QUERY_RESULTS) {
+                throw new IllegalStateException("Cannot process query because there are currently " + numQueries + " queries whose results have not "
+                    + "been deleted due to poorly behaving clients not issuing DELETE requests. Please try again later.");
+            }
+        }
+
+        if (query.getEndDate() != null && query.getStartDate() != null && query.getStartDate().getTime() > query.getEndDate().getTime()) {
+            throw new IllegalArgumentException("Query End Time cannot be before Query Start Time");
+        }
+    }
+
+    void performMaintenance() {
+        try {
+            // Roll over any active bucket that has reached its configured age, even if no more events have been added to it
+            for (final PartitionIndex partitionIndex : partitionIndices.values()) {
+                final ActiveBucket rolledOver = partitionIndex.rollover(false);
+                if (rolledOver != null) {
+                    sealExecutor.submit(() -> seal(partitionIndex, rolledOver));
+                }
+            }
+
+            final List<ProvenanceEventRecord> firstEvents = eventStore.getEvents(0, 1);
+            final long minEventId = firstEvents.isEmpty() ? eventStore.getMaxEventId() + 1 : firstEvents.get(0).getEventId();
+
+            int removed = 0;
+            for (final PartitionIndex partitionIndex : partitionIndices.values()) {
+                removed += partitionIndex.removeBucketsBefore(minEventId);
+            }
+
+            if (removed > 0) {
+                logger.info("Removed {} expired Provenance index buckets that contained only events with IDs smaller than {}", removed, minEventId);
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to perform background maintenance procedures", e);
+            eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to perform maintenance of Provenance Repository. See logs for more information.");
+        }
+    }
+
+    private void purgeObsoleteQueries() {
+        try {
+            final Date now = new Date();
+
+            final Iterator<Map.Entry<String, AsyncQuerySubmission>> queryIterator = querySubmissionMap.entrySet().iterator();
+            while (queryIterator.hasNext()) {
+                final Map.Entry<String, AsyncQuerySubmission> entry = queryIterator.next();
+
+                final StandardQueryResult result = entry.getValue().getResult();
+                if (entry.getValue().isCanceled() || result.isFinished() && result.getExpiration().before(now)) {
+                    queryIterator.remove();
+                }
+            }
+
+            final Iterator<Map.Entry<String, AsyncLineageSubmission>> lineageIterator = lineageSubmissionMap.entrySet().iterator();
+            while (lineageIterator.hasNext()) {
+                final Map.Entry<String, AsyncLineageSubmission> entry = lineageIterator.next();
+
+                final StandardLineageResult result = entry.getValue().getResult();
+                if (entry.getValue().isCanceled() || result.isFinished() && result.getExpiration().before(now)) {
+                    lineageIterator.remove();
+                }
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to expire Provenance Query Results", e);
+        }
+    }
+}
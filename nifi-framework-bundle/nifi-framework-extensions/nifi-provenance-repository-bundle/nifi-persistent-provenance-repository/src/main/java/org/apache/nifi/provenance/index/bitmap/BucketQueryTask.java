@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.bitmap;
+
+import org.apache.nifi.provenance.AsyncQuerySubmission;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.authorization.EventTransformer;
+import org.apache.nifi.provenance.store.EventStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates a query against the buckets of a {@link BitmapEventIndex}. The candidate Event IDs of all buckets that overlap the query's time
+ * range are merged so that events are visited from the newest to the oldest. Because buckets hold events with nearby IDs, a bucket's
+ * posting lists are read only once the merge reaches the bucket's largest Event ID, so a query that finds enough results among recent
+ * events never reads older buckets. Candidates are retrieved from the Event Store in batches and checked against the {@link QueryFilter}
+ * until the maximum number of results is reached.
+ */
+class BucketQueryTask implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(BucketQueryTask.class);
+    private static final int EVENT_BATCH_SIZE = 1000;
+
+    private final AsyncQuerySubmission submission;
+    private final QueryFilter queryFilter;
+    private final List<IndexBucket> buckets;
+    private final EventStore eventStore;
+    private final EventAuthorizer authorizer;
+
+    BucketQueryTask(final AsyncQuerySubmission submission, final QueryFilter queryFilter, final List<IndexBucket> buckets, final EventStore eventStore,
+                    final EventAuthorizer authorizer) {
+        this.submission = submission;
+        this.queryFilter = queryFilter;
+        this.buckets = buckets;
+        this.eventStore = eventStore;
+        this.authorizer = authorizer;
+    }
+
+    @Override
+    public void run() {
+        final long startNanos = System.nanoTime();
+        final int maxResults = submission.getQuery().getMaxResults();
+
+        try {
+            final List<IndexBucket> relevantBuckets = new ArrayList<>();
+            for (final IndexBucket bucket : buckets) {
+                if (bucket.overlaps(queryFilter.getStartTime(), queryFilter.getEndTime())) {
+                    relevantBuckets.add(bucket);
+                }
+            }
+            relevantBuckets.sort(Comparator.comparingLong(IndexBucket::getMaxEventId).reversed());
+
+            final List<ProvenanceEventRecord> matchingEvents = new ArrayList<>();
+            final List<Long> batch = new ArrayList<>(EVENT_BATCH_SIZE);
+            final PriorityQueue<Cursor> cursors = new PriorityQueue<>(Comparator.comparingLong(Cursor::current).reversed());
+            int nextBucketIndex = 0;
+            long lastEventId = -1L;
+            int candidateCount = 0;
+
+            while (matchingEvents.size() < maxResults && !submission.isCanceled()) {
+                // Open every bucket that may contain a larger Event ID than the largest candidate that has not yet been visited
+                while (nextBucketIndex < relevantBuckets.size()
+                    && (cursors.isEmpty() || relevantBuckets.get(nextBucketIndex).getMaxEventId() >= cursors.peek().current())) {
+
+                    final long[] candidates = getCandidates(relevantBuckets.get(nextBucketIndex++));
+                    if (candidates.length > 0) {
+                        cursors.add(new Cursor(candidates));
+                    }
+                }
+
+                final Cursor cursor = cursors.poll();
+                if (cursor == null) {
+                    break;
+                }
+
+                final long eventId = cursor.current();
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+
+                if (eventId == lastEventId) {
+                    continue;
+                }
+
+                lastEventId = eventId;
+                candidateCount++;
+                batch.add(eventId);
+                if (batch.size() >= EVENT_BATCH_SIZE) {
+                    addMatchingEvents(batch, matchingEvents);
+                    batch.clear();
+                }
+            }
+
+            if (!batch.isEmpty() && matchingEvents.size() < maxResults) {
+                addMatchingEvents(batch, matchingEvents);
+            }
+
+            // The result retains only the events with the largest IDs if the last batch produced more than the maximum number of results
+            submission.getResult().update(matchingEvents, matchingEvents.size());
+
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            logger.debug("Query {} examined {} candidate events from {} of {} index buckets and found {} matching events in {} millis",
+                submission.getQuery(), candidateCount, nextBucketIndex, relevantBuckets.size(), matchingEvents.size(), millis);
+        } catch (final Exception e) {
+            logger.error("Failed to query events for {}", submission.getQuery(), e);
+            submission.getResult().setError("Failed to complete query due to " + e);
+        }
+    }
+
+    private long[] getCandidates(final IndexBucket bucket) throws IOException {
+        final List<QueryFilter.IndexedTerm> indexedTerms = queryFilter.getIndexedTerms();
+        if (indexedTerms.isEmpty()) {
+            return bucket.getEventIds();
+        }
+
+        long[] candidates = null;
+        for (final QueryFilter.IndexedTerm term : indexedTerms) {
+            final long[] eventIds = bucket.getEventIds(term.fieldName(), term.valueHash());
+            candidates = candidates == null ? eventIds : PostingList.intersect(candidates, eventIds);
+            if (candidates.length == 0) {
+                break;
+            }
+        }
+
+        return candidates;
+    }
+
+    private void addMatchingEvents(final List<Long> eventIds, final List<ProvenanceEventRecord> matchingEvents) throws IOException {
+        final List<ProvenanceEventRecord> events = eventStore.getEvents(eventIds, authorizer, EventTransformer.EMPTY_TRANSFORMER);
+        for (final ProvenanceEventRecord event : events) {
+            if (queryFilter.matches(event)) {
+                matchingEvents.add(event);
+            }
+        }
+    }
+
+    /**
+     * Iterates over a sorted array of Event IDs from the largest to the smallest
+     */
+    private static class Cursor {
+        private final long[] eventIds;
+        private int index;
+
+        Cursor(final long[] eventIds) {
+            this.eventIds = eventIds;
+            this.index = eventIds.length - 1;
+        }
+
+        long current() {
+            return eventIds[index];
+        }
+
+        boolean advance() {
+            return --index >= 0;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.bitmap;
+
+import java.io.IOException;
+
+/**
+ * A set of Provenance Events that were indexed together, along with a posting list for each distinct value of each indexed field.
+ * Buckets are the unit by which the {@link BitmapEventIndex} narrows a query down by time and by which index data is aged off.
+ */
+interface IndexBucket {
+
+    /**
+     * @return the smallest Event ID in the bucket, or <code>-1</code> if the bucket is empty
+     */
+    long getMinEventId();
+
+    /**
+     * @return the largest Event ID in the bucket, or <code>-1</code> if the bucket is empty
+     */
+    long getMaxEventId();
+
+    /**
+     * @return the earliest Event Time of any event in the bucket
+     */
+    long getMinEventTime();
+
+    /**
+     * @return the latest Event Time of any event in the bucket
+     */
+    long getMaxEventTime();
+
+    /**
+     * @return the number of events in the bucket
+     */
+    int getEventCount();
+
+    /**
+     * Returns the IDs of all events that have a value with the given hash for the given field.
+     *
+     * @param fieldName the name of the field
+     * @param valueHash the hash of the lower-cased value, as computed by {@link IndexedFields#hash(String)}
+     * @return the matching Event IDs, sorted in ascending order
+     * @throws IOException if unable to read the posting list
+     */
+    long[] getEventIds(String fieldName, long valueHash) throws IOException;
+
+    /**
+     * @return the IDs of all events in the bucket, sorted in ascending order
+     * @throws IOException if unable to read the posting list
+     */
+    long[] getEventIds() throws IOException;
+
+    default boolean overlaps(final long startTime, final long endTime) {
+        return getEventCount() > 0 && getMinEventTime() <= endTime && getMaxEventTime() >= startTime;
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.bitmap;
+
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.search.SearchableField;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Determines which values of a Provenance Event are indexed by the {@link BitmapEventIndex}. The FlowFile UUID, Component ID and Event Type
+ * are always indexed, along with any other configured searchable fields and attributes. As with the Lucene based index, values are
+ * lower-cased, and the FlowFile UUID field also contains the UUIDs of the children of a FORK, CLONE or REPLAY event, the parents of a JOIN
+ * event and the Source System FlowFile Identifier of a RECEIVE event.
+ */
+final class IndexedFields {
+    // Standard fields that are searched by value. Numeric and date fields, such as the File Size, are not indexed but are checked against
+    // each candidate event instead.
+    private static final Set<SearchableField> TERM_FIELDS = Set.of(SearchableFields.FlowFileUUID, SearchableFields.ComponentID, SearchableFields.EventType,
+        SearchableFields.Filename, SearchableFields.AlternateIdentifierURI, SearchableFields.Relationship, SearchableFields.Details,
+        SearchableFields.ContentClaimSection, SearchableFields.ContentClaimContainer, SearchableFields.ContentClaimIdentifier,
+        SearchableFields.SourceQueueIdentifier, SearchableFields.TransitURI);
+
+    private final List<SearchableField> indexedFields;
+
+    IndexedFields(final List<SearchableField> searchableFields, final List<SearchableField> searchableAttributes) {
+        final Set<SearchableField> fields = new LinkedHashSet<>();
+        fields.add(SearchableFields.FlowFileUUID);
+        fields.add(SearchableFields.ComponentID);
+        fields.add(SearchableFields.EventType);
+        fields.addAll(searchableFields);
+        fields.addAll(searchableAttributes);
+
+        final List<SearchableField> indexed = new ArrayList<>(fields.size());
+        for (final SearchableField field : fields) {
+            if (field.isAttribute() || TERM_FIELDS.contains(field)) {
+                indexed.add(field);
+            }
+        }
+
+        this.indexedFields = indexed;
+    }
+
+    /**
+     * @param field the field
+     * @return <code>true</code> if posting lists are maintained for the given field
+     */
+    boolean isIndexed(final SearchableField field) {
+        for (final SearchableField indexedField : indexedFields) {
+            if (indexedField.isAttribute() == field.isAttribute() && indexedField.getSearchableFieldName().equals(field.getSearchableFieldName())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Provides the name and lower-cased value of each indexed field of the given event to the given consumer. A field may be provided
+     * more than once if it has more than one value.
+     *
+     * @param event the event
+     * @param consumer the consumer of field names and values
+     */
+    void forEachValue(final ProvenanceEventRecord event, final BiConsumer<String, String> consumer) {
+        for (final SearchableField field : indexedFields) {
+            if (field.equals(SearchableFields.FlowFileUUID)) {
+                for (final String uuid : getFlowFileUuids(event)) {
+                    consumer.accept(field.getSearchableFieldName(), uuid);
+                }
+            } else {
+                final String value = getValue(event, field);
+                if (value != null) {
+                    consumer.accept(field.getSearchableFieldName(), value.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the lower-cased values of the given field for the given event, regardless of whether or not the field is indexed.
+     *
+     * @param event the event
+     * @param field the field
+     * @return the values of the field, or an empty list if the event has no value for the field
+     */
+    List<String> getValues(final ProvenanceEventRecord event, final SearchableField field) {
+        if (field.equals(SearchableFields.FlowFileUUID)) {
+            return getFlowFileUuids(event);
+        }
+
+        final String value = getValue(event, field);
+        return value == null ? List.of() : List.of(value.toLowerCase(Locale.ROOT));
+    }
+
+    private List<String> getFlowFileUuids(final ProvenanceEventRecord event) {
+        final List<String> uuids = new ArrayList<>(2);
+        final String flowFileUuid = event.getFlowFileUuid();
+        if (flowFileUuid != null) {
+            uuids.add(flowFileUuid.toLowerCase(Locale.ROOT));
+        }
+
+        final ProvenanceEventType eventType = event.getEventType();
+        if (eventType == ProvenanceEventType.FORK || eventType == ProvenanceEventType.CLONE || eventType == ProvenanceEventType.REPLAY) {
+            addUuids(event.getChildUuids(), flowFileUuid, uuids);
+        } else if (eventType == ProvenanceEventType.JOIN) {
+            addUuids(event.getParentUuids(), flowFileUuid, uuids);
+        } else if (eventType == ProvenanceEventType.RECEIVE && event.getSourceSystemFlowFileIdentifier() != null) {
+            final String sourceIdentifier = event.getSourceSystemFlowFileIdentifier();
+            final int lastColon = sourceIdentifier.lastIndexOf(":");
+            if (lastColon > -1 && lastColon < sourceIdentifier.length() - 2) {
+                uuids.add(sourceIdentifier.substring(lastColon + 1).toLowerCase(Locale.ROOT));
+            }
+        }
+
+        return uuids;
+    }
+
+    private static void addUuids(final List<String> related, final String flowFileUuid, final List<String> uuids) {
+        if (related == null) {
+            return;
+        }
+
+        for (final String uuid : related) {
+            if (!uuid.equals(flowFileUuid)) {
+                uuids.add(uuid.toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    private static String getValue(final ProvenanceEventRecord event, final SearchableField field) {
+        if (field.isAttribute()) {
+            return event.getAttribute(field.getSearchableFieldName());
+        }
+
+        if (field.equals(SearchableFields.FlowFileUUID)) {
+            return event.getFlowFileUuid();
+        } else if (field.equals(SearchableFields.Filename)) {
+            return event.getAttribute(CoreAttributes.FILENAME.key());
+        } else if (field.equals(SearchableFields.ComponentID)) {
+            return event.getComponentId();
+        } else if (field.equals(SearchableFields.AlternateIdentifierURI)) {
+            return event.getAlternateIdentifierUri();
+        } else if (field.equals(SearchableFields.EventType)) {
+            return event.getEventType().name();
+        } else if (field.equals(SearchableFields.Relationship)) {
+            return event.getRelationship();
+        } else if (field.equals(SearchableFields.Details)) {
+            return event.getDetails();
+        } else if (field.equals(SearchableFields.ContentClaimSection)) {
+            return event.getContentClaimSection();
+        } else if (field.equals(SearchableFields.ContentClaimContainer)) {
+            return event.getContentClaimContainer();
+        } else if (field.equals(SearchableFields.ContentClaimIdentifier)) {
+            return event.getContentClaimIdentifier();
+        } else if (field.equals(SearchableFields.SourceQueueIdentifier)) {
+            return event.getSourceQueueIdentifier();
+        } else if (field.equals(SearchableFields.TransitURI)) {
+            return event.getTransitUri();
+        }
+
+        return null;
+    }
+
+    /**
+     * Computes the 64-bit hash that identifies the given lower-cased value in a posting list. Distinct values may share a hash, so events
+     * obtained from the index must always be checked against the query that they are to satisfy.
+     *
+     * @param value the value
+     * @return the hash of the value
+     */
+    static long hash(final String value) {
+        // FNV-1a followed by the MurmurHash3 finalizer
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
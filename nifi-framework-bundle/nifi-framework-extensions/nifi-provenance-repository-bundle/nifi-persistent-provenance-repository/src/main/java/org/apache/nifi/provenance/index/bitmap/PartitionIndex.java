@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.bitmap;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.util.file.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The buckets of the {@link BitmapEventIndex} that hold the events of a single partition of the Event Store. Events are added to an
+ * {@link ActiveBucket}, which is rolled over once it is old enough or large enough. A rolled over bucket remains searchable on heap until
+ * it has been written to the partition's index directory as a {@link SealedBucket}.
+ */
+final class PartitionIndex {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionIndex.class);
+
+    static final String DIRECTORY_NAME = "bitmap-index";
+    private static final String BUCKET_FILE_SUFFIX = ".bucket";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final String partitionName;
+    private final File directory;
+    private final IndexedFields indexedFields;
+    private final long bucketMillis;
+    private final int maxEventsPerBucket;
+
+    // Both lists are modified only while synchronized on this, so that a bucket that is being sealed is never seen in both lists or in neither
+    private final List<SealedBucket> sealedBuckets = new CopyOnWriteArrayList<>();
+    private final List<ActiveBucket> sealingBuckets = new CopyOnWriteArrayList<>();
+    private ActiveBucket activeBucket; // guarded by this
+
+    PartitionIndex(final String partitionName, final File directory, final IndexedFields indexedFields, final long bucketMillis, final int maxEventsPerBucket) {
+        this.partitionName = partitionName;
+        this.directory = directory;
+        this.indexedFields = indexedFields;
+        this.bucketMillis = bucketMillis;
+        this.maxEventsPerBucket = maxEventsPerBucket;
+    }
+
+    String getPartitionName() {
+        return partitionName;
+    }
+
+    synchronized void initialize() throws IOException {
+        FileUtils.ensureDirectoryExistAndCanAccess(directory);
+
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            throw new IOException("Unable to list the contents of index directory " + directory);
+        }
+
+        for (final File file : files) {
+            if (file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+                // Bucket was being written when NiFi was stopped. Its events will be re-indexed.
+                FileUtils.deleteFile(file, logger);
+            } else if (file.getName().endsWith(BUCKET_FILE_SUFFIX)) {
+                try {
+                    sealedBuckets.add(SealedBucket.open(file));
+                } catch (final IOException e) {
+                    logger.warn("Unable to read Provenance index bucket {}; will delete the file and re-index the events that it contains if they are still available", file, e);
+                    FileUtils.deleteFile(file, logger);
+                }
+            }
+        }
+
+        logger.info("Loaded {} Provenance index buckets for partition {}", sealedBuckets.size(), partitionName);
+    }
+
+    /**
+     * Adds the given events to the active bucket.
+     *
+     * @param events the events to add, along with their Event IDs
+     * @return the bucket that was rolled over as a result of adding the events, which must now be passed to {@link #seal(ActiveBucket)},
+     *         or <code>null</code> if the active bucket was not rolled over
+     */
+    synchronized ActiveBucket addEvents(final List<Map.Entry<ProvenanceEventRecord, Long>> events) {
+        if (activeBucket == null) {
+            activeBucket = new ActiveBucket();
+        }
+
+        for (final Map.Entry<ProvenanceEventRecord, Long> entry : events) {
+            activeBucket.addEvent(entry.getKey(), entry.getValue(), indexedFields);
+        }
+
+        return rollover(false);
+    }
+
+    /**
+     * Rolls over the active bucket if it has reached the configured age or size, or unconditionally if <code>force</code> is <code>true</code>.
+     *
+     * @param force whether to roll over a non-empty active bucket regardless of its age or size
+     * @return the bucket that was rolled over and must now be passed to {@link #seal(ActiveBucket)}, or <code>null</code> if the active
+     *         bucket was not rolled over
+     */
+    synchronized ActiveBucket rollover(final boolean force) {
+        if (activeBucket == null || activeBucket.getEventCount() == 0) {
+            return null;
+        }
+
+        final boolean full = activeBucket.getEventCount() >= maxEventsPerBucket;
+        final boolean expired = System.currentTimeMillis() - activeBucket.getCreationTime() >= bucketMillis;
+        if (!force && !full && !expired) {
+            return null;
+        }
+
+        final ActiveBucket rolledOver = activeBucket;
+        sealingBuckets.add(rolledOver);
+        activeBucket = null;
+        return rolledOver;
+    }
+
+    /**
+     * Writes the given rolled over bucket to disk and replaces it with the resulting {@link SealedBucket}.
+     *
+     * @param bucket the bucket to seal
+     * @throws IOException if unable to write the bucket, in which case the bucket remains searchable on heap
+     */
+    void seal(final ActiveBucket bucket) throws IOException {
+        final File bucketFile = new File(directory, bucket.getMinEventId() + "-" + bucket.getMaxEventId() + BUCKET_FILE_SUFFIX);
+        final File tempFile = new File(directory, bucketFile.getName() + TEMP_FILE_SUFFIX);
+
+        try {
+            bucket.write(tempFile);
+            Files.move(tempFile.toPath(), bucketFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            FileUtils.deleteFile(tempFile, logger);
+            throw e;
+        }
+
+        final SealedBucket sealedBucket = SealedBucket.open(bucketFile);
+        synchronized (this) {
+            sealedBuckets.add(sealedBucket);
+            sealingBuckets.remove(bucket);
+        }
+        logger.debug("Sealed {} for partition {} to {}", bucket, partitionName, bucketFile);
+    }
+
+    /**
+     * @return all buckets of this partition, including the active bucket
+     */
+    synchronized List<IndexBucket> getBuckets() {
+        final List<IndexBucket> buckets = new ArrayList<>(sealedBuckets.size() + sealingBuckets.size() + 1);
+        buckets.addAll(sealedBuckets);
+        buckets.addAll(sealingBuckets);
+        if (activeBucket != null) {
+            buckets.add(activeBucket);
+        }
+
+        return buckets;
+    }
+
+    /**
+     * @return the largest Event ID of any sealed bucket, or <code>-1</code> if there are no sealed buckets
+     */
+    long getMaxSealedEventId() {
+        long maxEventId = -1L;
+        for (final SealedBucket bucket : sealedBuckets) {
+            maxEventId = Math.max(maxEventId, bucket.getMaxEventId());
+        }
+
+        return maxEventId;
+    }
+
+    /**
+     * Removes any sealed bucket that contains only events whose IDs are smaller than the given Event ID.
+     *
+     * @param minEventId the smallest Event ID that is still available in the Event Store
+     * @return the number of buckets that were removed
+     */
+    int removeBucketsBefore(final long minEventId) {
+        final List<SealedBucket> expiredBuckets = new ArrayList<>();
+        int removed = 0;
+        synchronized (this) {
+            for (final SealedBucket bucket : sealedBuckets) {
+                if (bucket.getMaxEventId() < minEventId) {
+                    sealedBuckets.remove(bucket);
+                    expiredBuckets.add(bucket);
+                    removed++;
+                }
+            }
+
+            // A bucket that could not be written to disk is held on heap only until its events have aged off
+            for (final ActiveBucket bucket : sealingBuckets) {
+                if (bucket.getMaxEventId() < minEventId) {
+                    sealingBuckets.remove(bucket);
+                    removed++;
+                }
+            }
+        }
+
+        for (final SealedBucket bucket : expiredBuckets) {
+            FileUtils.deleteFile(bucket.getFile(), logger);
+        }
+
+        return removed;
+    }
+
+    long getSize() {
+        long size = 0L;
+        for (final SealedBucket bucket : sealedBuckets) {
+            size += bucket.getFileSize();
+        }
+
+        return size;
+    }
+}
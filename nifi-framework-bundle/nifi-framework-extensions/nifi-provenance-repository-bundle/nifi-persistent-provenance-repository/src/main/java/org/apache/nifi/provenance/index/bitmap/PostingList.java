@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.bitmap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A growable list of Event IDs, along with the operations that are used to store and combine sorted lists of Event IDs. When written to a
+ * bucket file, a sorted list is encoded as the variable-length differences between consecutive IDs, which typically requires one or two
+ * bytes per event because the events of a bucket have nearby IDs.
+ */
+final class PostingList {
+    static final long[] EMPTY = new long[0];
+
+    private long[] eventIds;
+    private int size;
+
+    PostingList() {
+        this(4);
+    }
+
+    PostingList(final int initialCapacity) {
+        eventIds = new long[initialCapacity];
+    }
+
+    void add(final long eventId) {
+        // An event may provide the same value more than once, such as when a FORK event lists its own UUID as a child
+        if (size > 0 && eventIds[size - 1] == eventId) {
+            return;
+        }
+
+        if (size == eventIds.length) {
+            eventIds = Arrays.copyOf(eventIds, size + (size >> 1) + 1);
+        }
+        eventIds[size++] = eventId;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the Event IDs of this list, sorted in ascending order, without duplicates
+     */
+    long[] toSortedArray() {
+        final long[] sorted = Arrays.copyOf(eventIds, size);
+        Arrays.sort(sorted);
+        return distinct(sorted);
+    }
+
+    private static long[] distinct(final long[] sorted) {
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (count == 0 || sorted[count - 1] != sorted[i]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+
+        return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+    }
+
+    static void encode(final long[] sortedIds, final OutputStream out) throws IOException {
+        long previous = 0L;
+        for (final long eventId : sortedIds) {
+            long delta = eventId - previous;
+            previous = eventId;
+
+            while ((delta & ~0x7FL) != 0) {
+                out.write((int) ((delta & 0x7F) | 0x80));
+                delta >>>= 7;
+            }
+            out.write((int) delta);
+        }
+    }
+
+    static long[] decode(final ByteBuffer buffer, final long offset, final int count) {
+        final long[] eventIds = new long[count];
+        int position = Math.toIntExact(offset);
+        long previous = 0L;
+
+        for (int i = 0; i < count; i++) {
+            long delta = 0L;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+
+            previous += delta;
+            eventIds[i] = previous;
+        }
+
+        return eventIds;
+    }
+
+    /**
+     * @return the Event IDs that are contained in both of the given sorted arrays
+     */
+    static long[] intersect(final long[] first, final long[] second) {
+        final long[] result = new long[Math.min(first.length, second.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * @return the Event IDs that are contained in either of the given sorted arrays
+     */
+    static long[] union(final long[] first, final long[] second) {
+        if (first.length == 0) {
+            return second;
+        }
+        if (second.length == 0) {
+            return first;
+        }
+
+        final long[] result = new long[first.length + second.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length || j < second.length) {
+            final long next;
+            if (j == second.length || (i < first.length && first[i] <= second[j])) {
+                next = first[i++];
+            } else {
+                next = second[j++];
+            }
+
+            if (count == 0 || result[count - 1] != next) {
+                result[count++] = next;
+            }
+        }
+
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+}
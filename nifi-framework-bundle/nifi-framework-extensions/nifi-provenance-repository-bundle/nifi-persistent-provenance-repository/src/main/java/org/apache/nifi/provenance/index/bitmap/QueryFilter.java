@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.bitmap;
+
+import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.SearchTerm;
+import org.apache.nifi.provenance.search.SearchableField;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a {@link Query} into the terms that can be answered using posting lists and a filter that each candidate event is checked against.
+ * The filter applies every criterion of the query, including the indexed terms, so that values sharing a hash never produce a false match.
+ * Semantics follow those of the Lucene based index: values are compared without regard to case, a value containing <code>*</code> or
+ * <code>?</code> is a wildcard pattern, and an inverted term matches events that do not have the given value.
+ */
+final class QueryFilter {
+    private final IndexedFields indexedFields;
+    private final long startTime;
+    private final long endTime;
+    private final long minFileSize;
+    private final long maxFileSize;
+    private final List<TermFilter> termFilters = new ArrayList<>();
+    private final List<IndexedTerm> indexedTerms = new ArrayList<>();
+
+    QueryFilter(final Query query, final IndexedFields indexedFields) {
+        this.indexedFields = indexedFields;
+        this.startTime = query.getStartDate() == null ? 0L : query.getStartDate().getTime();
+        this.endTime = query.getEndDate() == null ? Long.MAX_VALUE : query.getEndDate().getTime();
+        this.minFileSize = query.getMinFileSize() == null ? 0L : DataUnit.parseDataSize(query.getMinFileSize(), DataUnit.B).longValue();
+        this.maxFileSize = query.getMaxFileSize() == null ? Long.MAX_VALUE : DataUnit.parseDataSize(query.getMaxFileSize(), DataUnit.B).longValue();
+
+        for (final SearchTerm searchTerm : query.getSearchTerms()) {
+            final String searchValue = searchTerm.getValue();
+            if (searchValue == null) {
+                throw new IllegalArgumentException("Empty search value not allowed (for term '" + searchTerm.getSearchableField().getFriendlyName() + "')");
+            }
+
+            final String value = searchValue.toLowerCase(Locale.ROOT);
+            final boolean inverted = Boolean.TRUE.equals(searchTerm.isInverted());
+            final boolean wildcard = value.contains("*") || value.contains("?");
+            final SearchableField field = searchTerm.getSearchableField();
+
+            termFilters.add(new TermFilter(field, value, wildcard ? toPattern(value) : null, inverted));
+            if (!inverted && !wildcard && indexedFields.isIndexed(field)) {
+                indexedTerms.add(new IndexedTerm(field.getSearchableFieldName(), IndexedFields.hash(value)));
+            }
+        }
+    }
+
+    long getStartTime() {
+        return startTime;
+    }
+
+    long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * @return the terms that every matching event must have, which can be looked up in the posting lists of a bucket
+     */
+    List<IndexedTerm> getIndexedTerms() {
+        return indexedTerms;
+    }
+
+    boolean matches(final ProvenanceEventRecord event) {
+        if (event.getEventTime() < startTime || event.getEventTime() > endTime) {
+            return false;
+        }
+        if (event.getFileSize() < minFileSize || event.getFileSize() > maxFileSize) {
+            return false;
+        }
+
+        for (final TermFilter termFilter : termFilters) {
+            if (!termFilter.matches(indexedFields.getValues(event, termFilter.field()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Converts a Lucene style wildcard value, in which <code>*</code> matches any sequence of characters, <code>?</code> matches any single
+     * character and <code>\</code> escapes the character that follows it, into a Pattern.
+     */
+    private static Pattern toPattern(final String wildcard) {
+        final StringBuilder regex = new StringBuilder();
+        final StringBuilder literal = new StringBuilder();
+
+        for (int i = 0; i < wildcard.length(); i++) {
+            final char c = wildcard.charAt(i);
+            if (c == '\\' && i < wildcard.length() - 1) {
+                literal.append(wildcard.charAt(++i));
+            } else if (c == '*' || c == '?') {
+                if (!literal.isEmpty()) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    record IndexedTerm(String fieldName, long valueHash) {
+    }
+
+    private record TermFilter(SearchableField field, String value, Pattern pattern, boolean inverted) {
+        boolean matches(final List<String> eventValues) {
+            boolean found = false;
+            for (final String eventValue : eventValues) {
+                if (pattern == null ? value.equals(eventValue) : pattern.matcher(eventValue).matches()) {
+                    found = true;
+                    break;
+                }
+            }
+
+            return found != inverted;
+        }
+    }
+}
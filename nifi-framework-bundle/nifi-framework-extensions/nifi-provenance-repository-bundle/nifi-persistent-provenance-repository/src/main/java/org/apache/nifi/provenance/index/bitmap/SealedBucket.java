@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.bitmap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * A bucket that has been written to disk by {@link ActiveBucket#write(File)}. The file is memory-mapped, and posting lists are decoded only
+ * when a query needs them, so a sealed bucket costs little more than its footer in heap.
+ * </p>
+ *
+ * <p>
+ * The file consists of the delta-encoded posting lists, followed by one term table per field, followed by a footer. Each term table is a
+ * sequence of (value hash, posting list offset, posting list length) entries, ordered by hash so that a value is located using a binary
+ * search. The footer holds the ID and time range of the bucket and the location of each term table, and is followed by its own length
+ * and a magic number so that it can be found from the end of the file.
+ * </p>
+ */
+final class SealedBucket implements IndexBucket {
+    static final int VERSION = 1;
+    static final int MAGIC = 0x4E424958; // "NBIX"
+    private static final int TERM_ENTRY_LENGTH = 20;
+
+    private final File file;
+    private final ByteBuffer buffer;
+    private final long minEventId;
+    private final long maxEventId;
+    private final long minEventTime;
+    private final long maxEventTime;
+    private final int eventCount;
+    private final Map<String, TermTable> termTables;
+
+    private SealedBucket(final File file, final ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+
+        final int length = buffer.capacity();
+        if (length < 8 || buffer.getInt(length - 4) != MAGIC) {
+            throw new IOException("Index bucket file " + file + " is incomplete or is not a valid index bucket file");
+        }
+
+        final int footerLength = buffer.getInt(length - 8);
+        final ByteBuffer footer = buffer.duplicate();
+        footer.position(length - 8 - footerLength);
+        footer.limit(length - 8);
+
+        final int version = footer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Index bucket file " + file + " has version " + version + " but only version " + VERSION + " is supported");
+        }
+
+        minEventId = footer.getLong();
+        maxEventId = footer.getLong();
+        minEventTime = footer.getLong();
+        maxEventTime = footer.getLong();
+        eventCount = footer.getInt();
+
+        final int fieldCount = footer.getInt();
+        termTables = new HashMap<>(fieldCount * 2);
+        for (int i = 0; i < fieldCount; i++) {
+            final byte[] nameBytes = new byte[footer.getShort() & 0xFFFF];
+            footer.get(nameBytes);
+            termTables.put(new String(nameBytes, StandardCharsets.UTF_8), new TermTable(footer.getLong(), footer.getInt()));
+        }
+    }
+
+    static SealedBucket open(final File file) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new SealedBucket(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    long getFileSize() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public long getMinEventId() {
+        return minEventId;
+    }
+
+    @Override
+    public long getMaxEventId() {
+        return maxEventId;
+    }
+
+    @Override
+    public long getMinEventTime() {
+        return minEventTime;
+    }
+
+    @Override
+    public long getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    @Override
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    @Override
+    public long[] getEventIds(final String fieldName, final long valueHash) {
+        final TermTable termTable = termTables.get(fieldName);
+        if (termTable == null) {
+            return PostingList.EMPTY;
+        }
+
+        int low = 0;
+        int high = termTable.termCount() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int entryOffset = Math.toIntExact(termTable.offset() + (long) mid * TERM_ENTRY_LENGTH);
+            final int comparison = Long.compare(buffer.getLong(entryOffset), valueHash);
+
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return PostingList.decode(buffer, buffer.getLong(entryOffset + 8), buffer.getInt(entryOffset + 16));
+            }
+        }
+
+        return PostingList.EMPTY;
+    }
+
+    @Override
+    public long[] getEventIds() {
+        // The posting list of all events is always the first in the file
+        return PostingList.decode(buffer, 0L, eventCount);
+    }
+
+    @Override
+    public String toString() {
+        return "SealedBucket[file=" + file + ", events=" + eventCount + ", eventIds=" + minEventId + "-" + maxEventId + "]";
+    }
+
+    private record TermTable(long offset, int termCount) {
+    }
+}
@@ -88,6 +88,8 @@ public class LuceneEventIndex implements EventIndex {
     public static final int MAX_DELETE_INDEX_WAIT_SECONDS = 30;
     public static final int MAX_LINEAGE_NODES = 1000;
     public static final int MAX_INDEX_THREADS = 100;
+    // The maximum number of FlowFile UUIDs that are looked up by a single index query. Larger sets of UUIDs, such as the children of a FORK event, are
+    // split into batches that are queried concurrently.
     public static final int MAX_LINEAGE_UUIDS = 100;
 
     private final ConcurrentMap<String, AsyncQuerySubmission> querySubmissionMap = new ConcurrentHashMap<>();
@@ -518,24 +520,27 @@ public class LuceneEventIndex implements EventIndex {
     private ComputeLineageSubmission submitLineageComputation(final Collection<String> flowFileUuids, final NiFiUser user, final EventAuthorizer eventAuthorizer,
         final LineageComputationType computationType, final Long eventId, final long startTimestamp, final long endTimestamp) {
 
-        if (flowFileUuids.size() > MAX_LINEAGE_UUIDS) {
-            throw new IllegalArgumentException(String.format("Cannot compute lineage for more than %s FlowFiles. This lineage contains %s.", MAX_LINEAGE_UUIDS, flowFileUuids.size()));
-        }
+        final List<List<String>> uuidBatches = batchLineageUuids(flowFileUuids);
+        final List<File> indexDirectories = directoryManager.getDirectories(startTimestamp, endTimestamp);
+        final boolean nothingToQuery = indexDirectories.isEmpty() || uuidBatches.isEmpty();
 
-        final List<File> indexDirs = directoryManager.getDirectories(startTimestamp, endTimestamp);
-        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, indexDirs.size(), user == null ? null : user.getIdentity());
+        // Each batch of UUIDs is queried against each index directory as a separate step, so that the steps can run concurrently.
+        final int numSteps = nothingToQuery ? 1 : indexDirectories.size() * uuidBatches.size();
+        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, numSteps, user == null ? null : user.getIdentity());
         lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
 
-        final BooleanQuery lineageQuery = buildLineageQuery(flowFileUuids);
-        final List<File> indexDirectories = directoryManager.getDirectories(startTimestamp, endTimestamp);
-        if (indexDirectories.isEmpty()) {
+        if (nothingToQuery) {
             submission.getResult().update(Collections.emptyList(), 0L);
         } else {
             indexDirectories.sort(DirectoryUtils.OLDEST_INDEX_FIRST);
+            final List<BooleanQuery> lineageQueries = uuidBatches.stream().map(this::buildLineageQuery).toList();
 
+            // Each QueryTask stops adding events once the lineage holds MAX_LINEAGE_NODES events, which bounds the memory used by the result
             for (final File indexDir : indexDirectories) {
-                queryExecutor.submit(new QueryTask(lineageQuery, submission.getResult(), MAX_LINEAGE_NODES, indexManager, indexDir,
-                    eventStore, eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER));
+                for (final BooleanQuery lineageQuery : lineageQueries) {
+                    queryExecutor.submit(new QueryTask(lineageQuery, submission.getResult(), MAX_LINEAGE_NODES, indexManager, indexDir,
+                        eventStore, eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER));
+                }
             }
         }
 
@@ -551,6 +556,41 @@ public class LuceneEventIndex implements EventIndex {
         return submission;
     }
 
+    /**
+     * Splits the given FlowFile UUIDs into batches of at most {@link #MAX_LINEAGE_UUIDS}. Because each FlowFile contributes at least one event
+     * to the lineage, UUIDs beyond the first {@link #MAX_LINEAGE_NODES} could not be represented in the result and are not queried.
+     */
+    static List<List<String>> batchLineageUuids(final Collection<String> flowFileUuids) {
+        if (flowFileUuids == null || flowFileUuids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        if (flowFileUuids.size() > MAX_LINEAGE_NODES) {
+            logger.debug("Lineage requested for {} FlowFiles but only the first {} will be queried", flowFileUuids.size(), MAX_LINEAGE_NODES);
+        }
+
+        final List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>(MAX_LINEAGE_UUIDS);
+        int uuidCount = 0;
+        for (final String flowFileUuid : flowFileUuids) {
+            if (uuidCount++ >= MAX_LINEAGE_NODES) {
+                break;
+            }
+
+            batch.add(flowFileUuid);
+            if (batch.size() == MAX_LINEAGE_UUIDS) {
+                batches.add(batch);
+                batch = new ArrayList<>(MAX_LINEAGE_UUIDS);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        return batches;
+    }
+
     private BooleanQuery buildLineageQuery(final Collection<String> flowFileUuids) {
         // Create a query for all Events related to the FlowFiles of interest. We do this by adding all ID's as
         // "SHOULD" clauses and then setting the minimum required to 1.
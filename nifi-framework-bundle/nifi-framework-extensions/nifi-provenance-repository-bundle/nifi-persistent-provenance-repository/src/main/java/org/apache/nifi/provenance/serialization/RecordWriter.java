@@ -126,4 +126,12 @@ public interface RecordWriter extends Closeable {
      * @return <code>true</code> if this Writer has been closed via the {@link #close()} method, <code>false</code> otherwise
      */
     boolean isClosed();
+
+    /**
+     * @return <code>true</code> if the events written by this Writer are already compressed, in which case there is no benefit in compressing the
+     *         journal after it has been rolled over, <code>false</code> otherwise
+     */
+    default boolean isCompressedOnWrite() {
+        return false;
+    }
 }
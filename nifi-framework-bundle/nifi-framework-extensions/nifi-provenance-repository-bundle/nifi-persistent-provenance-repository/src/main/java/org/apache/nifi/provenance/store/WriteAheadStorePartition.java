@@ -297,7 +297,8 @@ public class WriteAheadStorePartition implements EventStorePartition {
             minEventIdToPathMap.put(nextEventId, updatedEventFile);
         }
 
-        if (config.isCompressOnRollover() && lease != null && lease.getWriter() != null) {
+        // Writers that compress events as they are written gain nothing from compressing the file again
+        if (config.isCompressOnRollover() && lease != null && lease.getWriter() != null && !lease.getWriter().isCompressedOnWrite()) {
             boolean offered = false;
             while (!offered && !closed) {
                 try {
@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.provenance.columnar.BlockCompression;
+import org.apache.nifi.provenance.serialization.RecordReader;
+import org.apache.nifi.provenance.serialization.RecordReaders;
+import org.apache.nifi.provenance.serialization.RecordWriter;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.toc.StandardTocReader;
+import org.apache.nifi.provenance.toc.StandardTocWriter;
+import org.apache.nifi.provenance.toc.TocReader;
+import org.apache.nifi.provenance.toc.TocUtil;
+import org.apache.nifi.provenance.toc.TocWriter;
+import org.apache.nifi.util.file.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestColumnarEventRecordReaderWriter extends AbstractTestRecordReaderWriter {
+    private final AtomicLong idGenerator = new AtomicLong(0L);
+    private BlockCompression compression = BlockCompression.ZSTD;
+
+    @BeforeEach
+    public void setup() {
+        idGenerator.set(0L);
+        compression = BlockCompression.ZSTD;
+    }
+
+    @Test
+    public void testManyEventsInSingleWrite() throws IOException {
+        for (final BlockCompression blockCompression : BlockCompression.values()) {
+            compression = blockCompression;
+            idGenerator.set(0L);
+
+            final File journalFile = new File("target/storage/" + UUID.randomUUID() + "/testManyEventsInSingleWrite.prov");
+            final File tocFile = TocUtil.getTocFile(journalFile);
+
+            final int numEvents = ColumnarEventRecordWriter.MAX_EVENTS_PER_BLOCK * 2 + 500;
+            final List<ProvenanceEventRecord> events = new ArrayList<>();
+            for (int i = 0; i < numEvents; i++) {
+                events.add(createEvent(i));
+            }
+
+            final Map<ProvenanceEventRecord, StorageSummary> summaries;
+            try (final RecordWriter writer = createWriter(journalFile, new StandardTocWriter(tocFile, false, false), false, 32 * 1024)) {
+                writer.writeHeader(0L);
+                summaries = writer.writeRecords(events);
+                assertEquals(numEvents, writer.getRecordsWritten());
+            }
+
+            assertEquals(numEvents, summaries.size());
+            for (int i = 0; i < numEvents; i++) {
+                assertEquals(i, summaries.get(events.get(i)).getEventId());
+            }
+
+            try (final RecordReader reader = RecordReaders.newRecordReader(journalFile, Collections.emptyList(), 2048)) {
+                assertInstanceOf(ColumnarEventRecordReader.class, reader);
+
+                for (int i = 0; i < numEvents; i++) {
+                    final StandardProvenanceEventRecord recovered = reader.nextRecord();
+                    assertNotNull(recovered);
+                    assertEquals(i, recovered.getEventId());
+                    assertEventsEqual(events.get(i), recovered);
+                }
+
+                assertNull(reader.nextRecord());
+            }
+
+            try (final RecordReader reader = createReader(new FileInputStream(journalFile), journalFile.getName(), new StandardTocReader(tocFile), 2048)) {
+                final Optional<ProvenanceEventRecord> event = reader.skipToEvent(2200);
+                assertTrue(event.isPresent());
+                assertEventsEqual(events.get(2200), event.get());
+                assertEquals(event.get(), reader.nextRecord());
+                assertEventsEqual(events.get(2201), reader.nextRecord());
+
+                assertEquals(numEvents - 1, reader.getMaxEventId());
+            }
+
+            FileUtils.deleteFile(journalFile.getParentFile(), true);
+        }
+    }
+
+    @Test
+    public void testSingleEventWrites() throws IOException {
+        final File journalFile = new File("target/storage/" + UUID.randomUUID() + "/testSingleEventWrites.prov");
+        final File tocFile = TocUtil.getTocFile(journalFile);
+
+        final int numEvents = 20;
+        final List<ProvenanceEventRecord> events = new ArrayList<>();
+        for (int i = 0; i < numEvents; i++) {
+            events.add(createEvent(i));
+        }
+
+        try (final RecordWriter writer = createWriter(journalFile, new StandardTocWriter(tocFile, false, false), false, 1024)) {
+            writer.writeHeader(0L);
+            for (int i = 0; i < numEvents; i++) {
+                final StorageSummary summary = writer.writeRecord(events.get(i));
+                assertEquals(i, summary.getEventId());
+            }
+
+            assertEquals(numEvents, writer.getRecordsWritten());
+        }
+
+        try (final RecordReader reader = createReader(new FileInputStream(journalFile), journalFile.getName(), new StandardTocReader(tocFile), 2048)) {
+            for (int i = 0; i < numEvents; i++) {
+                final StandardProvenanceEventRecord recovered = reader.nextRecord();
+                assertNotNull(recovered);
+                assertEquals(i, recovered.getEventId());
+                assertEventsEqual(events.get(i), recovered);
+            }
+
+            assertNull(reader.nextRecord());
+        }
+
+        try (final RecordReader reader = createReader(new FileInputStream(journalFile), journalFile.getName(), new StandardTocReader(tocFile), 2048)) {
+            final Optional<ProvenanceEventRecord> event = reader.skipToEvent(15);
+            assertTrue(event.isPresent());
+            assertEventsEqual(events.get(15), event.get());
+        }
+
+        FileUtils.deleteFile(journalFile.getParentFile(), true);
+    }
+
+    @Test
+    public void testContentClaims() throws IOException {
+        final File journalFile = new File("target/storage/" + UUID.randomUUID() + "/testContentClaims.prov");
+        final File tocFile = TocUtil.getTocFile(journalFile);
+
+        final List<ProvenanceEventRecord> events = new ArrayList<>();
+        events.add(createEvent(builder -> builder.setCurrentContentClaim("container-1", "section-1", "identifier-1", 10L, 100L)));
+        events.add(createEvent(builder -> {
+            builder.setPreviousContentClaim("container-1", "section-1", "identifier-1", 10L, 100L);
+            builder.setCurrentContentClaim("container-1", "section-1", "identifier-1", 10L, 100L);
+        }));
+        events.add(createEvent(builder -> {
+            builder.setPreviousContentClaim("container-1", "section-1", "identifier-1", 10L, 100L);
+            builder.setCurrentContentClaim("container-2", "section-2", "identifier-2", null, 200L);
+        }));
+        events.add(createEvent(builder -> {
+            builder.setPreviousContentClaim("container-2", "section-2", "identifier-2", 0L, 200L);
+            builder.setCurrentContentClaim(null, null, null, null, 0L);
+        }));
+
+        try (final RecordWriter writer = createWriter(journalFile, new StandardTocWriter(tocFile, false, false), false, 32 * 1024)) {
+            writer.writeHeader(0L);
+            writer.writeRecords(events);
+        }
+
+        try (final RecordReader reader = createReader(new FileInputStream(journalFile), journalFile.getName(), new StandardTocReader(tocFile), 2048)) {
+            for (final ProvenanceEventRecord event : events) {
+                assertEventsEqual(event, reader.nextRecord());
+            }
+
+            assertNull(reader.nextRecord());
+        }
+
+        FileUtils.deleteFile(journalFile.getParentFile(), true);
+    }
+
+    @Test
+    public void testAttributesRemovedAndTruncated() throws IOException {
+        final File journalFile = new File("target/storage/" + UUID.randomUUID() + "/testAttributesRemovedAndTruncated.prov");
+        final File tocFile = TocUtil.getTocFile(journalFile);
+
+        final Map<String, String> previousAttributes = new HashMap<>();
+        previousAttributes.put("filename", "1.txt");
+        previousAttributes.put("removed", "value");
+        previousAttributes.put("long", "a".repeat(100));
+
+        final Map<String, String> updatedAttributes = new HashMap<>();
+        updatedAttributes.put("filename", "1.txt");
+        updatedAttributes.put("removed", null);
+        updatedAttributes.put("long", "b".repeat(100));
+        updatedAttributes.put("empty", "");
+
+        final ProvenanceEventRecord event = createEvent(builder -> builder.setAttributes(previousAttributes, updatedAttributes));
+
+        try (final RecordWriter writer = createWriter(journalFile, new StandardTocWriter(tocFile, false, false), false, 32 * 1024)) {
+            writer.writeHeader(0L);
+            writer.writeRecords(Collections.singletonList(event));
+        }
+
+        try (final RecordReader reader = createReader(new FileInputStream(journalFile), journalFile.getName(), new StandardTocReader(tocFile), 50)) {
+            final StandardProvenanceEventRecord recovered = reader.nextRecord();
+            assertNotNull(recovered);
+
+            assertEquals("1.txt", recovered.getPreviousAttributes().get("filename"));
+            assertEquals("a".repeat(50), recovered.getPreviousAttributes().get("long"));
+
+            final Map<String, String> recoveredUpdates = recovered.getUpdatedAttributes();
+            assertEquals(4, recoveredUpdates.size());
+            assertEquals("1.txt", recoveredUpdates.get("filename"));
+            assertTrue(recoveredUpdates.containsKey("removed"));
+            assertNull(recoveredUpdates.get("removed"));
+            assertEquals("b".repeat(50), recoveredUpdates.get("long"));
+            assertEquals("", recoveredUpdates.get("empty"));
+
+            assertNull(reader.nextRecord());
+        }
+
+        FileUtils.deleteFile(journalFile.getParentFile(), true);
+    }
+
+    @Test
+    public void testCompressedOnWrite() throws IOException {
+        final File journalFile = new File("target/storage/" + UUID.randomUUID() + "/testCompressedOnWrite.prov");
+        final File tocFile = TocUtil.getTocFile(journalFile);
+
+        try (final RecordWriter writer = createWriter(journalFile, new StandardTocWriter(tocFile, false, false), false, 32 * 1024)) {
+            writer.writeHeader(0L);
+            assertTrue(writer.isCompressedOnWrite());
+        }
+
+        compression = BlockCompression.NONE;
+        try (final RecordWriter writer = createWriter(journalFile, new StandardTocWriter(tocFile, false, false), false, 32 * 1024)) {
+            writer.writeHeader(0L);
+            assertFalse(writer.isCompressedOnWrite());
+        }
+
+        FileUtils.deleteFile(journalFile.getParentFile(), true);
+    }
+
+    private ProvenanceEventRecord createEvent(final int index) {
+        return createEvent(builder -> {
+            builder.setComponentId("component-" + (index % 7));
+            builder.setEventType(index % 3 == 0 ? ProvenanceEventType.CONTENT_MODIFIED : ProvenanceEventType.ATTRIBUTES_MODIFIED);
+            builder.setEventDuration(index % 11);
+            builder.setDetails(index % 5 == 0 ? null : "details " + index);
+            builder.setCurrentContentClaim("container", "section-" + (index % 3), "identifier-" + (index / 10), (long) index, 100L + index);
+        });
+    }
+
+    private ProvenanceEventRecord createEvent(final Consumer<StandardProvenanceEventRecord.Builder> customizer) {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("filename", "1.txt");
+        attributes.put("uuid", UUID.randomUUID().toString());
+
+        final StandardProvenanceEventRecord.Builder builder = new StandardProvenanceEventRecord.Builder();
+        builder.setEventTime(System.currentTimeMillis());
+        builder.setEventType(ProvenanceEventType.RECEIVE);
+        builder.setTransitUri("nifi://unit-test");
+        builder.fromFlowFile(TestUtil.createFlowFile(3L, 3000L, attributes));
+        builder.setComponentId("1234");
+        builder.setComponentType("dummy processor");
+        builder.setSourceQueueIdentifier("queue-1");
+        customizer.accept(builder);
+        return builder.build();
+    }
+
+    private void assertEventsEqual(final ProvenanceEventRecord expected, final ProvenanceEventRecord actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getEventTime(), actual.getEventTime());
+        assertEquals(expected.getFlowFileEntryDate(), actual.getFlowFileEntryDate());
+        assertEquals(expected.getLineageStartDate(), actual.getLineageStartDate());
+        assertEquals(expected.getEventDuration(), actual.getEventDuration());
+        assertEquals(expected.getEventType(), actual.getEventType());
+        assertEquals(expected.getComponentId(), actual.getComponentId());
+        assertEquals(expected.getComponentType(), actual.getComponentType());
+        assertEquals(expected.getSourceQueueIdentifier(), actual.getSourceQueueIdentifier());
+        assertEquals(expected.getRelationship(), actual.getRelationship());
+        assertEquals(expected.getFlowFileUuid(), actual.getFlowFileUuid());
+        assertEquals(expected.getTransitUri(), actual.getTransitUri());
+        assertEquals(expected.getDetails(), actual.getDetails());
+        assertEquals(expected.getParentUuids(), actual.getParentUuids());
+        assertEquals(expected.getChildUuids(), actual.getChildUuids());
+        assertEquals(expected.getPreviousAttributes(), actual.getPreviousAttributes());
+        assertEquals(expected.getUpdatedAttributes(), actual.getUpdatedAttributes());
+        assertEquals(expected.getFileSize(), actual.getFileSize());
+        assertEquals(expected.getContentClaimContainer(), actual.getContentClaimContainer());
+        assertEquals(expected.getContentClaimSection(), actual.getContentClaimSection());
+        assertEquals(expected.getContentClaimIdentifier(), actual.getContentClaimIdentifier());
+        assertEquals(expected.getContentClaimOffset(), actual.getContentClaimOffset());
+        assertEquals(expected.getPreviousContentClaimContainer(), actual.getPreviousContentClaimContainer());
+        assertEquals(expected.getPreviousContentClaimSection(), actual.getPreviousContentClaimSection());
+        assertEquals(expected.getPreviousContentClaimIdentifier(), actual.getPreviousContentClaimIdentifier());
+        assertEquals(expected.getPreviousContentClaimOffset(), actual.getPreviousContentClaimOffset());
+        assertEquals(expected.getPreviousFileSize(), actual.getPreviousFileSize());
+    }
+
+    @Override
+    protected RecordWriter createWriter(final File file, final TocWriter tocWriter, final boolean compressed, final int uncompressedBlockSize) throws IOException {
+        return new ColumnarEventRecordWriter(file, idGenerator, tocWriter, compressed, uncompressedBlockSize, compression);
+    }
+
+    @Override
+    protected RecordReader createReader(final InputStream in, final String journalFilename, final TocReader tocReader, final int maxAttributeSize) throws IOException {
+        return new ColumnarEventRecordReader(in, journalFilename, tocReader, maxAttributeSize);
+    }
+}
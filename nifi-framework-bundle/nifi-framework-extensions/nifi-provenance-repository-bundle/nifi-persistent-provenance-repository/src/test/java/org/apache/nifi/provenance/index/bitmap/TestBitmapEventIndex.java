@@ -0,0 +1,359 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.bitmap;
+
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
+import org.apache.nifi.provenance.lineage.LineageNode;
+import org.apache.nifi.provenance.lineage.LineageNodeType;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.QueryResult;
+import org.apache.nifi.provenance.search.QuerySubmission;
+import org.apache.nifi.provenance.search.SearchTerms;
+import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.provenance.store.ArrayListEventStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(value = 60)
+public class TestBitmapEventIndex {
+
+    private final AtomicLong idGenerator = new AtomicLong(0L);
+
+    @BeforeEach
+    public void setup() {
+        idGenerator.set(0L);
+    }
+
+    @Test
+    public void testQueryByIndexedTerm() throws IOException, InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig();
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final BitmapEventIndex index = new BitmapEventIndex(repoConfig, TimeUnit.MINUTES.toMillis(5), 10, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        try {
+            for (int i = 0; i < 50; i++) {
+                final ProvenanceEventRecord event = createEvent(System.currentTimeMillis(), UUID.randomUUID().toString(), "component-" + (i % 5));
+                index.addEvents(eventStore.addEvent(event).getStorageLocations());
+            }
+
+            final Query query = new Query(UUID.randomUUID().toString());
+            query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "COMPONENT-3", null));
+            query.setMaxResults(4);
+
+            final List<ProvenanceEventRecord> events = submitQuery(index, query, EventAuthorizer.GRANT_ALL).getMatchingEvents();
+            assertEquals(List.of(48L, 43L, 38L, 33L), events.stream().map(ProvenanceEventRecord::getEventId).collect(Collectors.toList()));
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    public void testQueryWithWildcardAndInvertedTerms() throws IOException, InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig();
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final BitmapEventIndex index = new BitmapEventIndex(repoConfig, TimeUnit.MINUTES.toMillis(5), 10, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        try {
+            for (int i = 0; i < 20; i++) {
+                final ProvenanceEventRecord event = createEvent(System.currentTimeMillis(), UUID.randomUUID().toString(), "component-" + (i % 2 == 0 ? "even" : "odd-" + i));
+                index.addEvents(eventStore.addEvent(event).getStorageLocations());
+            }
+
+            final Query wildcardQuery = new Query(UUID.randomUUID().toString());
+            wildcardQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "component-odd-1?", null));
+            assertEquals(5, submitQuery(index, wildcardQuery, EventAuthorizer.GRANT_ALL).getMatchingEvents().size());
+
+            final Query invertedQuery = new Query(UUID.randomUUID().toString());
+            invertedQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "component-even", Boolean.TRUE));
+            final List<ProvenanceEventRecord> events = submitQuery(index, invertedQuery, EventAuthorizer.GRANT_ALL).getMatchingEvents();
+            assertEquals(10, events.size());
+            assertTrue(events.stream().allMatch(event -> event.getComponentId().startsWith("component-odd")));
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    public void testQueryByTimeRange() throws IOException, InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig();
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final BitmapEventIndex index = new BitmapEventIndex(repoConfig, TimeUnit.MINUTES.toMillis(5), 10, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        try {
+            for (int i = 0; i < 30; i++) {
+                final ProvenanceEventRecord event = createEvent(1000L * i);
+                index.addEvents(eventStore.addEvent(event).getStorageLocations());
+            }
+
+            final Query query = new Query(UUID.randomUUID().toString());
+            query.setStartDate(new Date(5000L));
+            query.setEndDate(new Date(14000L));
+
+            final List<ProvenanceEventRecord> events = submitQuery(index, query, EventAuthorizer.GRANT_ALL).getMatchingEvents();
+            assertEquals(10, events.size());
+            assertTrue(events.stream().allMatch(event -> event.getEventTime() >= 5000L && event.getEventTime() <= 14000L));
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    public void testUnauthorizedEventsGetFilteredForQuery() throws IOException, InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig();
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final BitmapEventIndex index = new BitmapEventIndex(repoConfig, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        try {
+            for (int i = 0; i < 3; i++) {
+                index.addEvents(eventStore.addEvent(createEvent("1234")).getStorageLocations());
+            }
+
+            final Query query = new Query(UUID.randomUUID().toString());
+            query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, "1234", null));
+
+            assertEquals(3, submitQuery(index, query, EventAuthorizer.GRANT_ALL).getMatchingEvents().size());
+            assertEquals(0, submitQuery(index, new Query(UUID.randomUUID().toString()), EventAuthorizer.DENY_ALL).getMatchingEvents().size());
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    public void testLineageIncludesForkChildren() throws IOException, InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig();
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final BitmapEventIndex index = new BitmapEventIndex(repoConfig, TimeUnit.MINUTES.toMillis(5), 2, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        try {
+            index.addEvents(eventStore.addEvent(createEvent("parent")).getStorageLocations());
+
+            final ProvenanceEventRecord fork = new StandardProvenanceEventRecord.Builder()
+                .setEventType(ProvenanceEventType.FORK)
+                .setAttributes(Collections.singletonMap("uuid", "parent"), Collections.emptyMap())
+                .addParentUuid("parent")
+                .addChildFlowFile("child")
+                .setComponentId("component-1")
+                .setComponentType("unit test")
+                .setEventId(idGenerator.getAndIncrement())
+                .setEventTime(System.currentTimeMillis())
+                .setFlowFileEntryDate(System.currentTimeMillis())
+                .setFlowFileUUID("parent")
+                .setLineageStartDate(System.currentTimeMillis())
+                .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L)
+                .build();
+            index.addEvents(eventStore.addEvent(fork).getStorageLocations());
+            index.addEvents(eventStore.addEvent(createEvent("child")).getStorageLocations());
+            index.addEvents(eventStore.addEvent(createEvent("unrelated")).getStorageLocations());
+
+            final ComputeLineageSubmission submission = index.submitLineageComputation("child", null, EventAuthorizer.GRANT_ALL);
+            assertTrue(submission.getResult().awaitCompletion(15, TimeUnit.SECONDS));
+            assertNull(submission.getResult().getError());
+
+            final List<LineageNode> eventNodes = submission.getResult().getNodes().stream()
+                .filter(node -> node.getNodeType() == LineageNodeType.PROVENANCE_EVENT_NODE)
+                .collect(Collectors.toList());
+            assertEquals(2, eventNodes.size());
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    public void testExpandChildrenOfLargeFork() throws IOException, InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig();
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final BitmapEventIndex index = new BitmapEventIndex(repoConfig, TimeUnit.MINUTES.toMillis(5), 100, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        try {
+            // More children than are looked up in a single lineage step, so that the children are split into several batches
+            final int childCount = BitmapEventIndex.MAX_LINEAGE_UUIDS * 2 + 50;
+            final StandardProvenanceEventRecord.Builder forkBuilder = new StandardProvenanceEventRecord.Builder()
+                .setEventType(ProvenanceEventType.FORK)
+                .setAttributes(Collections.singletonMap("uuid", "parent"), Collections.emptyMap())
+                .addParentUuid("parent")
+                .setComponentId("component-1")
+                .setComponentType("unit test")
+                .setEventId(idGenerator.getAndIncrement())
+                .setEventTime(System.currentTimeMillis())
+                .setFlowFileEntryDate(System.currentTimeMillis())
+                .setFlowFileUUID("parent")
+                .setLineageStartDate(System.currentTimeMillis())
+                .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L);
+            for (int i = 0; i < childCount; i++) {
+                forkBuilder.addChildFlowFile("child-" + i);
+            }
+
+            final ProvenanceEventRecord fork = forkBuilder.build();
+            index.addEvents(eventStore.addEvent(fork).getStorageLocations());
+            for (int i = 0; i < childCount; i++) {
+                index.addEvents(eventStore.addEvent(createEvent("child-" + i)).getStorageLocations());
+            }
+
+            final ComputeLineageSubmission submission = index.submitExpandChildren(fork.getEventId(), null, EventAuthorizer.GRANT_ALL);
+            assertTrue(submission.getResult().awaitCompletion(15, TimeUnit.SECONDS));
+            assertNull(submission.getResult().getError());
+
+            // The FORK event itself is indexed under each of its children's UUIDs
+            final List<LineageNode> eventNodes = submission.getResult().getNodes().stream()
+                .filter(node -> node.getNodeType() == LineageNodeType.PROVENANCE_EVENT_NODE)
+                .collect(Collectors.toList());
+            assertEquals(childCount + 1, eventNodes.size());
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    public void testSealedBucketsAreReloaded() throws IOException, InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig();
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+
+        final BitmapEventIndex index = new BitmapEventIndex(repoConfig, TimeUnit.MINUTES.toMillis(5), 10, EventReporter.NO_OP);
+        index.initialize(eventStore);
+        assertEquals(0L, index.getMinimumEventIdToReindex("1"));
+
+        for (int i = 0; i < 25; i++) {
+            index.addEvents(eventStore.addEvent(createEvent("1234")).getStorageLocations());
+        }
+        index.close();
+
+        final File indexDirectory = new File(repoConfig.getStorageDirectories().get("1"), PartitionIndex.DIRECTORY_NAME);
+        final String[] bucketFiles = indexDirectory.list();
+        assertEquals(3, bucketFiles == null ? 0 : bucketFiles.length);
+        assertTrue(index.getSize() > 0L);
+
+        final BitmapEventIndex reloaded = new BitmapEventIndex(repoConfig, TimeUnit.MINUTES.toMillis(5), 10, EventReporter.NO_OP);
+        reloaded.initialize(eventStore);
+
+        try {
+            assertEquals(25L, reloaded.getMinimumEventIdToReindex("1"));
+
+            final Query query = new Query(UUID.randomUUID().toString());
+            query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, "1234", null));
+            assertEquals(25, submitQuery(reloaded, query, EventAuthorizer.GRANT_ALL).getMatchingEvents().size());
+        } finally {
+            reloaded.close();
+        }
+    }
+
+    @Test
+    public void testCommitChangesSealsAfterPendingBuckets() throws IOException, InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig();
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+
+        final BitmapEventIndex index = new BitmapEventIndex(repoConfig, TimeUnit.MINUTES.toMillis(5), 10, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        try {
+            for (int i = 0; i < 25; i++) {
+                index.addEvents(eventStore.addEvent(createEvent("1234")).getStorageLocations());
+            }
+
+            // The two buckets that were rolled over while adding events are written before the active bucket is
+            index.commitChanges("1");
+            assertEquals(25L, index.getMinimumEventIdToReindex("1"));
+
+            final File indexDirectory = new File(repoConfig.getStorageDirectories().get("1"), PartitionIndex.DIRECTORY_NAME);
+            final String[] bucketFiles = indexDirectory.list();
+            assertEquals(3, bucketFiles == null ? 0 : bucketFiles.length);
+
+            final Query query = new Query(UUID.randomUUID().toString());
+            query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, "1234", null));
+            assertEquals(25, submitQuery(index, query, EventAuthorizer.GRANT_ALL).getMatchingEvents().size());
+        } finally {
+            index.close();
+        }
+    }
+
+    private QueryResult submitQuery(final BitmapEventIndex index, final Query query, final EventAuthorizer authorizer) throws InterruptedException {
+        final QuerySubmission submission = index.submitQuery(query, authorizer, "unit test user");
+        assertTrue(submission.getResult().awaitCompletion(15, TimeUnit.SECONDS));
+        assertNull(submission.getResult().getError());
+        return submission.getResult();
+    }
+
+    private RepositoryConfiguration createConfig() {
+        final RepositoryConfiguration config = new RepositoryConfiguration();
+        final File storageDir = new File("target/storage/" + getClass().getSimpleName() + "/" + UUID.randomUUID());
+        config.addStorageDirectory("1", storageDir);
+
+        final List<SearchableField> searchableFields = List.of(SearchableFields.FlowFileUUID, SearchableFields.ComponentID);
+        config.setSearchableFields(searchableFields);
+        config.setSearchableAttributes(Collections.singletonList(SearchableFields.newSearchableAttribute("updated")));
+
+        assertTrue(storageDir.exists() || storageDir.mkdirs());
+        return config;
+    }
+
+    private ProvenanceEventRecord createEvent(final String uuid) {
+        return createEvent(System.currentTimeMillis(), uuid, "component-1");
+    }
+
+    private ProvenanceEventRecord createEvent(final long timestamp) {
+        return createEvent(timestamp, UUID.randomUUID().toString(), "component-1");
+    }
+
+    private ProvenanceEventRecord createEvent(final long timestamp, final String uuid, final String componentId) {
+        final Map<String, String> previousAttributes = new HashMap<>();
+        previousAttributes.put("uuid", uuid);
+        final Map<String, String> updatedAttributes = new HashMap<>();
+        updatedAttributes.put("updated", "true");
+
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventType(ProvenanceEventType.CONTENT_MODIFIED)
+            .setAttributes(previousAttributes, updatedAttributes)
+            .setComponentId(componentId)
+            .setComponentType("unit test")
+            .setEventId(idGenerator.getAndIncrement())
+            .setEventTime(timestamp)
+            .setFlowFileEntryDate(timestamp)
+            .setFlowFileUUID(uuid)
+            .setLineageStartDate(timestamp)
+            .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L)
+            .build();
+    }
+}
@@ -237,6 +237,58 @@ public class TestLuceneEventIndex {
         assertEquals("4444", eventMap.get(ProvenanceEventType.UNKNOWN).get(0).getFlowFileUuid());
     }
 
+    @Test
+    public void testExpandChildrenOfLargeFork() throws InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig(1);
+        repoConfig.setDesiredIndexSize(1L);
+        final IndexManager indexManager = new StandardIndexManager(repoConfig);
+
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final LuceneEventIndex index = new LuceneEventIndex(repoConfig, indexManager, 3, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        // More children than are queried in a single lineage query, so that the children are split into several batches
+        final int childCount = LuceneEventIndex.MAX_LINEAGE_UUIDS * 2 + 50;
+        final StandardProvenanceEventRecord.Builder forkBuilder = new StandardProvenanceEventRecord.Builder()
+                .setEventType(ProvenanceEventType.FORK)
+                .setAttributes(Collections.singletonMap("uuid", "4444"), Collections.emptyMap())
+                .addParentUuid("4444")
+                .setComponentId("component-1")
+                .setComponentType("unit test")
+                .setEventId(idGenerator.getAndIncrement())
+                .setEventTime(System.currentTimeMillis())
+                .setFlowFileEntryDate(System.currentTimeMillis())
+                .setFlowFileUUID("4444")
+                .setLineageStartDate(System.currentTimeMillis())
+                .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L);
+        for (int i = 0; i < childCount; i++) {
+            forkBuilder.addChildFlowFile("child-" + i);
+        }
+
+        final ProvenanceEventRecord fork = forkBuilder.build();
+        index.addEvents(eventStore.addEvent(fork).getStorageLocations());
+        for (int i = 0; i < childCount; i++) {
+            index.addEvents(eventStore.addEvent(createEvent("child-" + i)).getStorageLocations());
+        }
+
+        final NiFiUser user = createUser();
+
+        // The FORK event itself is indexed under each of its children's UUIDs
+        List<LineageNode> nodes = Collections.emptyList();
+        while (nodes.size() < childCount + 1) {
+            final ComputeLineageSubmission submission = index.submitExpandChildren(fork.getEventId(), user, EventAuthorizer.GRANT_ALL);
+            assertTrue(submission.getResult().awaitCompletion(15, TimeUnit.SECONDS));
+            assertNull(submission.getResult().getError());
+
+            nodes = submission.getResult().getNodes().stream()
+                    .filter(n -> n.getNodeType() == LineageNodeType.PROVENANCE_EVENT_NODE)
+                    .collect(Collectors.toList());
+            Thread.sleep(25L);
+        }
+
+        assertEquals(childCount + 1, nodes.size());
+    }
+
     @Test
     public void testUnauthorizedEventsGetFilteredForQuery() throws InterruptedException {
         final RepositoryConfiguration repoConfig = createConfig(1);
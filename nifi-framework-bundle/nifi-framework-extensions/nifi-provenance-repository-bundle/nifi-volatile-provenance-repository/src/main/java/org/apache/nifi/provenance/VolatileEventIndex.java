@@ -0,0 +1,443 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.SearchTerm;
+import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.util.RingBuffer.Filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>
+ * In-memory indexes over the events that are held by the {@link VolatileProvenanceRepository}. Events are addressed directly by their
+ * Event ID, and the IDs of the events are indexed by FlowFile UUID (including parent and child UUIDs), by Component ID and by the value
+ * of each indexed attribute. This allows lookups, lineage computations and searches on the indexed fields to touch only the matching
+ * events rather than scanning every event in the repository.
+ * </p>
+ *
+ * <p>
+ * Event IDs are assigned in increasing order and the oldest event is always the one evicted, so each list of Event IDs is ordered and
+ * eviction only ever removes the first entry of a list.
+ * </p>
+ */
+class VolatileEventIndex {
+    private final ProvenanceEventRecord[] events;
+    private final Map<String, EventIdList> eventIdsByFlowFileUuid = new HashMap<>();
+    private final Map<String, EventIdList> eventIdsByComponentId = new HashMap<>();
+    private final Map<String, Map<String, EventIdList>> eventIdsByAttribute = new HashMap<>();
+
+    private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+    private final Lock readLock = rwLock.readLock();
+    private final Lock writeLock = rwLock.writeLock();
+
+    private long minEventId = 0L;
+    private long maxEventId = -1L;
+
+    VolatileEventIndex(final int capacity, final List<SearchableField> searchableAttributes) {
+        this.events = new ProvenanceEventRecord[capacity];
+        for (final SearchableField searchableAttribute : searchableAttributes) {
+            eventIdsByAttribute.put(searchableAttribute.getIdentifier(), new HashMap<>());
+        }
+    }
+
+    /**
+     * Adds the given event to the index, removing the event that it replaced in the repository
+     *
+     * @param added the event that was added to the repository
+     * @param evicted the event that was evicted from the repository in order to make room for the added event, or <code>null</code>
+     */
+    void update(final ProvenanceEventRecord added, final ProvenanceEventRecord evicted) {
+        writeLock.lock();
+        try {
+            if (evicted != null) {
+                remove(evicted);
+            }
+
+            add(added);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void add(final ProvenanceEventRecord event) {
+        final long eventId = event.getEventId();
+        events[slot(eventId)] = event;
+        maxEventId = eventId;
+
+        for (final String uuid : getFlowFileUuids(event)) {
+            eventIdsByFlowFileUuid.computeIfAbsent(uuid, key -> new EventIdList()).add(eventId);
+        }
+
+        if (event.getComponentId() != null) {
+            eventIdsByComponentId.computeIfAbsent(normalize(event.getComponentId()), key -> new EventIdList()).add(eventId);
+        }
+
+        for (final Map.Entry<String, Map<String, EventIdList>> entry : eventIdsByAttribute.entrySet()) {
+            final String attributeValue = event.getAttributes().get(entry.getKey());
+            if (attributeValue != null) {
+                entry.getValue().computeIfAbsent(normalize(attributeValue), key -> new EventIdList()).add(eventId);
+            }
+        }
+    }
+
+    private void remove(final ProvenanceEventRecord event) {
+        final long eventId = event.getEventId();
+        final int slot = slot(eventId);
+        if (events[slot] == event) {
+            events[slot] = null;
+        }
+        minEventId = eventId + 1;
+
+        for (final String uuid : getFlowFileUuids(event)) {
+            removeFirst(eventIdsByFlowFileUuid, uuid, eventId);
+        }
+
+        if (event.getComponentId() != null) {
+            removeFirst(eventIdsByComponentId, normalize(event.getComponentId()), eventId);
+        }
+
+        for (final Map.Entry<String, Map<String, EventIdList>> entry : eventIdsByAttribute.entrySet()) {
+            final String attributeValue = event.getAttributes().get(entry.getKey());
+            if (attributeValue != null) {
+                removeFirst(entry.getValue(), normalize(attributeValue), eventId);
+            }
+        }
+    }
+
+    private void removeFirst(final Map<String, EventIdList> index, final String key, final long eventId) {
+        final EventIdList eventIds = index.get(key);
+        if (eventIds == null) {
+            return;
+        }
+
+        eventIds.removeFirst(eventId);
+        if (eventIds.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    ProvenanceEventRecord getEvent(final long eventId) {
+        readLock.lock();
+        try {
+            return lookup(eventId);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns up to <code>maxRecords</code> events, in order, starting with the event whose ID is <code>firstEventId</code>
+     *
+     * @param firstEventId the ID of the first event to return
+     * @param maxRecords the maximum number of events to return
+     * @param filter the filter that events must pass in order to be returned
+     * @return the selected events
+     */
+    List<ProvenanceEventRecord> getEvents(final long firstEventId, final int maxRecords, final Filter<ProvenanceEventRecord> filter) {
+        final List<ProvenanceEventRecord> selected = new ArrayList<>(Math.min(maxRecords, 1000));
+
+        readLock.lock();
+        try {
+            for (long eventId = Math.max(firstEventId, minEventId); eventId <= maxEventId && selected.size() < maxRecords; eventId++) {
+                final ProvenanceEventRecord event = lookup(eventId);
+                if (event != null && filter.select(event)) {
+                    selected.add(event);
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+
+        return selected;
+    }
+
+    /**
+     * @param flowFileUuid the UUID of a FlowFile
+     * @return the oldest event whose FlowFile UUID is the given UUID, or <code>null</code> if there is no such event
+     */
+    ProvenanceEventRecord getFirstEventForFlowFile(final String flowFileUuid) {
+        readLock.lock();
+        try {
+            final EventIdList eventIds = eventIdsByFlowFileUuid.get(flowFileUuid);
+            if (eventIds == null) {
+                return null;
+            }
+
+            for (int i = 0; i < eventIds.size(); i++) {
+                final ProvenanceEventRecord event = lookup(eventIds.get(i));
+                if (event != null && flowFileUuid.equals(event.getFlowFileUuid())) {
+                    return event;
+                }
+            }
+
+            return null;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param componentId the ID of a component
+     * @return the most recent event that was generated by the given component, or <code>null</code> if there is no such event
+     */
+    ProvenanceEventRecord getLatestEventForComponent(final String componentId) {
+        readLock.lock();
+        try {
+            final EventIdList eventIds = eventIdsByComponentId.get(normalize(componentId));
+            if (eventIds == null) {
+                return null;
+            }
+
+            for (int i = eventIds.size() - 1; i >= 0; i--) {
+                final ProvenanceEventRecord event = lookup(eventIds.get(i));
+                if (event != null && componentId.equals(event.getComponentId())) {
+                    return event;
+                }
+            }
+
+            return null;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns, oldest first, all events whose FlowFile UUID, parent UUIDs or child UUIDs include any of the given UUIDs
+     *
+     * @param flowFileUuids the FlowFile UUIDs
+     * @return the events that reference any of the given FlowFile UUIDs
+     */
+    List<ProvenanceEventRecord> getEventsForFlowFiles(final Collection<String> flowFileUuids) {
+        readLock.lock();
+        try {
+            final List<EventIdList> eventIdLists = new ArrayList<>(flowFileUuids.size());
+            for (final String flowFileUuid : flowFileUuids) {
+                final EventIdList eventIds = eventIdsByFlowFileUuid.get(flowFileUuid);
+                if (eventIds != null) {
+                    eventIdLists.add(eventIds);
+                }
+            }
+
+            return lookupAll(mergeEventIds(eventIdLists), false);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Uses the indexes to determine which events could match the given query. Only search terms that require an exact, non-inverted match on
+     * an indexed field can be answered by the index; if the query has no such search term, <code>null</code> is returned and the caller must
+     * consider every event. The returned events are a superset of the matching events, so the query must still be applied to each of them.
+     *
+     * @param query the query
+     * @return the candidate events, most recent first, or <code>null</code> if the indexes cannot narrow down the events to consider
+     */
+    List<ProvenanceEventRecord> getCandidateEvents(final Query query) {
+        readLock.lock();
+        try {
+            EventIdList smallest = null;
+            for (final SearchTerm searchTerm : query.getSearchTerms()) {
+                final String searchValue = searchTerm.getValue();
+                if (Boolean.TRUE.equals(searchTerm.isInverted()) || searchValue == null || searchValue.contains("?") || searchValue.contains("*")) {
+                    continue;
+                }
+
+                final Map<String, EventIdList> index;
+                final String key;
+                final SearchableField searchableField = searchTerm.getSearchableField();
+                if (searchableField.isAttribute()) {
+                    index = eventIdsByAttribute.get(searchableField.getIdentifier());
+                    key = normalize(searchValue);
+                } else if (SearchableFields.FlowFileUUID.equals(searchableField)) {
+                    index = eventIdsByFlowFileUuid;
+                    key = searchValue;
+                } else if (SearchableFields.ComponentID.equals(searchableField)) {
+                    index = eventIdsByComponentId;
+                    key = normalize(searchValue);
+                } else {
+                    index = null;
+                    key = null;
+                }
+
+                if (index == null) {
+                    continue;
+                }
+
+                final EventIdList eventIds = index.get(key);
+                if (eventIds == null) {
+                    return List.of();
+                }
+
+                if (smallest == null || eventIds.size() < smallest.size()) {
+                    smallest = eventIds;
+                }
+            }
+
+            if (smallest == null) {
+                return null;
+            }
+
+            return lookupAll(smallest.toArray(), true);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private List<ProvenanceEventRecord> lookupAll(final long[] eventIds, final boolean newestFirst) {
+        final List<ProvenanceEventRecord> selected = new ArrayList<>(eventIds.length);
+        for (int i = 0; i < eventIds.length; i++) {
+            final long eventId = newestFirst ? eventIds[eventIds.length - 1 - i] : eventIds[i];
+            final ProvenanceEventRecord event = lookup(eventId);
+            if (event != null) {
+                selected.add(event);
+            }
+        }
+
+        return selected;
+    }
+
+    private ProvenanceEventRecord lookup(final long eventId) {
+        if (eventId < minEventId || eventId > maxEventId) {
+            return null;
+        }
+
+        final ProvenanceEventRecord event = events[slot(eventId)];
+        return event != null && event.getEventId() == eventId ? event : null;
+    }
+
+    private int slot(final long eventId) {
+        return (int) (eventId % events.length);
+    }
+
+    private static long[] mergeEventIds(final List<EventIdList> eventIdLists) {
+        if (eventIdLists.isEmpty()) {
+            return new long[0];
+        }
+        if (eventIdLists.size() == 1) {
+            return eventIdLists.getFirst().toArray();
+        }
+
+        int totalSize = 0;
+        for (final EventIdList eventIds : eventIdLists) {
+            totalSize += eventIds.size();
+        }
+
+        final long[] merged = new long[totalSize];
+        int index = 0;
+        for (final EventIdList eventIds : eventIdLists) {
+            for (int i = 0; i < eventIds.size(); i++) {
+                merged[index++] = eventIds.get(i);
+            }
+        }
+
+        // An event may reference more than one of the FlowFiles, so sort and remove duplicates
+        Arrays.sort(merged);
+        int distinct = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (i == 0 || merged[i] != merged[i - 1]) {
+                merged[distinct++] = merged[i];
+            }
+        }
+
+        return Arrays.copyOf(merged, distinct);
+    }
+
+    private static Set<String> getFlowFileUuids(final ProvenanceEventRecord event) {
+        final Set<String> uuids = new LinkedHashSet<>();
+        if (event.getFlowFileUuid() != null) {
+            uuids.add(event.getFlowFileUuid());
+        }
+        uuids.addAll(event.getParentUuids());
+        uuids.addAll(event.getChildUuids());
+        return uuids;
+    }
+
+    /**
+     * Normalizes the case of the given value in the same way that {@link String#equalsIgnoreCase(String)} compares characters, so that values
+     * that are equal ignoring case are indexed under the same key.
+     */
+    private static String normalize(final String value) {
+        final char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+
+        return new String(chars);
+    }
+
+    /**
+     * An ordered list of Event IDs, stored in a circular array so that the oldest ID can be removed in constant time
+     */
+    private static class EventIdList {
+        private long[] eventIds = new long[2];
+        private int head = 0;
+        private int size = 0;
+
+        void add(final long eventId) {
+            if (size == eventIds.length) {
+                final long[] expanded = new long[eventIds.length * 2];
+                for (int i = 0; i < size; i++) {
+                    expanded[i] = get(i);
+                }
+                eventIds = expanded;
+                head = 0;
+            }
+
+            eventIds[(head + size) % eventIds.length] = eventId;
+            size++;
+        }
+
+        void removeFirst(final long eventId) {
+            while (size > 0 && eventIds[head] <= eventId) {
+                head = (head + 1) % eventIds.length;
+                size--;
+            }
+        }
+
+        long get(final int index) {
+            return eventIds[(head + index) % eventIds.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long[] toArray() {
+            final long[] copy = new long[size];
+            for (int i = 0; i < size; i++) {
+                copy[i] = get(i);
+            }
+            return copy;
+        }
+    }
+}
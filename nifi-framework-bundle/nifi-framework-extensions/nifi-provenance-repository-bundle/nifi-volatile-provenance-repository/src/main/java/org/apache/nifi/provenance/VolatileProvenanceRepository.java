@@ -38,6 +38,7 @@ import org.apache.nifi.provenance.search.SearchableField;
 import org.apache.nifi.util.NiFiProperties;
 import org.apache.nifi.util.RingBuffer;
 import org.apache.nifi.util.RingBuffer.Filter;
+import org.apache.nifi.util.RingBuffer.ForEachEvaluator;
 import org.apache.nifi.util.RingBuffer.IterationDirection;
 import org.apache.nifi.web.ResourceNotFoundException;
 
@@ -60,6 +61,9 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 public class VolatileProvenanceRepository implements ProvenanceRepository {
@@ -73,6 +77,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
     public static String CONTAINER_NAME = "in-memory";
 
     private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+    private final VolatileEventIndex eventIndex;
     private final int maxSize;
     private final List<SearchableField> searchableFields;
     private final List<SearchableField> searchableAttributes;
@@ -82,6 +87,8 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
     private final ConcurrentMap<String, AsyncQuerySubmission> querySubmissionMap = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, AsyncLineageSubmission> lineageSubmissionMap = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(0L);
+    // Held while registering events so that Event IDs are added to the RingBuffer and the index in the order that they are assigned
+    private final Lock registrationLock = new ReentrantLock();
     private final AtomicBoolean initialized = new AtomicBoolean(false);
 
     private Authorizer authorizer;  // effectively final
@@ -92,6 +99,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
      */
     public VolatileProvenanceRepository() {
         ringBuffer = null;
+        eventIndex = null;
         searchableFields = null;
         searchableAttributes = null;
         queryExecService = null;
@@ -112,6 +120,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
         ringBuffer = new RingBuffer<>(maxSize);
         searchableFields = Collections.unmodifiableList(SearchableFieldParser.extractSearchableFields(indexedFieldString, true));
         searchableAttributes = Collections.unmodifiableList(SearchableFieldParser.extractSearchableFields(indexAttributeString, false));
+        eventIndex = new VolatileEventIndex(maxSize, searchableAttributes);
 
         final ThreadFactory defaultThreadFactory = Executors.defaultThreadFactory();
         queryExecService = Executors.newFixedThreadPool(2, new ThreadFactory() {
@@ -153,17 +162,33 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     @Override
     public void registerEvent(final ProvenanceEventRecord event) {
-        final long id = idGenerator.getAndIncrement();
-        ringBuffer.add(new IdEnrichedProvEvent(event, id));
+        registrationLock.lock();
+        try {
+            addEvent(event);
+        } finally {
+            registrationLock.unlock();
+        }
     }
 
     @Override
     public void registerEvents(final Iterable<ProvenanceEventRecord> events) {
-        for (final ProvenanceEventRecord event : events) {
-            registerEvent(event);
+        registrationLock.lock();
+        try {
+            for (final ProvenanceEventRecord event : events) {
+                addEvent(event);
+            }
+        } finally {
+            registrationLock.unlock();
         }
     }
 
+    private void addEvent(final ProvenanceEventRecord event) {
+        final long id = idGenerator.getAndIncrement();
+        final ProvenanceEventRecord idEnrichedEvent = new IdEnrichedProvEvent(event, id);
+        final ProvenanceEventRecord evicted = ringBuffer.add(idEnrichedEvent);
+        eventIndex.update(idEnrichedEvent, evicted);
+    }
+
     @Override
     public List<ProvenanceEventRecord> getEvents(final long firstRecordId, final int maxRecords) throws IOException {
         return getEvents(firstRecordId, maxRecords, null);
@@ -171,13 +196,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     @Override
     public List<ProvenanceEventRecord> getEvents(final long firstRecordId, final int maxRecords, final NiFiUser user) {
-        return ringBuffer.getSelectedElements(value -> {
-            if (!isAuthorized(value, user)) {
-                return false;
-            }
-
-            return value.getEventId() >= firstRecordId;
-        }, maxRecords);
+        return eventIndex.getEvents(firstRecordId, maxRecords, value -> isAuthorized(value, user));
     }
 
     @Override
@@ -187,15 +206,12 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
     }
 
     public ProvenanceEventRecord getEvent(final String identifier) {
-        final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(event -> identifier.equals(event.getFlowFileUuid()), 1);
-        return records.isEmpty() ? null : records.getFirst();
+        return eventIndex.getFirstEventForFlowFile(identifier);
     }
 
     @Override
     public ProvenanceEventRecord getEvent(final long id) {
-        final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(event -> event.getEventId() == id, 1);
-
-        return records.isEmpty() ? null : records.getFirst();
+        return eventIndex.getEvent(id);
     }
 
     @Override
@@ -461,28 +477,22 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
         final String userId = user == null ? null : user.getIdentity();
         if (query.getSearchTerms().isEmpty() && query.getStartDate() == null && query.getEndDate() == null) {
             final AsyncQuerySubmission result = new AsyncQuerySubmission(query, 1, userId);
-            queryExecService.submit(new QueryRunnable(ringBuffer, createFilter(query, user), query.getMaxResults(), result));
+            queryExecService.submit(new QueryRunnable(ringBuffer, null, createFilter(query, user), query.getMaxResults(), result));
             querySubmissionMap.put(query.getIdentifier(), result);
             return result;
         }
 
         final AsyncQuerySubmission result = new AsyncQuerySubmission(query, 1, userId);
         querySubmissionMap.put(query.getIdentifier(), result);
-        queryExecService.submit(new QueryRunnable(ringBuffer, createFilter(query, user), query.getMaxResults(), result));
+        queryExecService.submit(new QueryRunnable(ringBuffer, () -> eventIndex.getCandidateEvents(query), createFilter(query, user), query.getMaxResults(), result));
 
         return result;
     }
 
     @Override
     public List<ProvenanceEventRecord> getLatestCachedEvents(final String componentId, final int eventLimit) {
-        final List<ProvenanceEventRecord> matches = ringBuffer.getSelectedElements(
-            event -> componentId.equals(event.getComponentId()), 1);
-
-        if (matches.isEmpty()) {
-            return List.of();
-        }
-
-        return List.of(matches.getLast());
+        final ProvenanceEventRecord latest = eventIndex.getLatestEventForComponent(componentId);
+        return latest == null ? List.of() : List.of(latest);
     }
 
     @Override
@@ -653,31 +663,9 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
         final AsyncLineageSubmission result = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, 1, userId);
         lineageSubmissionMap.put(result.getLineageIdentifier(), result);
 
-        final Filter<ProvenanceEventRecord> filter = event -> {
-            if (!isAuthorized(event, user)) {
-                return false;
-            }
-
-            if (flowFileUuids.contains(event.getFlowFileUuid())) {
-                return true;
-            }
-
-            for (final String parentId : event.getParentUuids()) {
-                if (flowFileUuids.contains(parentId)) {
-                    return true;
-                }
-            }
-
-            for (final String childId : event.getChildUuids()) {
-                if (flowFileUuids.contains(childId)) {
-                    return true;
-                }
-            }
-
-            return false;
-        };
-
-        queryExecService.submit(new ComputeLineageRunnable(ringBuffer, filter, result));
+        // The index returns only those events that reference one of the FlowFile UUIDs, so only authorization remains to be checked
+        final Filter<ProvenanceEventRecord> filter = event -> isAuthorized(event, user);
+        queryExecService.submit(new ComputeLineageRunnable(eventIndex, flowFileUuids, filter, result));
 
         return result;
     }
@@ -685,12 +673,15 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
     private static class QueryRunnable implements Runnable {
 
         private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+        private final Supplier<List<ProvenanceEventRecord>> candidateSupplier;
         private final Filter<ProvenanceEventRecord> filter;
         private final AsyncQuerySubmission submission;
         private final int maxRecords;
 
-        public QueryRunnable(final RingBuffer<ProvenanceEventRecord> ringBuffer, final Filter<ProvenanceEventRecord> filter, final int maxRecords, final AsyncQuerySubmission submission) {
+        public QueryRunnable(final RingBuffer<ProvenanceEventRecord> ringBuffer, final Supplier<List<ProvenanceEventRecord>> candidateSupplier,
+                             final Filter<ProvenanceEventRecord> filter, final int maxRecords, final AsyncQuerySubmission submission) {
             this.ringBuffer = ringBuffer;
+            this.candidateSupplier = candidateSupplier;
             this.filter = filter;
             this.submission = submission;
             this.maxRecords = maxRecords;
@@ -701,7 +692,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
             // Retrieve the most recent results and count the total number of matches
             final AtomicInteger matchingCount = new AtomicInteger(0);
             final List<ProvenanceEventRecord> matchingRecords = new ArrayList<>(maxRecords);
-            ringBuffer.forEach(record -> {
+            final ForEachEvaluator<ProvenanceEventRecord> evaluator = record -> {
                 if (filter.select(record)) {
                     if (matchingCount.incrementAndGet() <= maxRecords) {
                         matchingRecords.add(record);
@@ -709,7 +700,15 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
                 }
 
                 return true;
-            }, IterationDirection.BACKWARD);
+            };
+
+            // If the index is able to narrow down the events that could match, only those events need to be considered
+            final List<ProvenanceEventRecord> candidates = candidateSupplier == null ? null : candidateSupplier.get();
+            if (candidates == null) {
+                ringBuffer.forEach(evaluator, IterationDirection.BACKWARD);
+            } else {
+                candidates.forEach(evaluator::evaluate);
+            }
 
             submission.getResult().update(matchingRecords, matchingCount.get());
         }
@@ -717,19 +716,28 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     private static class ComputeLineageRunnable implements Runnable {
 
-        private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+        private final VolatileEventIndex eventIndex;
+        private final Collection<String> flowFileUuids;
         private final Filter<ProvenanceEventRecord> filter;
         private final AsyncLineageSubmission submission;
 
-        public ComputeLineageRunnable(final RingBuffer<ProvenanceEventRecord> ringBuffer, final Filter<ProvenanceEventRecord> filter, final AsyncLineageSubmission submission) {
-            this.ringBuffer = ringBuffer;
+        public ComputeLineageRunnable(final VolatileEventIndex eventIndex, final Collection<String> flowFileUuids, final Filter<ProvenanceEventRecord> filter,
+                                      final AsyncLineageSubmission submission) {
+            this.eventIndex = eventIndex;
+            this.flowFileUuids = flowFileUuids;
             this.filter = filter;
             this.submission = submission;
         }
 
         @Override
         public void run() {
-            final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(filter);
+            final List<ProvenanceEventRecord> records = new ArrayList<>();
+            for (final ProvenanceEventRecord record : eventIndex.getEventsForFlowFiles(flowFileUuids)) {
+                if (filter.select(record)) {
+                    records.add(record);
+                }
+            }
+
             submission.getResult().update(records, records.size());
         }
     }
@@ -35,6 +35,9 @@ import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Timeout(value = 5)
 public class TestVolatileProvenanceRepository {
@@ -168,6 +171,82 @@ public class TestVolatileProvenanceRepository {
         assertEquals("00000000-0000-0000-0000-0000000000001", submission.getResult().getMatchingEvents().get(0).getFlowFileUuid());
     }
 
+    @Test
+    public void testGetEventAfterEviction() {
+        repo = new VolatileProvenanceRepository(5, "ComponentID, FlowFileUUID", "abc");
+
+        final ProvenanceEventBuilder builder = new StandardProvenanceEventRecord.Builder();
+        builder.setEventTime(System.currentTimeMillis());
+        builder.setEventType(ProvenanceEventType.RECEIVE);
+        builder.setTransitUri("nifi://unit-test");
+        builder.setComponentType("dummy processor");
+
+        final String uuidPrefix = "00000000-0000-0000-0000-00000000000";
+        for (int i = 0; i < 8; i++) {
+            builder.fromFlowFile(createFlowFile(i, 3000L, Map.of("uuid", uuidPrefix + i)));
+            builder.setComponentId(i % 2 == 0 ? "even" : "odd");
+            repo.registerEvent(builder.build());
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(repo.getEvent(i));
+            assertNull(repo.getEvent(uuidPrefix + i));
+        }
+
+        for (int i = 3; i < 8; i++) {
+            final ProvenanceEventRecord event = repo.getEvent(i);
+            assertNotNull(event);
+            assertEquals(i, event.getEventId());
+            assertEquals(i, repo.getEvent(uuidPrefix + i).getEventId());
+        }
+
+        final List<ProvenanceEventRecord> retrieved = repo.getEvents(0L, 10);
+        assertEquals(5, retrieved.size());
+        assertEquals(3L, retrieved.get(0).getEventId());
+        assertEquals(7L, retrieved.get(4).getEventId());
+
+        assertEquals(2, repo.getEvents(6L, 10).size());
+        assertEquals(List.of(6L), repo.getLatestCachedEvents("even").stream().map(ProvenanceEventRecord::getEventId).toList());
+        assertEquals(List.of(7L), repo.getLatestCachedEvents("odd").stream().map(ProvenanceEventRecord::getEventId).toList());
+        assertTrue(repo.getLatestCachedEvents("other").isEmpty());
+    }
+
+    @Test
+    public void testSearchIndexedAttribute() throws InterruptedException {
+        repo = new VolatileProvenanceRepository(NiFiProperties.createBasicNiFiProperties(null));
+
+        final ProvenanceEventBuilder builder = new StandardProvenanceEventRecord.Builder();
+        builder.setEventTime(System.currentTimeMillis());
+        builder.setEventType(ProvenanceEventType.RECEIVE);
+        builder.setTransitUri("nifi://unit-test");
+        builder.setComponentId("1234");
+        builder.setComponentType("dummy processor");
+
+        for (int i = 0; i < 10; i++) {
+            final Map<String, String> attributes = new HashMap<>();
+            attributes.put("uuid", "00000000-0000-0000-0000-00000000000" + i);
+            attributes.put("abc", i % 3 == 0 ? "Match" : "other");
+            builder.fromFlowFile(createFlowFile(i, 3000L, attributes));
+            repo.registerEvent(builder.build());
+        }
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.newSearchableAttribute("abc"), "match", null));
+        query.setMaxResults(100);
+
+        final QuerySubmission submission = repo.submitQuery(query, createUser());
+        while (!submission.getResult().isFinished()) {
+            Thread.sleep(100L);
+        }
+
+        final List<ProvenanceEventRecord> matches = submission.getResult().getMatchingEvents();
+        assertEquals(4, matches.size());
+        assertEquals(4, submission.getResult().getTotalHitCount());
+        for (final ProvenanceEventRecord match : matches) {
+            assertEquals(0, match.getEventId() % 3);
+        }
+    }
+
     private FlowFile createFlowFile(final long id, final long fileSize, final Map<String, String> attributes) {
         final Map<String, String> attrCopy = new HashMap<>(attributes);
 
@@ -266,6 +266,12 @@ public class SchemaRepositoryRecordSerde extends RepositoryRecordSerde implement
         return true;
     }
 
+    @Override
+    public boolean isCurrentStateRequiredForEdits() {
+        // Each edit is a complete record, so the current state of the record is never consulted
+        return false;
+    }
+
     @Override
     public void writeExternalFileReference(final File externalFile, final DataOutputStream out) throws IOException {
         new SchemaRecordWriter().writeExternalFileReference(out, externalFile);
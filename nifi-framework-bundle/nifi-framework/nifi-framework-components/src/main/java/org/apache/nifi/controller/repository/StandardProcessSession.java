@@ -192,6 +192,9 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
     private final String retryAttribute;
     private final FlowFileLinkage flowFileLinkage = new FlowFileLinkage();
 
+    // Reused for every commit of this session so that grouping FlowFiles by destination queue does not create new collections each time
+    private final Map<FlowFileQueue, List<FlowFileRecord>> flowFilesToEnqueue = new HashMap<>();
+
     public StandardProcessSession(final RepositoryContext context, final TaskTermination taskTermination, final PerformanceTracker performanceTracker) {
         this.context = context;
         this.taskTermination = taskTermination;
@@ -306,27 +309,35 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         // Processor-reported events.
         List<ProvenanceEventRecord> autoTerminatedEvents = null;
 
-        // validate that all records have a transfer relationship for them and if so determine the destination node and clone as necessary
-        final Map<Long, StandardRepositoryRecord> toAdd = new HashMap<>();
+        // validate that all records have a transfer relationship for them and if so determine the destination node and clone as necessary.
+        // Clones are rarely needed, so the map is created only when the first clone is.
+        Map<Long, StandardRepositoryRecord> toAdd = null;
 
         final Connectable connectable = context.getConnectable();
-        final long maxBackoffMillis = Math.round(FormatUtils.getPreciseTimeDuration(connectable.getMaxBackoffPeriod(), TimeUnit.MILLISECONDS));
 
-        // Determine which FlowFiles need to be retried
-        final Set<Long> retryIds = new HashSet<>();
-        for (final StandardRepositoryRecord record : records.values()) {
-            if (isRetry(record)) {
-                final long flowFileId = record.getCurrent().getId();
-                retryIds.add(flowFileId);
+        // Determine which FlowFiles need to be retried. Most components do not retry any relationship, so avoid creating the Set unless needed.
+        Set<Long> retryIds = null;
+        if (!connectable.getRetriedRelationships().isEmpty()) {
+            for (final StandardRepositoryRecord record : records.values()) {
+                if (isRetry(record)) {
+                    if (retryIds == null) {
+                        retryIds = new HashSet<>();
+                    }
 
-                final Collection<Long> linkedIds = flowFileLinkage.getLinkedIds(flowFileId);
-                retryIds.addAll(linkedIds);
+                    final long flowFileId = record.getCurrent().getId();
+                    retryIds.add(flowFileId);
+
+                    final Collection<Long> linkedIds = flowFileLinkage.getLinkedIds(flowFileId);
+                    retryIds.addAll(linkedIds);
+                }
             }
         }
 
+        final long maxBackoffMillis = retryIds == null ? 0L : Math.round(FormatUtils.getPreciseTimeDuration(connectable.getMaxBackoffPeriod(), TimeUnit.MILLISECONDS));
+
         for (final StandardRepositoryRecord record : records.values()) {
             // Check if this Record should be retried. If so, perform the necessary actions to retry the Record and then continue on to the next record.
-            if (retryIds.contains(record.getCurrent().getId())) {
+            if (retryIds != null && retryIds.contains(record.getCurrent().getId())) {
                 retry(record, maxBackoffMillis);
             }
 
@@ -335,7 +346,23 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
             }
 
             final Relationship relationship = record.getTransferRelationship();
-            final List<Connection> destinations = new ArrayList<>(context.getConnections(relationship));
+            final Collection<Connection> relationshipConnections = context.getConnections(relationship);
+
+            // The common case is a single destination, which needs neither a copy of the connections nor any clones
+            if (relationshipConnections.size() == 1) {
+                FlowFileRecord currRec = record.getCurrent();
+                if (currRec.getAttribute(retryAttribute) != null) {
+                    currRec = new StandardFlowFileRecord.Builder().fromFlowFile(currRec).removeAttributes(retryAttribute).build();
+                    record.setWorking(currRec, retryAttribute, null, false);
+                }
+
+                final Connection destination = relationshipConnections.iterator().next();
+                record.setDestination(destination.getFlowFileQueue());
+                incrementConnectionInputCounts(destination, record);
+                continue;
+            }
+
+            final List<Connection> destinations = new ArrayList<>(relationshipConnections);
 
             if (destinations.isEmpty() && relationship == Relationship.SELF) {
                 record.setDestination(record.getOriginalQueue());
@@ -388,6 +415,9 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
                     newRecord.setDestination(destination.getFlowFileQueue());
                     newRecord.setTransferRelationship(record.getTransferRelationship());
                     // put the mapping into toAdd because adding to records now will cause a ConcurrentModificationException
+                    if (toAdd == null) {
+                        toAdd = new HashMap<>();
+                    }
                     toAdd.put(clone.getId(), newRecord);
 
                     createdFlowFiles.add(newUuid);
@@ -395,8 +425,9 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
             }
         }
 
-        records.putAll(toAdd);
-        toAdd.clear();
+        if (toAdd != null) {
+            records.putAll(toAdd);
+        }
 
         checkpoint.checkpoint(this, autoTerminatedEvents, copyCollections);
     }
@@ -624,26 +655,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
             final long updateEventRepositoryNanos = updateEventRepositoryFinishNanos - flowFileRepoUpdateFinishNanos;
 
             // transfer the flowfiles to the connections' queues.
-            final Map<FlowFileQueue, Collection<FlowFileRecord>> recordMap = new HashMap<>();
-            for (final StandardRepositoryRecord record : checkpoint.records.values()) {
-                if (record.isMarkedForAbort() || record.isMarkedForDelete()) {
-                    continue; // these don't need to be transferred
-                }
-                // record.getCurrent() will return null if this record was created in this session --
-                // in this case, we just ignore it, and it will be cleaned up by clearing the records map.
-                if (record.getCurrent() != null) {
-                    Collection<FlowFileRecord> collection = recordMap.get(record.getDestination());
-                    if (collection == null) {
-                        collection = new ArrayList<>();
-                        recordMap.put(record.getDestination(), collection);
-                    }
-                    collection.add(record.getCurrent());
-                }
-            }
-
-            for (final Map.Entry<FlowFileQueue, Collection<FlowFileRecord>> entry : recordMap.entrySet()) {
-                entry.getKey().putAll(entry.getValue());
-            }
+            enqueueFlowFiles(checkpoint.records.values());
 
             final long enqueueFlowFileFinishNanos = System.nanoTime();
             final long enqueueFlowFileNanos = enqueueFlowFileFinishNanos - updateEventRepositoryFinishNanos;
@@ -750,6 +762,33 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
     }
 
 
+    private void enqueueFlowFiles(final Collection<StandardRepositoryRecord> repoRecords) {
+        try {
+            for (final StandardRepositoryRecord record : repoRecords) {
+                if (record.isMarkedForAbort() || record.isMarkedForDelete()) {
+                    continue; // these don't need to be transferred
+                }
+                // record.getCurrent() will return null if this record was created in this session --
+                // in this case, we just ignore it, and it will be cleaned up by clearing the records map.
+                if (record.getCurrent() != null) {
+                    flowFilesToEnqueue.computeIfAbsent(record.getDestination(), queue -> new ArrayList<>()).add(record.getCurrent());
+                }
+            }
+
+            for (final Map.Entry<FlowFileQueue, List<FlowFileRecord>> entry : flowFilesToEnqueue.entrySet()) {
+                final List<FlowFileRecord> flowFiles = entry.getValue();
+                if (!flowFiles.isEmpty()) {
+                    entry.getKey().putAll(flowFiles);
+                }
+            }
+        } finally {
+            // Keep the Lists so that they can be reused by the next commit, but do not hold onto the FlowFiles
+            for (final List<FlowFileRecord> flowFiles : flowFilesToEnqueue.values()) {
+                flowFiles.clear();
+            }
+        }
+    }
+
     private void updateEventRepository(final Checkpoint checkpoint) {
         try {
             // update event repository
@@ -1819,6 +1858,40 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         incrementConnectionOutputCounts(connection, flowFile);
     }
 
+    /**
+     * Registers a batch of FlowFiles that were polled from the given Connection. This is equivalent to calling
+     * {@link #registerDequeuedRecord(FlowFileRecord, Connection)} for each FlowFile but looks up the set of unacknowledged
+     * FlowFiles and updates the connection counts only once for the entire batch.
+     */
+    private void registerDequeuedRecords(final List<FlowFileRecord> flowFiles, final Connection connection) {
+        if (flowFiles.isEmpty()) {
+            return;
+        }
+
+        final FlowFileQueue queue = connection.getFlowFileQueue();
+        final Set<FlowFileRecord> unacknowledged = unacknowledgedFlowFiles.computeIfAbsent(queue, k -> new HashSet<>());
+
+        long bytes = 0L;
+        for (final FlowFileRecord flowFile : flowFiles) {
+            final StandardRepositoryRecord record = new StandardRepositoryRecord(queue, flowFile);
+
+            if (this.checkpoint != null) {
+                final StandardRepositoryRecord checkpointedRecord = this.checkpoint.getRecord(flowFile);
+                handleConflictingId(flowFile, connection, checkpointedRecord);
+            }
+
+            final StandardRepositoryRecord existingRecord = records.putIfAbsent(flowFile.getId(), record);
+            handleConflictingId(flowFile, connection, existingRecord);
+
+            unacknowledged.add(flowFile);
+            bytes += flowFile.getSize();
+        }
+
+        flowFilesIn += flowFiles.size();
+        contentSizeIn += bytes;
+        incrementConnectionOutputCounts(connection.getIdentifier(), flowFiles.size(), bytes);
+    }
+
     private void handleConflictingId(final FlowFileRecord flowFile, final Connection connection, final StandardRepositoryRecord conflict) {
         if (conflict == null) {
             // No conflict
@@ -1963,10 +2036,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
                     continue;
                 }
 
-                for (final FlowFileRecord flowFile : newlySelected) {
-                    registerDequeuedRecord(flowFile, conn);
-                }
-
+                registerDequeuedRecords(newlySelected, conn);
                 return new ArrayList<>(newlySelected);
             }
 
@@ -2391,9 +2461,13 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
     }
 
     @Override
-    public void transfer(Collection<FlowFile> flowFiles, final Relationship relationship) {
+    public void transfer(final Collection<FlowFile> flowFiles, final Relationship relationship) {
         verifyTaskActive();
-        flowFiles = validateRecordState(flowFiles);
+
+        // Validate every FlowFile before any of them is updated, without creating a copy of the Collection
+        for (final FlowFile flowFile : flowFiles) {
+            validateRecordState(flowFile);
+        }
 
         boolean autoTerminated = false;
         boolean selfRelationship = false;
@@ -2413,12 +2487,11 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         final long queuedTime = System.currentTimeMillis();
         long contentSize = 0L;
         for (final FlowFile flowFile : flowFiles) {
-            final FlowFileRecord flowFileRecord = (FlowFileRecord) flowFile;
-            final StandardRepositoryRecord record = getRecord(flowFileRecord);
+            final StandardRepositoryRecord record = getRecord(flowFile);
+            contentSize += record.getCurrent().getSize();
+
             record.setTransferRelationship(relationship);
             updateLastQueuedDate(record, queuedTime);
-
-            contentSize += flowFile.getSize();
         }
 
         if (autoTerminated) {
@@ -32,6 +32,7 @@ import org.apache.nifi.controller.swap.SchemaSwapSerializer;
 import org.apache.nifi.controller.swap.SimpleSwapDeserializer;
 import org.apache.nifi.controller.swap.StandardSwapContents;
 import org.apache.nifi.controller.swap.StandardSwapSummary;
+import org.apache.nifi.controller.swap.SwapCompression;
 import org.apache.nifi.controller.swap.SwapDeserializer;
 import org.apache.nifi.controller.swap.SwapSerializer;
 import org.apache.nifi.events.EventReporter;
@@ -60,10 +61,23 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -85,6 +99,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
     private static final Logger logger = LoggerFactory.getLogger(FileSystemSwapManager.class);
 
     private final File storageDirectory;
+    private final SwapCompression swapCompression;
     private final FieldCache fieldCache = new CaffeineFieldCache(10_000_000);
 
     // effectively final
@@ -94,18 +109,42 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
     private static final byte[] MAGIC_HEADER = {'S', 'W', 'A', 'P'};
 
+    // Swap files are prefetched by a small pool of threads that is shared by all connections. If the pool cannot keep up, the prefetch
+    // request is rejected and the swap file is simply read when it is swapped in. A single Swap Manager is shared by all queues, so the limit
+    // is applied per queue: each queue holds at most MAX_PREFETCHED_SWAP_FILES_PER_QUEUE prefetched swap files in memory at once, evicting its
+    // own oldest, so that queues swapping at the same time do not evict each other's prefetched swap files. Because there may be any number
+    // of queues, at most MAX_PREFETCHED_SWAP_FILES are held across all queues. A swap file holds up to 10,000 FlowFiles, so this bounds the
+    // prefetched FlowFiles to about 4 times the default swap threshold of a single queue. Once the limit is reached, a queue that has no
+    // prefetched swap files of its own does not prefetch until another queue's prefetched swap files are swapped in or evicted.
+    static final int MAX_PREFETCHED_SWAP_FILES_PER_QUEUE = 2;
+    static final int MAX_PREFETCHED_SWAP_FILES = 8;
+    private static final int PREFETCH_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private static final ThreadPoolExecutor PREFETCH_EXECUTOR = createPrefetchExecutor();
+
+    private final boolean prefetchEnabled;
+    // Prefetched swap files, keyed by the identifier of the queue and then by swap location in the order that they were prefetched
+    private final Map<String, Map<String, FutureTask<SwapContents>>> prefetchedSwapContents = new HashMap<>();
+
     /**
      * Default no args constructor for service loading only.
      */
     public FileSystemSwapManager() {
         storageDirectory = null;
+        swapCompression = SwapCompression.NONE;
+        prefetchEnabled = false;
     }
 
     public FileSystemSwapManager(final NiFiProperties nifiProperties) {
-        this(nifiProperties.getFlowFileRepositoryPath());
+        this(nifiProperties.getFlowFileRepositoryPath(), SwapCompression.fromName(nifiProperties.getSwapCompression()), nifiProperties.isSwapPrefetchEnabled());
     }
 
     public FileSystemSwapManager(final Path flowFileRepoPath) {
+        this(flowFileRepoPath, SwapCompression.NONE, false);
+    }
+
+    public FileSystemSwapManager(final Path flowFileRepoPath, final SwapCompression swapCompression, final boolean prefetchEnabled) {
+        this.swapCompression = swapCompression;
+        this.prefetchEnabled = prefetchEnabled;
         this.storageDirectory = flowFileRepoPath.resolve("swap").toFile();
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new RuntimeException("Cannot create Swap Storage directory " + storageDirectory.getAbsolutePath());
@@ -142,7 +181,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         final File swapTempFile = new File(swapFile.getParentFile(), swapFile.getName() + ".part");
         final String swapLocation = swapFile.getAbsolutePath();
 
-        final SwapSerializer serializer = new SchemaSwapSerializer();
+        final SwapSerializer serializer = new SchemaSwapSerializer(swapCompression);
         try (final OutputStream os = getOutputStream(swapTempFile);
             final OutputStream out = new BufferedOutputStream(os)) {
             out.write(MAGIC_HEADER);
@@ -179,7 +218,8 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             return new StandardSwapContents(swapSummary, Collections.emptyList());
         }
 
-        final SwapContents swapContents = peek(swapLocation, flowFileQueue);
+        final SwapContents prefetchedContents = getPrefetchedContents(swapLocation, flowFileQueue);
+        final SwapContents swapContents = prefetchedContents == null ? peek(swapLocation, flowFileQueue) : prefetchedContents;
         flowFileRepository.swapFlowFilesIn(swapFile.getAbsolutePath(), swapContents.getFlowFiles(), flowFileQueue);
 
         if (!swapFile.delete()) {
@@ -189,6 +229,130 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         return swapContents;
     }
 
+    @Override
+    public void prefetch(final String swapLocation, final FlowFileQueue flowFileQueue) {
+        if (!prefetchEnabled) {
+            return;
+        }
+
+        final String queueId = flowFileQueue.getIdentifier();
+        final FutureTask<SwapContents> prefetchTask = new FutureTask<>(() -> peek(swapLocation, flowFileQueue));
+        synchronized (prefetchedSwapContents) {
+            final Map<String, FutureTask<SwapContents>> existingPrefetches = prefetchedSwapContents.getOrDefault(queueId, Collections.emptyMap());
+            if (existingPrefetches.containsKey(swapLocation)) {
+                return;
+            }
+
+            if (existingPrefetches.isEmpty() && getPrefetchedSwapFileCount() >= MAX_PREFETCHED_SWAP_FILES) {
+                logger.debug("Will not prefetch Swap File {} because {} Swap Files are already prefetched", swapLocation, MAX_PREFETCHED_SWAP_FILES);
+                return;
+            }
+
+            try {
+                PREFETCH_EXECUTOR.execute(prefetchTask);
+            } catch (final RejectedExecutionException ree) {
+                logger.debug("Will not prefetch Swap File {} because too many Swap Files are already being prefetched", swapLocation);
+                return;
+            }
+
+            final Map<String, FutureTask<SwapContents>> queuePrefetches = prefetchedSwapContents.computeIfAbsent(queueId, id -> new LinkedHashMap<>());
+            queuePrefetches.put(swapLocation, prefetchTask);
+
+            // A queue evicts only its own prefetched swap files, whether it exceeds its own limit or the limit across all queues
+            final Iterator<FutureTask<SwapContents>> itr = queuePrefetches.values().iterator();
+            while (queuePrefetches.size() > MAX_PREFETCHED_SWAP_FILES_PER_QUEUE || getPrefetchedSwapFileCount() > MAX_PREFETCHED_SWAP_FILES) {
+                itr.next().cancel(true);
+                itr.remove();
+            }
+        }
+
+        logger.debug("Prefetching Swap File {} for {}", swapLocation, flowFileQueue);
+    }
+
+    // Must be called while synchronized on prefetchedSwapContents
+    private int getPrefetchedSwapFileCount() {
+        int count = 0;
+        for (final Map<String, FutureTask<SwapContents>> queuePrefetches : prefetchedSwapContents.values()) {
+            count += queuePrefetches.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the contents of the given swap file if they have been prefetched, waiting for the prefetch to complete if necessary.
+     * Returns <code>null</code> if the swap file was not prefetched or if the prefetch failed, in which case the swap file should be read
+     * again so that any failure is surfaced in the usual way.
+     */
+    private SwapContents getPrefetchedContents(final String swapLocation, final FlowFileQueue flowFileQueue) {
+        final String queueId = flowFileQueue.getIdentifier();
+        final FutureTask<SwapContents> prefetchTask;
+        synchronized (prefetchedSwapContents) {
+            final Map<String, FutureTask<SwapContents>> queuePrefetches = prefetchedSwapContents.get(queueId);
+            if (queuePrefetches == null) {
+                return null;
+            }
+
+            prefetchTask = queuePrefetches.remove(swapLocation);
+            if (queuePrefetches.isEmpty()) {
+                prefetchedSwapContents.remove(queueId);
+            }
+        }
+
+        if (prefetchTask == null) {
+            return null;
+        }
+
+        try {
+            return prefetchTask.get();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (final ExecutionException | CancellationException e) {
+            logger.debug("Failed to prefetch Swap File {}; will read the Swap File again", swapLocation, e);
+            return null;
+        }
+    }
+
+    private void discardPrefetchedContents(final String swapLocation) {
+        synchronized (prefetchedSwapContents) {
+            // The queue is not known here, but only a few swap files are prefetched for each queue
+            final Iterator<Map<String, FutureTask<SwapContents>>> itr = prefetchedSwapContents.values().iterator();
+            while (itr.hasNext()) {
+                final Map<String, FutureTask<SwapContents>> queuePrefetches = itr.next();
+                final FutureTask<SwapContents> prefetchTask = queuePrefetches.remove(swapLocation);
+                if (prefetchTask != null) {
+                    prefetchTask.cancel(true);
+                }
+
+                if (queuePrefetches.isEmpty()) {
+                    itr.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the given swap file has been prefetched and has not yet been swapped in, evicted, or discarded
+     */
+    boolean isPrefetched(final String swapLocation, final FlowFileQueue flowFileQueue) {
+        synchronized (prefetchedSwapContents) {
+            final Map<String, FutureTask<SwapContents>> queuePrefetches = prefetchedSwapContents.get(flowFileQueue.getIdentifier());
+            return queuePrefetches != null && queuePrefetches.containsKey(swapLocation);
+        }
+    }
+
+    private static ThreadPoolExecutor createPrefetchExecutor() {
+        final AtomicInteger threadCounter = new AtomicInteger(0);
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(PREFETCH_THREADS, PREFETCH_THREADS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(PREFETCH_THREADS * 16), r -> {
+            final Thread t = Executors.defaultThreadFactory().newThread(r);
+            t.setName("Prefetch Swap Files Thread-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     @Override
     public SwapContents peek(final String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
         final File swapFile = new File(swapLocation);
@@ -207,6 +371,11 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
     @Override
     public void purge() {
+        synchronized (prefetchedSwapContents) {
+            prefetchedSwapContents.values().forEach(queuePrefetches -> queuePrefetches.values().forEach(prefetchTask -> prefetchTask.cancel(true)));
+            prefetchedSwapContents.clear();
+        }
+
         final File[] swapFiles = storageDirectory.listFiles((dir, name) -> SWAP_FILE_PATTERN.matcher(name).matches() || TEMP_SWAP_FILE_PATTERN.matcher(name).matches());
 
         for (final File file : swapFiles) {
@@ -462,6 +631,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         }
 
         final File newFile = new File(existingFile.getParentFile(), newFilename);
+        discardPrefetchedContents(swapLocation);
         // Use Files.move and convert to Path's instead of File.rename so that we get an IOException on failure that describes why we failed.
         Files.move(existingFile.toPath(), newFile.toPath());
 
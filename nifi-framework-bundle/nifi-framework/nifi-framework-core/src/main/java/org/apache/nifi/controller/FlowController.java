@@ -27,6 +27,7 @@ import org.apache.nifi.asset.AssetReferenceLookup;
 import org.apache.nifi.asset.StandardAssetManager;
 import org.apache.nifi.asset.StandardAssetManagerInitializationContext;
 import org.apache.nifi.asset.StandardAssetReferenceLookup;
+import org.apache.nifi.attribute.expression.language.Query;
 import org.apache.nifi.authorization.Authorizer;
 import org.apache.nifi.authorization.Resource;
 import org.apache.nifi.authorization.resource.Authorizable;
@@ -82,6 +83,7 @@ import org.apache.nifi.controller.queue.clustered.client.StandardLoadBalanceFlow
 import org.apache.nifi.controller.queue.clustered.client.async.nio.NioAsyncLoadBalanceClientFactory;
 import org.apache.nifi.controller.queue.clustered.client.async.nio.NioAsyncLoadBalanceClientRegistry;
 import org.apache.nifi.controller.queue.clustered.client.async.nio.NioAsyncLoadBalanceClientTask;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceCompressionCodec;
 import org.apache.nifi.controller.queue.clustered.server.ClusterLoadBalanceAuthorizer;
 import org.apache.nifi.controller.queue.clustered.server.ConnectionLoadBalanceServer;
 import org.apache.nifi.controller.queue.clustered.server.LoadBalanceAuthorizer;
@@ -179,6 +181,8 @@ import org.apache.nifi.provenance.ProvenanceAuthorizableFactory;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.ProvenanceEventType;
 import org.apache.nifi.provenance.ProvenanceRepository;
+import org.apache.nifi.provenance.ProvenanceSampler;
+import org.apache.nifi.provenance.ProvenanceSamplingMode;
 import org.apache.nifi.provenance.StandardProvenanceAuthorizableFactory;
 import org.apache.nifi.provenance.StandardProvenanceEventRecord;
 import org.apache.nifi.python.ControllerServiceTypeLookup;
@@ -276,6 +280,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
     private final FlowFileRepository flowFileRepository;
     private final FlowFileEventRepository flowFileEventRepository;
     private final ProvenanceRepository provenanceRepository;
+    private final ProvenanceSampler provenanceSampler;
     private final BulletinRepository bulletinRepository;
     private final AssetManager assetManager;
     private final LifecycleStateManager lifecycleStateManager;
@@ -560,8 +565,19 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
 
         parameterContextManager = new StandardParameterContextManager();
         final long maxAppendableBytes = getMaxAppendableBytes();
+        provenanceSampler = ProvenanceSampler.create(nifiProperties, provenanceRepository);
         repositoryContextFactory = new RepositoryContextFactory(contentRepository, flowFileRepository, flowFileEventRepository,
-            counterRepositoryRef.get(), provenanceRepository, stateManagerProvider, maxAppendableBytes);
+            counterRepositoryRef.get(), provenanceRepository, stateManagerProvider, maxAppendableBytes, provenanceSampler);
+        if (provenanceSampler.getMode() == ProvenanceSamplingMode.AGGREGATE) {
+            final long aggregationPeriodMillis = provenanceSampler.getAggregationPeriod(TimeUnit.MILLISECONDS);
+            timerDrivenEngineRef.get().scheduleWithFixedDelay(() -> {
+                try {
+                    provenanceSampler.flush();
+                } catch (final Exception e) {
+                    LOG.error("Failed to write Provenance summary events", e);
+                }
+            }, aggregationPeriodMillis, aggregationPeriodMillis, TimeUnit.MILLISECONDS);
+        }
         assetManager = createAssetManager(nifiProperties);
 
         this.flowAnalysisThreadPool = new FlowEngine(1, "Background Flow Analysis", true);
@@ -636,6 +652,9 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         remoteInputHttpPort = nifiProperties.getRemoteInputHttpPort();
         isSiteToSiteSecure = nifiProperties.isSiteToSiteSecure();
 
+        Query.setCompiledEvaluationEnabled(nifiProperties.isExpressionLanguageCompiledEvaluationEnabled());
+        Query.setPreparedQueryCacheSize(nifiProperties.getExpressionLanguagePreparedQueryCacheSize());
+
         this.heartbeatDelaySeconds = (int) FormatUtils.getTimeDuration(nifiProperties.getNodeHeartbeatInterval(), TimeUnit.SECONDS);
 
         this.snippetManager = new SnippetManager();
@@ -794,7 +813,9 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
             final EventReporter eventReporter = createEventReporter();
 
             final LoadBalanceAuthorizer authorizeConnection = new ClusterLoadBalanceAuthorizer(clusterCoordinator, eventReporter);
-            final LoadBalanceProtocol loadBalanceProtocol = new StandardLoadBalanceProtocol(flowFileRepo, contentRepository, provenanceRepository, this, authorizeConnection);
+            final int streamsPerConnection = nifiProperties.getIntegerProperty(NiFiProperties.LOAD_BALANCE_STREAMS_PER_CONNECTION, NiFiProperties.DEFAULT_LOAD_BALANCE_STREAMS_PER_CONNECTION);
+            final LoadBalanceProtocol loadBalanceProtocol = new StandardLoadBalanceProtocol(flowFileRepo, contentRepository, provenanceRepository, this, authorizeConnection,
+                    streamsPerConnection);
 
             final int numThreads = nifiProperties.getIntegerProperty(NiFiProperties.LOAD_BALANCE_MAX_THREAD_COUNT, NiFiProperties.DEFAULT_LOAD_BALANCE_MAX_THREAD_COUNT);
             final String timeoutPeriod = nifiProperties.getProperty(NiFiProperties.LOAD_BALANCE_COMMS_TIMEOUT, NiFiProperties.DEFAULT_LOAD_BALANCE_COMMS_TIMEOUT);
@@ -805,8 +826,10 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
 
 
             final int connectionsPerNode = nifiProperties.getIntegerProperty(NiFiProperties.LOAD_BALANCE_CONNECTIONS_PER_NODE, NiFiProperties.DEFAULT_LOAD_BALANCE_CONNECTIONS_PER_NODE);
+            final LoadBalanceCompressionCodec compressionCodec = LoadBalanceCompressionCodec.fromName(
+                    nifiProperties.getProperty(NiFiProperties.LOAD_BALANCE_COMPRESSION_CODEC, NiFiProperties.DEFAULT_LOAD_BALANCE_COMPRESSION_CODEC));
             final NioAsyncLoadBalanceClientFactory asyncClientFactory = new NioAsyncLoadBalanceClientFactory(sslContext, timeoutMillis, new ContentRepositoryFlowFileAccess(contentRepository),
-                    eventReporter, new StandardLoadBalanceFlowFileCodec(), clusterCoordinator);
+                    eventReporter, new StandardLoadBalanceFlowFileCodec(), compressionCodec, streamsPerConnection, clusterCoordinator);
             loadBalanceClientRegistry = new NioAsyncLoadBalanceClientRegistry(asyncClientFactory, connectionsPerNode);
 
             final int loadBalanceClientThreadCount = nifiProperties.getIntegerProperty(NiFiProperties.LOAD_BALANCE_MAX_THREAD_COUNT, NiFiProperties.DEFAULT_LOAD_BALANCE_MAX_THREAD_COUNT);
@@ -1047,7 +1070,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
             // Begin expiring FlowFiles that are old
             final long maxAppendableClaimBytes = getMaxAppendableBytes();
             final RepositoryContextFactory contextFactory = new RepositoryContextFactory(contentRepository, flowFileRepository,
-                    flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository, stateManagerProvider, maxAppendableClaimBytes);
+                    flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository, stateManagerProvider, maxAppendableClaimBytes, provenanceSampler);
             processScheduler.scheduleFrameworkTask(new ExpireFlowFiles(this, contextFactory), "Expire FlowFiles", 30L, 30L, TimeUnit.SECONDS);
 
             // now that we've loaded the FlowFiles, this has restored our ContentClaims' states, so we can tell the
@@ -1658,6 +1681,14 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
                 contentRepository.shutdown();
             }
 
+            if (provenanceSampler != null) {
+                try {
+                    provenanceSampler.flush();
+                } catch (final Exception e) {
+                    LOG.warn("Failed to write Provenance summary events", e);
+                }
+            }
+
             if (provenanceRepository != null) {
                 try {
                     provenanceRepository.close();
@@ -2333,10 +2364,12 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
             if (clusterCoordinator == null) {
                 flowFileQueue = new StandardFlowFileQueue(id, flowFileRepository, provenanceRepository, processScheduler, swapManager,
                         eventReporter, nifiProperties.getQueueSwapThreshold(),
-                        processGroup.getDefaultFlowFileExpiration(), processGroup.getDefaultBackPressureObjectThreshold(), processGroup.getDefaultBackPressureDataSizeThreshold());
+                        processGroup.getDefaultFlowFileExpiration(), processGroup.getDefaultBackPressureObjectThreshold(), processGroup.getDefaultBackPressureDataSizeThreshold(),
+                        nifiProperties.isQueueConcurrentAccessEnabled());
             } else {
                 flowFileQueue = new SocketLoadBalancedFlowFileQueue(id, processScheduler, flowFileRepository, provenanceRepository, contentRepository,
-                        clusterCoordinator, loadBalanceClientRegistry, swapManager, nifiProperties.getQueueSwapThreshold(), eventReporter);
+                        clusterCoordinator, loadBalanceClientRegistry, swapManager, nifiProperties.getQueueSwapThreshold(), eventReporter,
+                        nifiProperties.isQueueConcurrentAccessEnabled(), nifiProperties.isLoadBalanceAdaptivePartitioningEnabled());
 
                 flowFileQueue.setFlowFileExpiration(processGroup.getDefaultFlowFileExpiration());
                 flowFileQueue.setBackPressureObjectThreshold(processGroup.getDefaultBackPressureObjectThreshold());
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+
+import java.util.AbstractQueue;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * A thread-safe, first-in-first-out active queue that is used by the {@link SwappablePriorityQueue} when no prioritizers are configured
+ * and concurrent access has been enabled. Unlike a {@link java.util.PriorityQueue}, this queue may be accessed by many threads at once
+ * without external synchronization, which allows FlowFiles to be added and polled while holding only a shared lock.
+ * </p>
+ *
+ * <p>
+ * FlowFiles that are not penalized are held in a lock-free linked queue and are returned in the order that they were added. Penalized
+ * FlowFiles are moved aside into a separate queue, ordered by penalty expiration, as they are encountered. A penalized FlowFile is returned
+ * once its penalty has expired, or when there are no FlowFiles that are not penalized, which mirrors the ordering that the
+ * {@link QueuePrioritizer} provides for an unprioritized queue.
+ * </p>
+ */
+public class ConcurrentActiveQueue extends AbstractQueue<FlowFileRecord> {
+    // The penalty expiration must be compared directly rather than using FlowFileRecord.isPenalized(), as the result of
+    // isPenalized() changes over time, which would violate the contract of the PriorityBlockingQueue's ordering.
+    private static final Comparator<FlowFileRecord> PENALTY_COMPARATOR = Comparator
+        .comparingLong(FlowFileRecord::getPenaltyExpirationMillis)
+        .thenComparingLong(FlowFileRecord::getId);
+
+    private final Queue<FlowFileRecord> unpenalized = new ConcurrentLinkedQueue<>();
+    private final Queue<FlowFileRecord> penalized = new PriorityBlockingQueue<>(20, PENALTY_COMPARATOR);
+
+    // Maintained separately because ConcurrentLinkedQueue.size() requires traversing the entire queue. The count is always incremented
+    // before a FlowFile is added and decremented after it is removed, so that it never reports fewer FlowFiles than are queued.
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    @Override
+    public boolean offer(final FlowFileRecord flowFile) {
+        size.incrementAndGet();
+
+        if (flowFile.isPenalized()) {
+            penalized.add(flowFile);
+        } else {
+            unpenalized.add(flowFile);
+        }
+
+        return true;
+    }
+
+    @Override
+    public FlowFileRecord poll() {
+        final FlowFileRecord released = pollPenaltyExpired();
+        if (released != null) {
+            size.decrementAndGet();
+            return released;
+        }
+
+        FlowFileRecord flowFile;
+        while ((flowFile = unpenalized.poll()) != null) {
+            if (!flowFile.isPenalized()) {
+                size.decrementAndGet();
+                return flowFile;
+            }
+
+            penalized.add(flowFile);
+        }
+
+        // All FlowFiles are penalized. Return the one whose penalty expires first, just as a PriorityQueue ordered by the
+        // QueuePrioritizer would, so that callers can determine that the head of the queue is penalized.
+        flowFile = penalized.poll();
+        if (flowFile != null) {
+            size.decrementAndGet();
+        }
+
+        return flowFile;
+    }
+
+    private FlowFileRecord pollPenaltyExpired() {
+        final FlowFileRecord penalizedHead = penalized.peek();
+        if (penalizedHead == null || penalizedHead.isPenalized()) {
+            return null;
+        }
+
+        // Another thread may have polled the head between our peek and poll, so we must check the FlowFile that was actually removed.
+        final FlowFileRecord polled = penalized.poll();
+        if (polled == null) {
+            return null;
+        }
+
+        if (polled.isPenalized()) {
+            penalized.add(polled);
+            return null;
+        }
+
+        return polled;
+    }
+
+    /**
+     * Returns the FlowFile that would be returned by {@link #poll()}, without removing it. Penalized FlowFiles that are encountered are
+     * moved aside into the penalized queue, so this method modifies the queue and must not be called concurrently with {@link #clear()}.
+     */
+    @Override
+    public FlowFileRecord peek() {
+        final FlowFileRecord penalizedHead = penalized.peek();
+        if (penalizedHead != null && !penalizedHead.isPenalized()) {
+            return penalizedHead;
+        }
+
+        FlowFileRecord head;
+        while ((head = unpenalized.peek()) != null) {
+            if (!head.isPenalized()) {
+                return head;
+            }
+
+            // Move the penalized FlowFile aside. If remove() returns false, another thread has already polled it.
+            if (unpenalized.remove(head)) {
+                penalized.add(head);
+            }
+        }
+
+        return penalized.peek();
+    }
+
+    @Override
+    public int size() {
+        return Math.max(0, size.get());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return unpenalized.isEmpty() && penalized.isEmpty();
+    }
+
+    /**
+     * Removes all FlowFiles from the queue. This method is not atomic with respect to concurrent additions and must be called only
+     * while the caller has exclusive access to the queue.
+     */
+    @Override
+    public void clear() {
+        unpenalized.clear();
+        penalized.clear();
+        size.set(0);
+    }
+
+    @Override
+    public Iterator<FlowFileRecord> iterator() {
+        final Iterator<FlowFileRecord> unpenalizedIterator = unpenalized.iterator();
+        final Iterator<FlowFileRecord> penalizedIterator = penalized.iterator();
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return unpenalizedIterator.hasNext() || penalizedIterator.hasNext();
+            }
+
+            @Override
+            public FlowFileRecord next() {
+                return unpenalizedIterator.hasNext() ? unpenalizedIterator.next() : penalizedIterator.next();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentActiveQueue[size=" + size() + "]";
+    }
+}
@@ -66,6 +66,7 @@ public class SwappablePriorityQueue {
     private final DropFlowFileAction dropAction;
     private volatile List<FlowFilePrioritizer> priorities = new ArrayList<>();
     private final String swapPartitionName;
+    private final boolean concurrentAccess;
 
     private final List<String> swapLocations = new ArrayList<>();
     private final AtomicReference<FlowFileQueueSize> size = new AtomicReference<>(new FlowFileQueueSize(0, 0L, 0, 0L, 0, 0, 0L));
@@ -81,8 +82,10 @@ public class SwappablePriorityQueue {
     // active queue, then we would end up processing the newer FlowFile before the swapped FlowFile. By
     // keeping these separate, we are able to guarantee that FlowFiles are swapped in in the same order
     // that they are swapped out.
-    // Guarded by lock.
-    private Queue<FlowFileRecord> activeQueue;
+    // Guarded by lock. When concurrent access is enabled and no prioritizers are configured, the active queue is a
+    // ConcurrentActiveQueue, which may be added to and polled from while holding only the read lock, as long as nothing
+    // has been swapped out. All other modifications, including swapping, still require the write lock.
+    private volatile Queue<FlowFileRecord> activeQueue;
     private List<FlowFileRecord> swapQueue;
     private boolean swapMode = false;
     private volatile long topPenaltyExpiration = -1L;
@@ -94,10 +97,23 @@ public class SwappablePriorityQueue {
 
     public SwappablePriorityQueue(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter, final FlowFileQueue flowFileQueue,
         final DropFlowFileAction dropAction, final String swapPartitionName) {
+        this(swapManager, swapThreshold, eventReporter, flowFileQueue, dropAction, swapPartitionName, false);
+    }
+
+    /**
+     * Creates a new SwappablePriorityQueue
+     *
+     * @param concurrentAccess if <code>true</code>, FlowFiles may be added to and polled from the active queue by many threads concurrently
+     * whenever the queue has no prioritizers and no FlowFiles are swapped out. In this case the active queue is ordered first-in-first-out
+     * and the swap threshold is treated as a soft limit, which may be exceeded by up to the number of threads concurrently adding FlowFiles.
+     */
+    public SwappablePriorityQueue(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter, final FlowFileQueue flowFileQueue,
+        final DropFlowFileAction dropAction, final String swapPartitionName, final boolean concurrentAccess) {
         this.swapManager = swapManager;
         this.swapThreshold = swapThreshold;
+        this.concurrentAccess = concurrentAccess;
 
-        this.activeQueue = new PriorityQueue<>(20, new QueuePrioritizer(Collections.emptyList()));
+        this.activeQueue = createActiveQueue(Collections.emptyList(), 20);
         this.swapQueue = new ArrayList<>();
         this.eventReporter = eventReporter;
         this.flowFileQueue = flowFileQueue;
@@ -122,7 +138,7 @@ public class SwappablePriorityQueue {
         try {
             this.priorities = new ArrayList<>(newPriorities);
 
-            final Queue<FlowFileRecord> newQueue = new PriorityQueue<>(Math.max(20, activeQueue.size()), new QueuePrioritizer(newPriorities));
+            final Queue<FlowFileRecord> newQueue = createActiveQueue(newPriorities, Math.max(20, activeQueue.size()));
             newQueue.addAll(activeQueue);
             activeQueue = newQueue;
         } finally {
@@ -131,6 +147,22 @@ public class SwappablePriorityQueue {
     }
 
 
+    private Queue<FlowFileRecord> createActiveQueue(final List<FlowFilePrioritizer> newPriorities, final int initialCapacity) {
+        if (concurrentAccess && newPriorities.isEmpty()) {
+            return new ConcurrentActiveQueue();
+        }
+
+        return new PriorityQueue<>(initialCapacity, new QueuePrioritizer(newPriorities));
+    }
+
+    /**
+     * Indicates whether or not FlowFiles may be added to or polled from the active queue while holding only the read lock.
+     * This method MUST be called with the read lock or write lock held.
+     */
+    private boolean isConcurrentAccessAvailable() {
+        return activeQueue instanceof ConcurrentActiveQueue && !swapMode && swapLocations.isEmpty() && getFlowFileQueueSize().getSwappedCount() == 0;
+    }
+
     public LocalQueuePartitionDiagnostics getQueueDiagnostics() {
         readLock.lock();
         try {
@@ -422,6 +454,12 @@ public class SwappablePriorityQueue {
         }
 
         activeQueue.addAll(swapContents.getFlowFiles());
+
+        // While the FlowFiles that were just swapped in are processed, give the Swap Manager the opportunity to read the next swap file
+        // so that the next swap in does not block the consumer while the swap file is read from disk.
+        if (!swapLocations.isEmpty()) {
+            swapManager.prefetch(swapLocations.get(0), flowFileQueue);
+        }
     }
 
     public QueueSize size() {
@@ -443,7 +481,23 @@ public class SwappablePriorityQueue {
             return FlowFileAvailability.ACTIVE_QUEUE_EMPTY;
         }
 
-        final long expiration = topPenaltyExpiration;
+        final Queue<FlowFileRecord> currentActiveQueue = activeQueue;
+        final long expiration;
+        if (currentActiveQueue instanceof ConcurrentActiveQueue) {
+            // The active queue may be modified while holding only the read lock, so topPenaltyExpiration is not maintained; peek instead.
+            // Peeking may move penalized FlowFiles within the queue, so the read lock is required in order to prevent this from
+            // interleaving with operations such as dropFlowFiles that clear the active queue while holding the write lock.
+            readLock.lock();
+            try {
+                final FlowFileRecord top = currentActiveQueue.peek();
+                expiration = top == null ? -1L : top.getPenaltyExpirationMillis();
+            } finally {
+                readLock.unlock("getFlowFileAvailability");
+            }
+        } else {
+            expiration = topPenaltyExpiration;
+        }
+
         if (expiration > 0 && expiration > System.currentTimeMillis()) { // compare against 0 to avoid unnecessary System call
             return FlowFileAvailability.HEAD_OF_QUEUE_PENALIZED;
         }
@@ -469,6 +523,20 @@ public class SwappablePriorityQueue {
 
 
     public void put(final FlowFileRecord flowFile) {
+        if (concurrentAccess) {
+            readLock.lock();
+            try {
+                if (isConcurrentAccessAvailable() && getFlowFileQueueSize().getActiveCount() < swapThreshold) {
+                    incrementActiveQueueSize(1, flowFile.getSize());
+                    activeQueue.add(flowFile);
+                    logger.trace("{} put to {}", flowFile, this);
+                    return;
+                }
+            } finally {
+                readLock.unlock("put(FlowFileRecord)");
+            }
+        }
+
         writeLock.lock();
         try {
             if (swapMode || activeQueue.size() >= swapThreshold) {
@@ -495,6 +563,20 @@ public class SwappablePriorityQueue {
             bytes += flowFile.getSize();
         }
 
+        if (concurrentAccess) {
+            readLock.lock();
+            try {
+                if (isConcurrentAccessAvailable() && getFlowFileQueueSize().getActiveCount() < swapThreshold - numFiles) {
+                    incrementActiveQueueSize(numFiles, bytes);
+                    activeQueue.addAll(flowFiles);
+                    logger.trace("{} put to {}", flowFiles, this);
+                    return;
+                }
+            } finally {
+                readLock.unlock("putAll");
+            }
+        }
+
         writeLock.lock();
         try {
             if (swapMode || activeQueue.size() >= swapThreshold - numFiles) {
@@ -521,6 +603,24 @@ public class SwappablePriorityQueue {
     public FlowFileRecord poll(final Set<FlowFileRecord> expiredRecords, final long expirationMillis, final PollStrategy pollStrategy) {
         FlowFileRecord flowFile;
 
+        if (concurrentAccess) {
+            readLock.lock();
+            try {
+                if (isConcurrentAccessAvailable()) {
+                    flowFile = pollActiveQueue(expiredRecords, expirationMillis, pollStrategy);
+
+                    if (flowFile != null) {
+                        logger.trace("{} poll() returning {}", this, flowFile);
+                        unacknowledge(1, flowFile.getSize());
+                    }
+
+                    return flowFile;
+                }
+            } finally {
+                readLock.unlock("poll(Set)");
+            }
+        }
+
         // First check if we have any records Pre-Fetched.
         writeLock.lock();
         try {
@@ -541,11 +641,18 @@ public class SwappablePriorityQueue {
 
 
     private FlowFileRecord doPoll(final Set<FlowFileRecord> expiredRecords, final long expirationMillis, final PollStrategy pollStrategy) {
+        migrateSwapToActive();
+        return pollActiveQueue(expiredRecords, expirationMillis, pollStrategy);
+    }
+
+    /**
+     * Polls the next FlowFile from the active queue without considering the swap queue or swap files. This method MUST be called with the write lock
+     * held, or with the read lock held if {@link #isConcurrentAccessAvailable()} returns <code>true</code>.
+     */
+    private FlowFileRecord pollActiveQueue(final Set<FlowFileRecord> expiredRecords, final long expirationMillis, final PollStrategy pollStrategy) {
         FlowFileRecord flowFile;
         boolean isExpired;
 
-        migrateSwapToActive();
-
         long expiredBytes = 0L;
         do {
             flowFile = this.activeQueue.poll();
@@ -580,13 +687,28 @@ public class SwappablePriorityQueue {
     public List<FlowFileRecord> poll(int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis, final PollStrategy pollStrategy) {
         final List<FlowFileRecord> records = new ArrayList<>(Math.min(1, maxResults));
 
-        // First check if we have any records Pre-Fetched.
-        writeLock.lock();
-        try {
-            doPoll(records, maxResults, expiredRecords, expirationMillis, pollStrategy);
-            updateTopPenaltyExpiration();
-        } finally {
-            writeLock.unlock("poll(int, Set)");
+        boolean polled = false;
+        if (concurrentAccess) {
+            readLock.lock();
+            try {
+                if (isConcurrentAccessAvailable()) {
+                    drainActiveQueue(records, maxResults, expiredRecords, expirationMillis, pollStrategy);
+                    polled = true;
+                }
+            } finally {
+                readLock.unlock("poll(int, Set)");
+            }
+        }
+
+        if (!polled) {
+            // First check if we have any records Pre-Fetched.
+            writeLock.lock();
+            try {
+                doPoll(records, maxResults, expiredRecords, expirationMillis, pollStrategy);
+                updateTopPenaltyExpiration();
+            } finally {
+                writeLock.unlock("poll(int, Set)");
+            }
         }
 
         if (!records.isEmpty() && logger.isTraceEnabled()) {
@@ -696,7 +818,15 @@ public class SwappablePriorityQueue {
 
     private void doPoll(final List<FlowFileRecord> records, int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis, final PollStrategy pollStrategy) {
         migrateSwapToActive();
+        drainActiveQueue(records, maxResults, expiredRecords, expirationMillis, pollStrategy);
+    }
 
+    /**
+     * Drains FlowFiles from the active queue without considering the swap queue or swap files. This method MUST be called with the write lock
+     * held, or with the read lock held if {@link #isConcurrentAccessAvailable()} returns <code>true</code>.
+     */
+    private void drainActiveQueue(final List<FlowFileRecord> records, int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis,
+                                  final PollStrategy pollStrategy) {
         final long bytesDrained = drainQueue(activeQueue, records, maxResults, expiredRecords, expirationMillis, pollStrategy);
 
         long expiredBytes = 0L;
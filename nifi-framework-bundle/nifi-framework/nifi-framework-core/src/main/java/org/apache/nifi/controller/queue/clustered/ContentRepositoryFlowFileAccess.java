@@ -19,7 +19,9 @@ package org.apache.nifi.controller.queue.clustered;
 
 import org.apache.nifi.controller.repository.ContentNotFoundException;
 import org.apache.nifi.controller.repository.ContentRepository;
+import org.apache.nifi.controller.repository.FileSystemRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.io.LimitedInputStream;
 import org.apache.nifi.stream.io.StreamUtils;
 
@@ -27,6 +29,12 @@ import java.io.EOFException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class ContentRepositoryFlowFileAccess implements FlowFileContentAccess {
     private final ContentRepository contentRepository;
@@ -88,4 +96,76 @@ public class ContentRepositoryFlowFileAccess implements FlowFileContentAccess {
         };
     }
 
+    @Override
+    public ReadableByteChannel openChannel(final FlowFileRecord flowFile) throws IOException {
+        final ContentClaim contentClaim = flowFile.getContentClaim();
+        if (contentClaim == null || !(contentRepository instanceof FileSystemRepository)) {
+            return null;
+        }
+
+        final FileChannel fileChannel;
+        try {
+            final Path path = ((FileSystemRepository) contentRepository).getPath(contentClaim, true);
+            fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (final ContentNotFoundException | NoSuchFileException e) {
+            throw new ContentNotFoundException(flowFile, contentClaim, e.getMessage());
+        }
+
+        final long startPosition = contentClaim.getOffset() + flowFile.getContentClaimOffset();
+        return new FlowFileContentChannel(flowFile, fileChannel, startPosition);
+    }
+
+    /**
+     * A ReadableByteChannel that performs positional reads of a FlowFile's content from the Resource Claim's file, so that the content
+     * can be read directly into a (possibly direct) ByteBuffer.
+     */
+    private static class FlowFileContentChannel implements ReadableByteChannel {
+        private final FlowFileRecord flowFile;
+        private final FileChannel fileChannel;
+        private final long startPosition;
+        private long bytesRead = 0L;
+
+        FlowFileContentChannel(final FlowFileRecord flowFile, final FileChannel fileChannel, final long startPosition) {
+            this.flowFile = flowFile;
+            this.fileChannel = fileChannel;
+            this.startPosition = startPosition;
+        }
+
+        @Override
+        public int read(final ByteBuffer destination) throws IOException {
+            final long remaining = flowFile.getSize() - bytesRead;
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            final int originalLimit = destination.limit();
+            if (destination.remaining() > remaining) {
+                destination.limit(destination.position() + (int) remaining);
+            }
+
+            final int read;
+            try {
+                read = fileChannel.read(destination, startPosition + bytesRead);
+            } finally {
+                destination.limit(originalLimit);
+            }
+
+            if (read < 0) {
+                throw new EOFException("Expected " + flowFile + " to contain " + flowFile.getSize() + " bytes but the content repository only had " + bytesRead + " bytes for it");
+            }
+
+            bytesRead += read;
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return fileChannel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            fileChannel.close();
+        }
+    }
 }
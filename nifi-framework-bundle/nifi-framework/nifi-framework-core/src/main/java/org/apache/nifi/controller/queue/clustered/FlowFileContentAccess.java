@@ -19,6 +19,7 @@ package org.apache.nifi.controller.queue.clustered;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
 
 import org.apache.nifi.controller.repository.FlowFileRecord;
 
@@ -26,4 +27,16 @@ public interface FlowFileContentAccess {
 
     InputStream read(FlowFileRecord flowFile) throws IOException;
 
+    /**
+     * Opens a channel from which the content of the given FlowFile can be read directly into a ByteBuffer, without first being copied
+     * through an InputStream. The channel provides exactly the FlowFile's content and throws an EOFException if the content is truncated.
+     *
+     * @param flowFile the FlowFile whose content should be read
+     * @return a channel for reading the FlowFile's content, or <code>null</code> if the content cannot be accessed through a channel, in which case
+     *         {@link #read(FlowFileRecord)} should be used instead
+     * @throws IOException if unable to open the channel
+     */
+    default ReadableByteChannel openChannel(FlowFileRecord flowFile) throws IOException {
+        return null;
+    }
 }
@@ -39,6 +39,7 @@ import org.apache.nifi.controller.queue.RemoteQueuePartitionDiagnostics;
 import org.apache.nifi.controller.queue.StandardQueueDiagnostics;
 import org.apache.nifi.controller.queue.SwappablePriorityQueue;
 import org.apache.nifi.controller.queue.clustered.client.async.AsyncLoadBalanceClientRegistry;
+import org.apache.nifi.controller.queue.clustered.partition.AdaptivePartitioner;
 import org.apache.nifi.controller.queue.clustered.partition.CorrelationAttributePartitioner;
 import org.apache.nifi.controller.queue.clustered.partition.FirstNodePartitioner;
 import org.apache.nifi.controller.queue.clustered.partition.FlowFilePartitioner;
@@ -121,14 +122,24 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
     private volatile FlowFilePartitioner partitioner;
     private boolean stopped = true;
     private volatile boolean offloaded = false;
+    private final boolean adaptivePartitioning;
 
 
     public SocketLoadBalancedFlowFileQueue(final String identifier, final ProcessScheduler scheduler, final FlowFileRepository flowFileRepo,
                                            final ProvenanceEventRepository provRepo, final ContentRepository contentRepo,
                                            final ClusterCoordinator clusterCoordinator, final AsyncLoadBalanceClientRegistry clientRegistry, final FlowFileSwapManager swapManager,
                                            final int swapThreshold, final EventReporter eventReporter) {
+        this(identifier, scheduler, flowFileRepo, provRepo, contentRepo, clusterCoordinator, clientRegistry, swapManager, swapThreshold, eventReporter, false, false);
+    }
+
+    public SocketLoadBalancedFlowFileQueue(final String identifier, final ProcessScheduler scheduler, final FlowFileRepository flowFileRepo,
+                                           final ProvenanceEventRepository provRepo, final ContentRepository contentRepo,
+                                           final ClusterCoordinator clusterCoordinator, final AsyncLoadBalanceClientRegistry clientRegistry, final FlowFileSwapManager swapManager,
+                                           final int swapThreshold, final EventReporter eventReporter, final boolean concurrentAccess,
+                                           final boolean adaptivePartitioning) {
 
         super(identifier, scheduler, flowFileRepo, provRepo);
+        this.adaptivePartitioning = adaptivePartitioning;
         this.eventReporter = eventReporter;
         this.swapManager = swapManager;
         this.flowFileRepo = flowFileRepo;
@@ -137,7 +148,7 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
         this.clusterCoordinator = clusterCoordinator;
         this.clientRegistry = clientRegistry;
 
-        localPartition = new SwappablePriorityQueueLocalPartition(swapManager, swapThreshold, eventReporter, this, this::drop);
+        localPartition = new SwappablePriorityQueueLocalPartition(swapManager, swapThreshold, eventReporter, this, this::drop, concurrentAccess);
         rebalancingPartition = new StandardRebalancingPartition(swapManager, swapThreshold, eventReporter, this, this::drop);
 
         // Create a RemoteQueuePartition for each node
@@ -215,8 +226,8 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
     private FlowFilePartitioner getPartitionerForLoadBalancingStrategy(LoadBalanceStrategy strategy, String partitioningAttribute) {
         FlowFilePartitioner partitioner = switch (strategy) {
             case DO_NOT_LOAD_BALANCE -> new LocalPartitionPartitioner();
-            case PARTITION_BY_ATTRIBUTE -> new CorrelationAttributePartitioner(partitioningAttribute);
-            case ROUND_ROBIN -> new RoundRobinPartitioner();
+            case PARTITION_BY_ATTRIBUTE -> adaptivePartitioning ? new AdaptivePartitioner(partitioningAttribute) : new CorrelationAttributePartitioner(partitioningAttribute);
+            case ROUND_ROBIN -> adaptivePartitioning ? new AdaptivePartitioner(null) : new RoundRobinPartitioner();
             case SINGLE_NODE -> new FirstNodePartitioner();
         };
         return partitioner;
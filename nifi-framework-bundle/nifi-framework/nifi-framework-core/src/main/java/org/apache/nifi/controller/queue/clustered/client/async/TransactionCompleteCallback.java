@@ -23,5 +23,11 @@ import org.apache.nifi.controller.repository.FlowFileRecord;
 import java.util.List;
 
 public interface TransactionCompleteCallback {
-    void onTransactionComplete(List<FlowFileRecord> flowFilesSent, NodeIdentifier nodeIdentifier);
+    /**
+     * @param flowFilesSent the FlowFiles that were sent in the transaction
+     * @param nodeIdentifier the node that the FlowFiles were sent to
+     * @param latencyNanos the number of nanoseconds that the node took to respond to a request that carried no FlowFile data
+     * @param transactionNanos the number of nanoseconds that the entire transaction took
+     */
+    void onTransactionComplete(List<FlowFileRecord> flowFilesSent, NodeIdentifier nodeIdentifier, long latencyNanos, long transactionNanos);
 }
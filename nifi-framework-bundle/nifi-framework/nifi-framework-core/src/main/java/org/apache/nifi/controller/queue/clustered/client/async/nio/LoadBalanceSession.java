@@ -21,6 +21,7 @@ import org.apache.nifi.controller.queue.LoadBalanceCompression;
 import org.apache.nifi.controller.queue.clustered.FlowFileContentAccess;
 import org.apache.nifi.controller.queue.clustered.TransactionThreshold;
 import org.apache.nifi.controller.queue.clustered.client.LoadBalanceFlowFileCodec;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceCompressionCodec;
 import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants;
 import org.apache.nifi.controller.queue.clustered.server.TransactionAbortedException;
 import org.apache.nifi.controller.repository.ContentNotFoundException;
@@ -28,7 +29,6 @@ import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.remote.StandardVersionNegotiator;
 import org.apache.nifi.remote.VersionNegotiator;
 import org.apache.nifi.stream.io.ByteCountingOutputStream;
-import org.apache.nifi.stream.io.GZIPOutputStream;
 import org.apache.nifi.stream.io.StreamUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,11 +40,14 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalInt;
+import java.util.Queue;
 import java.util.function.Supplier;
 import java.util.zip.CRC32;
 import java.util.zip.Checksum;
@@ -52,7 +55,9 @@ import java.util.zip.Checksum;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.ABORT_PROTOCOL_NEGOTIATION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.ABORT_TRANSACTION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_CHECKSUM;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.COMPRESSION_CODEC_PROTOCOL_VERSION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_COMPLETE_TRANSACTION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.INITIAL_PROTOCOL_VERSION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.QUEUE_FULL;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.REJECT_CHECKSUM;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.REQEUST_DIFFERENT_VERSION;
@@ -63,6 +68,9 @@ import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalancePro
 public class LoadBalanceSession {
     private static final Logger logger = LoggerFactory.getLogger(LoadBalanceSession.class);
     static final int MAX_DATA_FRAME_SIZE = 65535;
+    static final int DATA_FRAME_HEADER_SIZE = 5;
+    static final int STREAM_HEADER_SIZE = 6;
+    static final int NOT_MULTIPLEXED = -1;
 
     private final RegisteredPartition partition;
     private final Supplier<FlowFileRecord> flowFileSupplier;
@@ -73,9 +81,16 @@ public class LoadBalanceSession {
     private final String peerDescription;
     private final String connectionId;
     private final TransactionThreshold transactionThreshold;
+    private final LoadBalanceCompressionCodec preferredCodec;
+    private final long creationNanos = System.nanoTime();
+    private long checksumSentNanos = -1L;
+    private long responseLatencyNanos = -1L;
+    private final int streamId;
+    private final int streamHeaderSize;
 
-    final VersionNegotiator negotiator = new StandardVersionNegotiator(1);
-    private int protocolVersion = 1;
+    final VersionNegotiator negotiator = new StandardVersionNegotiator(COMPRESSION_CODEC_PROTOCOL_VERSION, INITIAL_PROTOCOL_VERSION);
+    private int protocolVersion;
+    private LoadBalanceCompressionCodec codec = LoadBalanceCompressionCodec.GZIP;
 
     private final Checksum checksum = new CRC32();
 
@@ -85,12 +100,31 @@ public class LoadBalanceSession {
     private final List<FlowFileRecord> flowFilesSent = new ArrayList<>();
     private TransactionPhase phase = TransactionPhase.RECOMMEND_PROTOCOL_VERSION;
     private InputStream flowFileInputStream;
+    private ReadableByteChannel flowFileChannel;
     private final byte[] byteBuffer = new byte[MAX_DATA_FRAME_SIZE];
+    private final ByteBuffer contentFrameBuffer;
     private long readTimeout;
+    private final Queue<Integer> streamInput = new ArrayDeque<>();
+    private boolean endOfStreamSent = false;
+    private int sendWindow = LoadBalanceProtocolConstants.STREAM_WINDOW_SIZE;
+    private ByteBuffer unsentStreamData;
+    private long sendWindowTimeout;
     private volatile LoadBalanceSessionState sessionState = LoadBalanceSessionState.ACTIVE;
 
     public LoadBalanceSession(final RegisteredPartition partition, final FlowFileContentAccess contentAccess, final LoadBalanceFlowFileCodec flowFileCodec, final PeerChannel peerChannel,
-                              final int timeoutMillis, final TransactionThreshold transactionThreshold) {
+                              final int timeoutMillis, final TransactionThreshold transactionThreshold, final LoadBalanceCompressionCodec preferredCodec,
+                              final ByteBuffer contentFrameBuffer) {
+        this(partition, contentAccess, flowFileCodec, peerChannel, timeoutMillis, transactionThreshold, preferredCodec, contentFrameBuffer, NOT_MULTIPLEXED);
+    }
+
+    /**
+     * Creates a session whose transaction is sent as the given stream of a multiplexed connection. All data that is written is framed with the Stream ID, and
+     * the responses from the peer are supplied via {@link #receiveStreamData(ByteBuffer, int)} rather than being read from the channel. Because the protocol
+     * version has already been negotiated for the connection, the session begins by sending the Connection ID.
+     */
+    public LoadBalanceSession(final RegisteredPartition partition, final FlowFileContentAccess contentAccess, final LoadBalanceFlowFileCodec flowFileCodec, final PeerChannel peerChannel,
+                              final int timeoutMillis, final TransactionThreshold transactionThreshold, final LoadBalanceCompressionCodec preferredCodec,
+                              final ByteBuffer contentFrameBuffer, final int streamId) {
         this.partition = partition;
         this.flowFileSupplier = partition.getFlowFileRecordSupplier();
         this.connectionId = partition.getConnectionId();
@@ -104,16 +138,127 @@ public class LoadBalanceSession {
         }
         this.timeoutMillis = timeoutMillis;
         this.transactionThreshold = transactionThreshold;
+        this.preferredCodec = preferredCodec;
+        this.streamId = streamId;
+        this.streamHeaderSize = streamId == NOT_MULTIPLEXED ? 0 : STREAM_HEADER_SIZE;
+
+        final int minimumCapacity = streamHeaderSize + DATA_FRAME_HEADER_SIZE + MAX_DATA_FRAME_SIZE;
+        if (contentFrameBuffer.capacity() < minimumCapacity) {
+            throw new IllegalArgumentException("Content Frame Buffer must have a capacity of at least " + minimumCapacity + " bytes");
+        }
+        this.contentFrameBuffer = contentFrameBuffer;
+
+        if (isMultiplexed()) {
+            // Each stream of a multiplexed connection carries a transaction in the format of the Compression Codec version of the protocol.
+            this.protocolVersion = COMPRESSION_CODEC_PROTOCOL_VERSION;
+            this.phase = TransactionPhase.SEND_CONNECTION_ID;
+        } else {
+            // GZIP is implied by the initial version of the protocol, so only recommend the newer version if a different codec is preferred.
+            // If the peer does not support the newer version, it will request the initial version, and GZIP will be used.
+            this.protocolVersion = preferredCodec == LoadBalanceCompressionCodec.GZIP ? INITIAL_PROTOCOL_VERSION : COMPRESSION_CODEC_PROTOCOL_VERSION;
+        }
     }
 
     public RegisteredPartition getPartition() {
         return partition;
     }
 
+    /**
+     * @return the number of nanoseconds that have elapsed since this session was created
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - creationNanos;
+    }
+
+    /**
+     * @return the number of nanoseconds between sending the checksum to the peer and receiving its confirmation, or 0 if the checksum
+     * has not yet been confirmed. Because no FlowFile data is sent in this exchange, it measures the latency of the peer apart from the
+     * time spent transferring data.
+     */
+    public long getResponseLatencyNanos() {
+        return Math.max(responseLatencyNanos, 0L);
+    }
+
+    public int getStreamId() {
+        return streamId;
+    }
+
+    private boolean isMultiplexed() {
+        return streamId != NOT_MULTIPLEXED;
+    }
+
     public synchronized int getDesiredReadinessFlag() {
+        if (isMultiplexed() && sessionState == LoadBalanceSessionState.CANCELED) {
+            // A canceled stream must still be ended so that the peer stops waiting for it
+            return SelectionKey.OP_WRITE;
+        }
+
+        if (isMultiplexed() && !hasPendingFrame()) {
+            if (isSendWindowClosed()) {
+                // Nothing more can be sent until the peer grants more of the stream's window
+                return SelectionKey.OP_READ;
+            }
+            if (unsentStreamData != null) {
+                return SelectionKey.OP_WRITE;
+            }
+        }
+
         return phase.getRequiredSelectionKey();
     }
 
+    private boolean isSendWindowClosed() {
+        if (unsentStreamData != null) {
+            return sendWindow == 0;
+        }
+
+        // A new frame is not started unless the window leaves room for at least one byte of content after the data frame header
+        return phase.getRequiredSelectionKey() == SelectionKey.OP_WRITE && sendWindow <= DATA_FRAME_HEADER_SIZE;
+    }
+
+    /**
+     * @return <code>true</code> if a frame has been only partially written to the channel. No other data may be written to the channel
+     * until the frame has been completed
+     */
+    public synchronized boolean hasPendingFrame() {
+        return preparedFrame != null && preparedFrame.hasRemaining();
+    }
+
+    /**
+     * @return <code>true</code> if the session is complete and has nothing left to write to the channel
+     */
+    public synchronized boolean isFinished() {
+        if (!sessionState.isComplete()) {
+            return false;
+        }
+
+        if (isMultiplexed() && sessionState == LoadBalanceSessionState.CANCELED) {
+            return endOfStreamSent && !hasPendingFrame();
+        }
+
+        return true;
+    }
+
+    /**
+     * Provides data that was received from the peer for this session's stream of a multiplexed connection
+     *
+     * @param src the buffer to consume the data from
+     * @param length the number of bytes to consume
+     */
+    public synchronized void receiveStreamData(final ByteBuffer src, final int length) {
+        for (int i = 0; i < length; i++) {
+            streamInput.add(src.get() & 0xFF);
+        }
+    }
+
+    /**
+     * Grants permission to send more of this session's stream, after the peer has consumed data that was previously sent
+     *
+     * @param bytes the number of additional bytes that may be sent
+     */
+    public synchronized void addSendWindow(final int bytes) {
+        sendWindow += bytes;
+    }
+
     public synchronized List<FlowFileRecord> getAndPurgeFlowFilesSent() {
         final List<FlowFileRecord> copy = new ArrayList<>(flowFilesSent);
         flowFilesSent.clear();
@@ -125,6 +270,10 @@ public class LoadBalanceSession {
     }
 
     public synchronized boolean communicate() throws IOException {
+        if (isMultiplexed() && sessionState == LoadBalanceSessionState.CANCELED) {
+            return endStream();
+        }
+
         if (sessionState.isComplete()) {
             return false;
         }
@@ -137,6 +286,11 @@ public class LoadBalanceSession {
                 return bytesWritten > 0;
             }
 
+            // Data that did not fit within the stream's window must be sent before moving on to the next phase
+            if (unsentStreamData != null) {
+                return sendStreamData();
+            }
+
             // Check if the phase is one that needs to receive data and if so, call the appropriate method.
             switch (phase) {
                 case RECEIVE_SPACE_RESPONSE:
@@ -151,6 +305,10 @@ public class LoadBalanceSession {
                     return receiveRecommendedProtocolVersion();
             }
 
+            if (isMultiplexed()) {
+                return sendStreamData();
+            }
+
             // Otherwise, we need to send something so get the data frame that should be sent and write it to the channel
             final ByteBuffer byteBuffer = getDataFrame();
             preparedFrame = channel.prepareForWrite(byteBuffer); // Prepare data frame for writing. E.g., encrypt the data, etc.
@@ -163,6 +321,83 @@ public class LoadBalanceSession {
         }
     }
 
+    private boolean endStream() throws IOException {
+        if (hasPendingFrame()) {
+            // The frame that was partially written must be completed before the stream can be ended
+            return channel.write(preparedFrame) > 0;
+        }
+
+        if (endOfStreamSent) {
+            return false;
+        }
+
+        logger.debug("Ending Stream {} to Peer {} for Connection {}", streamId, peerDescription, connectionId);
+        final ByteBuffer buffer = ByteBuffer.allocate(STREAM_HEADER_SIZE);
+        buffer.putShort((short) streamId);
+        buffer.putInt(0);
+        buffer.rewind();
+
+        preparedFrame = channel.prepareForWrite(buffer);
+        endOfStreamSent = true;
+        return channel.write(preparedFrame) > 0;
+    }
+
+    private boolean sendStreamData() throws IOException {
+        if (isSendWindowClosed()) {
+            if (System.currentTimeMillis() > sendWindowTimeout) {
+                throw new SocketTimeoutException("Timed out waiting for Peer " + peerDescription + " to consume the data sent for Connection " + connectionId);
+            }
+
+            return false;
+        }
+
+        if (unsentStreamData == null) {
+            final ByteBuffer dataFrame = getDataFrame();
+            if (dataFrame == null) {
+                return false;
+            }
+
+            // Frames that are read from the FlowFile's channel already have the stream header in place and are sized to fit within the window
+            if (dataFrame == contentFrameBuffer) {
+                sendWindow -= dataFrame.remaining() - STREAM_HEADER_SIZE;
+                return writeStreamFrame(dataFrame);
+            }
+
+            unsentStreamData = dataFrame;
+        }
+
+        // Send as much of the data as the window allows. The rest is sent once the peer grants more of the window.
+        final int length = Math.min(unsentStreamData.remaining(), sendWindow);
+        final ByteBuffer buffer = ByteBuffer.allocate(STREAM_HEADER_SIZE + length);
+        buffer.putShort((short) streamId);
+        buffer.putInt(length);
+        buffer.put(unsentStreamData.slice(unsentStreamData.position(), length));
+        buffer.rewind();
+
+        unsentStreamData.position(unsentStreamData.position() + length);
+        if (!unsentStreamData.hasRemaining()) {
+            unsentStreamData = null;
+        }
+
+        sendWindow -= length;
+        return writeStreamFrame(buffer);
+    }
+
+    private boolean writeStreamFrame(final ByteBuffer frame) throws IOException {
+        sendWindowTimeout = System.currentTimeMillis() + timeoutMillis;
+        preparedFrame = channel.prepareForWrite(frame);
+        return channel.write(preparedFrame) > 0;
+    }
+
+    private OptionalInt readResponse() throws IOException {
+        if (!isMultiplexed()) {
+            return channel.read();
+        }
+
+        final Integer response = streamInput.poll();
+        return response == null ? OptionalInt.empty() : OptionalInt.of(response);
+    }
+
     public synchronized boolean cancel() {
         if (sessionState.isComplete()) {
             return false;
@@ -175,7 +410,7 @@ public class LoadBalanceSession {
     private boolean confirmTransactionComplete() throws IOException {
         logger.debug("Confirming Transaction Complete for Peer {}", peerDescription);
 
-        final OptionalInt transactionResponse = channel.read();
+        final OptionalInt transactionResponse = readResponse();
         if (!transactionResponse.isPresent()) {
             if (System.currentTimeMillis() > readTimeout) {
                 throw new SocketTimeoutException("Timed out waiting for Peer " + peerDescription + " to confirm the transaction is complete");
@@ -206,7 +441,7 @@ public class LoadBalanceSession {
     private boolean verifyChecksum() throws IOException {
         logger.debug("Verifying Checksum for Peer {}", peerDescription);
 
-        final OptionalInt checksumResponse = channel.read();
+        final OptionalInt checksumResponse = readResponse();
         if (!checksumResponse.isPresent()) {
             if (System.currentTimeMillis() > readTimeout) {
                 throw new SocketTimeoutException("Timed out waiting for Peer " + peerDescription + " to verify the checksum");
@@ -220,6 +455,8 @@ public class LoadBalanceSession {
             throw new EOFException("Encountered End-of-File when trying to verify Checksum with Peer " + peerDescription);
         }
 
+        responseLatencyNanos = System.nanoTime() - checksumSentNanos;
+
         if (response == REJECT_CHECKSUM) {
             throw new TransactionAbortedException("After transferring FlowFiles to Peer " + peerDescription + " received a REJECT_CHECKSUM response. Aborting transaction.");
         }
@@ -274,6 +511,7 @@ public class LoadBalanceSession {
         buffer.putLong(checksum.getValue());
 
         readTimeout = System.currentTimeMillis() + timeoutMillis;
+        checksumSentNanos = System.nanoTime();
         phase = TransactionPhase.VERIFY_CHECKSUM;
         buffer.rewind();
         return buffer;
@@ -283,8 +521,18 @@ public class LoadBalanceSession {
         // This method is fairly inefficient, copying lots of byte[]. Can do better. But keeping it simple for
         // now to get this working. Revisit with optimizations later.
         try {
-            if (flowFileInputStream == null) {
-                flowFileInputStream = flowFileContentAccess.read(currentFlowFile);
+            if (flowFileInputStream == null && flowFileChannel == null) {
+                // Uncompressed content can be read straight into the frame buffer and written to the socket from there, avoiding copies through the heap
+                if (partition.getCompression() != LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT) {
+                    flowFileChannel = flowFileContentAccess.openChannel(currentFlowFile);
+                }
+                if (flowFileChannel == null) {
+                    flowFileInputStream = flowFileContentAccess.read(currentFlowFile);
+                }
+            }
+
+            if (flowFileChannel != null) {
+                return getChannelDataFrame();
             }
 
             final int bytesRead = StreamUtils.fillBuffer(flowFileInputStream, byteBuffer, false);
@@ -292,17 +540,7 @@ public class LoadBalanceSession {
                 // If no data available, close the stream and move on to the next phase, returning a NO_DATA_FRAME buffer.
                 flowFileInputStream.close();
                 flowFileInputStream = null;
-                phase = TransactionPhase.GET_NEXT_FLOWFILE;
-
-                final ByteBuffer buffer = ByteBuffer.allocate(1);
-                buffer.put((byte) LoadBalanceProtocolConstants.NO_DATA_FRAME);
-                buffer.rewind();
-
-                checksum.update(LoadBalanceProtocolConstants.NO_DATA_FRAME);
-
-                logger.debug("Sending NO_DATA_FRAME indicator to Peer {}", peerDescription);
-
-                return buffer;
+                return noDataFrame();
             }
 
             logger.trace("Sending Data Frame that is {} bytes long to Peer {}", bytesRead, peerDescription);
@@ -336,12 +574,65 @@ public class LoadBalanceSession {
         }
     }
 
+    private ByteBuffer getChannelDataFrame() throws IOException {
+        // When multiplexing, the stream header precedes the data frame header in the buffer
+        final int dataFrameOffset = streamHeaderSize;
+        contentFrameBuffer.clear();
+        contentFrameBuffer.position(dataFrameOffset + DATA_FRAME_HEADER_SIZE);
+        final int maxDataLength = isMultiplexed() ? Math.min(MAX_DATA_FRAME_SIZE, sendWindow - DATA_FRAME_HEADER_SIZE) : MAX_DATA_FRAME_SIZE;
+        contentFrameBuffer.limit(dataFrameOffset + DATA_FRAME_HEADER_SIZE + maxDataLength);
+
+        while (contentFrameBuffer.hasRemaining()) {
+            if (flowFileChannel.read(contentFrameBuffer) < 0) {
+                break;
+            }
+        }
+
+        final int bytesRead = contentFrameBuffer.position() - dataFrameOffset - DATA_FRAME_HEADER_SIZE;
+        if (bytesRead < 1) {
+            flowFileChannel.close();
+            flowFileChannel = null;
+            return noDataFrame();
+        }
+
+        logger.trace("Sending Data Frame that is {} bytes long to Peer {}", bytesRead, peerDescription);
+        if (isMultiplexed()) {
+            contentFrameBuffer.putShort(0, (short) streamId);
+            contentFrameBuffer.putInt(2, DATA_FRAME_HEADER_SIZE + bytesRead);
+        }
+        contentFrameBuffer.put(dataFrameOffset, (byte) LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+        contentFrameBuffer.putInt(dataFrameOffset + 1, bytesRead);
+        contentFrameBuffer.flip();
+
+        // The stream header is not part of the transaction, so it is not included in the checksum
+        contentFrameBuffer.position(dataFrameOffset);
+        checksum.update(contentFrameBuffer);
+        contentFrameBuffer.rewind();
+
+        phase = TransactionPhase.SEND_FLOWFILE_CONTENTS;
+        return contentFrameBuffer;
+    }
+
+    private ByteBuffer noDataFrame() {
+        phase = TransactionPhase.GET_NEXT_FLOWFILE;
+
+        final ByteBuffer buffer = ByteBuffer.allocate(1);
+        buffer.put((byte) LoadBalanceProtocolConstants.NO_DATA_FRAME);
+        buffer.rewind();
+
+        checksum.update(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+
+        logger.debug("Sending NO_DATA_FRAME indicator to Peer {}", peerDescription);
+
+        return buffer;
+    }
+
     private byte[] compressDataFrame(final byte[] uncompressed, final int byteCount) throws IOException {
         try (final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             final OutputStream gzipOut = new GZIPOutputStream(baos, 1)) {
+             final OutputStream compressedOut = codec.compress(baos)) {
 
-            gzipOut.write(uncompressed, 0, byteCount);
-            gzipOut.close();
+            compressedOut.write(uncompressed, 0, byteCount);
+            compressedOut.close();
 
             return baos.toByteArray();
         }
@@ -370,13 +661,13 @@ public class LoadBalanceSession {
 
         final LoadBalanceCompression compression = partition.getCompression();
         final boolean compressAttributes = compression != LoadBalanceCompression.DO_NOT_COMPRESS;
-        logger.debug("Compression to use for sending to Peer {} is {}", peerDescription, compression);
+        logger.debug("Compression to use for sending to Peer {} is {} using codec {}", peerDescription, compression, codec);
 
         final byte[] flowFileEncoded;
         try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             if (compressAttributes) {
-                try (final OutputStream gzipOut = new GZIPOutputStream(baos, 1);
-                     final ByteCountingOutputStream out = new ByteCountingOutputStream(gzipOut)) {
+                try (final OutputStream compressedOut = codec.compress(baos);
+                     final ByteCountingOutputStream out = new ByteCountingOutputStream(compressedOut)) {
 
                     flowFileCodec.encode(currentFlowFile, out);
                 }
@@ -422,7 +713,7 @@ public class LoadBalanceSession {
     private boolean receiveProtocolVersionAcknowledgment() throws IOException {
         logger.debug("Confirming Protocol Version for Peer {}", peerDescription);
 
-        final OptionalInt ackResponse = channel.read();
+        final OptionalInt ackResponse = readResponse();
         if (!ackResponse.isPresent()) {
             if (System.currentTimeMillis() > readTimeout) {
                 throw new SocketTimeoutException("Timed out waiting for Peer " + peerDescription + " to acknowledge Protocol Version");
@@ -456,7 +747,7 @@ public class LoadBalanceSession {
     private boolean receiveRecommendedProtocolVersion() throws IOException {
         logger.debug("Receiving Protocol Version from Peer {}", peerDescription);
 
-        final OptionalInt recommendationResponse = channel.read();
+        final OptionalInt recommendationResponse = readResponse();
         if (!recommendationResponse.isPresent()) {
             if (System.currentTimeMillis() > readTimeout) {
                 throw new SocketTimeoutException("Timed out waiting for Peer " + peerDescription + " to recommend Protocol Version");
@@ -509,9 +800,16 @@ public class LoadBalanceSession {
     private ByteBuffer getConnectionId() {
         logger.debug("Sending Connection ID {} to Peer {}", connectionId, peerDescription);
 
-        final ByteBuffer buffer = ByteBuffer.allocate(connectionId.length() + 2);
+        final boolean sendCodec = protocolVersion >= COMPRESSION_CODEC_PROTOCOL_VERSION;
+        codec = sendCodec ? preferredCodec : LoadBalanceCompressionCodec.GZIP;
+
+        final ByteBuffer buffer = ByteBuffer.allocate(connectionId.length() + (sendCodec ? 3 : 2));
         buffer.putShort((short) connectionId.length());
         buffer.put(connectionId.getBytes(StandardCharsets.UTF_8));
+        if (sendCodec) {
+            logger.debug("Sending Compression Codec {} to Peer {}", codec, peerDescription);
+            buffer.put((byte) codec.getId());
+        }
         buffer.rewind();
 
         final byte[] frameBytes = buffer.array();
@@ -547,7 +845,7 @@ public class LoadBalanceSession {
     private boolean receiveSpaceAvailableResponse() throws IOException {
         logger.debug("Receiving response from Peer {} to determine whether or not space is available in queue {}", peerDescription, connectionId);
 
-        final OptionalInt spaceAvailableResponse = channel.read();
+        final OptionalInt spaceAvailableResponse = readResponse();
         if (!spaceAvailableResponse.isPresent()) {
             if (System.currentTimeMillis() > readTimeout) {
                 throw new SocketTimeoutException("Timed out waiting for Peer " + peerDescription + " to verify whether or not space is available for Connection " + connectionId);
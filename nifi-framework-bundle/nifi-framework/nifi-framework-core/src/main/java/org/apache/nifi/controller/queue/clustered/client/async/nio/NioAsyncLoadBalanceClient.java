@@ -29,6 +29,8 @@ import org.apache.nifi.controller.queue.clustered.client.LoadBalanceFlowFileCode
 import org.apache.nifi.controller.queue.clustered.client.async.AsyncLoadBalanceClient;
 import org.apache.nifi.controller.queue.clustered.client.async.TransactionCompleteCallback;
 import org.apache.nifi.controller.queue.clustered.client.async.TransactionFailureCallback;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceCompressionCodec;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.reporting.Severity;
@@ -37,9 +39,12 @@ import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
+import java.io.EOFException;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
@@ -48,6 +53,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalInt;
 import java.util.Queue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -68,6 +74,8 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
     private final int timeoutMillis;
     private final FlowFileContentAccess flowFileContentAccess;
     private final LoadBalanceFlowFileCodec flowFileCodec;
+    private final LoadBalanceCompressionCodec compressionCodec;
+    private final int streamsPerConnection;
     private final EventReporter eventReporter;
     private final ClusterCoordinator clusterCoordinator;
 
@@ -90,14 +98,32 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
     private final Lock loadBalanceSessionLock = new ReentrantLock();
     private LoadBalanceSession loadBalanceSession = null;
 
+    // When the peer supports multiplexing, a session is created for each of up to 'streamsPerConnection' partitions and the sessions' transactions
+    // are interleaved over the connection, one frame per session at a time, so that a single partition with large FlowFiles cannot starve the others.
+    // guarded by synchronizing on this
+    private boolean multiplexed = false;
+    private final List<LoadBalanceSession> streamSessions = new ArrayList<>();
+    private int streamIdCounter = 0;
+    private StreamFrameReader streamFrameReader;
+    // The session whose frame has been only partially written. Frames must not be interleaved, so no other session may write until it is complete.
+    private LoadBalanceSession pendingStreamWriter;
+
+    // Direct buffer into which FlowFile content is read and from which it is written to the socket. Only one session writes a frame
+    // at a time, so the buffer is reused by each session rather than allocating a new direct buffer for every transaction.
+    private final ByteBuffer contentFrameBuffer = ByteBuffer.allocateDirect(LoadBalanceSession.STREAM_HEADER_SIZE + LoadBalanceSession.DATA_FRAME_HEADER_SIZE
+        + LoadBalanceSession.MAX_DATA_FRAME_SIZE);
+
 
     public NioAsyncLoadBalanceClient(final NodeIdentifier nodeIdentifier, final SSLContext sslContext, final int timeoutMillis, final FlowFileContentAccess flowFileContentAccess,
-                                     final LoadBalanceFlowFileCodec flowFileCodec, final EventReporter eventReporter, final ClusterCoordinator clusterCoordinator) {
+                                     final LoadBalanceFlowFileCodec flowFileCodec, final LoadBalanceCompressionCodec compressionCodec, final int streamsPerConnection,
+                                     final EventReporter eventReporter, final ClusterCoordinator clusterCoordinator) {
         this.nodeIdentifier = nodeIdentifier;
         this.sslContext = sslContext;
         this.timeoutMillis = timeoutMillis;
         this.flowFileContentAccess = flowFileContentAccess;
         this.flowFileCodec = flowFileCodec;
+        this.compressionCodec = compressionCodec;
+        this.streamsPerConnection = streamsPerConnection;
         this.eventReporter = eventReporter;
         this.clusterCoordinator = clusterCoordinator;
     }
@@ -142,6 +168,16 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
                 removedPartition.getFailureCallback().onTransactionFailed(flowFilesSent, TransactionFailureCallback.TransactionPhase.SENDING);
             }
         }
+
+        for (final LoadBalanceSession streamSession : streamSessions) {
+            if (streamSession.getPartition() == removedPartition && streamSession.cancel()) {
+                // The canceled session remains until it has ended its stream, so that the peer does not wait for the rest of the transaction
+                final List<FlowFileRecord> flowFilesSent = streamSession.getAndPurgeFlowFilesSent();
+
+                logger.debug("{} Triggering failure callback for {} FlowFiles for Registered Partition {} because partition was unregistered", this, flowFilesSent.size(), removedPartition);
+                removedPartition.getFailureCallback().onTransactionFailed(flowFilesSent, TransactionFailureCallback.TransactionPhase.SENDING);
+            }
+        }
     }
 
     @Override
@@ -251,6 +287,13 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
 
                     return false;
                 }
+
+                // Any stream sessions that remain were abandoned along with the previous connection
+                failStreamSessions(getAndClearStreamSessions(), null, null);
+            }
+
+            if (isMultiplexed()) {
+                return communicateMultiplexed(readyPartition);
             }
 
             final LoadBalanceSession loadBalanceSession = getActiveTransaction(readyPartition);
@@ -287,7 +330,8 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
 
             final LoadBalanceSession.LoadBalanceSessionState sessionState = loadBalanceSession.getSessionState();
             if (sessionState.isComplete() && sessionState != LoadBalanceSession.LoadBalanceSessionState.CANCELED) {
-                loadBalanceSession.getPartition().getSuccessCallback().onTransactionComplete(loadBalanceSession.getAndPurgeFlowFilesSent(), nodeIdentifier);
+                loadBalanceSession.getPartition().getSuccessCallback().onTransactionComplete(loadBalanceSession.getAndPurgeFlowFilesSent(), nodeIdentifier,
+                    loadBalanceSession.getResponseLatencyNanos(), loadBalanceSession.getElapsedNanos());
             }
 
             return anySuccess;
@@ -300,6 +344,154 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
         }
     }
 
+    private boolean communicateMultiplexed(final RegisteredPartition proposedPartition) throws IOException {
+        final List<LoadBalanceSession> sessions = getStreamSessions(proposedPartition);
+        if (sessions.isEmpty()) {
+            penalize();
+            return false;
+        }
+
+        boolean anySuccess = false;
+        LoadBalanceSession currentSession = null;
+        try {
+            anySuccess = streamFrameReader.read();
+
+            selector.selectNow();
+            final int readyOps = selectionKey.readyOps();
+
+            // Each session is given the opportunity to send or receive a single frame per round so that the partitions share the connection fairly
+            for (final LoadBalanceSession session : sessions) {
+                final int desiredReadinessFlag = session.getDesiredReadinessFlag();
+                if ((desiredReadinessFlag & readyOps) == 0 && desiredReadinessFlag != SelectionKey.OP_READ) {
+                    continue;
+                }
+                if (pendingStreamWriter != null && pendingStreamWriter != session && desiredReadinessFlag != SelectionKey.OP_READ) {
+                    continue;
+                }
+
+                currentSession = session;
+                final boolean success = session.communicate();
+                anySuccess = anySuccess || success;
+
+                if (session.hasPendingFrame()) {
+                    pendingStreamWriter = session;
+                } else if (pendingStreamWriter == session) {
+                    pendingStreamWriter = null;
+                }
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to communicate with Peer {}", nodeIdentifier, e);
+            eventReporter.reportEvent(Severity.ERROR, "Load Balanced Connection", "Failed to communicate with Peer " + nodeIdentifier + " when load balancing data over a multiplexed connection due to "
+                + e);
+
+            // Frames for every stream are interleaved over the connection, so a failure of any stream leaves the connection unusable and fails all of them.
+            penalize();
+            failStreamSessions(getAndClearStreamSessions(), currentSession, e);
+            close();
+
+            return false;
+        }
+
+        for (final LoadBalanceSession session : removeFinishedStreamSessions()) {
+            if (session.getSessionState() == LoadBalanceSession.LoadBalanceSessionState.COMPLETED_SUCCESSFULLY) {
+                session.getPartition().getSuccessCallback().onTransactionComplete(session.getAndPurgeFlowFilesSent(), nodeIdentifier, session.getResponseLatencyNanos(),
+                    session.getElapsedNanos());
+            }
+        }
+
+        return anySuccess;
+    }
+
+    private void failStreamSessions(final List<LoadBalanceSession> sessions, final LoadBalanceSession failedSession, final Exception cause) {
+        for (final LoadBalanceSession session : sessions) {
+            if (session.getSessionState() == LoadBalanceSession.LoadBalanceSessionState.CANCELED) {
+                // The failure callback was already triggered when the session was canceled
+                continue;
+            }
+
+            // Only the session that failed is given the cause itself. E.g., a ContentNotFoundException pertains only to the FlowFile of that session.
+            final Exception sessionCause = (cause == null || session == failedSession) ? cause
+                : new IOException("Transaction failed because another transaction over the multiplexed connection to " + nodeIdentifier + " failed", cause);
+            session.getPartition().getFailureCallback().onTransactionFailed(session.getAndPurgeFlowFilesSent(), sessionCause, TransactionFailureCallback.TransactionPhase.SENDING);
+        }
+    }
+
+    private synchronized boolean isMultiplexed() {
+        return multiplexed;
+    }
+
+    private synchronized List<LoadBalanceSession> getStreamSessions(final RegisteredPartition proposedPartition) {
+        if (proposedPartition != null) {
+            if (streamSessions.size() < streamsPerConnection && !hasStreamSession(proposedPartition)) {
+                createStreamSession(proposedPartition);
+            }
+
+            partitionQueue.offer(proposedPartition);
+        }
+
+        while (streamSessions.size() < streamsPerConnection) {
+            final RegisteredPartition readyPartition = getReadyPartition(true, partition -> !hasStreamSession(partition));
+            if (readyPartition == null) {
+                break;
+            }
+
+            createStreamSession(readyPartition);
+            partitionQueue.offer(readyPartition);
+        }
+
+        return new ArrayList<>(streamSessions);
+    }
+
+    private synchronized boolean hasStreamSession(final RegisteredPartition partition) {
+        for (final LoadBalanceSession session : streamSessions) {
+            if (session.getPartition() == partition) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private synchronized LoadBalanceSession getStreamSession(final int streamId) {
+        for (final LoadBalanceSession session : streamSessions) {
+            if (session.getStreamId() == streamId) {
+                return session;
+            }
+        }
+
+        return null;
+    }
+
+    private synchronized void createStreamSession(final RegisteredPartition partition) {
+        int streamId = streamIdCounter;
+        while (getStreamSession(streamId) != null) {
+            streamId = (streamId + 1) & 0xFFFF;
+        }
+        streamIdCounter = (streamId + 1) & 0xFFFF;
+
+        streamSessions.add(new LoadBalanceSession(partition, flowFileContentAccess, flowFileCodec, channel, timeoutMillis, newTransactionThreshold(), compressionCodec,
+            contentFrameBuffer, streamId));
+    }
+
+    private synchronized List<LoadBalanceSession> removeFinishedStreamSessions() {
+        final List<LoadBalanceSession> finished = new ArrayList<>();
+        for (final LoadBalanceSession session : streamSessions) {
+            if (session.isFinished()) {
+                finished.add(session);
+            }
+        }
+
+        streamSessions.removeAll(finished);
+        return finished;
+    }
+
+    private synchronized List<LoadBalanceSession> getAndClearStreamSessions() {
+        final List<LoadBalanceSession> sessions = new ArrayList<>(streamSessions);
+        streamSessions.clear();
+        pendingStreamWriter = null;
+        return sessions;
+    }
+
     /**
      * If any FlowFiles have been transferred in an active session, fail the transaction. Otherwise, gather up to the Transaction Threshold's limits
      * worth of FlowFiles and treat them as a failed transaction. In either case, terminate the session. This allows us to transfer FlowFiles from
@@ -332,6 +524,16 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
                 return;
             }
 
+            final List<LoadBalanceSession> abandonedSessions = getAndClearStreamSessions();
+            if (!abandonedSessions.isEmpty()) {
+                logger.debug("Node {} disconnected so will terminate the {} Load Balancing Sessions of the multiplexed connection", nodeIdentifier, abandonedSessions.size());
+                failStreamSessions(abandonedSessions, null, null);
+
+                close();
+                penalize();
+                return;
+            }
+
             // Obtain a partition that needs to be rebalanced on failure
             final RegisteredPartition readyPartition = getReadyPartition(false, partition -> partition.getFailureCallback().isRebalanceOnFailure());
             if (readyPartition == null) {
@@ -420,7 +622,8 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
             return null;
         }
 
-        loadBalanceSession = new LoadBalanceSession(readyPartition, flowFileContentAccess, flowFileCodec, channel, timeoutMillis, newTransactionThreshold());
+        loadBalanceSession = new LoadBalanceSession(readyPartition, flowFileContentAccess, flowFileCodec, channel, timeoutMillis, newTransactionThreshold(), compressionCodec,
+            contentFrameBuffer);
         partitionQueue.offer(readyPartition);
 
         return loadBalanceSession;
@@ -461,6 +664,12 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
                 socketChannel.configureBlocking(false);
                 selectionKey = socketChannel.register(selector, SelectionKey.OP_WRITE | SelectionKey.OP_READ);
             }
+
+            final boolean multiplexingAccepted = streamsPerConnection > 1 && negotiateMultiplexing(peerChannel);
+            synchronized (this) {
+                multiplexed = multiplexingAccepted;
+                streamFrameReader = multiplexingAccepted ? new StreamFrameReader(peerChannel, this::getStreamSession) : null;
+            }
         } catch (Exception e) {
             logger.error("Unable to connect to {} for load balancing", nodeIdentifier, e);
 
@@ -479,6 +688,73 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
     }
 
 
+    /**
+     * Recommends the multiplexed version of the protocol to the peer. If the peer does not support it, the peer responds with the version that it
+     * prefers, and the protocol version negotiation is then continued by the first session, just as it would be if multiplexing had not been recommended.
+     *
+     * @return <code>true</code> if the peer accepted the multiplexed version of the protocol
+     */
+    private boolean negotiateMultiplexing(final PeerChannel peerChannel) throws IOException {
+        logger.debug("Recommending to Peer {} that Protocol Version {} be used", nodeIdentifier, LoadBalanceProtocolConstants.MULTIPLEXED_PROTOCOL_VERSION);
+
+        final long timeout = System.currentTimeMillis() + timeoutMillis;
+        final ByteBuffer prepared = peerChannel.prepareForWrite(ByteBuffer.wrap(new byte[] {(byte) LoadBalanceProtocolConstants.MULTIPLEXED_PROTOCOL_VERSION}));
+        while (prepared.hasRemaining()) {
+            if (peerChannel.write(prepared) == 0) {
+                awaitReadiness(timeout);
+            }
+        }
+
+        final int response = readByte(peerChannel, timeout);
+        if (response == LoadBalanceProtocolConstants.VERSION_ACCEPTED) {
+            logger.debug("Peer {} accepted multiplexed Protocol Version", nodeIdentifier);
+            return true;
+        }
+
+        if (response == LoadBalanceProtocolConstants.REQEUST_DIFFERENT_VERSION) {
+            final int preferredVersion = readByte(peerChannel, timeout);
+            logger.debug("Peer {} does not support multiplexing and requested Protocol Version {}; will send one transaction at a time", nodeIdentifier, preferredVersion);
+            return false;
+        }
+
+        throw new IOException("Failed to negotiate Protocol Version with Peer " + nodeIdentifier + ". Recommended version " + LoadBalanceProtocolConstants.MULTIPLEXED_PROTOCOL_VERSION
+            + " but instead of an ACCEPT or REJECT response got back a response of " + response);
+    }
+
+    private int readByte(final PeerChannel peerChannel, final long timeout) throws IOException {
+        selectionKey.interestOps(SelectionKey.OP_READ);
+        try {
+            return awaitByte(peerChannel, timeout);
+        } finally {
+            selectionKey.interestOps(SelectionKey.OP_WRITE | SelectionKey.OP_READ);
+        }
+    }
+
+    private int awaitByte(final PeerChannel peerChannel, final long timeout) throws IOException {
+        while (true) {
+            final OptionalInt read = peerChannel.read();
+            if (read.isPresent()) {
+                if (read.getAsInt() < 0) {
+                    throw new EOFException("Encountered End-of-File with Peer " + nodeIdentifier + " when negotiating Protocol Version");
+                }
+
+                return read.getAsInt();
+            }
+
+            awaitReadiness(timeout);
+        }
+    }
+
+    private void awaitReadiness(final long timeout) throws IOException {
+        final long remaining = timeout - System.currentTimeMillis();
+        if (remaining <= 0) {
+            throw new SocketTimeoutException("Timed out waiting for Peer " + nodeIdentifier + " to negotiate Protocol Version");
+        }
+
+        selector.select(Math.min(remaining, 100L));
+        selector.selectedKeys().clear();
+    }
+
     private PeerChannel createPeerChannel(final SocketChannel channel, final String peerDescription) {
         if (sslContext == null) {
             logger.debug("No SSL Context is available so will not perform SSL Handshake with Peer {}", peerDescription);
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.client.async.nio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+
+/**
+ * Reads the frames that a peer sends over a multiplexed connection and routes the data of each frame to the session of the stream that it belongs to.
+ * Reading never blocks: whatever data is available from the channel is consumed, and a frame that has been only partially received is completed on
+ * a subsequent call.
+ */
+class StreamFrameReader {
+    private static final Logger logger = LoggerFactory.getLogger(StreamFrameReader.class);
+
+    private final PeerChannel channel;
+    private final IntFunction<LoadBalanceSession> sessionLookup;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+    private final ByteBuffer headerBuffer = ByteBuffer.allocate(LoadBalanceSession.STREAM_HEADER_SIZE);
+
+    private int currentStreamId;
+    private int frameBytesRemaining = 0;
+
+    StreamFrameReader(final PeerChannel channel, final IntFunction<LoadBalanceSession> sessionLookup) {
+        this.channel = channel;
+        this.sessionLookup = sessionLookup;
+    }
+
+    /**
+     * Reads any data that is available from the channel and provides it to the appropriate sessions
+     *
+     * @return <code>true</code> if any data was read
+     * @throws IOException if unable to read from the channel or if the peer closed the connection
+     */
+    boolean read() throws IOException {
+        boolean anythingRead = false;
+
+        while (true) {
+            readBuffer.clear();
+            final int bytesRead = channel.read(readBuffer);
+            if (bytesRead < 0) {
+                throw new EOFException("Peer " + channel.getPeerDescription() + " closed the multiplexed connection");
+            }
+            if (bytesRead == 0) {
+                return anythingRead;
+            }
+
+            anythingRead = true;
+            readBuffer.flip();
+            consume(readBuffer);
+        }
+    }
+
+    private void consume(final ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            if (frameBytesRemaining == 0) {
+                while (headerBuffer.hasRemaining() && buffer.hasRemaining()) {
+                    headerBuffer.put(buffer.get());
+                }
+
+                if (headerBuffer.hasRemaining()) {
+                    return;
+                }
+
+                headerBuffer.flip();
+                currentStreamId = headerBuffer.getShort() & 0xFFFF;
+                final int frameLength = headerBuffer.getInt();
+                headerBuffer.clear();
+
+                if (frameLength < 0) {
+                    // A negative length carries no data but grants the stream permission to send more
+                    grantSendWindow(currentStreamId, -frameLength);
+                } else {
+                    frameBytesRemaining = frameLength;
+                }
+                continue;
+            }
+
+            final int length = Math.min(frameBytesRemaining, buffer.remaining());
+            final LoadBalanceSession session = sessionLookup.apply(currentStreamId);
+            if (session == null) {
+                logger.debug("Discarding {} bytes received from Peer {} for Stream {}, which is no longer active", length, channel.getPeerDescription(), currentStreamId);
+                buffer.position(buffer.position() + length);
+            } else {
+                session.receiveStreamData(buffer, length);
+            }
+
+            frameBytesRemaining -= length;
+        }
+    }
+
+    private void grantSendWindow(final int streamId, final int bytes) {
+        final LoadBalanceSession session = sessionLookup.apply(streamId);
+        if (session == null) {
+            logger.debug("Ignoring window update received from Peer {} for Stream {}, which is no longer active", channel.getPeerDescription(), streamId);
+            return;
+        }
+
+        session.addSendWindow(bytes);
+    }
+}
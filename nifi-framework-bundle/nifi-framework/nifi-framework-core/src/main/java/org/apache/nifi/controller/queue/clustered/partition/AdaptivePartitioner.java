@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A partitioner that weights partitions by how busy the corresponding node appears to be. For each partition, the time that it
+ * would take to deliver the FlowFile is estimated from the number of bytes already queued for the partition, along with the average
+ * latency and throughput that have been observed when sending data to the node (see {@link TransferStatistics}). The
+ * partition with the smallest estimate is chosen. Ties are broken in a round-robin fashion so that, when all nodes
+ * appear equally busy, the behavior is the same as that of the {@link RoundRobinPartitioner}.
+ *
+ * If a partitioning attribute is provided, any FlowFile that has that attribute is assigned to a partition in the same way as the
+ * {@link CorrelationAttributePartitioner} so that all FlowFiles with the same value are sent to the same node. Only FlowFiles that do not
+ * have the attribute are distributed based on load.
+ */
+public class AdaptivePartitioner implements FlowFilePartitioner {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePartitioner.class);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+    private final String partitioningAttribute;
+    private final CorrelationAttributePartitioner correlationPartitioner;
+    private final AtomicLong counter = new AtomicLong(0L);
+
+    public AdaptivePartitioner(final String partitioningAttribute) {
+        this.partitioningAttribute = partitioningAttribute;
+        this.correlationPartitioner = partitioningAttribute == null ? null : new CorrelationAttributePartitioner(partitioningAttribute);
+    }
+
+    @Override
+    public QueuePartition getPartition(final FlowFileRecord flowFile, final QueuePartition[] partitions, final QueuePartition localPartition) {
+        if (correlationPartitioner != null && flowFile.getAttribute(partitioningAttribute) != null) {
+            return correlationPartitioner.getPartition(flowFile, partitions, localPartition);
+        }
+
+        if (partitions.length == 1) {
+            return partitions[0];
+        }
+
+        // Partitions that have no statistics, such as the local partition or a partition for a node that has not yet been sent any data,
+        // are assumed to perform as well as the average of those partitions that do have statistics.
+        double latencySum = 0D;
+        int latencyCount = 0;
+        double throughputSum = 0D;
+        int throughputCount = 0;
+        final TransferStatistics[] statistics = new TransferStatistics[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            final Optional<TransferStatistics> optionalStatistics = partitions[i].getTransferStatistics();
+            if (optionalStatistics.isEmpty()) {
+                continue;
+            }
+
+            final TransferStatistics partitionStatistics = optionalStatistics.get();
+            statistics[i] = partitionStatistics;
+            if (partitionStatistics.isLatencyObserved()) {
+                latencySum += partitionStatistics.getAverageLatencyNanos();
+                latencyCount++;
+            }
+            if (partitionStatistics.isThroughputObserved()) {
+                throughputSum += partitionStatistics.getThroughputBytesPerSecond();
+                throughputCount++;
+            }
+        }
+
+        final double defaultLatency = latencyCount == 0 ? 0D : latencySum / latencyCount;
+        final double defaultThroughput = throughputCount == 0 ? 0D : throughputSum / throughputCount;
+
+        // Start at a different partition each time so that ties are broken in a round-robin fashion
+        final int startIndex = (int) (counter.getAndIncrement() % partitions.length);
+        int bestIndex = startIndex;
+        double bestEstimate = Double.MAX_VALUE;
+        for (int i = 0; i < partitions.length; i++) {
+            final int index = (startIndex + i) % partitions.length;
+            final double estimate = estimateDelay(flowFile, partitions[index], statistics[index], defaultLatency, defaultThroughput);
+            if (estimate < bestEstimate) {
+                bestEstimate = estimate;
+                bestIndex = index;
+            }
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Assigning Partition {} to {} based on estimated delay of {} nanos", partitions[bestIndex].getSwapPartitionName(), flowFile, (long) bestEstimate);
+        }
+
+        return partitions[bestIndex];
+    }
+
+    /**
+     * Estimates how long it will take for the given FlowFile to be delivered if it is added to the given partition. The latency excludes the
+     * time spent transferring data, so the transfer time is accounted for only by the throughput. If no throughput has been
+     * observed for any partition, the estimate is simply the number of bytes that would be queued, which still favors the least busy partition.
+     */
+    private double estimateDelay(final FlowFileRecord flowFile, final QueuePartition partition, final TransferStatistics statistics,
+                                 final double defaultLatency, final double defaultThroughput) {
+        final QueueSize queueSize = partition.size();
+        final double queuedBytes = (double) queueSize.getByteCount() + flowFile.getSize();
+
+        final double latency = (statistics != null && statistics.isLatencyObserved()) ? statistics.getAverageLatencyNanos() : defaultLatency;
+        final double throughput = (statistics != null && statistics.isThroughputObserved()) ? statistics.getThroughputBytesPerSecond() : defaultThroughput;
+        if (throughput <= 0D) {
+            return latency + queuedBytes;
+        }
+
+        return latency + queuedBytes / throughput * NANOS_PER_SECOND;
+    }
+
+    @Override
+    public boolean isRebalanceOnClusterResize() {
+        // If FlowFiles are correlated by attribute, they must be redistributed when the cluster changes, just as with the CorrelationAttributePartitioner.
+        return correlationPartitioner != null;
+    }
+
+    @Override
+    public boolean isRebalanceOnFailure() {
+        // FlowFiles must not be moved to another node if they are correlated by attribute.
+        return correlationPartitioner == null;
+    }
+}
@@ -110,4 +110,12 @@ public interface QueuePartition {
      * @return The minimum lastQueueDate in milliseconds of all FlowFiles currently enqueued. If no FlowFile is enqueued, this returns 0.
      */
     long getMinLastQueueDate();
+
+    /**
+     * @return statistics about how quickly FlowFiles are transferred from this partition to the node that it corresponds to,
+     *         or an empty Optional if FlowFiles in this partition are not transferred to another node
+     */
+    default Optional<TransferStatistics> getTransferStatistics() {
+        return Optional.empty();
+    }
 }
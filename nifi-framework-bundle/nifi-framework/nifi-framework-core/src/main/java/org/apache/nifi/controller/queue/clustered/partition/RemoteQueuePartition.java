@@ -76,6 +76,7 @@ public class RemoteQueuePartition implements QueuePartition {
     @SuppressWarnings("PMD.UnusedPrivateField")
     private final ContentRepository contentRepo;
     private final AsyncLoadBalanceClientRegistry clientRegistry;
+    private final TransferStatistics transferStatistics = new TransferStatistics();
 
     private boolean running = false;
     private final String description;
@@ -100,6 +101,11 @@ public class RemoteQueuePartition implements QueuePartition {
         return priorityQueue.size();
     }
 
+    @Override
+    public Optional<TransferStatistics> getTransferStatistics() {
+        return Optional.of(transferStatistics);
+    }
+
     @Override
     public long getTotalActiveQueuedDuration(long fromTimestamp) {
         return priorityQueue.getTotalQueuedDuration(fromTimestamp);
@@ -172,6 +178,11 @@ public class RemoteQueuePartition implements QueuePartition {
                 // has not changed. They FlowFiles were just re-queued or moved between partitions.
                 priorityQueue.acknowledge(flowFiles);
 
+                // Missing content says nothing about how well the node is able to receive data, so only other failures count against it.
+                if (!(cause instanceof ContentNotFoundException)) {
+                    transferStatistics.recordFailure();
+                }
+
                 if (cause instanceof ContentNotFoundException) {
                     // Handle ContentNotFound by creating a RepositoryRecord for the FlowFile and marking as aborted, then updating the
                     // FlowFiles and Provenance Repositories accordingly. This follows the same pattern as StandardProcessSession so that
@@ -216,12 +227,18 @@ public class RemoteQueuePartition implements QueuePartition {
             }
         };
 
-        final TransactionCompleteCallback successCallback = (flowFilesSent, nodeIdentifier) -> {
+        final TransactionCompleteCallback successCallback = (flowFilesSent, nodeIdentifier, latencyNanos, transactionNanos) -> {
             // We've now completed the transaction. We must now update the repositories and "keep the books", acknowledging the FlowFiles
             // with the queue so that its size remains accurate.
             priorityQueue.acknowledge(flowFilesSent);
             flowFileQueue.onTransfer(flowFilesSent);
             updateRepositories(flowFilesSent, Collections.emptyList(), nodeIdentifier);
+
+            long bytesSent = 0L;
+            for (final FlowFileRecord flowFile : flowFilesSent) {
+                bytesSent += flowFile.getSize();
+            }
+            transferStatistics.recordTransaction(flowFilesSent.size(), bytesSent, latencyNanos, transactionNanos);
         };
 
         final BooleanSupplier emptySupplier = priorityQueue::isEmpty;
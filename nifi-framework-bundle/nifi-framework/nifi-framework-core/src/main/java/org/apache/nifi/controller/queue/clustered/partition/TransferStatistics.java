@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps an exponentially weighted moving average of the latency of a node, which is how long the node takes to respond apart from
+ * the time spent transferring data, and of how many bytes per second are transferred to that node. The statistics are updated by the
+ * Load Balance Client as transactions complete or fail and are used by partitioners, such as the {@link AdaptivePartitioner}, in order to
+ * favor nodes that are able to accept data more quickly.
+ */
+public class TransferStatistics {
+    // Weight given to the newest observation. A value of 0.2 means that an observation has mostly aged out after about 10 transactions.
+    private static final double SMOOTHING_FACTOR = 0.2D;
+    private static final long MIN_FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1L);
+
+    private double averageLatencyNanos;
+    private double throughputBytesPerSecond;
+    private boolean latencyObserved = false;
+    private boolean throughputObserved = false;
+    private long transactionCount;
+    private long failureCount;
+
+    /**
+     * Records that a transaction completed successfully
+     *
+     * @param flowFileCount the number of FlowFiles that were sent in the transaction
+     * @param bytes the number of bytes of FlowFile content that were sent in the transaction
+     * @param latencyNanos the number of nanoseconds that the node took to respond, apart from the time spent transferring data
+     * @param transactionNanos the number of nanoseconds that the entire transaction took, including the latency
+     */
+    public synchronized void recordTransaction(final int flowFileCount, final long bytes, final long latencyNanos, final long transactionNanos) {
+        if (flowFileCount < 1 || transactionNanos < 1) {
+            return;
+        }
+
+        transactionCount++;
+        final long boundedLatencyNanos = Math.min(Math.max(latencyNanos, 0L), transactionNanos);
+        averageLatencyNanos = latencyObserved ? smooth(averageLatencyNanos, boundedLatencyNanos) : boundedLatencyNanos;
+        latencyObserved = true;
+
+        // The latency is excluded so that it is not counted again when estimating how long queued data will take to transfer
+        final long transferNanos = Math.max(transactionNanos - boundedLatencyNanos, 1L);
+        final double bytesPerSecond = bytes * (double) TimeUnit.SECONDS.toNanos(1L) / transferNanos;
+        throughputBytesPerSecond = throughputObserved ? smooth(throughputBytesPerSecond, bytesPerSecond) : bytesPerSecond;
+        throughputObserved = true;
+    }
+
+    /**
+     * Records that a transaction failed. A failure is treated as a transaction that took twice as long as the average (but at least
+     * one second) so that a node that is failing is avoided until it begins to complete transactions again.
+     */
+    public synchronized void recordFailure() {
+        failureCount++;
+        final double penalty = Math.max(averageLatencyNanos * 2, MIN_FAILURE_PENALTY_NANOS);
+        averageLatencyNanos = latencyObserved ? smooth(averageLatencyNanos, penalty) : penalty;
+        latencyObserved = true;
+    }
+
+    /**
+     * @return <code>true</code> if at least one transaction has completed or failed, <code>false</code> otherwise
+     */
+    public synchronized boolean isLatencyObserved() {
+        return latencyObserved;
+    }
+
+    /**
+     * @return <code>true</code> if at least one transaction has completed successfully, <code>false</code> otherwise
+     */
+    public synchronized boolean isThroughputObserved() {
+        return throughputObserved;
+    }
+
+    /**
+     * @return the moving average of the number of nanoseconds that the node takes to respond, apart from the time spent transferring data,
+     * or 0 if no transaction has been observed
+     */
+    public synchronized double getAverageLatencyNanos() {
+        return averageLatencyNanos;
+    }
+
+    /**
+     * @return the moving average of the number of bytes per second that are transferred, excluding the latency, or 0 if no transaction has completed
+     */
+    public synchronized double getThroughputBytesPerSecond() {
+        return throughputBytesPerSecond;
+    }
+
+    public synchronized long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public synchronized long getFailureCount() {
+        return failureCount;
+    }
+
+    private static double smooth(final double average, final double observation) {
+        return average + SMOOTHING_FACTOR * (observation - average);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TransferStatistics[averageLatencyMillis=" + TimeUnit.NANOSECONDS.toMillis((long) averageLatencyNanos)
+            + ", throughputBytesPerSecond=" + (long) throughputBytesPerSecond + ", transactions=" + transactionCount + ", failures=" + failureCount + "]";
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered.protocol;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.apache.nifi.stream.io.GZIPOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The codecs that may be used to compress FlowFile attributes and content that are sent between nodes for a load-balanced Connection.
+ * Whether or not anything is compressed is still governed by the Connection's LoadBalanceCompression; the codec only determines how.
+ * Version 1 of the Load Balance Protocol always uses GZIP. Starting with version {@link LoadBalanceProtocolConstants#COMPRESSION_CODEC_PROTOCOL_VERSION},
+ * the client indicates the codec by sending its identifier immediately after the Connection ID.
+ */
+public enum LoadBalanceCompressionCodec {
+    GZIP(1) {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, 1);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) throws IOException {
+            return new GZIPInputStream(in);
+        }
+    },
+
+    ZSTD(2) {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            return new ZstdOutputStream(out, ZSTD_LEVEL);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) throws IOException {
+            return new ZstdInputStream(in);
+        }
+    };
+
+    private static final int ZSTD_LEVEL = 1;
+
+    private final int id;
+
+    LoadBalanceCompressionCodec(final int id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the identifier that is written on the wire to indicate this codec
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Wraps the given OutputStream so that data written to the returned stream is compressed. Closing the returned stream
+     * finishes the compressed data and closes the given stream.
+     */
+    public abstract OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * Wraps the given InputStream so that data read from the returned stream is decompressed
+     */
+    public abstract InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * Returns the codec with the given wire identifier
+     *
+     * @param id the identifier of the codec
+     * @return the codec with the given identifier, or <code>null</code> if there is no codec with that identifier
+     */
+    public static LoadBalanceCompressionCodec fromId(final int id) {
+        for (final LoadBalanceCompressionCodec codec : values()) {
+            if (codec.id == id) {
+                return codec;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the codec with the given name, ignoring case
+     *
+     * @param name the name of the codec
+     * @return the codec with the given name
+     * @throws IllegalArgumentException if there is no codec with the given name
+     */
+    public static LoadBalanceCompressionCodec fromName(final String name) {
+        for (final LoadBalanceCompressionCodec codec : values()) {
+            if (codec.name().equals(name.trim().toUpperCase(Locale.ROOT))) {
+                return codec;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid Load Balance Compression Codec '" + name + "'; valid values are GZIP, ZSTD");
+    }
+}
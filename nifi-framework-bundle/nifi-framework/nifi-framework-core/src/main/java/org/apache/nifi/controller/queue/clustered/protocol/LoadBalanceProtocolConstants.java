@@ -18,6 +18,17 @@
 package org.apache.nifi.controller.queue.clustered.protocol;
 
 public class LoadBalanceProtocolConstants {
+    // Protocol versions
+    public static final int INITIAL_PROTOCOL_VERSION = 1;
+    public static final int COMPRESSION_CODEC_PROTOCOL_VERSION = 2; // Connection ID is followed by the identifier of the LoadBalanceCompressionCodec
+    // Once negotiated, all data in both directions is sent in frames that are prefixed with a 2-byte Stream ID and a 4-byte length. Each stream
+    // carries a single transaction as in version 2, beginning with the Connection ID. A frame of length 0 indicates that the client abandoned the stream.
+    public static final int MULTIPLEXED_PROTOCOL_VERSION = 3;
+    // The client may have no more than this many bytes of a stream's data outstanding that the server has not yet consumed. As the server consumes the
+    // data, it grants the client permission to send more with a frame for the stream whose length is negative. Such a frame carries no data, and the
+    // negated length is the number of additional bytes that may be sent. This prevents a stream whose data is consumed slowly from holding up the others.
+    public static final int STREAM_WINDOW_SIZE = 128 * 1024;
+
     // Protocol negotiation constants
     public static final int VERSION_ACCEPTED = 0x10;
     public static final int REQEUST_DIFFERENT_VERSION = 0x11;
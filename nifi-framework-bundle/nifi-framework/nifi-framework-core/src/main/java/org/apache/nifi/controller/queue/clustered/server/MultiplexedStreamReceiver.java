@@ -0,0 +1,406 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.server;
+
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Receives the streams that a client interleaves over a single socket once version
+ * {@link org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants#MULTIPLEXED_PROTOCOL_VERSION} of the protocol
+ * has been negotiated. Every frame is prefixed with the ID of the stream that it belongs to and its length. The frames of each stream are
+ * handed to a separate thread that receives the stream's transaction, so that a large FlowFile being sent for one Connection does not hold up
+ * the transactions of other Connections that share the socket. The client may send only as much of a stream's data as fits within the stream's
+ * window, so a stream whose thread is slow to consume its data never prevents the frames of other streams from being read.
+ */
+class MultiplexedStreamReceiver {
+    private static final Logger logger = LoggerFactory.getLogger(MultiplexedStreamReceiver.class);
+    private static final AtomicLong threadCounter = new AtomicLong(1L);
+
+    private static final int STREAM_BUFFER_SIZE = LoadBalanceProtocolConstants.STREAM_WINDOW_SIZE;
+    private static final int WINDOW_UPDATE_THRESHOLD = STREAM_BUFFER_SIZE / 4;
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final Closeable connection;
+    private final String peerDescription;
+    private final int timeoutMillis;
+    private final StreamHandler handler;
+    private final int maxStreams;
+    private final Semaphore streamPermits;
+
+    private final Map<Integer, StreamInputStream> streams = new ConcurrentHashMap<>();
+    private volatile Exception streamFailure;
+
+    /**
+     * @param in the input stream of the socket
+     * @param out the output stream of the socket
+     * @param connection the socket, which is closed if any stream fails
+     * @param peerDescription description of the peer, for logging
+     * @param timeoutMillis how long to wait for data on a stream before considering the peer unresponsive
+     * @param handler receives the transaction of each stream
+     * @param maxStreams the maximum number of streams that the peer may have open concurrently
+     */
+    MultiplexedStreamReceiver(final InputStream in, final OutputStream out, final Closeable connection, final String peerDescription, final int timeoutMillis,
+                              final StreamHandler handler, final int maxStreams) {
+        this.in = new DataInputStream(in);
+        this.out = new DataOutputStream(out);
+        this.connection = connection;
+        this.peerDescription = peerDescription;
+        this.timeoutMillis = timeoutMillis;
+        this.handler = handler;
+        this.maxStreams = maxStreams;
+        this.streamPermits = new Semaphore(maxStreams);
+    }
+
+    /**
+     * Reads frames from the socket and dispatches them to their streams until the peer closes the socket.
+     *
+     * @throws IOException if unable to read from the socket or if any of the streams fails
+     */
+    void receive() throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(maxStreams, runnable -> {
+            final Thread thread = new Thread(runnable, "Load-Balance Server Stream Thread-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            final byte[] copyBuffer = new byte[COPY_BUFFER_SIZE];
+            while (true) {
+                final int firstIdByte;
+                try {
+                    firstIdByte = in.read();
+                } catch (final SocketTimeoutException ste) {
+                    // No frame has been started, so the peer is simply idle.
+                    continue;
+                }
+
+                if (firstIdByte < 0) {
+                    logger.debug("Peer {} closed the multiplexed connection", peerDescription);
+                    throwIfStreamFailed();
+                    return;
+                }
+
+                final int streamId = (firstIdByte << 8) | in.readUnsignedByte();
+                final int frameLength = in.readInt();
+                if (frameLength < 0) {
+                    // Window updates are only ever sent by the receiving side
+                    throw new IOException("Received a frame with invalid length " + frameLength + " for Stream " + streamId + " from Peer " + peerDescription);
+                }
+
+                if (frameLength == 0) {
+                    final StreamInputStream stream = streams.get(streamId);
+                    if (stream != null) {
+                        logger.debug("Peer {} abandoned Stream {}", peerDescription, streamId);
+                        stream.endOfStream();
+                    }
+                    continue;
+                }
+
+                StreamInputStream stream = streams.get(streamId);
+                if (stream == null) {
+                    acquireStreamPermit(streamId);
+                    stream = new StreamInputStream(streamId);
+                    streams.put(streamId, stream);
+                    startStream(executor, streamId, stream);
+                }
+
+                int remaining = frameLength;
+                while (remaining > 0) {
+                    final int length = Math.min(remaining, copyBuffer.length);
+                    in.readFully(copyBuffer, 0, length);
+                    stream.append(copyBuffer, length);
+                    remaining -= length;
+                }
+            }
+        } catch (final IOException e) {
+            // If the socket was closed because a stream failed, report that failure rather than the resulting socket error.
+            throwIfStreamFailed();
+            throw e;
+        } finally {
+            streams.values().forEach(StreamInputStream::endOfStream);
+            executor.shutdownNow();
+        }
+    }
+
+    private void throwIfStreamFailed() throws IOException {
+        final Exception failure = streamFailure;
+        if (failure != null) {
+            throw failure instanceof IOException ? (IOException) failure : new IOException("Failed to receive Stream from Peer " + peerDescription, failure);
+        }
+    }
+
+    private void acquireStreamPermit(final int streamId) throws IOException {
+        // A stream's permit is released only after its thread has sent the final response of its transaction, so a well-behaved peer that has just
+        // completed a transaction and started a new stream may briefly be ahead of that. A peer that keeps more streams open than allowed is refused.
+        try {
+            if (!streamPermits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Peer " + peerDescription + " attempted to open Stream " + streamId + " but already has the maximum of " + maxStreams + " concurrent Streams open");
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to open Stream " + streamId + " from Peer " + peerDescription);
+        }
+    }
+
+    private void startStream(final ExecutorService executor, final int streamId, final StreamInputStream stream) {
+        logger.debug("Receiving Stream {} from Peer {}", streamId, peerDescription);
+
+        executor.submit(() -> {
+            try {
+                handler.receive(stream, new StreamOutputStream(streamId));
+            } catch (final Exception e) {
+                if (stream.isEndedByPeer()) {
+                    logger.debug("Stream {} from Peer {} ended before its transaction completed", streamId, peerDescription, e);
+                    return;
+                }
+
+                // As when a transaction fails on a socket that is not multiplexed, the socket is closed so that the peer fails all of its transactions.
+                streamFailure = e;
+                try {
+                    connection.close();
+                } catch (final IOException ioe) {
+                    e.addSuppressed(ioe);
+                }
+            } finally {
+                streams.remove(streamId, stream);
+                stream.close();
+                streamPermits.release();
+            }
+        });
+    }
+
+    /**
+     * Receives the transaction that is carried by a single stream.
+     */
+    interface StreamHandler {
+        void receive(InputStream in, OutputStream out) throws IOException;
+    }
+
+    /**
+     * Buffers the data of a stream until the thread that is receiving the stream's transaction consumes it. The buffer is as large as the stream's window,
+     * and the window is granted back to the peer as the data is consumed, so appending data never has to wait for the stream's thread.
+     */
+    private class StreamInputStream extends InputStream {
+        private final int streamId;
+        private final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        private int readIndex = 0;
+        private int count = 0;
+        private int consumedWindow = 0;
+        private boolean endedByPeer = false;
+        private boolean closed = false;
+
+        StreamInputStream(final int streamId) {
+            this.streamId = streamId;
+        }
+
+        synchronized void append(final byte[] data, final int length) throws IOException {
+            if (closed) {
+                // Nothing is reading the stream any longer, so the data is discarded.
+                return;
+            }
+
+            if (count + length > buffer.length) {
+                throw new IOException("Peer " + peerDescription + " sent more data for Stream " + streamId + " than the Stream's window allows");
+            }
+
+            int offset = 0;
+            while (offset < length) {
+                final int writeIndex = (readIndex + count) % buffer.length;
+                final int bytesToCopy = Math.min(length - offset, buffer.length - writeIndex);
+                System.arraycopy(data, offset, buffer, writeIndex, bytesToCopy);
+                count += bytesToCopy;
+                offset += bytesToCopy;
+            }
+
+            notifyAll();
+        }
+
+        synchronized void endOfStream() {
+            endedByPeer = true;
+            notifyAll();
+        }
+
+        synchronized boolean isEndedByPeer() {
+            return endedByPeer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int value;
+            synchronized (this) {
+                if (!awaitData()) {
+                    return -1;
+                }
+
+                value = buffer[readIndex] & 0xFF;
+                consume(1);
+            }
+
+            grantConsumedWindow();
+            return value;
+        }
+
+        @Override
+        public int read(final byte[] destination, final int offset, final int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+
+            final int bytesToCopy;
+            synchronized (this) {
+                if (!awaitData()) {
+                    return -1;
+                }
+
+                bytesToCopy = Math.min(length, Math.min(count, buffer.length - readIndex));
+                System.arraycopy(buffer, readIndex, destination, offset, bytesToCopy);
+                consume(bytesToCopy);
+            }
+
+            grantConsumedWindow();
+            return bytesToCopy;
+        }
+
+        @Override
+        public synchronized int available() {
+            return count;
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            notifyAll();
+        }
+
+        private boolean awaitData() throws IOException {
+            final long timeout = System.currentTimeMillis() + timeoutMillis;
+            while (count == 0) {
+                if (endedByPeer || closed) {
+                    return false;
+                }
+
+                if (System.currentTimeMillis() > timeout) {
+                    throw new SocketTimeoutException("Timed out waiting for data from Peer " + peerDescription);
+                }
+
+                waitForSignal();
+            }
+
+            return true;
+        }
+
+        private void consume(final int length) {
+            readIndex = (readIndex + length) % buffer.length;
+            count -= length;
+            consumedWindow += length;
+        }
+
+        private void grantConsumedWindow() throws IOException {
+            // The window is granted back in batches rather than for every read, so that the peer is not sent a frame for every few bytes consumed.
+            // The update is written without holding the stream's lock, so that a slow write never holds up the socket reader appending to the stream.
+            final int grant;
+            synchronized (this) {
+                if (consumedWindow < WINDOW_UPDATE_THRESHOLD || endedByPeer || closed) {
+                    return;
+                }
+
+                grant = consumedWindow;
+                consumedWindow = 0;
+            }
+
+            synchronized (out) {
+                out.writeShort(streamId);
+                out.writeInt(-grant);
+                out.flush();
+            }
+        }
+
+        private void waitForSignal() throws InterruptedIOException {
+            try {
+                wait(100L);
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for data from Peer " + peerDescription);
+            }
+        }
+    }
+
+    /**
+     * Buffers the data that is written for a stream and sends it to the peer as a single frame when flushed.
+     */
+    private class StreamOutputStream extends OutputStream {
+        private final int streamId;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        StreamOutputStream(final int streamId) {
+            this.streamId = streamId;
+        }
+
+        @Override
+        public void write(final int b) {
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(final byte[] data, final int offset, final int length) {
+            buffer.write(data, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (buffer.size() == 0) {
+                return;
+            }
+
+            synchronized (out) {
+                out.writeShort(streamId);
+                out.writeInt(buffer.size());
+                buffer.writeTo(out);
+                out.flush();
+            }
+
+            buffer.reset();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
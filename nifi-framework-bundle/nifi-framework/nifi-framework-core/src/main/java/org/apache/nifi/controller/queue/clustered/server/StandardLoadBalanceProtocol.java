@@ -23,6 +23,7 @@ import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.queue.IllegalClusterStateException;
 import org.apache.nifi.controller.queue.LoadBalanceCompression;
 import org.apache.nifi.controller.queue.LoadBalancedFlowFileQueue;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceCompressionCodec;
 import org.apache.nifi.controller.repository.ContentRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
@@ -43,6 +44,7 @@ import org.apache.nifi.remote.VersionNegotiator;
 import org.apache.nifi.stream.io.ByteCountingInputStream;
 import org.apache.nifi.stream.io.LimitingInputStream;
 import org.apache.nifi.stream.io.StreamUtils;
+import org.apache.nifi.util.NiFiProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -66,16 +68,18 @@ import java.util.stream.Collectors;
 import java.util.zip.CRC32;
 import java.util.zip.CheckedInputStream;
 import java.util.zip.Checksum;
-import java.util.zip.GZIPInputStream;
 
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.ABORT_PROTOCOL_NEGOTIATION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.ABORT_TRANSACTION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CHECK_SPACE;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.COMPLETE_TRANSACTION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.COMPRESSION_CODEC_PROTOCOL_VERSION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_CHECKSUM;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_COMPLETE_TRANSACTION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.INITIAL_PROTOCOL_VERSION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.MORE_FLOWFILES;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.MULTIPLEXED_PROTOCOL_VERSION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.NO_DATA_FRAME;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.NO_MORE_FLOWFILES;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.QUEUE_FULL;
@@ -96,17 +100,24 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
     private final ProvenanceRepository provenanceRepository;
     private final FlowController flowController;
     private final LoadBalanceAuthorizer authorizer;
+    private final int maxStreamsPerConnection;
 
     private final ThreadLocal<byte[]> dataBuffer = new ThreadLocal<>();
     private final AtomicLong lineageStartIndex = new AtomicLong(0L);
 
     public StandardLoadBalanceProtocol(final FlowFileRepository flowFileRepository, final ContentRepository contentRepository, final ProvenanceRepository provenanceRepository,
                                        final FlowController flowController, final LoadBalanceAuthorizer authorizer) {
+        this(flowFileRepository, contentRepository, provenanceRepository, flowController, authorizer, NiFiProperties.DEFAULT_LOAD_BALANCE_STREAMS_PER_CONNECTION);
+    }
+
+    public StandardLoadBalanceProtocol(final FlowFileRepository flowFileRepository, final ContentRepository contentRepository, final ProvenanceRepository provenanceRepository,
+                                       final FlowController flowController, final LoadBalanceAuthorizer authorizer, final int maxStreamsPerConnection) {
         this.flowFileRepository = flowFileRepository;
         this.contentRepository = contentRepository;
         this.provenanceRepository = provenanceRepository;
         this.flowController = flowController;
         this.authorizer = authorizer;
+        this.maxStreamsPerConnection = maxStreamsPerConnection;
     }
 
 
@@ -133,12 +144,32 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
             return;
         }
 
+        if (version == MULTIPLEXED_PROTOCOL_VERSION) {
+            receiveMultiplexedStreams(socket, in, out, peerDescription);
+            return;
+        }
+
         receiveFlowFiles(in, out, peerDescription, version);
     }
 
+    private void receiveMultiplexedStreams(final Socket socket, final InputStream in, final OutputStream out, final String peerDescription) throws IOException {
+        logger.debug("Receiving multiplexed streams from {}", peerDescription);
+
+        // Each stream carries a single transaction in the format of the Compression Codec version of the protocol. The streams are received until the peer
+        // closes the socket, at which point the socket is closed so that the server does not attempt to negotiate a protocol version over it again.
+        final MultiplexedStreamReceiver receiver = new MultiplexedStreamReceiver(in, out, socket, peerDescription, socket.getSoTimeout(),
+            (streamIn, streamOut) -> receiveFlowFiles(streamIn, streamOut, peerDescription, COMPRESSION_CODEC_PROTOCOL_VERSION), maxStreamsPerConnection);
+
+        try {
+            receiver.receive();
+        } finally {
+            socket.close();
+        }
+    }
+
 
     protected int negotiateProtocolVersion(final InputStream in, final OutputStream out, final String peerDescription, final String channelDescription) throws IOException {
-        final VersionNegotiator negotiator = new StandardVersionNegotiator(1);
+        final VersionNegotiator negotiator = new StandardVersionNegotiator(MULTIPLEXED_PROTOCOL_VERSION, COMPRESSION_CODEC_PROTOCOL_VERSION, INITIAL_PROTOCOL_VERSION);
 
         for (int i = 0;; i++) {
             final int requestedVersion;
@@ -215,6 +246,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
         }
 
         final LoadBalancedFlowFileQueue loadBalancedFlowFileQueue = (LoadBalancedFlowFileQueue) flowFileQueue;
+        final LoadBalanceCompressionCodec codec = getCompressionCodec(dataIn, peerDescription, connectionId, protocolVersion);
 
         final int spaceCheck = dataIn.read();
         if (spaceCheck < 0) {
@@ -238,7 +270,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
         }
 
         final LoadBalanceCompression compression = connection.getFlowFileQueue().getLoadBalanceCompression();
-        logger.debug("Receiving FlowFiles from Peer {} for Connection {}; Compression = {}", peerDescription, connectionId, compression);
+        logger.debug("Receiving FlowFiles from Peer {} for Connection {}; Compression = {}, Codec = {}", peerDescription, connectionId, compression, codec);
 
         ContentClaim contentClaim = null;
         final List<RemoteFlowFileRecord> flowFilesReceived = new ArrayList<>();
@@ -253,7 +285,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
                         contentClaimOut = contentRepository.write(contentClaim);
                     }
 
-                    final RemoteFlowFileRecord flowFile = receiveFlowFile(dataIn, contentClaimOut, contentClaim, claimOffset, protocolVersion, peerDescription, compression);
+                    final RemoteFlowFileRecord flowFile = receiveFlowFile(dataIn, contentClaimOut, contentClaim, claimOffset, protocolVersion, peerDescription, compression, codec);
 
                     // The FlowFile's Content Claim will either be null or equal to the provided Content Claim.
                     // Incrementing the FlowFile's content claim will increment the count for the provided Content Claim, if it was
@@ -477,6 +509,25 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
         }
     }
 
+    private LoadBalanceCompressionCodec getCompressionCodec(final DataInputStream in, final String peerDescription, final String connectionId, final int protocolVersion) throws IOException {
+        if (protocolVersion < COMPRESSION_CODEC_PROTOCOL_VERSION) {
+            return LoadBalanceCompressionCodec.GZIP;
+        }
+
+        final int codecId = in.read();
+        if (codecId < 0) {
+            throw new EOFException("Expected to receive a Compression Codec for Connection with ID " + connectionId + " from Peer " + peerDescription);
+        }
+
+        final LoadBalanceCompressionCodec codec = LoadBalanceCompressionCodec.fromId(codecId);
+        if (codec == null) {
+            throw new TransactionAbortedException("Expected to receive a Compression Codec for Connection with ID " + connectionId + " from Peer " + peerDescription
+                + " but instead received unknown value " + codecId);
+        }
+
+        return codec;
+    }
+
     private boolean isMoreFlowFiles(final DataInputStream in, final int protocolVersion) throws IOException {
         final int indicator = in.read();
         if (indicator < 0) {
@@ -497,12 +548,12 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
     }
 
     private RemoteFlowFileRecord receiveFlowFile(final DataInputStream dis, final OutputStream out, final ContentClaim contentClaim, final long claimOffset, final int protocolVersion,
-                                                 final String peerDescription, final LoadBalanceCompression compression) throws IOException {
+                                                 final String peerDescription, final LoadBalanceCompression compression, final LoadBalanceCompressionCodec codec) throws IOException {
         final int metadataLength = dis.readInt();
 
         DataInputStream metadataIn = new DataInputStream(new LimitingInputStream(dis, metadataLength));
         if (compression != LoadBalanceCompression.DO_NOT_COMPRESS) {
-            metadataIn = new DataInputStream(new GZIPInputStream(metadataIn));
+            metadataIn = new DataInputStream(codec.decompress(metadataIn));
         }
 
         final Map<String, String> attributes = readAttributes(metadataIn);
@@ -514,7 +565,8 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
         final long entryDate = metadataIn.readLong();
         final long penaltyExpirationMillis = metadataIn.readLong();
 
-        final ContentClaimTriple contentClaimTriple = consumeContent(dis, out, contentClaim, claimOffset, peerDescription, compression == LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT);
+        final ContentClaimTriple contentClaimTriple = consumeContent(dis, out, contentClaim, claimOffset, peerDescription,
+            compression == LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT ? codec : null);
 
         final FlowFileRecord flowFileRecord = new StandardFlowFileRecord.Builder()
             .id(flowFileRepository.getNextFlowFileSequence())
@@ -554,7 +606,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
     }
 
     private ContentClaimTriple consumeContent(final DataInputStream in, final OutputStream out, final ContentClaim contentClaim, final long claimOffset,
-                                              final String peerDescription, final boolean compressed) throws IOException {
+                                              final String peerDescription, final LoadBalanceCompressionCodec codec) throws IOException {
         logger.debug("Consuming content from Peer {}", peerDescription);
 
         int dataFrameIndicator = in.read();
@@ -581,7 +633,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
         while (true) {
             final InputStream limitedIn = new LimitedInputStream(in, dataFrameLength);
             final ByteCountingInputStream bcis = new ByteCountingInputStream(limitedIn);
-            final InputStream contentIn = compressed ? new GZIPInputStream(bcis) : bcis;
+            final InputStream contentIn = codec == null ? bcis : codec.decompress(bcis);
             final int decompressedSize = StreamUtils.fillBuffer(contentIn, buffer, false);
 
             if (bcis.getBytesRead() < dataFrameLength) {
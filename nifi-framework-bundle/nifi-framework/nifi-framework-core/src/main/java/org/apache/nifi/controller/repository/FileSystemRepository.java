@@ -21,6 +21,7 @@ import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.controller.repository.io.ByteBufferInputStream;
 import org.apache.nifi.controller.repository.io.ContentClaimOutputStream;
 import org.apache.nifi.controller.repository.io.LimitedInputStream;
 import org.apache.nifi.engine.FlowEngine;
@@ -47,8 +48,11 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardOpenOption;
@@ -122,6 +126,7 @@ public class FileSystemRepository implements ContentRepository {
     private final Map<String, Long> minUsableContainerBytesForArchive = new HashMap<>();
     private final boolean alwaysSync;
     private final ScheduledExecutorService containerCleanupExecutor;
+    private final MappedResourceClaimCache mappedClaimCache; // null if memory-mapped reads are disabled
 
     private ResourceClaimManager resourceClaimManager; // effectively final
     private EventReporter eventReporter;
@@ -230,6 +235,19 @@ public class FileSystemRepository implements ContentRepository {
 
         this.alwaysSync = Boolean.parseBoolean(nifiProperties.getProperty("nifi.content.repository.always.sync"));
         LOG.info("Initializing FileSystemRepository with 'Always Sync' set to {}", alwaysSync);
+
+        if (nifiProperties.isContentRepositoryMemoryMappedReadsEnabled()) {
+            final int maxMappedFiles = nifiProperties.getIntegerProperty(NiFiProperties.CONTENT_REPOSITORY_MEMORY_MAPPED_MAX_FILES,
+                NiFiProperties.DEFAULT_CONTENT_REPOSITORY_MEMORY_MAPPED_MAX_FILES);
+            // A Resource Claim is frozen once it reaches the max appendable claim length, so its file is usually somewhat larger than that length.
+            // The maximum size of a mapped file must therefore be configured separately.
+            final long maxMappedFileSize = DataUnit.parseDataSize(nifiProperties.getContentRepositoryMemoryMappedMaxFileSize(), DataUnit.B).longValue();
+            mappedClaimCache = new MappedResourceClaimCache(maxMappedFiles, maxMappedFileSize);
+            LOG.info("Initializing FileSystemRepository with memory-mapped reads of up to {} Resource Claims no larger than {} bytes each", maxMappedFiles, maxMappedFileSize);
+        } else {
+            mappedClaimCache = null;
+        }
+
         initializeRepository();
 
         containerCleanupExecutor = new FlowEngine(containers.size(), "Cleanup FileSystemRepository Container", true);
@@ -262,6 +280,10 @@ public class FileSystemRepository implements ContentRepository {
         executor.shutdown();
         containerCleanupExecutor.shutdown();
 
+        if (mappedClaimCache != null) {
+            mappedClaimCache.clear();
+        }
+
         // Close any of the writable claim streams that are currently open.
         // Other threads may be writing to these streams, and that's okay.
         // If that happens, we will simply close the stream, resulting in an
@@ -789,6 +811,11 @@ public class FileSystemRepository implements ContentRepository {
             return 0L;
         }
 
+        // A claim whose length is not yet known is still being written to, so it must be copied until the end of the stream is reached
+        if (claim.getLength() >= 0) {
+            return transferTo(claim, destination, append, 0L, claim.getLength());
+        }
+
         try (final InputStream in = read(claim);
              final FileOutputStream fos = new FileOutputStream(destination.toFile(), append)) {
             final long copied = StreamUtils.copy(in, fos);
@@ -818,6 +845,11 @@ public class FileSystemRepository implements ContentRepository {
 
         }
 
+        if (claim.getLength() >= 0) {
+            transferTo(claim, destination, append, offset, length);
+            return length;
+        }
+
         try (final InputStream in = read(claim);
              final FileOutputStream fos = new FileOutputStream(destination.toFile(), append)) {
             if (offset > 0) {
@@ -831,6 +863,45 @@ public class FileSystemRepository implements ContentRepository {
         }
     }
 
+    /**
+     * Copies a range of the given claim's content to the destination file using FileChannel.transferTo, which allows the operating system
+     * to copy the data without passing it through a buffer on the heap.
+     */
+    private long transferTo(final ContentClaim claim, final Path destination, final boolean append, final long offset, final long length) throws IOException {
+        if (offset + length > claim.getLength()) {
+            throw new EOFException("Cannot copy " + length + " bytes at offset " + offset + " from " + claim + " because the Content Claim is only " + claim.getLength() + " bytes");
+        }
+
+        final long bytesToCopy = length;
+        final Path sourcePath = getPath(claim, true);
+
+        final StandardOpenOption writeMode = append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+        try (final FileChannel source = FileChannel.open(sourcePath, StandardOpenOption.READ);
+             final FileChannel target = FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.WRITE, writeMode)) {
+
+            final long startPosition = claim.getOffset() + offset;
+            if (startPosition + bytesToCopy > source.size()) {
+                throw new ContentNotFoundException(claim, "Content Claim has an offset of " + claim.getOffset() + " and length of " + claim.getLength()
+                    + " but Resource Claim " + sourcePath + " is only " + source.size() + " bytes");
+            }
+
+            long copied = 0L;
+            while (copied < bytesToCopy) {
+                final long transferred = source.transferTo(startPosition + copied, bytesToCopy - copied, target);
+                if (transferred <= 0) {
+                    throw new EOFException("Expected to copy " + bytesToCopy + " bytes from " + sourcePath + " but reached the end of the file after " + copied + " bytes");
+                }
+                copied += transferred;
+            }
+
+            if (alwaysSync) {
+                target.force(true);
+            }
+
+            return copied;
+        }
+    }
+
     @Override
     public long exportTo(final ContentClaim claim, final OutputStream destination) throws IOException {
         if (claim == null) {
@@ -906,10 +977,17 @@ public class FileSystemRepository implements ContentRepository {
             return new ByteArrayInputStream(new byte[0]);
         }
 
+        if (mappedClaimCache != null) {
+            final InputStream mappedStream = readMapped(claim);
+            if (mappedStream != null) {
+                return mappedStream;
+            }
+        }
+
         final InputStream fis = getInputStream(claim);
         if (claim.getOffset() > 0L) {
             try {
-                StreamUtils.skip(fis, claim.getOffset());
+                seek(fis, claim);
             } catch (final EOFException eof) {
                 closeQuietly(fis);
 
@@ -944,6 +1022,56 @@ public class FileSystemRepository implements ContentRepository {
         }
     }
 
+    /**
+     * Reads the given claim from a memory-mapped view of its Resource Claim's file, if possible
+     *
+     * @return an InputStream for the content of the claim, or <code>null</code> if the claim must be read through a FileInputStream
+     */
+    private InputStream readMapped(final ContentClaim claim) throws IOException {
+        // A claim whose length is not yet known is still being written to
+        if (claim.getLength() < 0) {
+            return null;
+        }
+
+        final ResourceClaim resourceClaim = claim.getResourceClaim();
+        final Path containerPath = containers.get(resourceClaim.getContainer());
+        if (containerPath == null) {
+            return null;
+        }
+
+        final Path resolvedPath = containerPath.resolve(resourceClaim.getSection()).resolve(resourceClaim.getId());
+        try {
+            final ByteBuffer buffer = mappedClaimCache.getBuffer(resourceClaim, resolvedPath, claim.getOffset(), claim.getLength());
+            return buffer == null ? null : new ByteBufferInputStream(buffer);
+        } catch (final NoSuchFileException nsfe) {
+            // The content may have been archived. Fall back to reading through a stream, which also checks the archive directory.
+            return null;
+        }
+    }
+
+    /**
+     * Positions the given stream at the offset of the given claim. For a FileInputStream, this is performed by setting the position of the underlying
+     * FileChannel, rather than skipping and then reading a byte to verify that the content exists.
+     *
+     * @throws EOFException if the stream has fewer than <code>offset</code> bytes, or if the claim has content but the stream ends at its offset
+     */
+    private void seek(final InputStream in, final ContentClaim claim) throws IOException {
+        final long offset = claim.getOffset();
+        if (in instanceof FileInputStream) {
+            final FileChannel channel = ((FileInputStream) in).getChannel();
+
+            // A claim that has content but begins at the end of the file has been truncated, so at least one byte must follow the offset
+            final long requiredSize = claim.getLength() > 0 ? offset + 1 : offset;
+            if (channel.size() < requiredSize) {
+                throw new EOFException();
+            }
+
+            channel.position(offset);
+        } else {
+            StreamUtils.skip(in, offset);
+        }
+    }
+
     private void closeQuietly(final Closeable closeable) {
         if (closeable == null) {
             return;
@@ -1135,6 +1263,10 @@ public class FileSystemRepository implements ContentRepository {
             return false;
         }
 
+        if (mappedClaimCache != null) {
+            mappedClaimCache.invalidate(claim);
+        }
+
         // If the claim count is decremented to 0 (<= 0 as a 'defensive programming' strategy), ensure that
         // we close the stream if there is one. There may be a stream open if create() is called and then
         // claimant count is removed without writing to the claim (or more specifically, without closing the
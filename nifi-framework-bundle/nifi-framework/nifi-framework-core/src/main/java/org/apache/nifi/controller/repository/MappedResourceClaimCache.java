@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * A bounded, least-recently-used cache of memory-mapped Resource Claim files. Mapping a Resource Claim allows the many small Content Claims
+ * that are packed into it to be read without opening the file, seeking, and copying through a heap buffer for each one.
+ * </p>
+ *
+ * <p>
+ * Only Resource Claims that are no longer writable are mapped, as the content of such a claim can no longer change. Files that are larger than
+ * the configured maximum are not mapped, so that a file holding a single large Content Claim does not take up a large region of virtual memory
+ * for a single read. A mapping is released
+ * when it is evicted from the cache or invalidated and then garbage collected, as the JVM provides no way to unmap a file explicitly.
+ * </p>
+ */
+class MappedResourceClaimCache {
+    private final long maxMappedFileSize;
+    private final Map<ResourceClaim, MappedByteBuffer> mappedBuffers;
+
+    MappedResourceClaimCache(final int maxMappedFiles, final long maxMappedFileSize) {
+        // A single mapping cannot exceed Integer.MAX_VALUE bytes
+        this.maxMappedFileSize = Math.min(maxMappedFileSize, Integer.MAX_VALUE);
+        this.mappedBuffers = new LinkedHashMap<>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<ResourceClaim, MappedByteBuffer> eldest) {
+                return size() > maxMappedFiles;
+            }
+        };
+    }
+
+    /**
+     * Returns a read-only view of the given range of the Resource Claim's file, mapping the file if it is not already mapped.
+     *
+     * @param resourceClaim the Resource Claim that holds the content
+     * @param path the path of the Resource Claim's file
+     * @param offset the offset of the content within the file
+     * @param length the number of bytes of content
+     * @return a read-only buffer containing exactly the requested range, or <code>null</code> if the file cannot be mapped, in which case the
+     *         content should be read through a stream instead
+     * @throws IOException if unable to map the file
+     */
+    ByteBuffer getBuffer(final ResourceClaim resourceClaim, final Path path, final long offset, final long length) throws IOException {
+        if (resourceClaim.isWritable()) {
+            return null;
+        }
+
+        MappedByteBuffer mapped;
+        synchronized (mappedBuffers) {
+            mapped = mappedBuffers.get(resourceClaim);
+        }
+
+        if (mapped == null) {
+            mapped = map(path);
+            if (mapped == null) {
+                return null;
+            }
+
+            synchronized (mappedBuffers) {
+                final MappedByteBuffer existing = mappedBuffers.putIfAbsent(resourceClaim, mapped);
+                if (existing != null) {
+                    mapped = existing;
+                }
+            }
+        }
+
+        // Written so as not to overflow. Once the range is known to lie within the mapping, its bounds are known to fit within an int.
+        if (offset < 0 || length < 0 || offset > mapped.capacity() - length) {
+            return null;
+        }
+
+        final int start = (int) offset;
+        final int end = start + (int) length;
+
+        // Each caller receives its own view of the mapping so that the position of the shared buffer is never modified
+        return mapped.asReadOnlyBuffer().position(start).limit(end).slice();
+    }
+
+    private MappedByteBuffer map(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size == 0 || size > maxMappedFileSize) {
+                return null;
+            }
+
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    void invalidate(final ResourceClaim resourceClaim) {
+        synchronized (mappedBuffers) {
+            mappedBuffers.remove(resourceClaim);
+        }
+    }
+
+    void clear() {
+        synchronized (mappedBuffers) {
+            mappedBuffers.clear();
+        }
+    }
+
+    int size() {
+        synchronized (mappedBuffers) {
+            return mappedBuffers.size();
+        }
+    }
+}
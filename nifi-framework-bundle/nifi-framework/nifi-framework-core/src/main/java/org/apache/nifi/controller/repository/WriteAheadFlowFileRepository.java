@@ -48,11 +48,15 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -89,6 +93,9 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
 
     private final AtomicLong flowFileSequenceGenerator = new AtomicLong(0L);
     private final boolean alwaysSync;
+    private final boolean groupCommitEnabled;
+    private final long groupCommitWindowNanos;
+    private final int snapshotPartitions;
     private final boolean retainOrphanedFlowFiles;
 
     private static final Logger logger = LoggerFactory.getLogger(WriteAheadFlowFileRepository.class);
@@ -138,6 +145,9 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
      */
     public WriteAheadFlowFileRepository() {
         alwaysSync = false;
+        groupCommitEnabled = false;
+        groupCommitWindowNanos = 0L;
+        snapshotPartitions = 1;
         checkpointDelayMillis = 0L;
         checkpointExecutor = null;
         nifiProperties = null;
@@ -147,6 +157,9 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
 
     public WriteAheadFlowFileRepository(final NiFiProperties nifiProperties) {
         alwaysSync = Boolean.parseBoolean(nifiProperties.getProperty(NiFiProperties.FLOWFILE_REPOSITORY_ALWAYS_SYNC, "false"));
+        groupCommitEnabled = nifiProperties.isFlowFileRepositoryGroupCommitEnabled();
+        groupCommitWindowNanos = FormatUtils.getTimeDuration(nifiProperties.getFlowFileRepositoryGroupCommitWindow(), TimeUnit.NANOSECONDS);
+        snapshotPartitions = nifiProperties.getFlowFileRepositorySnapshotPartitions();
         this.nifiProperties = nifiProperties;
 
         final String orphanedFlowFileProperty = nifiProperties.getProperty(RETAIN_ORPHANED_FLOWFILES);
@@ -190,7 +203,8 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         // delete backup. On restore, if no files exist in partition's directory, would have to check backup directory
         this.serdeFactory = serdeFactory;
 
-        wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths.get(0), serdeFactory, this);
+        wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths.get(0), serdeFactory, this, groupCommitEnabled, groupCommitWindowNanos, TimeUnit.NANOSECONDS,
+            snapshotPartitions);
         logger.info("Initialized FlowFile Repository");
     }
 
@@ -698,6 +712,42 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         return queueIds;
     }
 
+    private void populateQueues(final Map<FlowFileQueue, List<FlowFileRecord>> flowFilesByQueue) throws IOException {
+        final long populateStart = System.nanoTime();
+        final int threadCount = Math.min(flowFilesByQueue.size(), Runtime.getRuntime().availableProcessors());
+
+        if (threadCount < 2) {
+            flowFilesByQueue.forEach(FlowFileQueue::putAll);
+        } else {
+            final AtomicInteger threadCounter = new AtomicInteger(0);
+            final ExecutorService executor = Executors.newFixedThreadPool(threadCount, r -> {
+                final Thread t = Executors.defaultThreadFactory().newThread(r);
+                t.setName("Restore FlowFile Queues Thread-" + threadCounter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+            try {
+                final List<Future<?>> futures = new ArrayList<>(flowFilesByQueue.size());
+                flowFilesByQueue.forEach((queue, flowFiles) -> futures.add(executor.submit(() -> queue.putAll(flowFiles))));
+
+                for (final Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while restoring FlowFiles to their queues", ie);
+            } catch (final ExecutionException ee) {
+                throw new IOException("Failed to restore FlowFiles to their queues", ee.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        final long populateMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - populateStart);
+        logger.info("Restored FlowFiles to {} queues in {} milliseconds", flowFilesByQueue.size(), populateMillis);
+    }
+
     @Override
     public long loadFlowFiles(final QueueProvider queueProvider) throws IOException {
         // If we have already loaded the records from the write-ahead logs, use them. Otherwise, recover the records now.
@@ -707,7 +757,10 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         if (recoveredRecords == null) {
             // Since we used to use the MinimalLockingWriteAheadRepository, we need to ensure that if the FlowFile
             // Repo was written using that impl, that we properly recover from the implementation.
+            final long recoveryStart = System.nanoTime();
             recordList = wal.recoverRecords();
+            final long recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - recoveryStart);
+            logger.info("Recovered {} records from FlowFile Repository in {} milliseconds", recordList.size(), recoveryMillis);
         } else {
             recordList = recoveredRecords;
         }
@@ -725,6 +778,8 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
             queueMap.put(queue.getIdentifier(), queue);
         }
 
+        // Group the FlowFiles by queue so that each queue can be populated in a single call, and all queues populated concurrently
+        final Map<FlowFileQueue, List<FlowFileRecord>> flowFilesByQueue = new HashMap<>();
         final List<SerializedRepositoryRecord> dropRecords = new ArrayList<>();
         int numFlowFilesMissingQueue = 0;
         long maxId = 0;
@@ -782,9 +837,11 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
                 claimManager.incrementClaimantCount(claim.getResourceClaim());
             }
 
-            flowFileQueue.put(record.getFlowFileRecord());
+            flowFilesByQueue.computeIfAbsent(flowFileQueue, queue -> new ArrayList<>()).add(record.getFlowFileRecord());
         }
 
+        populateQueues(flowFilesByQueue);
+
         // If recoveredRecords has been populated it need to be nulled out now because it is no longer useful and can be garbage collected.
         recoveredRecords = null;
 
@@ -27,6 +27,7 @@ import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.RepositoryContext;
 import org.apache.nifi.controller.repository.StandardRepositoryContext;
 import org.apache.nifi.provenance.ProvenanceRepository;
+import org.apache.nifi.provenance.ProvenanceSampler;
 
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -37,13 +38,14 @@ public class RepositoryContextFactory {
     private final FlowFileEventRepository flowFileEventRepo;
     private final CounterRepository counterRepo;
     private final ProvenanceRepository provenanceRepo;
+    private final ProvenanceSampler provenanceSampler;
     private final StateManagerProvider stateManagerProvider;
     private final long maxAppendableClaimBytes;
 
     public RepositoryContextFactory(final ContentRepository contentRepository, final FlowFileRepository flowFileRepository,
             final FlowFileEventRepository flowFileEventRepository, final CounterRepository counterRepository,
             final ProvenanceRepository provenanceRepository, final StateManagerProvider stateManagerProvider,
-            final long maxAppendableClaimBytes) {
+            final long maxAppendableClaimBytes, final ProvenanceSampler provenanceSampler) {
 
         this.contentRepo = contentRepository;
         this.flowFileRepo = flowFileRepository;
@@ -52,6 +54,7 @@ public class RepositoryContextFactory {
         this.provenanceRepo = provenanceRepository;
         this.stateManagerProvider = stateManagerProvider;
         this.maxAppendableClaimBytes = maxAppendableClaimBytes;
+        this.provenanceSampler = provenanceSampler;
     }
 
     public RepositoryContext newProcessContext(final Connectable connectable, final AtomicLong connectionIndex) {
@@ -59,7 +62,8 @@ public class RepositoryContextFactory {
                 ? ((ProcessorNode) connectable).getProcessor().getClass()
                 : null;
         final StateManager stateManager = stateManagerProvider.getStateManager(connectable.getIdentifier(), componentClass);
-        return new StandardRepositoryContext(connectable, connectionIndex, contentRepo, flowFileRepo, flowFileEventRepo, counterRepo, provenanceRepo, stateManager, maxAppendableClaimBytes);
+        return new StandardRepositoryContext(connectable, connectionIndex, contentRepo, flowFileRepo, flowFileEventRepo, counterRepo,
+            provenanceSampler.getRepository(connectable), stateManager, maxAppendableClaimBytes);
     }
 
     public ContentRepository getContentRepository() {
@@ -17,8 +17,12 @@
 
 package org.apache.nifi.controller.swap;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -37,6 +41,7 @@ import org.apache.nifi.repository.schema.RecordField;
 import org.apache.nifi.repository.schema.RecordSchema;
 import org.apache.nifi.repository.schema.Repetition;
 import org.apache.nifi.repository.schema.SchemaRecordReader;
+import org.apache.nifi.stream.io.NonCloseableInputStream;
 
 public class SchemaSwapDeserializer implements SwapDeserializer {
     private final FieldCache fieldCache;
@@ -52,10 +57,13 @@ public class SchemaSwapDeserializer implements SwapDeserializer {
     @Override
     @SuppressWarnings("unchecked")
     public SwapContents deserializeFlowFiles(final DataInputStream in, final String swapLocation, final FlowFileQueue queue, final ResourceClaimManager claimManager) throws IOException {
-        final RecordSchema schema = RecordSchema.readFrom(in);
-        final SchemaRecordReader reader = SchemaRecordReader.fromSchema(schema, fieldCache);
+        final Record parentRecord;
+        try (final DataInputStream schemaIn = getSchemaInputStream(in)) {
+            final RecordSchema schema = RecordSchema.readFrom(schemaIn);
+            final SchemaRecordReader reader = SchemaRecordReader.fromSchema(schema, fieldCache);
+            parentRecord = reader.readRecord(schemaIn);
+        }
 
-        final Record parentRecord = reader.readRecord(in);
         final List<Record> flowFileRecords = (List<Record>) parentRecord.getFieldValue(SwapSchema.FLOWFILE_CONTENTS);
 
         final List<FlowFileRecord> flowFiles = new ArrayList<>(flowFileRecords.size());
@@ -71,17 +79,45 @@ public class SchemaSwapDeserializer implements SwapDeserializer {
 
     @Override
     public SwapSummary getSwapSummary(final DataInputStream in, final String swapLocation, final ResourceClaimManager claimManager) throws IOException {
-        final RecordSchema schema = RecordSchema.readFrom(in);
-        final List<RecordField> summaryFields = schema.getField(SwapSchema.SWAP_SUMMARY).getSubFields();
-        final RecordField summaryRecordField = new ComplexRecordField(SwapSchema.SWAP_SUMMARY, Repetition.EXACTLY_ONE, summaryFields);
-        final RecordSchema summarySchema = new RecordSchema(Collections.singletonList(summaryRecordField));
+        final Record summaryRecordParent;
+        try (final DataInputStream schemaIn = getSchemaInputStream(in)) {
+            final RecordSchema schema = RecordSchema.readFrom(schemaIn);
+            final List<RecordField> summaryFields = schema.getField(SwapSchema.SWAP_SUMMARY).getSubFields();
+            final RecordField summaryRecordField = new ComplexRecordField(SwapSchema.SWAP_SUMMARY, Repetition.EXACTLY_ONE, summaryFields);
+            final RecordSchema summarySchema = new RecordSchema(Collections.singletonList(summaryRecordField));
+
+            summaryRecordParent = SchemaRecordReader.fromSchema(summarySchema, fieldCache).readRecord(schemaIn);
+        }
 
-        final Record summaryRecordParent = SchemaRecordReader.fromSchema(summarySchema, fieldCache).readRecord(in);
         final Record summaryRecord = (Record) summaryRecordParent.getFieldValue(SwapSchema.SWAP_SUMMARY);
         final SwapSummary swapSummary = SwapSummaryFieldMap.getSwapSummary(summaryRecord, claimManager);
         return swapSummary;
     }
 
+    /**
+     * Returns a stream from which the schema and records of the swap file can be read, decompressing the data if the swap file was
+     * written with compression. Closing the returned stream does not close the given stream.
+     */
+    private static DataInputStream getSchemaInputStream(final DataInputStream in) throws IOException {
+        final int firstValue = in.readInt();
+        if (firstValue != SchemaSwapSerializer.COMPRESSED_MARKER) {
+            // The swap file is not compressed, so the value read is the start of the schema and must be made available to be read again
+            final byte[] firstBytes = ByteBuffer.allocate(4).putInt(firstValue).array();
+            return new DataInputStream(new SequenceInputStream(new ByteArrayInputStream(firstBytes), new NonCloseableInputStream(in)));
+        }
+
+        final String codecName = in.readUTF();
+        final SwapCompression compression;
+        try {
+            compression = SwapCompression.fromName(codecName);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Swap file was written using unknown compression codec '" + codecName + "'", e);
+        }
+
+        final InputStream decompressedIn = compression.decompress(new NonCloseableInputStream(in));
+        return new DataInputStream(decompressedIn);
+    }
+
     public static String getSerializationName() {
         return SchemaSwapSerializer.SERIALIZATION_NAME;
     }
@@ -17,6 +17,7 @@
 
 package org.apache.nifi.controller.swap;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
@@ -42,15 +43,47 @@ import org.apache.nifi.repository.schema.RecordSchema;
 import org.apache.nifi.repository.schema.Repetition;
 import org.apache.nifi.repository.schema.SchemaRecordWriter;
 import org.apache.nifi.repository.schema.SimpleRecordField;
+import org.apache.nifi.stream.io.NonCloseableOutputStream;
 
 public class SchemaSwapSerializer implements SwapSerializer {
     static final String SERIALIZATION_NAME = "Schema Swap Serialization";
 
+    // An uncompressed swap file begins with the number of fields in the schema, which can never be negative. A compressed swap file instead
+    // begins with this marker, followed by the name of the compression codec, followed by the compressed schema and records.
+    static final int COMPRESSED_MARKER = -1;
+
     private final RecordSchema schema = SwapSchema.FULL_SWAP_FILE_SCHEMA_V3;
     private final RecordSchema flowFileSchema = new RecordSchema(schema.getField(SwapSchema.FLOWFILE_CONTENTS).getSubFields());
+    private final SwapCompression compression;
+
+    public SchemaSwapSerializer() {
+        this(SwapCompression.NONE);
+    }
+
+    public SchemaSwapSerializer(final SwapCompression compression) {
+        this.compression = compression;
+    }
 
     @Override
     public void serializeFlowFiles(final List<FlowFileRecord> toSwap, final FlowFileQueue queue, final String swapLocation, final OutputStream out) throws IOException {
+        if (compression == SwapCompression.NONE) {
+            writeSwapFile(toSwap, queue, out);
+            return;
+        }
+
+        final DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(COMPRESSED_MARKER);
+        dos.writeUTF(compression.name());
+
+        // Close the compressed stream in order to finish the compressed data, but leave the destination open for the caller
+        try (final OutputStream compressedOut = compression.compress(new NonCloseableOutputStream(out))) {
+            writeSwapFile(toSwap, queue, compressedOut);
+        }
+
+        out.flush();
+    }
+
+    private void writeSwapFile(final List<FlowFileRecord> toSwap, final FlowFileQueue queue, final OutputStream out) throws IOException {
         schema.writeTo(out);
 
         long contentSize = 0L;
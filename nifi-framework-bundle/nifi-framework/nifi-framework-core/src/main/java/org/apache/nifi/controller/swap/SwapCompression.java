@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.swap;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The compression codecs that may be used for the FlowFile contents of a swap file. The name of the codec is written to the swap file
+ * so that the file can be read regardless of the codec that is currently configured.
+ */
+public enum SwapCompression {
+    NONE {
+        @Override
+        OutputStream compress(final OutputStream out) {
+            return out;
+        }
+
+        @Override
+        InputStream decompress(final InputStream in) {
+            return in;
+        }
+    },
+
+    GZIP {
+        @Override
+        OutputStream compress(final OutputStream out) throws IOException {
+            // Favor speed over compression ratio, as swapping is on the critical path for a backlogged queue
+            final GZIPOutputStream gzipOut = new GZIPOutputStream(out, BUFFER_SIZE) {
+                {
+                    def.setLevel(Deflater.BEST_SPEED);
+                }
+            };
+            return new BufferedOutputStream(gzipOut, BUFFER_SIZE);
+        }
+
+        @Override
+        InputStream decompress(final InputStream in) throws IOException {
+            return new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE);
+        }
+    },
+
+    ZSTD {
+        @Override
+        OutputStream compress(final OutputStream out) throws IOException {
+            return new BufferedOutputStream(new ZstdOutputStream(out, ZSTD_LEVEL), BUFFER_SIZE);
+        }
+
+        @Override
+        InputStream decompress(final InputStream in) throws IOException {
+            return new BufferedInputStream(new ZstdInputStream(in), BUFFER_SIZE);
+        }
+    };
+
+    private static final int BUFFER_SIZE = 65536;
+    private static final int ZSTD_LEVEL = 1;
+
+    /**
+     * Wraps the given OutputStream so that data written to the returned stream is compressed. Closing the returned stream
+     * finishes the compressed data and closes the given stream.
+     */
+    abstract OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * Wraps the given InputStream so that data read from the returned stream is decompressed
+     */
+    abstract InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * Returns the SwapCompression with the given name, ignoring case
+     *
+     * @param name the name of the codec
+     * @return the SwapCompression with the given name
+     * @throws IllegalArgumentException if there is no codec with the given name
+     */
+    public static SwapCompression fromName(final String name) {
+        for (final SwapCompression compression : values()) {
+            if (compression.name().equals(name.trim().toUpperCase(Locale.ROOT))) {
+                return compression;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid Swap Compression '" + name + "'; valid values are NONE, GZIP, ZSTD");
+    }
+}
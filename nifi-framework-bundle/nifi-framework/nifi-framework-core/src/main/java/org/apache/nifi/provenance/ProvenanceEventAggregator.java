@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.processor.Relationship;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Rolls up Provenance Events that were not sampled into a count and a total size per component, event type and relationship, so that
+ * the repository can still answer how much data passed through a component even though most of the individual events were discarded.
+ */
+class ProvenanceEventAggregator {
+    static final String SUMMARY_EVENT_COUNT_ATTRIBUTE = "provenance.summary.event.count";
+    static final String SUMMARY_BYTES_ATTRIBUTE = "provenance.summary.bytes";
+
+    private final ConcurrentMap<SummaryKey, Summary> summaries = new ConcurrentHashMap<>();
+
+    void add(final ProvenanceEventRecord event) {
+        final SummaryKey key = new SummaryKey(event.getComponentId(), event.getComponentType(), event.getEventType(), event.getRelationship());
+        summaries.computeIfAbsent(key, k -> new Summary()).add(event);
+    }
+
+    /**
+     * Removes all of the summaries that have been accumulated and creates a summary event for each of them
+     *
+     * @param builderSupplier supplies the builder used to create each summary event
+     * @return the summary events, which may be empty
+     */
+    List<ProvenanceEventRecord> drain(final Supplier<ProvenanceEventBuilder> builderSupplier) {
+        final List<ProvenanceEventRecord> events = new ArrayList<>(summaries.size());
+        for (final SummaryKey key : summaries.keySet()) {
+            final Summary summary = summaries.remove(key);
+            if (summary != null) {
+                events.add(summary.toEvent(key, builderSupplier.get()));
+            }
+        }
+
+        return events;
+    }
+
+    private record SummaryKey(String componentId, String componentType, ProvenanceEventType eventType, String relationship) {
+    }
+
+    private static class Summary {
+        private long eventCount;
+        private long bytes;
+        private long firstEventTime = Long.MAX_VALUE;
+        private long lastEventTime = Long.MIN_VALUE;
+        private String transitUri;
+        private String alternateIdentifierUri;
+
+        synchronized void add(final ProvenanceEventRecord event) {
+            eventCount++;
+            bytes += event.getFileSize();
+            firstEventTime = Math.min(firstEventTime, event.getEventTime());
+            lastEventTime = Math.max(lastEventTime, event.getEventTime());
+
+            // Some event types cannot be created without these values, so the summary keeps the most recent ones
+            if (event.getTransitUri() != null) {
+                transitUri = event.getTransitUri();
+            }
+            if (event.getAlternateIdentifierUri() != null) {
+                alternateIdentifierUri = event.getAlternateIdentifierUri();
+            }
+        }
+
+        synchronized ProvenanceEventRecord toEvent(final SummaryKey key, final ProvenanceEventBuilder builder) {
+            final String uuid = UUID.randomUUID().toString();
+
+            final Map<String, String> attributes = new HashMap<>();
+            attributes.put(CoreAttributes.UUID.key(), uuid);
+            attributes.put(SUMMARY_EVENT_COUNT_ATTRIBUTE, String.valueOf(eventCount));
+            attributes.put(SUMMARY_BYTES_ATTRIBUTE, String.valueOf(bytes));
+
+            builder.setEventType(key.eventType())
+                .setComponentId(key.componentId())
+                .setComponentType(key.componentType())
+                .setFlowFileUUID(uuid)
+                .setEventTime(lastEventTime)
+                .setFlowFileEntryDate(firstEventTime)
+                .setLineageStartDate(firstEventTime)
+                .setEventDuration(lastEventTime - firstEventTime)
+                .setCurrentContentClaim(null, null, null, null, bytes)
+                .setAttributes(Map.of(), attributes)
+                .setTransitUri(transitUri)
+                .setAlternateIdentifierUri(alternateIdentifierUri)
+                .setDetails("Summary of " + eventCount + " " + key.eventType() + " events for FlowFiles that were not sampled");
+
+            if (key.relationship() != null) {
+                builder.setRelationship(new Relationship.Builder().name(key.relationship()).build());
+            }
+
+            // Lineage events require a parent or child, and the summary does not reference any of the FlowFiles that it represents
+            switch (key.eventType()) {
+                case CLONE, FORK, JOIN -> builder.addChildFlowFile(uuid);
+                default -> {
+                }
+            }
+
+            return builder.build();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.controller.ProcessorNode;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.util.FormatUtils;
+import org.apache.nifi.util.NiFiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Provides each component with the view of the Provenance Repository that its Process Sessions should write events to. A component
+ * whose sampling rate is less than 1.0 writes the events for only that fraction of FlowFiles, which reduces the number of events
+ * written for flows in which lineage is needed only for a subset of the data.
+ * </p>
+ *
+ * <p>
+ * The sampling rate of a component is taken from the first of the following that is configured: the rate for its type, given either
+ * as the simple or the fully qualified class name; the rate for its Process Group or the nearest ancestor group; and finally the
+ * default rate. When the mode is {@link ProvenanceSamplingMode#AGGREGATE}, events for FlowFiles that are not sampled are written as
+ * summary events by {@link #flush()}.
+ * </p>
+ */
+public class ProvenanceSampler {
+    private static final Logger logger = LoggerFactory.getLogger(ProvenanceSampler.class);
+
+    private final ProvenanceEventRepository repository;
+    private final ProvenanceSamplingMode mode;
+    private final double defaultRate;
+    private final Map<String, Double> typeRates;
+    private final Map<String, Double> groupRates;
+    private final long aggregationPeriodMillis;
+    private final ProvenanceEventAggregator aggregator;
+
+    public ProvenanceSampler(final ProvenanceEventRepository repository, final ProvenanceSamplingMode mode, final double defaultRate,
+                             final Map<String, Double> typeRates, final Map<String, Double> groupRates, final long aggregationPeriodMillis) {
+        this.repository = repository;
+        this.mode = mode;
+        this.defaultRate = validateRate(defaultRate);
+        this.typeRates = Map.copyOf(typeRates);
+        this.groupRates = Map.copyOf(groupRates);
+        this.aggregationPeriodMillis = aggregationPeriodMillis;
+        this.aggregator = mode == ProvenanceSamplingMode.AGGREGATE ? new ProvenanceEventAggregator() : null;
+
+        this.typeRates.values().forEach(ProvenanceSampler::validateRate);
+        this.groupRates.values().forEach(ProvenanceSampler::validateRate);
+    }
+
+    public static ProvenanceSampler create(final NiFiProperties nifiProperties, final ProvenanceEventRepository repository) {
+        final ProvenanceSamplingMode mode = ProvenanceSamplingMode.fromName(
+            nifiProperties.getProperty(NiFiProperties.PROVENANCE_SAMPLING_MODE, NiFiProperties.DEFAULT_PROVENANCE_SAMPLING_MODE));
+        final double defaultRate = parseRate(NiFiProperties.PROVENANCE_SAMPLING_RATE,
+            nifiProperties.getProperty(NiFiProperties.PROVENANCE_SAMPLING_RATE, String.valueOf(NiFiProperties.DEFAULT_PROVENANCE_SAMPLING_RATE)));
+        final Map<String, Double> typeRates = getRates(nifiProperties, NiFiProperties.PROVENANCE_SAMPLING_RATE_TYPE_PREFIX);
+        final Map<String, Double> groupRates = getRates(nifiProperties, NiFiProperties.PROVENANCE_SAMPLING_RATE_GROUP_PREFIX);
+        final long aggregationPeriodMillis = FormatUtils.getTimeDuration(nifiProperties.getProperty(NiFiProperties.PROVENANCE_SAMPLING_AGGREGATION_PERIOD,
+            NiFiProperties.DEFAULT_PROVENANCE_SAMPLING_AGGREGATION_PERIOD).trim(), TimeUnit.MILLISECONDS);
+
+        if (mode != ProvenanceSamplingMode.NONE) {
+            logger.info("Provenance sampling mode is {} with a default rate of {}, {} component type rates and {} Process Group rates",
+                mode, defaultRate, typeRates.size(), groupRates.size());
+        }
+
+        return new ProvenanceSampler(repository, mode, defaultRate, typeRates, groupRates, aggregationPeriodMillis);
+    }
+
+    private static Map<String, Double> getRates(final NiFiProperties nifiProperties, final String prefix) {
+        final Map<String, Double> rates = new HashMap<>();
+        for (final Map.Entry<String, String> entry : nifiProperties.getPropertiesWithPrefix(prefix).entrySet()) {
+            final String name = entry.getKey().substring(prefix.length());
+            if (!name.isEmpty() && entry.getValue() != null && !entry.getValue().isBlank()) {
+                rates.put(name, parseRate(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        return rates;
+    }
+
+    private static double parseRate(final String propertyName, final String value) {
+        try {
+            return validateRate(Double.parseDouble(value.trim()));
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for property " + propertyName + ": '" + value + "' is not a number", e);
+        }
+    }
+
+    private static double validateRate(final double rate) {
+        if (rate < 0D || rate > 1D) {
+            throw new IllegalArgumentException("Provenance sampling rate must be between 0.0 and 1.0 but was " + rate);
+        }
+
+        return rate;
+    }
+
+    public ProvenanceSamplingMode getMode() {
+        return mode;
+    }
+
+    public long getAggregationPeriod(final TimeUnit timeUnit) {
+        return timeUnit.convert(aggregationPeriodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the repository that the given component should write its Provenance Events to. If the component writes events for all
+     * FlowFiles, this is the underlying repository itself.
+     *
+     * @param connectable the component
+     * @return the repository for the component to use
+     */
+    public ProvenanceEventRepository getRepository(final Connectable connectable) {
+        if (mode == ProvenanceSamplingMode.NONE) {
+            return repository;
+        }
+
+        final double rate = getSamplingRate(connectable);
+        if (rate >= 1D) {
+            return repository;
+        }
+
+        return new SamplingProvenanceEventRepository(repository, rate, aggregator);
+    }
+
+    double getSamplingRate(final Connectable connectable) {
+        for (final String type : getTypeNames(connectable)) {
+            final Double rate = typeRates.get(type);
+            if (rate != null) {
+                return rate;
+            }
+        }
+
+        ProcessGroup group = connectable.getProcessGroup();
+        while (group != null) {
+            final Double rate = groupRates.get(group.getIdentifier());
+            if (rate != null) {
+                return rate;
+            }
+
+            group = group.getParent();
+        }
+
+        return defaultRate;
+    }
+
+    private List<String> getTypeNames(final Connectable connectable) {
+        if (connectable instanceof ProcessorNode processorNode) {
+            return List.of(connectable.getComponentType(), processorNode.getCanonicalClassName());
+        }
+
+        return List.of(connectable.getComponentType());
+    }
+
+    /**
+     * Writes a summary event to the repository for each component and event type whose events were aggregated since the last flush
+     */
+    public void flush() {
+        if (aggregator == null) {
+            return;
+        }
+
+        final List<ProvenanceEventRecord> summaryEvents = aggregator.drain(repository::eventBuilder);
+        if (!summaryEvents.isEmpty()) {
+            repository.registerEvents(summaryEvents);
+            logger.debug("Wrote {} Provenance summary events for FlowFiles that were not sampled", summaryEvents.size());
+        }
+    }
+}
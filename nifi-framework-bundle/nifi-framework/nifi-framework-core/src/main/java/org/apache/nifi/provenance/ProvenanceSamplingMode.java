@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import java.util.Locale;
+
+/**
+ * Determines what happens to the Provenance Events of a component whose sampling rate is less than 1.0 when the FlowFile that an event
+ * pertains to is not selected for sampling.
+ */
+public enum ProvenanceSamplingMode {
+    /**
+     * All events are written to the Provenance Repository, regardless of the configured sampling rates
+     */
+    NONE,
+
+    /**
+     * Events for FlowFiles that are not sampled are discarded
+     */
+    SAMPLE,
+
+    /**
+     * Events for FlowFiles that are not sampled are counted and periodically written as a single summary event per component and event type
+     */
+    AGGREGATE;
+
+    public static ProvenanceSamplingMode fromName(final String name) {
+        for (final ProvenanceSamplingMode mode : values()) {
+            if (mode.name().equals(name.trim().toUpperCase(Locale.ROOT))) {
+                return mode;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid Provenance Sampling Mode '" + name + "'; valid values are NONE, SAMPLE, AGGREGATE");
+    }
+}
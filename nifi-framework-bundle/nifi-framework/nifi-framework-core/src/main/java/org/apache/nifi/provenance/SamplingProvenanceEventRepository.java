@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * A view of a ProvenanceEventRepository for a single component that writes only the events for a sample of FlowFiles. Events for
+ * FlowFiles that are not sampled are either discarded or handed to a {@link ProvenanceEventAggregator}.
+ * </p>
+ *
+ * <p>
+ * Whether or not a FlowFile is sampled is determined by a hash of its UUID rather than at random, so a FlowFile that is sampled by one
+ * component is also sampled by every other component with the same or a higher sampling rate. This keeps the lineage of a sampled
+ * FlowFile complete as it passes through the flow. An event is written if any of the FlowFiles that it references is sampled, so that
+ * a FlowFile created by a FORK, CLONE or JOIN is always shown to be created.
+ * </p>
+ */
+class SamplingProvenanceEventRepository implements ProvenanceEventRepository {
+    private final ProvenanceEventRepository repository;
+    private final ProvenanceEventAggregator aggregator;
+    private final long threshold;
+
+    /**
+     * @param repository the repository to write sampled events to
+     * @param samplingRate the fraction of FlowFiles, between 0.0 and 1.0, whose events should be written
+     * @param aggregator the aggregator for events that are not sampled, or <code>null</code> if those events should be discarded
+     */
+    SamplingProvenanceEventRepository(final ProvenanceEventRepository repository, final double samplingRate, final ProvenanceEventAggregator aggregator) {
+        this.repository = repository;
+        this.aggregator = aggregator;
+        this.threshold = (long) (samplingRate * 0x1_0000_0000L);
+    }
+
+    @Override
+    public ProvenanceEventBuilder eventBuilder() {
+        return repository.eventBuilder();
+    }
+
+    @Override
+    public void registerEvent(final ProvenanceEventRecord event) {
+        if (isSampled(event)) {
+            repository.registerEvent(event);
+        } else if (aggregator != null) {
+            aggregator.add(event);
+        }
+    }
+
+    @Override
+    public void registerEvents(final Iterable<ProvenanceEventRecord> events) {
+        final List<ProvenanceEventRecord> sampled = new ArrayList<>();
+        for (final ProvenanceEventRecord event : events) {
+            if (isSampled(event)) {
+                sampled.add(event);
+            } else if (aggregator != null) {
+                aggregator.add(event);
+            }
+        }
+
+        if (!sampled.isEmpty()) {
+            repository.registerEvents(sampled);
+        }
+    }
+
+    @Override
+    public List<ProvenanceEventRecord> getEvents(final long firstRecordId, final int maxRecords) throws IOException {
+        return repository.getEvents(firstRecordId, maxRecords);
+    }
+
+    @Override
+    public Long getMaxEventId() {
+        return repository.getMaxEventId();
+    }
+
+    @Override
+    public ProvenanceEventRecord getEvent(final long id) throws IOException {
+        return repository.getEvent(id);
+    }
+
+    @Override
+    public void close() {
+        // The underlying repository is shared by all components and is closed by the framework
+    }
+
+    private boolean isSampled(final ProvenanceEventRecord event) {
+        if (isSampled(event.getFlowFileUuid())) {
+            return true;
+        }
+
+        for (final String parentUuid : event.getParentUuids()) {
+            if (isSampled(parentUuid)) {
+                return true;
+            }
+        }
+
+        for (final String childUuid : event.getChildUuids()) {
+            if (isSampled(childUuid)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    boolean isSampled(final String flowFileUuid) {
+        if (flowFileUuid == null) {
+            return true;
+        }
+
+        // Mix the bits of the hash code so that UUIDs that differ only slightly are spread across the whole range
+        int hash = flowFileUuid.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+
+        return (hash & 0xFFFFFFFFL) < threshold;
+    }
+}
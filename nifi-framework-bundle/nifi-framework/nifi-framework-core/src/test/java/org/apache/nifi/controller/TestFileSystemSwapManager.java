@@ -23,6 +23,7 @@ import org.apache.nifi.controller.repository.SwapContents;
 import org.apache.nifi.controller.repository.SwapManagerInitializationContext;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.swap.SwapCompression;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.stream.io.StreamUtils;
 import org.junit.jupiter.api.Test;
@@ -40,9 +41,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -157,6 +160,158 @@ public class TestFileSystemSwapManager {
         assertEquals(10000, contents.getFlowFiles().size());
     }
 
+    @Test
+    public void testPrefetchedSwapFileSwappedIn() throws IOException {
+        final FlowFileQueue flowFileQueue = mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+        final FileSystemSwapManager swapManager = createSwapManager(flowFileRepo, true);
+
+        final List<String> swapLocations = new ArrayList<>();
+        for (int file = 0; file < 3; file++) {
+            final List<FlowFileRecord> flowFileRecords = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                flowFileRecords.add(new MockFlowFileRecord(file * 1000 + i));
+            }
+
+            swapLocations.add(swapManager.swapOut(flowFileRecords, flowFileQueue, null));
+        }
+
+        // Prefetch all swap files, which will cause the first to be evicted, and rename the second so that its prefetched contents are discarded
+        swapLocations.forEach(swapLocation -> swapManager.prefetch(swapLocation, flowFileQueue));
+        swapLocations.set(1, swapManager.changePartitionName(swapLocations.get(1), "partition-1"));
+
+        for (int file = 0; file < 3; file++) {
+            final String swapLocation = swapLocations.get(file);
+            final SwapContents contents = swapManager.swapIn(swapLocation, flowFileQueue);
+
+            final List<FlowFileRecord> flowFiles = contents.getFlowFiles();
+            assertEquals(1000, flowFiles.size());
+            assertEquals(file * 1000L, flowFiles.getFirst().getSize());
+            assertEquals(1000, contents.getSummary().getQueueSize().getObjectCount());
+            assertFalse(new File(swapLocation).exists());
+        }
+    }
+
+    @Test
+    public void testPrefetchLimitedPerQueue() throws IOException {
+        final FlowFileQueue firstQueue = mock(FlowFileQueue.class);
+        when(firstQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+        final FlowFileQueue secondQueue = mock(FlowFileQueue.class);
+        when(secondQueue.getIdentifier()).thenReturn("4e3c1f0a-6c2d-4b8e-9f3a-2d7b5e1c9a60");
+
+        final FlowFileRepository flowFileRepo = mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+        final FileSystemSwapManager swapManager = createSwapManager(flowFileRepo, true);
+
+        final List<String> firstQueueLocations = new ArrayList<>();
+        final List<String> secondQueueLocations = new ArrayList<>();
+        for (int file = 0; file < 2; file++) {
+            firstQueueLocations.add(swapManager.swapOut(List.of(new MockFlowFileRecord(file)), firstQueue, null));
+            secondQueueLocations.add(swapManager.swapOut(List.of(new MockFlowFileRecord(file)), secondQueue, null));
+        }
+
+        firstQueueLocations.forEach(swapLocation -> swapManager.prefetch(swapLocation, firstQueue));
+        secondQueueLocations.forEach(swapLocation -> swapManager.prefetch(swapLocation, secondQueue));
+
+        // Prefetching for one queue must not evict the swap files prefetched for another
+        for (final String swapLocation : firstQueueLocations) {
+            assertTrue(swapManager.isPrefetched(swapLocation, firstQueue));
+        }
+        for (final String swapLocation : secondQueueLocations) {
+            assertTrue(swapManager.isPrefetched(swapLocation, secondQueue));
+        }
+
+        // Exceeding the limit for a queue evicts that queue's oldest prefetched swap file only
+        final String thirdLocation = swapManager.swapOut(List.of(new MockFlowFileRecord(2)), firstQueue, null);
+        firstQueueLocations.add(thirdLocation);
+        swapManager.prefetch(thirdLocation, firstQueue);
+
+        assertFalse(swapManager.isPrefetched(firstQueueLocations.get(0), firstQueue));
+        assertTrue(swapManager.isPrefetched(firstQueueLocations.get(1), firstQueue));
+        assertTrue(swapManager.isPrefetched(thirdLocation, firstQueue));
+        for (final String swapLocation : secondQueueLocations) {
+            assertTrue(swapManager.isPrefetched(swapLocation, secondQueue));
+        }
+
+        for (final String swapLocation : firstQueueLocations) {
+            assertEquals(1, swapManager.swapIn(swapLocation, firstQueue).getFlowFiles().size());
+            assertFalse(swapManager.isPrefetched(swapLocation, firstQueue));
+        }
+        for (final String swapLocation : secondQueueLocations) {
+            assertEquals(1, swapManager.swapIn(swapLocation, secondQueue).getFlowFiles().size());
+        }
+    }
+
+    @Test
+    public void testPrefetchLimitedAcrossQueues() throws IOException {
+        final FlowFileRepository flowFileRepo = mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+        final FileSystemSwapManager swapManager = createSwapManager(flowFileRepo, true);
+
+        // Enough queues that, with each prefetching as many swap files as it is allowed, the limit across all queues is exceeded
+        final int queueCount = FileSystemSwapManager.MAX_PREFETCHED_SWAP_FILES / FileSystemSwapManager.MAX_PREFETCHED_SWAP_FILES_PER_QUEUE + 2;
+        final List<FlowFileQueue> queues = new ArrayList<>();
+        final List<List<String>> queueLocations = new ArrayList<>();
+        for (int i = 0; i < queueCount; i++) {
+            final FlowFileQueue queue = mock(FlowFileQueue.class);
+            when(queue.getIdentifier()).thenReturn(UUID.randomUUID().toString());
+            queues.add(queue);
+
+            final List<String> locations = new ArrayList<>();
+            for (int file = 0; file < FileSystemSwapManager.MAX_PREFETCHED_SWAP_FILES_PER_QUEUE; file++) {
+                final String swapLocation = swapManager.swapOut(List.of(new MockFlowFileRecord(file)), queue, null);
+                swapManager.prefetch(swapLocation, queue);
+                locations.add(swapLocation);
+            }
+            queueLocations.add(locations);
+        }
+
+        assertEquals(FileSystemSwapManager.MAX_PREFETCHED_SWAP_FILES, countPrefetched(swapManager, queues, queueLocations));
+
+        // Queues that prefetched before the limit was reached keep their prefetched swap files, and later queues do not prefetch
+        final int fullQueueCount = FileSystemSwapManager.MAX_PREFETCHED_SWAP_FILES / FileSystemSwapManager.MAX_PREFETCHED_SWAP_FILES_PER_QUEUE;
+        for (int i = 0; i < queueCount; i++) {
+            for (final String swapLocation : queueLocations.get(i)) {
+                assertEquals(i < fullQueueCount, swapManager.isPrefetched(swapLocation, queues.get(i)));
+            }
+        }
+
+        // A queue that holds prefetched swap files may still prefetch a newer swap file by evicting its own oldest
+        final FlowFileQueue firstQueue = queues.getFirst();
+        final String newerLocation = swapManager.swapOut(List.of(new MockFlowFileRecord(100)), firstQueue, null);
+        queueLocations.getFirst().add(newerLocation);
+        swapManager.prefetch(newerLocation, firstQueue);
+        assertTrue(swapManager.isPrefetched(newerLocation, firstQueue));
+        assertFalse(swapManager.isPrefetched(queueLocations.getFirst().getFirst(), firstQueue));
+        assertEquals(FileSystemSwapManager.MAX_PREFETCHED_SWAP_FILES, countPrefetched(swapManager, queues, queueLocations));
+
+        // Swapping in a prefetched swap file makes room for another queue to prefetch
+        final String swappedInLocation = queueLocations.get(1).getFirst();
+        assertEquals(1, swapManager.swapIn(swappedInLocation, queues.get(1)).getFlowFiles().size());
+        queueLocations.get(1).remove(swappedInLocation);
+
+        final FlowFileQueue lastQueue = queues.getLast();
+        final String lastQueueLocation = queueLocations.getLast().getFirst();
+        swapManager.prefetch(lastQueueLocation, lastQueue);
+        assertTrue(swapManager.isPrefetched(lastQueueLocation, lastQueue));
+        assertEquals(FileSystemSwapManager.MAX_PREFETCHED_SWAP_FILES, countPrefetched(swapManager, queues, queueLocations));
+    }
+
+    private int countPrefetched(final FileSystemSwapManager swapManager, final List<FlowFileQueue> queues, final List<List<String>> queueLocations) {
+        int count = 0;
+        for (int i = 0; i < queues.size(); i++) {
+            for (final String swapLocation : queueLocations.get(i)) {
+                if (swapManager.isPrefetched(swapLocation, queues.get(i))) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
     private FileSystemSwapManager createSwapManager() {
         final FlowFileRepository flowFileRepo = mock(FlowFileRepository.class);
         return createSwapManager(flowFileRepo);
@@ -166,7 +321,11 @@ public class TestFileSystemSwapManager {
     public Path temporaryFolder;
 
     private FileSystemSwapManager createSwapManager(final FlowFileRepository flowFileRepo) {
-        final FileSystemSwapManager swapManager = new FileSystemSwapManager(temporaryFolder);
+        return createSwapManager(flowFileRepo, false);
+    }
+
+    private FileSystemSwapManager createSwapManager(final FlowFileRepository flowFileRepo, final boolean prefetchEnabled) {
+        final FileSystemSwapManager swapManager = new FileSystemSwapManager(temporaryFolder, SwapCompression.NONE, prefetchEnabled);
         final ResourceClaimManager resourceClaimManager = new NopResourceClaimManager();
         swapManager.initialize(new SwapManagerInitializationContext() {
             @Override
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue;
+
+import org.apache.nifi.controller.MockFlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentActiveQueueTest {
+
+    private final ConcurrentActiveQueue queue = new ConcurrentActiveQueue();
+
+    @Test
+    void testFirstInFirstOut() {
+        final List<FlowFileRecord> flowFiles = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final MockFlowFileRecord flowFile = new MockFlowFileRecord(i);
+            flowFiles.add(flowFile);
+            queue.add(flowFile);
+        }
+
+        assertEquals(10, queue.size());
+        for (final FlowFileRecord flowFile : flowFiles) {
+            assertSame(flowFile, queue.peek());
+            assertSame(flowFile, queue.poll());
+        }
+
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testPenalizedFlowFilesReturnedLast() {
+        final MockFlowFileRecord longerPenalized = new MockFlowFileRecord();
+        longerPenalized.setPenaltyExpiration(System.currentTimeMillis() + 120_000L);
+        final MockFlowFileRecord penalized = new MockFlowFileRecord();
+        penalized.setPenaltyExpiration(System.currentTimeMillis() + 60_000L);
+        final MockFlowFileRecord unpenalized = new MockFlowFileRecord();
+
+        queue.add(longerPenalized);
+        queue.add(penalized);
+        queue.add(unpenalized);
+
+        assertSame(unpenalized, queue.peek());
+        assertSame(unpenalized, queue.poll());
+        assertSame(penalized, queue.poll());
+        assertSame(longerPenalized, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void testFlowFilePenalizedAfterAddIsMovedAside() {
+        final MockFlowFileRecord first = new MockFlowFileRecord();
+        final MockFlowFileRecord second = new MockFlowFileRecord();
+        queue.add(first);
+        queue.add(second);
+
+        first.setPenaltyExpiration(System.currentTimeMillis() + 60_000L);
+
+        assertSame(second, queue.peek());
+        assertSame(second, queue.poll());
+        assertSame(first, queue.poll());
+    }
+
+    @Test
+    void testExpiredPenaltyReturnedBeforeNewerFlowFiles() {
+        final MockFlowFileRecord penalized = new MockFlowFileRecord();
+        penalized.setPenaltyExpiration(System.currentTimeMillis() + 60_000L);
+        queue.add(penalized);
+
+        final MockFlowFileRecord unpenalized = new MockFlowFileRecord();
+        queue.add(unpenalized);
+
+        penalized.setPenaltyExpiration(System.currentTimeMillis() - 1L);
+
+        assertSame(penalized, queue.poll());
+        assertSame(unpenalized, queue.poll());
+    }
+
+    @Test
+    void testClearAndIterate() {
+        final MockFlowFileRecord penalized = new MockFlowFileRecord();
+        penalized.setPenaltyExpiration(System.currentTimeMillis() + 60_000L);
+        queue.add(penalized);
+        queue.add(new MockFlowFileRecord());
+
+        assertEquals(2, new ArrayList<>(queue).size());
+
+        queue.clear();
+        assertEquals(0, queue.size());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peek());
+    }
+}
@@ -19,6 +19,7 @@ package org.apache.nifi.controller.queue.clustered;
 
 import org.apache.nifi.controller.repository.ContentNotFoundException;
 import org.apache.nifi.controller.repository.ContentRepository;
+import org.apache.nifi.controller.repository.FileSystemRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
@@ -28,14 +29,20 @@ import org.apache.nifi.controller.repository.claim.StandardResourceClaim;
 import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
 import org.apache.nifi.stream.io.StreamUtils;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
@@ -123,4 +130,75 @@ public class TestContentRepositoryFlowFileAccess {
         assertThrows(EOFException.class, repoStream::read,
                 "Expected EOFException because not enough bytes were in the InputStream for the FlowFile");
     }
+
+    @Test
+    public void testChannelFromFileSystemRepository(@TempDir final Path tempDir) throws IOException {
+        final Path claimFile = tempDir.resolve("id");
+        Files.write(claimFile, "abchello, worldxyz".getBytes());
+
+        final ResourceClaimManager claimManager = new StandardResourceClaimManager();
+        final ResourceClaim resourceClaim = new StandardResourceClaim(claimManager, "container", "section", "id", false);
+        final ContentClaim contentClaim = new StandardContentClaim(resourceClaim, 3L);
+
+        final FileSystemRepository contentRepo = mock(FileSystemRepository.class);
+        when(contentRepo.getPath(contentClaim, true)).thenReturn(claimFile);
+
+        final FlowFileRecord flowFile = mock(FlowFileRecord.class);
+        when(flowFile.getContentClaim()).thenReturn(contentClaim);
+        when(flowFile.getContentClaimOffset()).thenReturn(7L);
+        when(flowFile.getSize()).thenReturn(5L);
+
+        final ContentRepositoryFlowFileAccess flowAccess = new ContentRepositoryFlowFileAccess(contentRepo);
+
+        try (final ReadableByteChannel channel = flowAccess.openChannel(flowFile)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+            while (channel.read(buffer) > -1) {
+            }
+
+            buffer.flip();
+            final byte[] content = new byte[buffer.remaining()];
+            buffer.get(content);
+            assertArrayEquals("world".getBytes(), content);
+        }
+    }
+
+    @Test
+    public void testChannelEOFExceptionIfNotEnoughData(@TempDir final Path tempDir) throws IOException {
+        final Path claimFile = tempDir.resolve("id");
+        Files.write(claimFile, "hello".getBytes());
+
+        final ResourceClaimManager claimManager = new StandardResourceClaimManager();
+        final ResourceClaim resourceClaim = new StandardResourceClaim(claimManager, "container", "section", "id", false);
+        final ContentClaim contentClaim = new StandardContentClaim(resourceClaim, 0L);
+
+        final FileSystemRepository contentRepo = mock(FileSystemRepository.class);
+        when(contentRepo.getPath(contentClaim, true)).thenReturn(claimFile);
+
+        final FlowFileRecord flowFile = mock(FlowFileRecord.class);
+        when(flowFile.getContentClaim()).thenReturn(contentClaim);
+        when(flowFile.getSize()).thenReturn(100L);
+
+        final ContentRepositoryFlowFileAccess flowAccess = new ContentRepositoryFlowFileAccess(contentRepo);
+
+        try (final ReadableByteChannel channel = flowAccess.openChannel(flowFile)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(100);
+            assertEquals(5, channel.read(buffer));
+            assertThrows(EOFException.class, () -> channel.read(buffer));
+        }
+    }
+
+    @Test
+    public void testNoChannelForOtherContentRepositories() throws IOException {
+        final ContentRepository contentRepo = mock(ContentRepository.class);
+
+        final ResourceClaimManager claimManager = new StandardResourceClaimManager();
+        final ResourceClaim resourceClaim = new StandardResourceClaim(claimManager, "container", "section", "id", false);
+        final ContentClaim contentClaim = new StandardContentClaim(resourceClaim, 0L);
+
+        final FlowFileRecord flowFile = mock(FlowFileRecord.class);
+        when(flowFile.getContentClaim()).thenReturn(contentClaim);
+
+        final ContentRepositoryFlowFileAccess flowAccess = new ContentRepositoryFlowFileAccess(contentRepo);
+        assertNull(flowAccess.openChannel(flowFile));
+    }
 }
@@ -26,6 +26,7 @@ import org.apache.nifi.controller.queue.PollStrategy;
 import org.apache.nifi.controller.queue.QueueSize;
 import org.apache.nifi.controller.queue.SwappablePriorityQueue;
 import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.status.FlowFileAvailability;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.flowfile.FlowFilePrioritizer;
@@ -45,6 +46,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -793,4 +796,124 @@ public class TestSwappablePriorityQueue {
         assertEquals(totalNow - totalQueueDate, queue.getTotalQueuedDuration(now));
         assertEquals(minQueueDate, queue.getMinLastQueueDate());
     }
+
+    @Test
+    public void testConcurrentAccessSwapOutOccurs() {
+        final SwappablePriorityQueue queue = new SwappablePriorityQueue(swapManager, 10000, eventReporter, flowFileQueue, dropAction, "local", true);
+
+        for (int i = 0; i < 20000; i++) {
+            queue.put(new MockFlowFileRecord());
+        }
+        assertEquals(1, swapManager.swapOutCalledCount);
+        assertEquals(20000, queue.size().getObjectCount());
+        assertEquals(10000, queue.getQueueDiagnostics().getActiveQueueSize().getObjectCount());
+
+        // All FlowFiles should be polled in the order that they were added, including those that were swapped out.
+        long previousId = -1L;
+        FlowFileRecord polled;
+        int polledCount = 0;
+        while ((polled = queue.poll(Collections.emptySet(), 0L)) != null) {
+            assertTrue(polled.getId() > previousId);
+            previousId = polled.getId();
+            queue.acknowledge(polled);
+            polledCount++;
+        }
+
+        assertEquals(20000, polledCount);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentAccessPollWithPenalizedFlowFile() {
+        final SwappablePriorityQueue queue = new SwappablePriorityQueue(swapManager, 10000, eventReporter, flowFileQueue, dropAction, "local", true);
+
+        final MockFlowFileRecord penalizedFlowFile = new MockFlowFileRecord();
+        penalizedFlowFile.setPenaltyExpiration(System.currentTimeMillis() + 60_000L);
+        queue.put(penalizedFlowFile);
+        assertEquals(FlowFileAvailability.HEAD_OF_QUEUE_PENALIZED, queue.getFlowFileAvailability());
+
+        final MockFlowFileRecord flowFile = new MockFlowFileRecord();
+        queue.put(flowFile);
+        assertEquals(FlowFileAvailability.FLOWFILE_AVAILABLE, queue.getFlowFileAvailability());
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        assertSame(flowFile, queue.poll(expiredRecords, 0, PollStrategy.UNPENALIZED_FLOWFILES));
+        assertNull(queue.poll(expiredRecords, 0, PollStrategy.UNPENALIZED_FLOWFILES));
+        assertSame(penalizedFlowFile, queue.poll(expiredRecords, 0, PollStrategy.ALL_FLOWFILES));
+    }
+
+    @Test
+    @Timeout(30)
+    public void testConcurrentAccessFromMultipleThreads() throws InterruptedException {
+        final SwappablePriorityQueue queue = new SwappablePriorityQueue(swapManager, 1000, eventReporter, flowFileQueue, dropAction, "local", true);
+        final int threadCount = 8;
+        final int flowFilesPerThread = 5000;
+        final AtomicInteger polledCount = new AtomicInteger(0);
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < flowFilesPerThread; i++) {
+                    queue.put(new MockFlowFileRecord());
+
+                    final List<FlowFileRecord> polled = queue.poll(2, new HashSet<>(), 0L);
+                    queue.acknowledge(polled);
+                    polledCount.addAndGet(polled.size());
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        List<FlowFileRecord> polled;
+        while (!(polled = queue.poll(100, new HashSet<>(), 0L)).isEmpty()) {
+            queue.acknowledge(polled);
+            polledCount.addAndGet(polled.size());
+        }
+
+        assertEquals(threadCount * flowFilesPerThread, polledCount.get());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.getFlowFileQueueSize().getActiveCount());
+        assertEquals(0, queue.getFlowFileQueueSize().getSwappedCount());
+    }
+
+    @Test
+    @Timeout(30)
+    public void testConcurrentAccessDropWhileCheckingAvailability() throws InterruptedException {
+        final SwappablePriorityQueue queue = new SwappablePriorityQueue(swapManager, 10000, eventReporter, flowFileQueue, dropAction, "local", true);
+        final AtomicBoolean stopped = new AtomicBoolean(false);
+
+        final Thread availabilityThread = new Thread(() -> {
+            while (!stopped.get()) {
+                queue.getFlowFileAvailability();
+            }
+        });
+        availabilityThread.start();
+
+        try {
+            for (int i = 0; i < 500; i++) {
+                final List<MockFlowFileRecord> flowFiles = new ArrayList<>();
+                for (int j = 0; j < 100; j++) {
+                    final MockFlowFileRecord flowFile = new MockFlowFileRecord();
+                    queue.put(flowFile);
+                    flowFiles.add(flowFile);
+                }
+
+                // Penalize the queued FlowFiles so that checking availability moves them aside while the drop is in progress
+                final long penaltyExpiration = System.currentTimeMillis() + 60_000L;
+                flowFiles.forEach(flowFile -> flowFile.setPenaltyExpiration(penaltyExpiration));
+
+                queue.dropFlowFiles(new DropFlowFileRequest("Unit Test " + i), "Unit Test");
+
+                assertEquals(0, queue.size().getObjectCount());
+                assertTrue(queue.getActiveFlowFiles().isEmpty());
+            }
+        } finally {
+            stopped.set(true);
+            availabilityThread.join();
+        }
+    }
 }
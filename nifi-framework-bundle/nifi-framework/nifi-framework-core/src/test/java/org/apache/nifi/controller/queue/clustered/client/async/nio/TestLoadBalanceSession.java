@@ -23,6 +23,7 @@ import org.apache.nifi.controller.queue.clustered.FlowFileContentAccess;
 import org.apache.nifi.controller.queue.clustered.SimpleLimitThreshold;
 import org.apache.nifi.controller.queue.clustered.client.StandardLoadBalanceFlowFileCodec;
 import org.apache.nifi.controller.queue.clustered.client.async.TransactionFailureCallback;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceCompressionCodec;
 import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.junit.jupiter.api.AfterEach;
@@ -32,12 +33,19 @@ import org.junit.jupiter.api.Timeout;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -52,6 +60,7 @@ import java.util.zip.Checksum;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestLoadBalanceSession {
@@ -102,6 +111,10 @@ public class TestLoadBalanceSession {
         serverSocket.close();
     }
 
+    private static ByteBuffer createContentFrameBuffer() {
+        return ByteBuffer.allocateDirect(LoadBalanceSession.DATA_FRAME_HEADER_SIZE + LoadBalanceSession.MAX_DATA_FRAME_SIZE);
+    }
+
     @Test
     @Timeout(10)
     public void testSunnyCase() throws InterruptedException, IOException {
@@ -118,14 +131,14 @@ public class TestLoadBalanceSession {
         final FlowFileContentAccess contentAccess = contentMap::get;
 
         final RegisteredPartition partition = new RegisteredPartition("unit-test-connection", () -> false,
-            flowFiles::poll, NOP_FAILURE_CALLBACK, (ff, nodeId) -> { }, () -> LoadBalanceCompression.DO_NOT_COMPRESS, () -> true);
+            flowFiles::poll, NOP_FAILURE_CALLBACK, (ff, nodeId, latencyNanos, nanos) -> { }, () -> LoadBalanceCompression.DO_NOT_COMPRESS, () -> true);
 
         final SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("localhost", port));
 
         socketChannel.configureBlocking(false);
         final PeerChannel peerChannel = new PeerChannel(socketChannel, null, "unit-test");
         final LoadBalanceSession transaction = new LoadBalanceSession(partition, contentAccess, new StandardLoadBalanceFlowFileCodec(), peerChannel, 30000,
-            new SimpleLimitThreshold(100, 10_000_000));
+            new SimpleLimitThreshold(100, 10_000_000), LoadBalanceCompressionCodec.GZIP, createContentFrameBuffer());
 
         Thread.sleep(100L);
 
@@ -208,14 +221,14 @@ public class TestLoadBalanceSession {
         final FlowFileContentAccess contentAccess = contentMap::get;
 
         final RegisteredPartition partition = new RegisteredPartition("unit-test-connection", () -> false,
-            flowFiles::poll, NOP_FAILURE_CALLBACK, (ff, nodeId) -> { }, () -> LoadBalanceCompression.DO_NOT_COMPRESS, () -> true);
+            flowFiles::poll, NOP_FAILURE_CALLBACK, (ff, nodeId, latencyNanos, nanos) -> { }, () -> LoadBalanceCompression.DO_NOT_COMPRESS, () -> true);
 
         final SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("localhost", port));
 
         socketChannel.configureBlocking(false);
         final PeerChannel peerChannel = new PeerChannel(socketChannel, null, "unit-test");
         final LoadBalanceSession transaction = new LoadBalanceSession(partition, contentAccess, new StandardLoadBalanceFlowFileCodec(), peerChannel, 30000,
-            new SimpleLimitThreshold(100, 10_000_000));
+            new SimpleLimitThreshold(100, 10_000_000), LoadBalanceCompressionCodec.GZIP, createContentFrameBuffer());
 
         Thread.sleep(100L);
 
@@ -270,4 +283,402 @@ public class TestLoadBalanceSession {
 
         assertEquals(Arrays.asList(flowFile1), transaction.getAndPurgeFlowFilesSent());
     }
+
+    @Test
+    @Timeout(10)
+    public void testCompressionCodecSentWithNewerProtocolVersion() throws InterruptedException, IOException {
+        final Queue<FlowFileRecord> flowFiles = new LinkedList<>();
+        final FlowFileRecord flowFile1 = new MockFlowFileRecord(5);
+        flowFiles.offer(flowFile1);
+
+        final Map<FlowFileRecord, InputStream> contentMap = new HashMap<>();
+        contentMap.put(flowFile1, new ByteArrayInputStream("hello".getBytes()));
+
+        final FlowFileContentAccess contentAccess = contentMap::get;
+
+        final RegisteredPartition partition = new RegisteredPartition("unit-test-connection", () -> false,
+            flowFiles::poll, NOP_FAILURE_CALLBACK, (ff, nodeId, latencyNanos, nanos) -> { }, () -> LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT, () -> true);
+
+        final SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("localhost", port));
+
+        socketChannel.configureBlocking(false);
+        final PeerChannel peerChannel = new PeerChannel(socketChannel, null, "unit-test");
+        final LoadBalanceSession transaction = new LoadBalanceSession(partition, contentAccess, new StandardLoadBalanceFlowFileCodec(), peerChannel, 30000,
+            new SimpleLimitThreshold(100, 10_000_000), LoadBalanceCompressionCodec.ZSTD, createContentFrameBuffer());
+
+        Thread.sleep(100L);
+
+        while (transaction.communicate()) {
+        }
+
+        assertTrue(transaction.getSessionState().isComplete());
+        socketChannel.close();
+
+        final ByteArrayOutputStream metadataOut = new ByteArrayOutputStream();
+        try (final OutputStream compressedOut = LoadBalanceCompressionCodec.ZSTD.compress(metadataOut)) {
+            new StandardLoadBalanceFlowFileCodec().encode(flowFile1, compressedOut);
+        }
+        final byte[] metadata = metadataOut.toByteArray();
+
+        final ByteArrayOutputStream contentOut = new ByteArrayOutputStream();
+        try (final OutputStream compressedOut = LoadBalanceCompressionCodec.ZSTD.compress(contentOut)) {
+            compressedOut.write("hello".getBytes());
+        }
+        final byte[] content = contentOut.toByteArray();
+
+        final Checksum expectedChecksum = new CRC32();
+        final ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
+        expectedOut.write(LoadBalanceProtocolConstants.COMPRESSION_CODEC_PROTOCOL_VERSION); // Protocol Version
+
+        final DataOutputStream expectedDos = new DataOutputStream(new CheckedOutputStream(expectedOut, expectedChecksum));
+        expectedDos.writeUTF("unit-test-connection");
+        expectedDos.write(LoadBalanceCompressionCodec.ZSTD.getId());
+
+        expectedDos.write(LoadBalanceProtocolConstants.CHECK_SPACE);
+        expectedDos.write(LoadBalanceProtocolConstants.MORE_FLOWFILES);
+        expectedDos.writeInt(metadata.length);
+        expectedDos.write(metadata);
+        expectedDos.write(LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+        expectedDos.writeInt(content.length);
+        expectedDos.write(content);
+        expectedDos.write(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+
+        expectedDos.write(LoadBalanceProtocolConstants.NO_MORE_FLOWFILES);
+        expectedDos.writeLong(expectedChecksum.getValue());
+        expectedDos.write(LoadBalanceProtocolConstants.COMPLETE_TRANSACTION);
+
+        final byte[] expectedSent = expectedOut.toByteArray();
+
+        while (received.size() < expectedSent.length) {
+            Thread.sleep(10L);
+        }
+        final byte[] dataSent = received.toByteArray();
+
+        assertArrayEquals(expectedSent, dataSent);
+
+        assertEquals(Arrays.asList(flowFile1), transaction.getAndPurgeFlowFilesSent());
+    }
+
+    @Test
+    @Timeout(10)
+    public void testContentReadThroughChannel() throws InterruptedException, IOException {
+        final byte[] content = new byte[66000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('A' + i % 26);
+        }
+
+        final Queue<FlowFileRecord> flowFiles = new LinkedList<>();
+        final FlowFileRecord flowFile1 = new MockFlowFileRecord(content.length);
+        flowFiles.offer(flowFile1);
+
+        final FlowFileContentAccess contentAccess = new FlowFileContentAccess() {
+            @Override
+            public InputStream read(final FlowFileRecord flowFile) {
+                throw new AssertionError("Content should be read through a Channel");
+            }
+
+            @Override
+            public ReadableByteChannel openChannel(final FlowFileRecord flowFile) {
+                return Channels.newChannel(new ByteArrayInputStream(content));
+            }
+        };
+
+        final RegisteredPartition partition = new RegisteredPartition("unit-test-connection", () -> false,
+            flowFiles::poll, NOP_FAILURE_CALLBACK, (ff, nodeId, latencyNanos, nanos) -> { }, () -> LoadBalanceCompression.COMPRESS_ATTRIBUTES_ONLY, () -> true);
+
+        final SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("localhost", port));
+
+        socketChannel.configureBlocking(false);
+        final PeerChannel peerChannel = new PeerChannel(socketChannel, null, "unit-test");
+        final LoadBalanceSession transaction = new LoadBalanceSession(partition, contentAccess, new StandardLoadBalanceFlowFileCodec(), peerChannel, 30000,
+            new SimpleLimitThreshold(100, 10_000_000), LoadBalanceCompressionCodec.GZIP, createContentFrameBuffer());
+
+        Thread.sleep(100L);
+
+        while (transaction.communicate()) {
+        }
+
+        assertTrue(transaction.getSessionState().isComplete());
+        socketChannel.close();
+
+        final ByteArrayOutputStream metadataOut = new ByteArrayOutputStream();
+        try (final OutputStream compressedOut = LoadBalanceCompressionCodec.GZIP.compress(metadataOut)) {
+            new StandardLoadBalanceFlowFileCodec().encode(flowFile1, compressedOut);
+        }
+        final byte[] metadata = metadataOut.toByteArray();
+
+        final Checksum expectedChecksum = new CRC32();
+        final ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
+        expectedOut.write(1); // Protocol Version
+
+        final DataOutputStream expectedDos = new DataOutputStream(new CheckedOutputStream(expectedOut, expectedChecksum));
+        expectedDos.writeUTF("unit-test-connection");
+
+        expectedDos.write(LoadBalanceProtocolConstants.CHECK_SPACE);
+        expectedDos.write(LoadBalanceProtocolConstants.MORE_FLOWFILES);
+        expectedDos.writeInt(metadata.length);
+        expectedDos.write(metadata);
+
+        // first data frame
+        expectedDos.write(LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+        expectedDos.writeInt(LoadBalanceSession.MAX_DATA_FRAME_SIZE);
+        expectedDos.write(Arrays.copyOfRange(content, 0, LoadBalanceSession.MAX_DATA_FRAME_SIZE));
+
+        // second data frame
+        expectedDos.write(LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+        expectedDos.writeInt(content.length - LoadBalanceSession.MAX_DATA_FRAME_SIZE);
+        expectedDos.write(Arrays.copyOfRange(content, LoadBalanceSession.MAX_DATA_FRAME_SIZE, content.length));
+        expectedDos.write(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+
+        expectedDos.write(LoadBalanceProtocolConstants.NO_MORE_FLOWFILES);
+        expectedDos.writeLong(expectedChecksum.getValue());
+        expectedDos.write(LoadBalanceProtocolConstants.COMPLETE_TRANSACTION);
+
+        final byte[] expectedSent = expectedOut.toByteArray();
+
+        while (received.size() < expectedSent.length) {
+            Thread.sleep(10L);
+        }
+        final byte[] dataSent = received.toByteArray();
+
+        assertArrayEquals(expectedSent, dataSent);
+
+        assertEquals(Arrays.asList(flowFile1), transaction.getAndPurgeFlowFilesSent());
+    }
+
+    @Test
+    @Timeout(10)
+    public void testMultiplexedStream() throws InterruptedException, IOException {
+        final byte[] content = new byte[66000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('A' + i % 26);
+        }
+
+        final Queue<FlowFileRecord> flowFiles = new LinkedList<>();
+        final FlowFileRecord flowFile1 = new MockFlowFileRecord(content.length);
+        flowFiles.offer(flowFile1);
+
+        final FlowFileContentAccess contentAccess = new FlowFileContentAccess() {
+            @Override
+            public InputStream read(final FlowFileRecord flowFile) {
+                throw new AssertionError("Content should be read through a Channel");
+            }
+
+            @Override
+            public ReadableByteChannel openChannel(final FlowFileRecord flowFile) {
+                return Channels.newChannel(new ByteArrayInputStream(content));
+            }
+        };
+
+        final RegisteredPartition partition = new RegisteredPartition("unit-test-connection", () -> false,
+            flowFiles::poll, NOP_FAILURE_CALLBACK, (ff, nodeId, latencyNanos, nanos) -> { }, () -> LoadBalanceCompression.DO_NOT_COMPRESS, () -> true);
+
+        final SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("localhost", port));
+
+        socketChannel.configureBlocking(false);
+        final PeerChannel peerChannel = new PeerChannel(socketChannel, null, "unit-test");
+        final ByteBuffer contentFrameBuffer = ByteBuffer.allocateDirect(LoadBalanceSession.STREAM_HEADER_SIZE + LoadBalanceSession.DATA_FRAME_HEADER_SIZE
+            + LoadBalanceSession.MAX_DATA_FRAME_SIZE);
+        final int streamId = 7;
+        final LoadBalanceSession transaction = new LoadBalanceSession(partition, contentAccess, new StandardLoadBalanceFlowFileCodec(), peerChannel, 30000,
+            new SimpleLimitThreshold(100, 10_000_000), LoadBalanceCompressionCodec.GZIP, contentFrameBuffer, streamId);
+
+        // Responses are provided by the demultiplexer rather than read from the channel
+        final byte[] responses = new byte[] {LoadBalanceProtocolConstants.SPACE_AVAILABLE, LoadBalanceProtocolConstants.CONFIRM_CHECKSUM,
+            LoadBalanceProtocolConstants.CONFIRM_COMPLETE_TRANSACTION};
+        transaction.receiveStreamData(ByteBuffer.wrap(responses), responses.length);
+
+        Thread.sleep(100L);
+
+        while (transaction.communicate()) {
+        }
+
+        assertEquals(LoadBalanceSession.LoadBalanceSessionState.COMPLETED_SUCCESSFULLY, transaction.getSessionState());
+
+        final ByteArrayOutputStream metadataOut = new ByteArrayOutputStream();
+        new StandardLoadBalanceFlowFileCodec().encode(flowFile1, metadataOut);
+        final byte[] metadata = metadataOut.toByteArray();
+
+        final Checksum expectedChecksum = new CRC32();
+        final ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
+        final DataOutputStream expectedDos = new DataOutputStream(expectedOut);
+
+        // No Protocol Version is recommended, and every frame is prefixed with the Stream ID and the frame's length
+        final ByteArrayOutputStream connectionIdFrame = new ByteArrayOutputStream();
+        final DataOutputStream connectionIdDos = new DataOutputStream(connectionIdFrame);
+        connectionIdDos.writeUTF("unit-test-connection");
+        connectionIdDos.write(LoadBalanceCompressionCodec.GZIP.getId());
+        writeStreamFrame(expectedDos, streamId, connectionIdFrame.toByteArray(), expectedChecksum);
+
+        writeStreamFrame(expectedDos, streamId, new byte[] {LoadBalanceProtocolConstants.CHECK_SPACE}, expectedChecksum);
+
+        final ByteBuffer flowFileFrame = ByteBuffer.allocate(5 + metadata.length);
+        flowFileFrame.put((byte) LoadBalanceProtocolConstants.MORE_FLOWFILES);
+        flowFileFrame.putInt(metadata.length);
+        flowFileFrame.put(metadata);
+        writeStreamFrame(expectedDos, streamId, flowFileFrame.array(), expectedChecksum);
+
+        writeStreamFrame(expectedDos, streamId, createDataFrame(Arrays.copyOfRange(content, 0, LoadBalanceSession.MAX_DATA_FRAME_SIZE)), expectedChecksum);
+        writeStreamFrame(expectedDos, streamId, createDataFrame(Arrays.copyOfRange(content, LoadBalanceSession.MAX_DATA_FRAME_SIZE, content.length)), expectedChecksum);
+        writeStreamFrame(expectedDos, streamId, new byte[] {LoadBalanceProtocolConstants.NO_DATA_FRAME}, expectedChecksum);
+        writeStreamFrame(expectedDos, streamId, new byte[] {LoadBalanceProtocolConstants.NO_MORE_FLOWFILES}, expectedChecksum);
+
+        final ByteBuffer checksumFrame = ByteBuffer.allocate(8);
+        checksumFrame.putLong(expectedChecksum.getValue());
+        writeStreamFrame(expectedDos, streamId, checksumFrame.array(), null);
+        writeStreamFrame(expectedDos, streamId, new byte[] {LoadBalanceProtocolConstants.COMPLETE_TRANSACTION}, null);
+
+        final byte[] expectedSent = expectedOut.toByteArray();
+
+        // The responses that the server writes are never read by the session, so they are drained before closing the channel;
+        // otherwise, the unread data would cause the connection to be reset before the server has received everything.
+        while (received.size() < expectedSent.length) {
+            Thread.sleep(10L);
+        }
+        socketChannel.read(ByteBuffer.allocate(16));
+        socketChannel.close();
+        final byte[] dataSent = received.toByteArray();
+
+        assertArrayEquals(expectedSent, dataSent);
+
+        assertEquals(Arrays.asList(flowFile1), transaction.getAndPurgeFlowFilesSent());
+    }
+
+    @Test
+    @Timeout(10)
+    public void testMultiplexedStreamWaitsForWindow() throws InterruptedException, IOException {
+        final int windowSize = LoadBalanceProtocolConstants.STREAM_WINDOW_SIZE;
+        final byte[] content = new byte[windowSize + 10_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('A' + i % 26);
+        }
+
+        final Queue<FlowFileRecord> flowFiles = new LinkedList<>();
+        final FlowFileRecord flowFile1 = new MockFlowFileRecord(content.length);
+        flowFiles.offer(flowFile1);
+
+        final FlowFileContentAccess contentAccess = new FlowFileContentAccess() {
+            @Override
+            public InputStream read(final FlowFileRecord flowFile) {
+                throw new AssertionError("Content should be read through a Channel");
+            }
+
+            @Override
+            public ReadableByteChannel openChannel(final FlowFileRecord flowFile) {
+                return Channels.newChannel(new ByteArrayInputStream(content));
+            }
+        };
+
+        final RegisteredPartition partition = new RegisteredPartition("unit-test-connection", () -> false,
+            flowFiles::poll, NOP_FAILURE_CALLBACK, (ff, nodeId, latencyNanos, nanos) -> { }, () -> LoadBalanceCompression.DO_NOT_COMPRESS, () -> true);
+
+        final SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("localhost", port));
+
+        socketChannel.configureBlocking(false);
+        final PeerChannel peerChannel = new PeerChannel(socketChannel, null, "unit-test");
+        final ByteBuffer contentFrameBuffer = ByteBuffer.allocateDirect(LoadBalanceSession.STREAM_HEADER_SIZE + LoadBalanceSession.DATA_FRAME_HEADER_SIZE
+            + LoadBalanceSession.MAX_DATA_FRAME_SIZE);
+        final int streamId = 7;
+        final LoadBalanceSession transaction = new LoadBalanceSession(partition, contentAccess, new StandardLoadBalanceFlowFileCodec(), peerChannel, 30000,
+            new SimpleLimitThreshold(100, 10_000_000), LoadBalanceCompressionCodec.GZIP, contentFrameBuffer, streamId);
+
+        final byte[] responses = new byte[] {LoadBalanceProtocolConstants.SPACE_AVAILABLE, LoadBalanceProtocolConstants.CONFIRM_CHECKSUM,
+            LoadBalanceProtocolConstants.CONFIRM_COMPLETE_TRANSACTION};
+        transaction.receiveStreamData(ByteBuffer.wrap(responses), responses.length);
+
+        Thread.sleep(100L);
+
+        // The session sends data until the stream's window is used up and then waits for the peer to grant more of it
+        while (getStreamData(received.toByteArray(), streamId).length < windowSize) {
+            transaction.communicate();
+        }
+
+        assertEquals(SelectionKey.OP_READ, transaction.getDesiredReadinessFlag());
+        assertFalse(transaction.communicate());
+        Thread.sleep(100L);
+        assertEquals(windowSize, getStreamData(received.toByteArray(), streamId).length);
+        assertEquals(LoadBalanceSession.LoadBalanceSessionState.ACTIVE, transaction.getSessionState());
+
+        transaction.addSendWindow(windowSize);
+        while (!transaction.getSessionState().isComplete()) {
+            transaction.communicate();
+        }
+
+        assertEquals(LoadBalanceSession.LoadBalanceSessionState.COMPLETED_SUCCESSFULLY, transaction.getSessionState());
+
+        byte[] contentReceived = null;
+        while (contentReceived == null) {
+            try {
+                contentReceived = readTransactionContent(getStreamData(received.toByteArray(), streamId));
+            } catch (final EOFException eof) {
+                Thread.sleep(10L);
+            }
+        }
+        socketChannel.read(ByteBuffer.allocate(16));
+        socketChannel.close();
+
+        assertArrayEquals(content, contentReceived);
+        assertEquals(Arrays.asList(flowFile1), transaction.getAndPurgeFlowFilesSent());
+    }
+
+    /**
+     * Reassembles the data of the given stream from the frames that have been completely received
+     */
+    private static byte[] getStreamData(final byte[] frames, final int streamId) {
+        final ByteArrayOutputStream streamData = new ByteArrayOutputStream();
+        final ByteBuffer buffer = ByteBuffer.wrap(frames);
+        while (buffer.remaining() >= LoadBalanceSession.STREAM_HEADER_SIZE) {
+            assertEquals(streamId, buffer.getShort());
+            final int length = buffer.getInt();
+            if (buffer.remaining() < length) {
+                break;
+            }
+
+            streamData.write(frames, buffer.position(), length);
+            buffer.position(buffer.position() + length);
+        }
+
+        return streamData.toByteArray();
+    }
+
+    private static byte[] readTransactionContent(final byte[] transaction) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(transaction));
+        assertEquals("unit-test-connection", in.readUTF());
+        assertEquals(LoadBalanceCompressionCodec.GZIP.getId(), in.readByte());
+        assertEquals(LoadBalanceProtocolConstants.CHECK_SPACE, in.readByte());
+        assertEquals(LoadBalanceProtocolConstants.MORE_FLOWFILES, in.readByte());
+        in.readFully(new byte[in.readInt()]);
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte frameType;
+        while ((frameType = in.readByte()) == LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS) {
+            final byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            content.write(data);
+        }
+
+        assertEquals(LoadBalanceProtocolConstants.NO_DATA_FRAME, frameType);
+        assertEquals(LoadBalanceProtocolConstants.NO_MORE_FLOWFILES, in.readByte());
+        in.readLong();
+        assertEquals(LoadBalanceProtocolConstants.COMPLETE_TRANSACTION, in.readByte());
+        return content.toByteArray();
+    }
+
+    private static byte[] createDataFrame(final byte[] data) {
+        final ByteBuffer frame = ByteBuffer.allocate(LoadBalanceSession.DATA_FRAME_HEADER_SIZE + data.length);
+        frame.put((byte) LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+        frame.putInt(data.length);
+        frame.put(data);
+        return frame.array();
+    }
+
+    private static void writeStreamFrame(final DataOutputStream out, final int streamId, final byte[] frame, final Checksum checksum) throws IOException {
+        out.writeShort(streamId);
+        out.writeInt(frame.length);
+        out.write(frame);
+
+        if (checksum != null) {
+            checksum.update(frame, 0, frame.length);
+        }
+    }
 }
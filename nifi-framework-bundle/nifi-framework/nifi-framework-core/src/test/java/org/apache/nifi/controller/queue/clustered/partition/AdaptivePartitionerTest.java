@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdaptivePartitionerTest {
+    private static final String PARTITIONING_ATTRIBUTE = "group";
+
+    private static final String FIRST_ATTRIBUTE = "4";  // value chosen so its hash places it in partition 1
+
+    private static final long MEGABYTE = 1024 * 1024;
+
+    @Mock
+    private FlowFileRecord flowFileRecord;
+
+    @Mock
+    private QueuePartition localPartition;
+
+    @Mock
+    private QueuePartition firstPartition;
+
+    @Mock
+    private QueuePartition secondPartition;
+
+    @Mock
+    private QueuePartition thirdPartition;
+
+    @Test
+    void testRebalanceWithoutPartitioningAttribute() {
+        final AdaptivePartitioner partitioner = new AdaptivePartitioner(null);
+
+        assertFalse(partitioner.isRebalanceOnClusterResize());
+        assertTrue(partitioner.isRebalanceOnFailure());
+    }
+
+    @Test
+    void testRebalanceWithPartitioningAttribute() {
+        final AdaptivePartitioner partitioner = new AdaptivePartitioner(PARTITIONING_ATTRIBUTE);
+
+        assertTrue(partitioner.isRebalanceOnClusterResize());
+        assertFalse(partitioner.isRebalanceOnFailure());
+    }
+
+    @Test
+    void testIdlePartitionsSelectedRoundRobin() {
+        final AdaptivePartitioner partitioner = new AdaptivePartitioner(null);
+        final QueuePartition[] partitions = new QueuePartition[]{firstPartition, secondPartition, thirdPartition};
+
+        when(firstPartition.size()).thenReturn(new QueueSize(0, 0L));
+        when(secondPartition.size()).thenReturn(new QueueSize(0, 0L));
+        when(thirdPartition.size()).thenReturn(new QueueSize(0, 0L));
+
+        assertEquals(firstPartition, partitioner.getPartition(flowFileRecord, partitions, localPartition));
+        assertEquals(secondPartition, partitioner.getPartition(flowFileRecord, partitions, localPartition));
+        assertEquals(thirdPartition, partitioner.getPartition(flowFileRecord, partitions, localPartition));
+        assertEquals(firstPartition, partitioner.getPartition(flowFileRecord, partitions, localPartition));
+    }
+
+    @Test
+    void testLeastQueuedPartitionSelectedWithoutStatistics() {
+        final AdaptivePartitioner partitioner = new AdaptivePartitioner(null);
+        final QueuePartition[] partitions = new QueuePartition[]{firstPartition, secondPartition, thirdPartition};
+
+        when(firstPartition.size()).thenReturn(new QueueSize(10, 10 * MEGABYTE));
+        when(secondPartition.size()).thenReturn(new QueueSize(10, MEGABYTE));
+        when(thirdPartition.size()).thenReturn(new QueueSize(10, 50 * MEGABYTE));
+
+        for (int i = 0; i < partitions.length; i++) {
+            assertEquals(secondPartition, partitioner.getPartition(flowFileRecord, partitions, localPartition));
+        }
+    }
+
+    @Test
+    void testFasterNodeSelected() {
+        final AdaptivePartitioner partitioner = new AdaptivePartitioner(null);
+        final QueuePartition[] partitions = new QueuePartition[]{firstPartition, secondPartition};
+
+        final TransferStatistics slowStatistics = new TransferStatistics();
+        slowStatistics.recordTransaction(1, MEGABYTE, TimeUnit.MILLISECONDS.toNanos(100), TimeUnit.SECONDS.toNanos(1));
+        final TransferStatistics fastStatistics = new TransferStatistics();
+        fastStatistics.recordTransaction(1, MEGABYTE, TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(100));
+
+        when(firstPartition.size()).thenReturn(new QueueSize(1, MEGABYTE));
+        when(firstPartition.getTransferStatistics()).thenReturn(Optional.of(slowStatistics));
+        when(secondPartition.size()).thenReturn(new QueueSize(1, MEGABYTE));
+        when(secondPartition.getTransferStatistics()).thenReturn(Optional.of(fastStatistics));
+
+        for (int i = 0; i < partitions.length; i++) {
+            assertEquals(secondPartition, partitioner.getPartition(flowFileRecord, partitions, localPartition));
+        }
+    }
+
+    @Test
+    void testFailingNodeAvoided() {
+        final AdaptivePartitioner partitioner = new AdaptivePartitioner(null);
+        final QueuePartition[] partitions = new QueuePartition[]{firstPartition, secondPartition};
+
+        final TransferStatistics failingStatistics = new TransferStatistics();
+        failingStatistics.recordTransaction(1, MEGABYTE, TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(100));
+        failingStatistics.recordFailure();
+        final TransferStatistics healthyStatistics = new TransferStatistics();
+        healthyStatistics.recordTransaction(1, MEGABYTE, TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(100));
+
+        when(firstPartition.size()).thenReturn(new QueueSize(0, 0L));
+        when(firstPartition.getTransferStatistics()).thenReturn(Optional.of(failingStatistics));
+        when(secondPartition.size()).thenReturn(new QueueSize(0, 0L));
+        when(secondPartition.getTransferStatistics()).thenReturn(Optional.of(healthyStatistics));
+
+        for (int i = 0; i < partitions.length; i++) {
+            assertEquals(secondPartition, partitioner.getPartition(flowFileRecord, partitions, localPartition));
+        }
+    }
+
+    @Test
+    void testPartitionWithoutStatisticsUsesAverage() {
+        final AdaptivePartitioner partitioner = new AdaptivePartitioner(null);
+        final QueuePartition[] partitions = new QueuePartition[]{localPartition, firstPartition};
+
+        final TransferStatistics statistics = new TransferStatistics();
+        statistics.recordTransaction(1, MEGABYTE, TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(100));
+
+        when(localPartition.size()).thenReturn(new QueueSize(5, 5 * MEGABYTE));
+        when(firstPartition.size()).thenReturn(new QueueSize(1, MEGABYTE));
+        when(firstPartition.getTransferStatistics()).thenReturn(Optional.of(statistics));
+
+        for (int i = 0; i < partitions.length; i++) {
+            assertEquals(firstPartition, partitioner.getPartition(flowFileRecord, partitions, localPartition));
+        }
+    }
+
+    @Test
+    void testLatencyExcludedFromThroughput() {
+        final TransferStatistics statistics = new TransferStatistics();
+        statistics.recordTransaction(1, MEGABYTE, TimeUnit.MILLISECONDS.toNanos(500), TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), statistics.getAverageLatencyNanos(), 1D);
+        assertEquals(2D * MEGABYTE, statistics.getThroughputBytesPerSecond(), 1D);
+    }
+
+    @Test
+    void testTransferTimeNotCountedAsLatency() {
+        final AdaptivePartitioner partitioner = new AdaptivePartitioner(null);
+        final QueuePartition[] partitions = new QueuePartition[]{firstPartition, secondPartition};
+
+        // The first node responds quickly but transfers 1 MB per second, while the second responds slowly but transfers 2 MB per second.
+        // With 4 MB to send, the second node is expected to deliver sooner, but it would not be chosen if the time spent transferring data
+        // were counted as latency in addition to being reflected in the throughput.
+        final TransferStatistics slowTransferStatistics = new TransferStatistics();
+        slowTransferStatistics.recordTransaction(1, MEGABYTE, TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(1010));
+        final TransferStatistics slowResponseStatistics = new TransferStatistics();
+        slowResponseStatistics.recordTransaction(1, MEGABYTE, TimeUnit.MILLISECONDS.toNanos(600), TimeUnit.MILLISECONDS.toNanos(1100));
+
+        when(firstPartition.size()).thenReturn(new QueueSize(3, 3 * MEGABYTE));
+        when(firstPartition.getTransferStatistics()).thenReturn(Optional.of(slowTransferStatistics));
+        when(secondPartition.size()).thenReturn(new QueueSize(3, 3 * MEGABYTE));
+        when(secondPartition.getTransferStatistics()).thenReturn(Optional.of(slowResponseStatistics));
+        when(flowFileRecord.getSize()).thenReturn(MEGABYTE);
+
+        for (int i = 0; i < partitions.length; i++) {
+            assertEquals(secondPartition, partitioner.getPartition(flowFileRecord, partitions, localPartition));
+        }
+    }
+
+    @Test
+    void testPartitioningAttributeIsSticky() {
+        final AdaptivePartitioner partitioner = new AdaptivePartitioner(PARTITIONING_ATTRIBUTE);
+        final QueuePartition[] partitions = new QueuePartition[]{firstPartition, secondPartition, thirdPartition};
+
+        when(flowFileRecord.getAttribute(eq(PARTITIONING_ATTRIBUTE))).thenReturn(FIRST_ATTRIBUTE);
+
+        for (int i = 0; i < partitions.length; i++) {
+            assertEquals(firstPartition, partitioner.getPartition(flowFileRecord, partitions, localPartition));
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.server;
+
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestMultiplexedStreamReceiver {
+    private static final int TIMEOUT_MILLIS = 5000;
+    private static final int MAX_STREAMS = 8;
+    private static final int WINDOW_SIZE = LoadBalanceProtocolConstants.STREAM_WINDOW_SIZE;
+
+    @Test
+    @Timeout(10)
+    public void testInterleavedStreams() throws IOException {
+        final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        final DataOutputStream framesOut = new DataOutputStream(frames);
+        writeFrame(framesOut, 1, lengthPrefixed("hello world"), 0, 7);
+        writeFrame(framesOut, 2, lengthPrefixed("good-bye"), 0, 12);
+        writeFrame(framesOut, 1, lengthPrefixed("hello world"), 7, 8);
+
+        final CountDownLatch responsesWritten = new CountDownLatch(2);
+        final InputStream in = new SequenceInputStream(new ByteArrayInputStream(frames.toByteArray()), new AwaitingEndInputStream(responsesWritten));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final AtomicBoolean connectionClosed = new AtomicBoolean(false);
+
+        final MultiplexedStreamReceiver receiver = new MultiplexedStreamReceiver(in, out, () -> connectionClosed.set(true), "unit-test", TIMEOUT_MILLIS,
+            (streamIn, streamOut) -> {
+                final DataInputStream dataIn = new DataInputStream(streamIn);
+                final byte[] message = new byte[dataIn.readInt()];
+                dataIn.readFully(message);
+
+                streamOut.write(new String(message, StandardCharsets.UTF_8).toUpperCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+                streamOut.flush();
+                responsesWritten.countDown();
+            }, MAX_STREAMS);
+
+        receiver.receive();
+
+        assertFalse(connectionClosed.get());
+        final Map<Integer, String> responses = readFrames(out.toByteArray());
+        assertEquals("HELLO WORLD", responses.get(1));
+        assertEquals("GOOD-BYE", responses.get(2));
+    }
+
+    @Test
+    @Timeout(10)
+    public void testAbandonedStream() throws IOException {
+        final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        final DataOutputStream framesOut = new DataOutputStream(frames);
+        writeFrame(framesOut, 3, lengthPrefixed("incomplete"), 0, 6);
+        framesOut.writeShort(3);
+        framesOut.writeInt(0);
+
+        final CountDownLatch streamEnded = new CountDownLatch(1);
+        final InputStream in = new SequenceInputStream(new ByteArrayInputStream(frames.toByteArray()), new AwaitingEndInputStream(streamEnded));
+        final AtomicBoolean connectionClosed = new AtomicBoolean(false);
+
+        final MultiplexedStreamReceiver receiver = new MultiplexedStreamReceiver(in, new ByteArrayOutputStream(), () -> connectionClosed.set(true), "unit-test",
+            TIMEOUT_MILLIS, (streamIn, streamOut) -> {
+                try {
+                    final DataInputStream dataIn = new DataInputStream(streamIn);
+                    dataIn.readFully(new byte[dataIn.readInt()]);
+                } finally {
+                    streamEnded.countDown();
+                }
+            }, MAX_STREAMS);
+
+        // The stream ends with an EOFException, but because the peer abandoned the stream, the connection is not considered to have failed
+        receiver.receive();
+        assertFalse(connectionClosed.get());
+    }
+
+    @Test
+    @Timeout(10)
+    public void testFailedStreamClosesConnection() throws IOException {
+        final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        final DataOutputStream framesOut = new DataOutputStream(frames);
+        writeFrame(framesOut, 4, lengthPrefixed("fail"), 0, 8);
+
+        final CountDownLatch connectionClosed = new CountDownLatch(1);
+        final InputStream in = new SequenceInputStream(new ByteArrayInputStream(frames.toByteArray()), new AwaitingEndInputStream(connectionClosed));
+
+        final MultiplexedStreamReceiver receiver = new MultiplexedStreamReceiver(in, new ByteArrayOutputStream(), connectionClosed::countDown, "unit-test",
+            TIMEOUT_MILLIS, (streamIn, streamOut) -> {
+                throw new TransactionAbortedException("Intentional failure for unit test");
+            }, MAX_STREAMS);
+
+        assertThrows(TransactionAbortedException.class, receiver::receive);
+        assertEquals(0, connectionClosed.getCount());
+    }
+
+    @Test
+    @Timeout(10)
+    public void testSlowStreamDoesNotBlockOtherStreams() throws IOException {
+        // Stream 1 fills its entire window before its thread begins reading, which it does not do until Stream 2 has been received
+        final byte[] largeMessage = lengthPrefixed(new String(new char[WINDOW_SIZE - 4]).replace('\0', 'a'));
+        final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        final DataOutputStream framesOut = new DataOutputStream(frames);
+        writeFrame(framesOut, 1, largeMessage, 0, largeMessage.length);
+        writeFrame(framesOut, 2, lengthPrefixed("good-bye"), 0, 12);
+
+        final CountDownLatch secondStreamReceived = new CountDownLatch(1);
+        final CountDownLatch responsesWritten = new CountDownLatch(2);
+        final InputStream in = new SequenceInputStream(new ByteArrayInputStream(frames.toByteArray()), new AwaitingEndInputStream(responsesWritten));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        final MultiplexedStreamReceiver receiver = new MultiplexedStreamReceiver(in, out, () -> { }, "unit-test", TIMEOUT_MILLIS,
+            (streamIn, streamOut) -> {
+                final DataInputStream dataIn = new DataInputStream(streamIn);
+                final byte[] message = new byte[dataIn.readInt()];
+                if (message.length > 100) {
+                    awaitLatch(secondStreamReceived);
+                }
+
+                dataIn.readFully(message);
+                secondStreamReceived.countDown();
+
+                streamOut.write(String.valueOf(message.length).getBytes(StandardCharsets.UTF_8));
+                streamOut.flush();
+                responsesWritten.countDown();
+            }, MAX_STREAMS);
+
+        receiver.receive();
+
+        final Map<Integer, String> responses = readFrames(out.toByteArray());
+        assertEquals(String.valueOf(WINDOW_SIZE - 4), responses.get(1));
+        assertEquals("8", responses.get(2));
+
+        // Having consumed the data, Stream 1 grants the whole window back to the peer
+        assertEquals(WINDOW_SIZE, (int) readWindowUpdates(out.toByteArray()).get(1));
+        assertFalse(readWindowUpdates(out.toByteArray()).containsKey(2));
+    }
+
+    @Test
+    @Timeout(10)
+    public void testDataBeyondWindowFailsConnection() throws IOException {
+        final byte[] data = new byte[WINDOW_SIZE + 1];
+        final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        final DataOutputStream framesOut = new DataOutputStream(frames);
+        writeFrame(framesOut, 5, data, 0, WINDOW_SIZE);
+        writeFrame(framesOut, 5, data, WINDOW_SIZE, 1);
+
+        final CountDownLatch released = new CountDownLatch(1);
+        final MultiplexedStreamReceiver receiver = new MultiplexedStreamReceiver(new ByteArrayInputStream(frames.toByteArray()), new ByteArrayOutputStream(), () -> { },
+            "unit-test", TIMEOUT_MILLIS, (streamIn, streamOut) -> awaitLatch(released), MAX_STREAMS);
+
+        final IOException e = assertThrows(IOException.class, receiver::receive);
+        assertTrue(e.getMessage().contains("window"));
+        released.countDown();
+    }
+
+    @Test
+    @Timeout(10)
+    public void testTooManyConcurrentStreams() throws IOException {
+        final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        final DataOutputStream framesOut = new DataOutputStream(frames);
+        writeFrame(framesOut, 1, lengthPrefixed("hello"), 0, 4);
+        writeFrame(framesOut, 2, lengthPrefixed("world"), 0, 4);
+
+        final CountDownLatch released = new CountDownLatch(1);
+        final MultiplexedStreamReceiver receiver = new MultiplexedStreamReceiver(new ByteArrayInputStream(frames.toByteArray()), new ByteArrayOutputStream(), () -> { },
+            "unit-test", 100, (streamIn, streamOut) -> awaitLatch(released), 1);
+
+        final IOException e = assertThrows(IOException.class, receiver::receive);
+        assertTrue(e.getMessage().contains("maximum of 1 concurrent Streams"));
+        released.countDown();
+    }
+
+    private static void awaitLatch(final CountDownLatch latch) throws IOException {
+        try {
+            if (!latch.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Timed out waiting for latch");
+            }
+        } catch (final InterruptedException e) {
+            throw new IOException("Interrupted", e);
+        }
+    }
+
+    private static byte[] lengthPrefixed(final String message) throws IOException {
+        final byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final DataOutputStream dos = new DataOutputStream(baos);
+        dos.writeInt(messageBytes.length);
+        dos.write(messageBytes);
+        return baos.toByteArray();
+    }
+
+    private static void writeFrame(final DataOutputStream out, final int streamId, final byte[] data, final int offset, final int length) throws IOException {
+        out.writeShort(streamId);
+        out.writeInt(length);
+        out.write(data, offset, length);
+    }
+
+    private static Map<Integer, String> readFrames(final byte[] frames) throws IOException {
+        final Map<Integer, ByteArrayOutputStream> streams = new HashMap<>();
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(frames));
+        while (in.available() > 0) {
+            final int streamId = in.readUnsignedShort();
+            final int length = in.readInt();
+            if (length < 0) {
+                // Window updates carry no data
+                continue;
+            }
+
+            final byte[] data = new byte[length];
+            in.readFully(data);
+            streams.computeIfAbsent(streamId, id -> new ByteArrayOutputStream()).write(data);
+        }
+
+        final Map<Integer, String> contents = new HashMap<>();
+        streams.forEach((streamId, data) -> contents.put(streamId, data.toString(StandardCharsets.UTF_8)));
+        return contents;
+    }
+
+    private static Map<Integer, Integer> readWindowUpdates(final byte[] frames) throws IOException {
+        final Map<Integer, Integer> windowUpdates = new HashMap<>();
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(frames));
+        while (in.available() > 0) {
+            final int streamId = in.readUnsignedShort();
+            final int length = in.readInt();
+            if (length < 0) {
+                windowUpdates.merge(streamId, -length, Integer::sum);
+            } else {
+                in.skipBytes(length);
+            }
+        }
+
+        return windowUpdates;
+    }
+
+    /**
+     * Simulates a peer that keeps the connection open until the given latch is released and then closes it.
+     */
+    private static class AwaitingEndInputStream extends InputStream {
+        private final CountDownLatch latch;
+
+        AwaitingEndInputStream(final CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                latch.await();
+            } catch (final InterruptedException e) {
+                throw new EOFException("Interrupted");
+            }
+
+            return -1;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.nifi.controller.flow.FlowManager;
 import org.apache.nifi.controller.queue.IllegalClusterStateException;
 import org.apache.nifi.controller.queue.LoadBalanceCompression;
 import org.apache.nifi.controller.queue.LoadBalancedFlowFileQueue;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceCompressionCodec;
 import org.apache.nifi.controller.repository.ContentRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
@@ -60,6 +61,7 @@ import java.util.zip.Checksum;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.ABORT_TRANSACTION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CHECK_SPACE;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.COMPLETE_TRANSACTION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.COMPRESSION_CODEC_PROTOCOL_VERSION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_CHECKSUM;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_COMPLETE_TRANSACTION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS;
@@ -588,6 +590,90 @@ public class TestStandardLoadBalanceProtocol {
         Mockito.verify(flowFileQueue, times(1)).receiveFromPeer(anyCollection());
     }
 
+    @Test
+    public void testCompressionCodecWithNewerProtocolVersion() throws IOException {
+        when(flowFileQueue.getLoadBalanceCompression()).thenReturn(LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT);
+        final StandardLoadBalanceProtocol protocol = new StandardLoadBalanceProtocol(flowFileRepo, contentRepo, provenanceRepo, flowController, ALWAYS_AUTHORIZED);
+
+        final PipedInputStream serverInput = new PipedInputStream();
+        final PipedOutputStream serverContentSource = new PipedOutputStream();
+        serverInput.connect(serverContentSource);
+
+        final ByteArrayOutputStream serverOutput = new ByteArrayOutputStream();
+
+        // Write connection ID and compression codec
+        final Checksum checksum = new CRC32();
+        final OutputStream checkedOutput = new CheckedOutputStream(serverContentSource, checksum);
+        final DataOutputStream dos = new DataOutputStream(checkedOutput);
+        dos.writeUTF("unit-test-connection-id");
+        dos.write(LoadBalanceCompressionCodec.ZSTD.getId());
+
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("a", "A");
+        attributes.put("uuid", "unit-test-id");
+
+        final ByteArrayOutputStream attributesOut = new ByteArrayOutputStream();
+        writeAttributes(attributes, new DataOutputStream(attributesOut));
+        final byte[] metadata = compress(Arrays.copyOfRange(attributesOut.toByteArray(), 4, attributesOut.size()));
+        final byte[] content = compress("hello".getBytes());
+
+        dos.write(CHECK_SPACE);
+        dos.write(MORE_FLOWFILES);
+        dos.writeInt(metadata.length);
+        dos.write(metadata);
+        dos.write(DATA_FRAME_FOLLOWS);
+        dos.writeInt(content.length);
+        dos.write(content);
+        dos.write(NO_DATA_FRAME);
+        dos.write(NO_MORE_FLOWFILES);
+
+        dos.writeLong(checksum.getValue());
+        dos.write(COMPLETE_TRANSACTION);
+
+        protocol.receiveFlowFiles(serverInput, serverOutput, "Unit Test", COMPRESSION_CODEC_PROTOCOL_VERSION);
+
+        final byte[] serverResponse = serverOutput.toByteArray();
+        assertEquals(3, serverResponse.length);
+        assertEquals(SPACE_AVAILABLE, serverResponse[0]);
+        assertEquals(CONFIRM_CHECKSUM, serverResponse[1]);
+        assertEquals(CONFIRM_COMPLETE_TRANSACTION, serverResponse[2]);
+
+        assertEquals(1, claimContents.size());
+        assertArrayEquals("hello".getBytes(), claimContents.values().iterator().next());
+
+        assertEquals(1, flowFileQueueReceiveRecords.size());
+        assertEquals("A", flowFileQueueReceiveRecords.get(0).getAttribute("a"));
+    }
+
+    @Test
+    public void testUnknownCompressionCodec() throws IOException {
+        final StandardLoadBalanceProtocol protocol = new StandardLoadBalanceProtocol(flowFileRepo, contentRepo, provenanceRepo, flowController, ALWAYS_AUTHORIZED);
+
+        final PipedInputStream serverInput = new PipedInputStream();
+        final PipedOutputStream serverContentSource = new PipedOutputStream();
+        serverInput.connect(serverContentSource);
+
+        final ByteArrayOutputStream serverOutput = new ByteArrayOutputStream();
+
+        final DataOutputStream dos = new DataOutputStream(serverContentSource);
+        dos.writeUTF("unit-test-connection-id");
+        dos.write(99);
+        dos.write(CHECK_SPACE);
+        dos.close();
+
+        assertThrows(TransactionAbortedException.class, () -> protocol.receiveFlowFiles(serverInput, serverOutput, "Unit Test", COMPRESSION_CODEC_PROTOCOL_VERSION));
+        assertEquals(0, serverOutput.size());
+    }
+
+    private byte[] compress(final byte[] uncompressed) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final OutputStream out = LoadBalanceCompressionCodec.ZSTD.compress(baos)) {
+            out.write(uncompressed);
+        }
+
+        return baos.toByteArray();
+    }
+
     private void writeAttributes(final Map<String, String> attributes, final DataOutputStream dos) throws IOException {
         try (final ByteArrayOutputStream baos = new ByteArrayOutputStream();
              final DataOutputStream out = new DataOutputStream(baos)) {
@@ -2010,6 +2010,39 @@ public class StandardProcessSessionIT {
                 "Queued times should be equal.");
     }
 
+    @Test
+    public void testBatchGetAndTransferAcrossCommits() {
+        for (int i = 0; i < 100; i++) {
+            final FlowFileRecord flowFile = new StandardFlowFileRecord.Builder()
+                    .id(i)
+                    .addAttribute("uuid", "000000000000-0000-0000-0000-0000000" + i)
+                    .build();
+
+            this.flowFileQueue.put(flowFile);
+        }
+
+        final Relationship relationship = new Relationship.Builder().name("A").build();
+        for (int pass = 1; pass <= 3; pass++) {
+            final List<FlowFile> flowFiles = session.get(100);
+            assertEquals(100, flowFiles.size());
+
+            final List<FlowFile> updated = new ArrayList<>(flowFiles.size());
+            for (final FlowFile flowFile : flowFiles) {
+                updated.add(session.putAttribute(flowFile, "pass", String.valueOf(pass)));
+            }
+
+            session.transfer(updated, relationship);
+            session.commit();
+
+            assertEquals(100, flowFileQueue.size().getObjectCount());
+            assertEquals(0, flowFileQueue.getQueueDiagnostics().getLocalQueuePartitionDiagnostics().getUnacknowledgedQueueSize().getObjectCount());
+        }
+
+        final List<FlowFile> flowFiles = session.get(100);
+        assertEquals(100, flowFiles.size());
+        flowFiles.forEach(flowFile -> assertEquals("3", flowFile.getAttribute("pass")));
+    }
+
     @Test
     public void testAttributesModifiedEmitted() throws IOException {
         final FlowFileRecord flowFile = new StandardFlowFileRecord.Builder()
@@ -21,6 +21,7 @@ import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.StandardContentClaim;
 import org.apache.nifi.controller.repository.claim.StandardResourceClaim;
 import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.io.ByteBufferInputStream;
 import org.apache.nifi.controller.repository.util.DiskUtils;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.processor.DataUnit;
@@ -52,6 +53,7 @@ import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -63,6 +65,7 @@ import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -322,6 +325,11 @@ public class TestFileSystemRepository {
         missingContentClaim.setLength(1);
 
         assertThrows(ContentNotFoundException.class, () -> repository.read(missingContentClaim));
+
+        final StandardContentClaim truncatedContentClaim = new StandardContentClaim(resourceClaim, 11);
+        truncatedContentClaim.setLength(1);
+
+        assertThrows(ContentNotFoundException.class, () -> repository.read(truncatedContentClaim));
     }
 
     @Test
@@ -583,6 +591,98 @@ public class TestFileSystemRepository {
         assertArrayEquals(doubleExpected, Files.readAllBytes(outPath));
     }
 
+    @Test
+    public void testExportRangeToFile() throws IOException {
+        final ContentClaim claim = repository.create(true);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write("hello world".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final Path outPath = new File("target/testExportRangeToFile").toPath();
+        Files.deleteIfExists(outPath);
+
+        assertEquals(5, repository.exportTo(claim, outPath, false, 6, 5));
+        assertEquals("world", Files.readString(outPath));
+
+        assertThrows(IOException.class, () -> repository.exportTo(claim, outPath, false, 6, 6));
+    }
+
+    @Test
+    public void testMemoryMappedReads() throws IOException {
+        repository.shutdown();
+
+        final NiFiProperties mappedProperties = NiFiProperties.createBasicNiFiProperties(TestFileSystemRepository.class.getResource("/conf/nifi.properties").getFile(),
+            Map.of(NiFiProperties.CONTENT_REPOSITORY_MEMORY_MAPPED_READS_ENABLED, "true"));
+        repository = new FileSystemRepository(mappedProperties);
+        repository.initialize(new StandardContentRepositoryContext(claimManager, EventReporter.NO_OP));
+
+        final List<ContentClaim> claims = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final ContentClaim claim = repository.create(false);
+            try (final OutputStream out = repository.write(claim)) {
+                out.write(("content " + i).getBytes(StandardCharsets.UTF_8));
+            }
+            claims.add(claim);
+        }
+
+        // Content of a writable Resource Claim may still change, so it must be read through a stream
+        final ContentClaim firstClaim = claims.getFirst();
+        assertTrue(firstClaim.getResourceClaim().isWritable());
+        try (final InputStream in = repository.read(firstClaim)) {
+            assertFalse(in instanceof ByteBufferInputStream);
+        }
+
+        for (final ContentClaim claim : claims) {
+            claimManager.freeze(claim.getResourceClaim());
+        }
+
+        for (int i = 0; i < claims.size(); i++) {
+            try (final InputStream in = repository.read(claims.get(i))) {
+                assertInstanceOf(ByteBufferInputStream.class, in);
+                assertEquals("content " + i, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    public void testMemoryMappedReadsAfterClaimReachesMaxAppendableSize() throws IOException {
+        repository.shutdown();
+
+        final NiFiProperties mappedProperties = NiFiProperties.createBasicNiFiProperties(TestFileSystemRepository.class.getResource("/conf/nifi.properties").getFile(),
+            Map.of(NiFiProperties.CONTENT_REPOSITORY_MEMORY_MAPPED_READS_ENABLED, "true"));
+        repository = new FileSystemRepository(mappedProperties);
+        repository.initialize(new StandardContentRepositoryContext(claimManager, EventReporter.NO_OP));
+
+        // Write to the same Resource Claim until it is frozen because it has reached the max appendable claim size
+        final byte[] content = new byte[100 * 1024];
+        final List<ContentClaim> claims = new ArrayList<>();
+        ResourceClaim resourceClaim = null;
+        for (int i = 0; i < 100 && (resourceClaim == null || resourceClaim.isWritable()); i++) {
+            final ContentClaim claim = repository.create(false);
+            Arrays.fill(content, (byte) i);
+            try (final OutputStream out = repository.write(claim)) {
+                out.write(content);
+            }
+
+            if (resourceClaim == null) {
+                resourceClaim = claim.getResourceClaim();
+            }
+            assertEquals(resourceClaim, claim.getResourceClaim());
+            claims.add(claim);
+        }
+
+        assertFalse(resourceClaim.isWritable());
+        assertTrue(getPath(claims.getFirst()).toFile().length() > DataUnit.parseDataSize(mappedProperties.getMaxAppendableClaimSize(), DataUnit.B).longValue());
+
+        for (int i = 0; i < claims.size(); i++) {
+            Arrays.fill(content, (byte) i);
+            try (final InputStream in = repository.read(claims.get(i))) {
+                assertInstanceOf(ByteBufferInputStream.class, in);
+                assertArrayEquals(content, in.readAllBytes());
+            }
+        }
+    }
+
     @Test
     public void testSize() throws IOException {
         final ContentClaim claim = repository.create(true);
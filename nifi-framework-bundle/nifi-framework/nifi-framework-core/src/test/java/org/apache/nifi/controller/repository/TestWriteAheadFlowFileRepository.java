@@ -76,7 +76,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
@@ -633,9 +633,10 @@ public class TestWriteAheadFlowFileRepository {
         final FlowFileQueue queue = Mockito.mock(FlowFileQueue.class);
         when(queue.getIdentifier()).thenReturn("1234");
         doAnswer((Answer<Object>) invocation -> {
-            flowFileCollection.add((FlowFileRecord) invocation.getArguments()[0]);
+            final Collection<FlowFileRecord> flowFiles = invocation.getArgument(0);
+            flowFileCollection.addAll(flowFiles);
             return null;
-        }).when(queue).put(any(FlowFileRecord.class));
+        }).when(queue).putAll(anyCollection());
 
         when(connection.getFlowFileQueue()).thenReturn(queue);
 
@@ -55,6 +55,7 @@ import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestSchemaSwapSerializerDeserializer {
 
@@ -169,6 +170,72 @@ public class TestSchemaSwapSerializerDeserializer {
         }
     }
 
+    @Test
+    public void testRoundTripCompressedSwapFile() throws IOException {
+        final ResourceClaimManager resourceClaimManager = new StandardResourceClaimManager();
+
+        final List<FlowFileRecord> toSwap = new ArrayList<>(10000);
+        final Map<String, String> attrs = new HashMap<>();
+        long size = 0L;
+        for (int i = 0; i < 10000; i++) {
+            attrs.put("i", String.valueOf(i));
+            final FlowFileRecord ff = new MockFlowFile(attrs, i, resourceClaimManager);
+            toSwap.add(ff);
+            size += i;
+        }
+
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        Mockito.when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final String swapLocation = "target/testRoundTripCompressed.swap";
+        final File swapFile = new File(swapLocation);
+
+        long uncompressedLength = -1L;
+        for (final SwapCompression compression : SwapCompression.values()) {
+            Files.deleteIfExists(swapFile.toPath());
+
+            final SwapSerializer serializer = new SchemaSwapSerializer(compression);
+            try (final OutputStream fos = new FileOutputStream(swapFile);
+                final OutputStream out = new BufferedOutputStream(fos)) {
+                serializer.serializeFlowFiles(toSwap, flowFileQueue, swapLocation, out);
+            }
+
+            if (compression == SwapCompression.NONE) {
+                uncompressedLength = swapFile.length();
+            } else {
+                assertTrue(swapFile.length() < uncompressedLength);
+            }
+
+            // The deserializer must detect whether or not the swap file is compressed, and with which codec
+            final SwapDeserializer deserializer = new SchemaSwapDeserializer();
+            final SwapSummary swapSummary;
+            try (final FileInputStream fis = new FileInputStream(swapFile);
+                final DataInputStream dis = new DataInputStream(fis)) {
+                swapSummary = deserializer.getSwapSummary(dis, swapLocation, resourceClaimManager);
+            }
+
+            assertEquals(10000, swapSummary.getQueueSize().getObjectCount());
+            assertEquals(size, swapSummary.getQueueSize().getByteCount());
+            assertEquals(9999, swapSummary.getMaxFlowFileId().intValue());
+
+            final SwapContents contents;
+            try (final FileInputStream fis = new FileInputStream(swapFile);
+                final InputStream bufferedIn = new BufferedInputStream(fis);
+                final DataInputStream dis = new DataInputStream(bufferedIn)) {
+                contents = deserializer.deserializeFlowFiles(dis, swapLocation, flowFileQueue, resourceClaimManager);
+            }
+
+            assertEquals(10000, contents.getFlowFiles().size());
+
+            int counter = 0;
+            for (final FlowFileRecord flowFile : contents.getFlowFiles()) {
+                final int i = counter++;
+                assertEquals(String.valueOf(i), flowFile.getAttribute("i"));
+                assertEquals(i, flowFile.getSize());
+            }
+        }
+    }
+
     @Test
     @EnabledIfSystemProperty(named = "nifi.test.performance", matches = "true",
             disabledReason = "For manual testing, in order to ensure that changes do not negatively impact performance")
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.controller.ProcessorNode;
+import org.apache.nifi.groups.ProcessGroup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestProvenanceSampler {
+    private MockProvenanceRepository repository;
+
+    @BeforeEach
+    public void setup() {
+        repository = new MockProvenanceRepository();
+    }
+
+    @Test
+    public void testNoneModeUsesUnderlyingRepository() {
+        final ProvenanceSampler sampler = new ProvenanceSampler(repository, ProvenanceSamplingMode.NONE, 0.1D, Map.of(), Map.of(), 60_000L);
+        assertSame(repository, sampler.getRepository(createConnectable("UpdateAttribute", null)));
+    }
+
+    @Test
+    public void testFullRateUsesUnderlyingRepository() {
+        final ProvenanceSampler sampler = new ProvenanceSampler(repository, ProvenanceSamplingMode.SAMPLE, 1.0D, Map.of("LogAttribute", 0.5D), Map.of(), 60_000L);
+        assertSame(repository, sampler.getRepository(createConnectable("UpdateAttribute", null)));
+        assertInstanceOf(SamplingProvenanceEventRepository.class, sampler.getRepository(createConnectable("LogAttribute", null)));
+    }
+
+    @Test
+    public void testSamplingRatePrecedence() {
+        final ProcessGroup parent = createGroup("parent", null);
+        final ProcessGroup child = createGroup("child", parent);
+
+        final ProvenanceSampler sampler = new ProvenanceSampler(repository, ProvenanceSamplingMode.SAMPLE, 0.9D,
+            Map.of("UpdateAttribute", 0.1D, "org.apache.nifi.processors.standard.RouteOnAttribute", 0.2D), Map.of("parent", 0.3D), 60_000L);
+
+        assertEquals(0.1D, sampler.getSamplingRate(createConnectable("UpdateAttribute", child)));
+        assertEquals(0.3D, sampler.getSamplingRate(createConnectable("LogAttribute", child)));
+        assertEquals(0.9D, sampler.getSamplingRate(createConnectable("LogAttribute", null)));
+
+        final ProcessorNode processorNode = mock(ProcessorNode.class);
+        when(processorNode.getComponentType()).thenReturn("RouteOnAttribute");
+        when(processorNode.getCanonicalClassName()).thenReturn("org.apache.nifi.processors.standard.RouteOnAttribute");
+        when(processorNode.getProcessGroup()).thenReturn(child);
+        assertEquals(0.2D, sampler.getSamplingRate(processorNode));
+    }
+
+    @Test
+    public void testInvalidSamplingRate() {
+        assertThrows(IllegalArgumentException.class, () -> new ProvenanceSampler(repository, ProvenanceSamplingMode.SAMPLE, 1.5D, Map.of(), Map.of(), 60_000L));
+        assertThrows(IllegalArgumentException.class, () -> new ProvenanceSampler(repository, ProvenanceSamplingMode.SAMPLE, 1.0D, Map.of("UpdateAttribute", -0.1D), Map.of(), 60_000L));
+    }
+
+    @Test
+    public void testSampledFlowFilesAreConsistentAcrossRates() throws IOException {
+        final ProvenanceSampler sampler = new ProvenanceSampler(repository, ProvenanceSamplingMode.SAMPLE, 1.0D,
+            Map.of("LowRate", 0.25D, "HighRate", 0.5D), Map.of(), 60_000L);
+        final ProvenanceEventRepository lowRateRepository = sampler.getRepository(createConnectable("LowRate", null));
+        final ProvenanceEventRepository highRateRepository = sampler.getRepository(createConnectable("HighRate", null));
+
+        final int flowFileCount = 4000;
+        for (int i = 0; i < flowFileCount; i++) {
+            final String uuid = UUID.randomUUID().toString();
+            lowRateRepository.registerEvents(List.of(createEvent("low", "LowRate", uuid, ProvenanceEventType.ATTRIBUTES_MODIFIED, 10L)));
+            highRateRepository.registerEvent(createEvent("high", "HighRate", uuid, ProvenanceEventType.ATTRIBUTES_MODIFIED, 10L));
+        }
+
+        final Set<String> lowRateUuids = new HashSet<>();
+        final Set<String> highRateUuids = new HashSet<>();
+        for (final ProvenanceEventRecord event : repository.getEvents(0L, flowFileCount * 2)) {
+            if (event.getComponentId().equals("low")) {
+                lowRateUuids.add(event.getFlowFileUuid());
+            } else {
+                highRateUuids.add(event.getFlowFileUuid());
+            }
+        }
+
+        assertTrue(lowRateUuids.size() > flowFileCount * 0.2 && lowRateUuids.size() < flowFileCount * 0.3, "Sampled " + lowRateUuids.size());
+        assertTrue(highRateUuids.size() > flowFileCount * 0.45 && highRateUuids.size() < flowFileCount * 0.55, "Sampled " + highRateUuids.size());
+        assertTrue(highRateUuids.containsAll(lowRateUuids));
+    }
+
+    @Test
+    public void testForkEventWrittenWhenChildSampled() throws IOException {
+        final SamplingProvenanceEventRepository samplingRepository = new SamplingProvenanceEventRepository(repository, 0.5D, null);
+
+        final String parentUuid = findUuid(samplingRepository, false);
+        final String childUuid = findUuid(samplingRepository, true);
+        final ProvenanceEventRecord fork = new StandardProvenanceEventRecord.Builder()
+            .setEventType(ProvenanceEventType.FORK)
+            .setComponentId("split")
+            .setComponentType("SplitText")
+            .setFlowFileUUID(parentUuid)
+            .addParentUuid(parentUuid)
+            .addChildUuid(childUuid)
+            .setCurrentContentClaim(null, null, null, null, 10L)
+            .build();
+
+        samplingRepository.registerEvent(createEvent("split", "SplitText", parentUuid, ProvenanceEventType.ATTRIBUTES_MODIFIED, 10L));
+        samplingRepository.registerEvent(fork);
+
+        final List<ProvenanceEventRecord> events = repository.getEvents(0L, 10);
+        assertEquals(1, events.size());
+        assertEquals(ProvenanceEventType.FORK, events.get(0).getEventType());
+    }
+
+    @Test
+    public void testAggregateModeWritesSummaryEvents() throws IOException {
+        final ProvenanceSampler sampler = new ProvenanceSampler(repository, ProvenanceSamplingMode.AGGREGATE, 0.0D, Map.of(), Map.of(), 60_000L);
+        final ProvenanceEventRepository componentRepository = sampler.getRepository(createConnectable("GetFile", null));
+
+        for (int i = 0; i < 10; i++) {
+            final ProvenanceEventRecord receive = new StandardProvenanceEventRecord.Builder()
+                .setEventType(ProvenanceEventType.RECEIVE)
+                .setComponentId("get-file")
+                .setComponentType("GetFile")
+                .setFlowFileUUID(UUID.randomUUID().toString())
+                .setTransitUri("file:/data/" + i)
+                .setEventTime(1000L + i)
+                .setCurrentContentClaim(null, null, null, null, 100L)
+                .build();
+            componentRepository.registerEvent(receive);
+        }
+        for (int i = 0; i < 5; i++) {
+            componentRepository.registerEvent(createEvent("get-file", "GetFile", UUID.randomUUID().toString(), ProvenanceEventType.DROP, 50L));
+        }
+
+        assertEquals(0, repository.getEvents(0L, 100).size());
+
+        sampler.flush();
+        final List<ProvenanceEventRecord> summaries = repository.getEvents(0L, 100);
+        assertEquals(2, summaries.size());
+
+        final ProvenanceEventRecord receiveSummary = summaries.stream().filter(event -> event.getEventType() == ProvenanceEventType.RECEIVE).findFirst().orElseThrow();
+        assertEquals("get-file", receiveSummary.getComponentId());
+        assertEquals(1000L, receiveSummary.getFileSize());
+        assertEquals(1009L, receiveSummary.getEventTime());
+        assertEquals(9L, receiveSummary.getEventDuration());
+        assertEquals("file:/data/9", receiveSummary.getTransitUri());
+        assertEquals("10", receiveSummary.getAttributes().get(ProvenanceEventAggregator.SUMMARY_EVENT_COUNT_ATTRIBUTE));
+
+        final ProvenanceEventRecord dropSummary = summaries.stream().filter(event -> event.getEventType() == ProvenanceEventType.DROP).findFirst().orElseThrow();
+        assertEquals("5", dropSummary.getAttributes().get(ProvenanceEventAggregator.SUMMARY_EVENT_COUNT_ATTRIBUTE));
+        assertEquals("250", dropSummary.getAttributes().get(ProvenanceEventAggregator.SUMMARY_BYTES_ATTRIBUTE));
+
+        // Nothing has been aggregated since the last flush
+        sampler.flush();
+        assertEquals(2, repository.getEvents(0L, 100).size());
+    }
+
+    private String findUuid(final SamplingProvenanceEventRepository samplingRepository, final boolean sampled) {
+        while (true) {
+            final String uuid = UUID.randomUUID().toString();
+            if (samplingRepository.isSampled(uuid) == sampled) {
+                return uuid;
+            }
+        }
+    }
+
+    private ProvenanceEventRecord createEvent(final String componentId, final String componentType, final String uuid, final ProvenanceEventType eventType, final long size) {
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventType(eventType)
+            .setComponentId(componentId)
+            .setComponentType(componentType)
+            .setFlowFileUUID(uuid)
+            .setEventTime(System.currentTimeMillis())
+            .setCurrentContentClaim(null, null, null, null, size)
+            .build();
+    }
+
+    private Connectable createConnectable(final String componentType, final ProcessGroup group) {
+        final Connectable connectable = mock(Connectable.class);
+        when(connectable.getComponentType()).thenReturn(componentType);
+        when(connectable.getProcessGroup()).thenReturn(group);
+        return connectable;
+    }
+
+    private ProcessGroup createGroup(final String identifier, final ProcessGroup parent) {
+        final ProcessGroup group = mock(ProcessGroup.class);
+        when(group.getIdentifier()).thenReturn(identifier);
+        when(group.getParent()).thenReturn(parent);
+        return group;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>
+ * An immutable Map of FlowFile attributes that is optimized for memory footprint rather than for modification. Keys and values are held
+ * in a single flat array, ordered by the hash code of the key so that lookups can be performed using a binary search. This avoids the
+ * table and per-entry objects that a HashMap requires, which account for most of the heap used by a queued FlowFile.
+ * </p>
+ *
+ * <p>
+ * Attribute keys are shared through a dictionary so that all FlowFiles having, for example, a "filename" attribute reference the same
+ * String. Because the map is immutable, a FlowFile whose attributes are not changed shares the map of the FlowFile it was created from.
+ * Changes to the attributes are made to a HashMap held by {@link StandardFlowFileRecord.Builder}, which is compacted once when the FlowFile is built.
+ * </p>
+ *
+ * <b>Immutable - Thread Safe</b>
+ */
+final class CompactAttributeMap extends AbstractMap<String, String> {
+    // Attribute keys are typically drawn from a small set, but some Processors create keys dynamically. Once the dictionary reaches
+    // this size, additional keys are no longer shared, so that the dictionary cannot grow without bound.
+    static final int MAX_DICTIONARY_SIZE = 8192;
+    private static final Map<String, String> KEY_DICTIONARY = new ConcurrentHashMap<>();
+
+    private static final Comparator<String> KEY_COMPARATOR = CompactAttributeMap::compareKeys;
+
+    static final CompactAttributeMap EMPTY = new CompactAttributeMap(new String[0]);
+
+    // Alternating key and value, with entries ordered by the hash code of the key and then by the key itself
+    private final String[] entries;
+    private Set<Entry<String, String>> entrySet;
+
+    private CompactAttributeMap(final String[] entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Returns a CompactAttributeMap containing the same mappings as the given map. If the given map is already a CompactAttributeMap, it is
+     * returned as-is. Any entry whose key or value is <code>null</code> is ignored.
+     *
+     * @param attributes the attributes to copy
+     * @return a CompactAttributeMap with the same mappings
+     */
+    static CompactAttributeMap copyOf(final Map<String, String> attributes) {
+        if (attributes instanceof CompactAttributeMap) {
+            return (CompactAttributeMap) attributes;
+        }
+        if (attributes == null || attributes.isEmpty()) {
+            return EMPTY;
+        }
+
+        final String[] keys = new String[attributes.size()];
+        int count = 0;
+        for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                keys[count++] = entry.getKey();
+            }
+        }
+
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        Arrays.sort(keys, 0, count, KEY_COMPARATOR);
+
+        final String[] entries = new String[count * 2];
+        for (int i = 0; i < count; i++) {
+            final String key = keys[i];
+            entries[i * 2] = internKey(key);
+            entries[i * 2 + 1] = attributes.get(key);
+        }
+
+        return new CompactAttributeMap(entries);
+    }
+
+    private static String internKey(final String key) {
+        final String existing = KEY_DICTIONARY.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (KEY_DICTIONARY.size() >= MAX_DICTIONARY_SIZE) {
+            return key;
+        }
+
+        final String previous = KEY_DICTIONARY.putIfAbsent(key, key);
+        return previous == null ? key : previous;
+    }
+
+    private static int compareKeys(final String first, final String second) {
+        final int hashComparison = Integer.compare(first.hashCode(), second.hashCode());
+        return hashComparison == 0 ? first.compareTo(second) : hashComparison;
+    }
+
+    /**
+     * @return the index of the given key within the entries array if present; otherwise, <code>-(insertion index) - 1</code>
+     */
+    private int indexOf(final String key) {
+        int low = 0;
+        int high = entries.length / 2 - 1;
+
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final String midKey = entries[mid * 2];
+
+            // Compare references first, as most keys will have been taken from the dictionary
+            if (midKey == key) {
+                return mid * 2;
+            }
+
+            final int comparison = compareKeys(midKey, key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid * 2;
+            }
+        }
+
+        return -(low * 2 + 1);
+    }
+
+    @Override
+    public String get(final Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+
+        final int index = indexOf((String) key);
+        return index >= 0 ? entries[index + 1] : null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key instanceof String && indexOf((String) key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return entries.length / 2;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super String> action) {
+        for (int i = 0; i < entries.length; i += 2) {
+            action.accept(entries[i], entries[i + 1]);
+        }
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, String>> {
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            return new Iterator<>() {
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < entries.length;
+                }
+
+                @Override
+                public Entry<String, String> next() {
+                    if (index >= entries.length) {
+                        throw new NoSuchElementException();
+                    }
+
+                    final Entry<String, String> entry = new SimpleImmutableEntry<>(entries[index], entries[index + 1]);
+                    index += 2;
+                    return entry;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return entries.length / 2;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCompactAttributeMap {
+
+    @Test
+    public void testCopyOfEqualsSource() {
+        final Map<String, String> source = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            source.put("attribute." + i, "value-" + i);
+        }
+
+        final CompactAttributeMap compact = CompactAttributeMap.copyOf(source);
+        assertEquals(source, compact);
+        assertEquals(compact, source);
+        assertEquals(source.hashCode(), compact.hashCode());
+        assertEquals(200, compact.size());
+
+        for (final Map.Entry<String, String> entry : source.entrySet()) {
+            assertTrue(compact.containsKey(entry.getKey()));
+            assertEquals(entry.getValue(), compact.get(entry.getKey()));
+        }
+
+        assertNull(compact.get("attribute.200"));
+        assertNull(compact.get(null));
+        assertFalse(compact.containsKey("attribute.200"));
+    }
+
+    @Test
+    public void testCopyOfIgnoresNullValues() {
+        final Map<String, String> source = new HashMap<>();
+        source.put("a", "1");
+        source.put("b", null);
+
+        final CompactAttributeMap compact = CompactAttributeMap.copyOf(source);
+        assertEquals(Map.of("a", "1"), compact);
+        assertSame(CompactAttributeMap.EMPTY, CompactAttributeMap.copyOf(null));
+        assertSame(compact, CompactAttributeMap.copyOf(compact));
+    }
+
+    @Test
+    public void testBuilderAddsAttributes() {
+        final StandardFlowFileRecord.Builder builder = new StandardFlowFileRecord.Builder();
+        final Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            builder.addAttribute("key" + i, String.valueOf(i));
+            expected.put("key" + i, String.valueOf(i));
+        }
+
+        builder.addAttribute("key0", "replaced");
+        expected.put("key0", "replaced");
+
+        final FlowFileRecord flowFile = builder.build();
+        assertInstanceOf(CompactAttributeMap.class, flowFile.getAttributes());
+        assertEquals(expected, flowFile.getAttributes());
+        for (final Map.Entry<String, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), flowFile.getAttribute(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testKeysShared() {
+        final String key = new String("shared.key".toCharArray());
+        final CompactAttributeMap first = CompactAttributeMap.copyOf(Map.of(key, "1"));
+        final CompactAttributeMap second = CompactAttributeMap.copyOf(Map.of(new String("shared.key".toCharArray()), "2"));
+
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+    }
+
+    @Test
+    public void testImmutable() {
+        final CompactAttributeMap compact = CompactAttributeMap.copyOf(Map.of("a", "1"));
+        assertThrows(UnsupportedOperationException.class, () -> compact.put("b", "2"));
+        assertThrows(UnsupportedOperationException.class, () -> compact.remove("a"));
+        assertThrows(UnsupportedOperationException.class, compact::clear);
+        assertThrows(UnsupportedOperationException.class, () -> compact.entrySet().iterator().next().setValue("2"));
+    }
+
+    @Test
+    public void testFlowFileAttributesSharedWhenUnmodified() {
+        final FlowFileRecord original = new StandardFlowFileRecord.Builder()
+            .addAttribute("uuid", "11111111-1111-1111-1111-111111111111")
+            .addAttribute("filename", "file.txt")
+            .build();
+
+        final FlowFileRecord penalized = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(original)
+            .penaltyExpirationTime(System.currentTimeMillis() + 1000L)
+            .build();
+        assertSame(original.getAttributes(), penalized.getAttributes());
+
+        final FlowFileRecord updated = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(original)
+            .addAttribute("path", "./")
+            .build();
+        assertEquals("./", updated.getAttribute("path"));
+        assertEquals("file.txt", updated.getAttribute("filename"));
+        assertNull(original.getAttribute("path"));
+    }
+}